@@ -32,6 +32,7 @@ import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.env.Environment;
 import org.opensearch.env.NodeEnvironment;
+import org.opensearch.index.IndexModule;
 import org.opensearch.index.IndexSettings;
 import org.opensearch.index.codec.CodecServiceFactory;
 import org.opensearch.index.engine.EngineFactory;
@@ -52,6 +53,12 @@ import org.opensearch.rest.RestController;
 import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptService;
 import org.opensearch.securityanalytics.action.*;
+import org.opensearch.securityanalytics.correlation.CorrelationCandidateStreamer;
+import org.opensearch.securityanalytics.correlation.CorrelationCounterService;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleRegistry;
+import org.opensearch.securityanalytics.correlation.CorrelationScoreTimestampService;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.correlation.RecentCorrelationsOverlay;
 import org.opensearch.securityanalytics.correlation.index.codec.CorrelationCodecService;
 import org.opensearch.securityanalytics.correlation.index.mapper.CorrelationVectorFieldMapper;
 import org.opensearch.securityanalytics.correlation.index.query.CorrelationQueryBuilder;
@@ -60,6 +67,7 @@ import org.opensearch.securityanalytics.logtype.BuiltinLogTypeLoader;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.mapper.IndexTemplateManager;
 import org.opensearch.securityanalytics.mapper.MapperService;
+import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.model.CustomLogType;
 import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
 import org.opensearch.securityanalytics.resthandler.*;
@@ -78,11 +86,14 @@ import org.opensearch.securityanalytics.model.Rule;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.DetectorInput;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CompiledRuleCache;
 import org.opensearch.securityanalytics.util.CorrelationIndices;
 import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
 import org.opensearch.securityanalytics.util.CustomLogTypeIndices;
+import org.opensearch.securityanalytics.util.DetectorCache;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.RuleIndices;
+import org.opensearch.securityanalytics.util.RulePropagationService;
 import org.opensearch.securityanalytics.util.RuleTopicIndices;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.watcher.ResourceWatcherService;
@@ -103,6 +114,7 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
     public static final String FINDINGS_CORRELATE_URI = FINDINGS_BASE_URI + "/correlate";
     public static final String LIST_CORRELATIONS_URI = PLUGINS_BASE_URI + "/correlations";
     public static final String CORRELATION_RULES_BASE_URI = PLUGINS_BASE_URI + "/correlation/rules";
+    public static final String STATS_URI = PLUGINS_BASE_URI + "/stats";
 
     public static final String CUSTOM_LOG_TYPE_URI = PLUGINS_BASE_URI + "/logtype";
     public static final String JOB_INDEX_NAME = ".opensearch-sap--job";
@@ -129,6 +141,11 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
     private BuiltinLogTypeLoader builtinLogTypeLoader;
 
     private LogTypeService logTypeService;
+
+    private DetectorCache detectorCache;
+
+    private CorrelationRuleRegistry correlationRuleRegistry;
+
     @Override
     public Collection<SystemIndexDescriptor> getSystemIndexDescriptors(Settings settings){
         return Collections.singletonList(new SystemIndexDescriptor(THREAT_INTEL_DATA_INDEX_NAME_PREFIX, "System index used for threat intel data"));
@@ -153,24 +170,35 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         BuiltInTIFMetadataLoader builtInTIFMetadataLoader = new BuiltInTIFMetadataLoader();
         logTypeService = new LogTypeService(client, clusterService, xContentRegistry, builtinLogTypeLoader);
         detectorIndices = new DetectorIndices(client.admin(), clusterService, threadPool);
+        detectorCache = new DetectorCache(clusterService);
+        CompiledRuleCache compiledRuleCache = new CompiledRuleCache(clusterService);
+        RulePropagationService rulePropagationService = new RulePropagationService(client, clusterService, xContentRegistry, namedWriteableRegistry, detectorCache);
+        CorrelationSearchBatcher correlationSearchBatcher = new CorrelationSearchBatcher(client, clusterService, threadPool);
+        CorrelationCandidateStreamer correlationCandidateStreamer = new CorrelationCandidateStreamer(client, clusterService, correlationSearchBatcher);
+        correlationRuleRegistry = new CorrelationRuleRegistry(client, clusterService, xContentRegistry);
+        RecentCorrelationsOverlay recentCorrelationsOverlay = new RecentCorrelationsOverlay(clusterService);
+        CorrelationCounterService correlationCounterService = new CorrelationCounterService(client, clusterService);
+        CorrelationScoreTimestampService correlationScoreTimestampService = new CorrelationScoreTimestampService(client, clusterService);
         ruleTopicIndices = new RuleTopicIndices(client, clusterService, logTypeService);
         correlationIndices = new CorrelationIndices(client, clusterService);
         customLogTypeIndices = new CustomLogTypeIndices(client.admin(), clusterService);
         indexTemplateManager = new IndexTemplateManager(client, clusterService, indexNameExpressionResolver, xContentRegistry);
         mapperService = new MapperService(client, clusterService, indexNameExpressionResolver, indexTemplateManager, logTypeService);
         ruleIndices = new RuleIndices(logTypeService, client, clusterService, threadPool);
+        // compile the prepackaged rules ahead of the first detector, which imports them
+        ruleIndices.precompileRules(ActionListener.wrap(rules -> {}, e -> log.warn("Failed to precompile prepackaged rules", e)));
         correlationRuleIndices = new CorrelationRuleIndices(client, clusterService);
         ThreatIntelFeedDataService threatIntelFeedDataService = new ThreatIntelFeedDataService(clusterService, client, indexNameExpressionResolver, xContentRegistry);
-        DetectorThreatIntelService detectorThreatIntelService = new DetectorThreatIntelService(threatIntelFeedDataService, client, xContentRegistry);
+        DetectorThreatIntelService detectorThreatIntelService = new DetectorThreatIntelService(threatIntelFeedDataService, logTypeService, client, xContentRegistry, namedWriteableRegistry);
         TIFJobParameterService tifJobParameterService = new TIFJobParameterService(client, clusterService);
-        TIFJobUpdateService tifJobUpdateService = new TIFJobUpdateService(clusterService, tifJobParameterService, threatIntelFeedDataService, builtInTIFMetadataLoader);
+        TIFJobUpdateService tifJobUpdateService = new TIFJobUpdateService(clusterService, threadPool, tifJobParameterService, threatIntelFeedDataService, builtInTIFMetadataLoader);
         TIFLockService threatIntelLockService = new TIFLockService(clusterService, client);
 
         TIFJobRunner.getJobRunnerInstance().initialize(clusterService, tifJobUpdateService, tifJobParameterService, threatIntelLockService, threadPool, detectorThreatIntelService);
 
         return List.of(
-                detectorIndices, correlationIndices, correlationRuleIndices, ruleTopicIndices, customLogTypeIndices, ruleIndices,
-                mapperService, indexTemplateManager, builtinLogTypeLoader, builtInTIFMetadataLoader, threatIntelFeedDataService, detectorThreatIntelService,
+                detectorIndices, detectorCache, compiledRuleCache, rulePropagationService, correlationSearchBatcher, correlationCandidateStreamer, correlationRuleRegistry, recentCorrelationsOverlay, correlationCounterService, correlationScoreTimestampService, correlationIndices, correlationRuleIndices, ruleTopicIndices, customLogTypeIndices, ruleIndices,
+                mapperService, indexTemplateManager, builtinLogTypeLoader, logTypeService, builtInTIFMetadataLoader, threatIntelFeedDataService, detectorThreatIntelService,
                 tifJobUpdateService, tifJobParameterService, threatIntelLockService);
     }
 
@@ -204,6 +232,8 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 new RestDeleteRuleAction(),
                 new RestValidateRulesAction(),
                 new RestGetAllRuleCategoriesAction(),
+                new RestGetRulePropagationStatusAction(),
+                new RestSecurityAnalyticsStatsAction(),
                 new RestSearchCorrelationAction(),
                 new RestIndexCorrelationRuleAction(),
                 new RestDeleteCorrelationRuleAction(),
@@ -254,6 +284,17 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         );
     }
 
+    @Override
+    public void onIndexModule(IndexModule indexModule) {
+        if (Detector.DETECTORS_INDEX.equals(indexModule.getIndex().getName()) && detectorCache != null) {
+            indexModule.addIndexOperationListener(detectorCache);
+        } else if (LogTypeService.LOG_TYPE_INDEX.equals(indexModule.getIndex().getName()) && logTypeService != null) {
+            indexModule.addIndexOperationListener(logTypeService);
+        } else if (CorrelationRule.CORRELATION_RULE_INDEX.equals(indexModule.getIndex().getName()) && correlationRuleRegistry != null) {
+            indexModule.addIndexOperationListener(correlationRuleRegistry);
+        }
+    }
+
     @Override
     public Optional<EngineFactory> getEngineFactory(IndexSettings indexSettings) {
         return Optional.empty();
@@ -297,10 +338,29 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 SecurityAnalyticsSettings.CORRELATION_TIME_WINDOW,
                 SecurityAnalyticsSettings.ENABLE_AUTO_CORRELATIONS,
                 SecurityAnalyticsSettings.DEFAULT_MAPPING_SCHEMA,
+                SecurityAnalyticsSettings.DETECTOR_CACHE_MAX_SIZE,
+                SecurityAnalyticsSettings.DETECTOR_CACHE_EXPIRE_AFTER_WRITE,
+                SecurityAnalyticsSettings.CORRELATION_RULE_REGISTRY_EXPIRE_AFTER_WRITE,
+                SecurityAnalyticsSettings.COMPILED_RULE_CACHE_MAX_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_LATENCY,
+                SecurityAnalyticsSettings.CORRELATION_CANDIDATE_PAGE_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_MAX_CANDIDATES_PER_FINDING,
+                SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY,
+                SecurityAnalyticsSettings.CORRELATION_OVERLAY_MAX_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_OVERLAY_EXPIRE_AFTER_WRITE,
+                SecurityAnalyticsSettings.CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL,
+                SecurityAnalyticsSettings.CORRELATION_SCORE_TIMESTAMP_REFRESH_INTERVAL,
+                SecurityAnalyticsSettings.RULE_IMPORT_BULK_SIZE,
+                SecurityAnalyticsSettings.RULE_IMPORT_MAX_CONCURRENT_BULKS,
+                SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_CONCURRENT_UPDATES,
+                SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_RETRIES,
                 SecurityAnalyticsSettings.ENABLE_WORKFLOW_USAGE,
                 SecurityAnalyticsSettings.TIF_UPDATE_INTERVAL,
                 SecurityAnalyticsSettings.BATCH_SIZE,
-                SecurityAnalyticsSettings.THREAT_INTEL_TIMEOUT
+                SecurityAnalyticsSettings.THREAT_INTEL_TIMEOUT,
+                SecurityAnalyticsSettings.TIF_MAX_CONCURRENT_BULKS,
+                SecurityAnalyticsSettings.TIF_FEED_URL
         );
     }
 
@@ -323,6 +383,8 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 new ActionPlugin.ActionHandler<>(DeleteRuleAction.INSTANCE, TransportDeleteRuleAction.class),
                 new ActionPlugin.ActionHandler<>(ValidateRulesAction.INSTANCE, TransportValidateRulesAction.class),
                 new ActionPlugin.ActionHandler<>(GetAllRuleCategoriesAction.INSTANCE, TransportGetAllRuleCategoriesAction.class),
+                new ActionPlugin.ActionHandler<>(GetRulePropagationStatusAction.INSTANCE, TransportGetRulePropagationStatusAction.class),
+                new ActionPlugin.ActionHandler<>(SecurityAnalyticsStatsAction.INSTANCE, TransportSecurityAnalyticsStatsAction.class),
                 new ActionPlugin.ActionHandler<>(CorrelatedFindingAction.INSTANCE, TransportSearchCorrelationAction.class),
                 new ActionPlugin.ActionHandler<>(IndexCorrelationRuleAction.INSTANCE, TransportIndexCorrelationRuleAction.class),
                 new ActionPlugin.ActionHandler<>(DeleteCorrelationRuleAction.INSTANCE, TransportDeleteCorrelationRuleAction.class),
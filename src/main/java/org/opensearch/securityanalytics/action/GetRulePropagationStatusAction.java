@@ -0,0 +1,17 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.ActionType;
+
+public class GetRulePropagationStatusAction extends ActionType<GetRulePropagationStatusResponse> {
+
+    public static final GetRulePropagationStatusAction INSTANCE = new GetRulePropagationStatusAction();
+    public static final String NAME = "cluster:admin/opensearch/securityanalytics/rules/propagation";
+
+    public GetRulePropagationStatusAction() {
+        super(NAME, GetRulePropagationStatusResponse::new);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * Request for the rule propagation jobs of all nodes, optionally of a single rule.
+ */
+public class GetRulePropagationStatusRequest extends BaseNodesRequest<GetRulePropagationStatusRequest> {
+
+    private final String ruleId;
+
+    public GetRulePropagationStatusRequest(String ruleId) {
+        super(new String[0]);
+        this.ruleId = ruleId;
+    }
+
+    public GetRulePropagationStatusRequest(StreamInput sin) throws IOException {
+        super(sin);
+        this.ruleId = sin.readOptionalString();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeOptionalString(ruleId);
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.model.RulePropagationJob;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class GetRulePropagationStatusResponse extends BaseNodesResponse<GetRulePropagationStatusResponse.NodeResponse> implements ToXContentObject {
+
+    private static final String JOBS_FIELD = "jobs";
+    private static final String NODE_ID_FIELD = "node_id";
+    private static final String FAILURES_FIELD = "failures";
+
+    public GetRulePropagationStatusResponse(ClusterName clusterName, List<NodeResponse> nodes, List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    public GetRulePropagationStatusResponse(StreamInput sin) throws IOException {
+        super(sin);
+    }
+
+    @Override
+    protected List<NodeResponse> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(NodeResponse::new);
+    }
+
+    @Override
+    protected void writeNodesTo(StreamOutput out, List<NodeResponse> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    /**
+     * Jobs of all nodes with the id of the node running them, most recent first.
+     */
+    public List<Map.Entry<String, RulePropagationJob>> getJobs() {
+        return getNodes().stream()
+                .flatMap(node -> node.getJobs().stream().map(job -> Map.entry(node.getNode().getId(), job)))
+                .sorted(Comparator.comparing((Map.Entry<String, RulePropagationJob> entry) -> entry.getValue().getStartTime()).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.startArray(JOBS_FIELD);
+        for (Map.Entry<String, RulePropagationJob> job: getJobs()) {
+            builder.startObject();
+            builder.field(NODE_ID_FIELD, job.getKey());
+            job.getValue().innerToXContent(builder);
+            builder.endObject();
+        }
+        builder.endArray();
+        if (hasFailures()) {
+            builder.startArray(FAILURES_FIELD);
+            for (FailedNodeException failure: failures()) {
+                builder.startObject();
+                failure.toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endArray();
+        }
+        return builder.endObject();
+    }
+
+    public static class NodeResponse extends BaseNodeResponse {
+
+        private final List<RulePropagationJob> jobs;
+
+        public NodeResponse(DiscoveryNode node, List<RulePropagationJob> jobs) {
+            super(node);
+            this.jobs = jobs;
+        }
+
+        public NodeResponse(StreamInput sin) throws IOException {
+            super(sin);
+            this.jobs = sin.readList(RulePropagationJob::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeList(jobs);
+        }
+
+        public List<RulePropagationJob> getJobs() {
+            return jobs;
+        }
+    }
+}
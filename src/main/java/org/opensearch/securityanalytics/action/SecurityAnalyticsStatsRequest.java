@@ -0,0 +1,24 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ * Request for the node-level stats of the security analytics plugin, of all nodes or of the given nodes.
+ */
+public class SecurityAnalyticsStatsRequest extends BaseNodesRequest<SecurityAnalyticsStatsRequest> {
+
+    public SecurityAnalyticsStatsRequest(String... nodesIds) {
+        super(nodesIds);
+    }
+
+    public SecurityAnalyticsStatsRequest(StreamInput sin) throws IOException {
+        super(sin);
+    }
+}
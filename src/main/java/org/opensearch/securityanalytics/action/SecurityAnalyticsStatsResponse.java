@@ -0,0 +1,118 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.util.DetectorCache;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class SecurityAnalyticsStatsResponse extends BaseNodesResponse<SecurityAnalyticsStatsResponse.NodeResponse> implements ToXContentObject {
+
+    private static final String NODES_FIELD = "nodes";
+    private static final String NAME_FIELD = "name";
+    private static final String DETECTOR_CACHE_FIELD = "detector_cache";
+    private static final String CORRELATION_SEARCH_STAGES_FIELD = "correlation_search_stages";
+    private static final String FAILURES_FIELD = "failures";
+
+    public SecurityAnalyticsStatsResponse(ClusterName clusterName, List<NodeResponse> nodes, List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    public SecurityAnalyticsStatsResponse(StreamInput sin) throws IOException {
+        super(sin);
+    }
+
+    @Override
+    protected List<NodeResponse> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(NodeResponse::new);
+    }
+
+    @Override
+    protected void writeNodesTo(StreamOutput out, List<NodeResponse> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.startObject(NODES_FIELD);
+        for (NodeResponse node: getNodes()) {
+            builder.startObject(node.getNode().getId());
+            builder.field(NAME_FIELD, node.getNode().getName());
+            node.innerToXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        if (hasFailures()) {
+            builder.startArray(FAILURES_FIELD);
+            for (FailedNodeException failure: failures()) {
+                builder.startObject();
+                failure.toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endArray();
+        }
+        return builder.endObject();
+    }
+
+    public static class NodeResponse extends BaseNodeResponse {
+
+        private final DetectorCache.Stats detectorCache;
+
+        private final Map<CorrelationSearchBatcher.Stage, CorrelationSearchBatcher.StageStats> correlationSearchStages;
+
+        public NodeResponse(DiscoveryNode node, DetectorCache.Stats detectorCache,
+                            Map<CorrelationSearchBatcher.Stage, CorrelationSearchBatcher.StageStats> correlationSearchStages) {
+            super(node);
+            this.detectorCache = detectorCache;
+            this.correlationSearchStages = correlationSearchStages;
+        }
+
+        public NodeResponse(StreamInput sin) throws IOException {
+            super(sin);
+            this.detectorCache = new DetectorCache.Stats(sin);
+            this.correlationSearchStages = sin.readMap(in -> in.readEnum(CorrelationSearchBatcher.Stage.class), CorrelationSearchBatcher.StageStats::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            detectorCache.writeTo(out);
+            out.writeMap(correlationSearchStages, StreamOutput::writeEnum, (o, stats) -> stats.writeTo(o));
+        }
+
+        void innerToXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field(DETECTOR_CACHE_FIELD);
+            detectorCache.toXContent(builder, params);
+            builder.startObject(CORRELATION_SEARCH_STAGES_FIELD);
+            for (Map.Entry<CorrelationSearchBatcher.Stage, CorrelationSearchBatcher.StageStats> stage: correlationSearchStages.entrySet()) {
+                builder.field(stage.getKey().name().toLowerCase(Locale.ROOT));
+                stage.getValue().toXContent(builder, params);
+            }
+            builder.endObject();
+        }
+
+        public DetectorCache.Stats getDetectorCache() {
+            return detectorCache;
+        }
+
+        public Map<CorrelationSearchBatcher.Stage, CorrelationSearchBatcher.StageStats> getCorrelationSearchStages() {
+            return correlationSearchStages;
+        }
+    }
+}
@@ -25,6 +25,14 @@ public class DetectorMonitorConfig {
         return String.format(Locale.getDefault(), ".opensearch-sap-%s-detectors-queries", logType);
     }
 
+    /**
+     * Query index of the threat intel monitors of the given log type, kept apart from the rule query index so IOC queries
+     * are not percolated together with the rule queries. It is still covered by the rule query index template.
+     */
+    public static String getThreatIntelRuleIndex(String logType) {
+        return getRuleIndex(logType) + "-threat-intel";
+    }
+
     public static String getAlertsIndex(String logType) {
         return String.format(Locale.getDefault(), ".opensearch-sap-%s-alerts", logType);
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.securityanalytics.model.CorrelationQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Join criteria of all correlation rules matched by a finding against the docs of one log category.
+ *
+ * Query joins are kept as query strings. Field joins are kept as typed join values, deduplicated per field and query,
+ * and are turned into {@code terms} queries on the field, chunked so that no single query exceeds the max terms count
+ * of an index. A field mapped as {@code text} in the log indices is joined on its {@code keyword} sub-field, or with
+ * {@code match_phrase} queries if it has none, since the analyzed terms of a text field never equal a raw join value.
+ */
+public class CategoryJoin {
+
+    static final int JOIN_TERMS_CHUNK_SIZE = 10000;
+
+    static final int JOIN_PHRASES_CHUNK_SIZE = 1000;
+
+    private final Set<String> indices = new LinkedHashSet<>();
+
+    private final Set<String> queryJoins = new LinkedHashSet<>();
+
+    /**
+     * Join values by field and optional query of the field join
+     */
+    private final Map<Pair<String, String>, Set<Object>> fieldJoins = new LinkedHashMap<>();
+
+    /**
+     * Mapping types of the joined fields and their sub-fields in the log indices, by full field name
+     */
+    private Map<String, String> fieldTypes = Map.of();
+
+    void addQueryJoin(CorrelationQuery query) {
+        indices.add(query.getIndex());
+        queryJoins.add(query.getQuery());
+    }
+
+    void addFieldJoin(CorrelationQuery query, Collection<Object> joinValues) {
+        indices.add(query.getIndex());
+        fieldJoins.computeIfAbsent(Pair.of(query.getField(), query.getQuery()), k -> new LinkedHashSet<>()).addAll(joinValues);
+    }
+
+    List<String> getIndices() {
+        return new ArrayList<>(indices);
+    }
+
+    Set<String> getJoinFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        for (Pair<String, String> fieldJoin: fieldJoins.keySet()) {
+            fields.add(fieldJoin.getLeft());
+        }
+        return fields;
+    }
+
+    void setFieldTypes(Map<String, String> fieldTypes) {
+        this.fieldTypes = fieldTypes;
+    }
+
+    /**
+     * @return one query per query join and per joined field, a doc of the category has to match one of them
+     */
+    List<QueryBuilder> toQueries() {
+        List<QueryBuilder> queries = new ArrayList<>();
+        for (String query: queryJoins) {
+            queries.add(QueryBuilders.queryStringQuery(query));
+        }
+        for (Map.Entry<Pair<String, String>, Set<Object>> fieldJoin: fieldJoins.entrySet()) {
+            String field = fieldJoin.getKey().getLeft();
+            String query = fieldJoin.getKey().getRight();
+            if ("text".equals(fieldTypes.get(field))) {
+                Optional<String> keywordField = keywordField(field);
+                queries.add(keywordField.isPresent() ? fieldJoinQuery(keywordField.get(), fieldJoin.getValue(), query) :
+                        textJoinQuery(field, fieldJoin.getValue(), query));
+            } else {
+                queries.add(fieldJoinQuery(field, fieldJoin.getValue(), query));
+            }
+        }
+        return queries;
+    }
+
+    private Optional<String> keywordField(String field) {
+        if ("keyword".equals(fieldTypes.get(field + ".keyword"))) {
+            return Optional.of(field + ".keyword");
+        }
+        return fieldTypes.entrySet().stream()
+                .filter(it -> it.getKey().startsWith(field + ".") && "keyword".equals(it.getValue()))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .findFirst();
+    }
+
+    /**
+     * @return query matching docs whose field has one of the join values and which match the optional query
+     */
+    public static QueryBuilder fieldJoinQuery(String field, Collection<Object> joinValues, String query) {
+        List<Object> values = new ArrayList<>(joinValues);
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
+        for (int from = 0; from < values.size(); from += JOIN_TERMS_CHUNK_SIZE) {
+            queryBuilder.should(QueryBuilders.termsQuery(field, values.subList(from, Math.min(from + JOIN_TERMS_CHUNK_SIZE, values.size()))));
+        }
+        queryBuilder.minimumShouldMatch(1);
+        if (query != null) {
+            queryBuilder.filter(QueryBuilders.queryStringQuery(query));
+        }
+        return queryBuilder;
+    }
+
+    /**
+     * @return query matching docs whose analyzed text field contains one of the join values as a phrase and which match
+     * the optional query
+     */
+    static QueryBuilder textJoinQuery(String field, Collection<Object> joinValues, String query) {
+        List<Object> values = new ArrayList<>(joinValues);
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
+        for (int from = 0; from < values.size(); from += JOIN_PHRASES_CHUNK_SIZE) {
+            BoolQueryBuilder chunk = QueryBuilders.boolQuery().minimumShouldMatch(1);
+            for (Object value: values.subList(from, Math.min(from + JOIN_PHRASES_CHUNK_SIZE, values.size()))) {
+                chunk.should(QueryBuilders.matchPhraseQuery(field, value));
+            }
+            queryBuilder.should(chunk);
+        }
+        queryBuilder.minimumShouldMatch(1);
+        if (query != null) {
+            queryBuilder.filter(QueryBuilders.queryStringQuery(query));
+        }
+        return queryBuilder;
+    }
+}
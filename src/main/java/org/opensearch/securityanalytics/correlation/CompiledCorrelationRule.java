@@ -0,0 +1,90 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.securityanalytics.model.CorrelationQuery;
+import org.opensearch.securityanalytics.model.CorrelationRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Correlation rule with its queries split up front into field joins, which correlate on the value of a field, and query
+ * joins, which correlate on a query only, and indexed by log category.
+ */
+public class CompiledCorrelationRule {
+
+    private final CorrelationRule correlationRule;
+
+    private final Map<String, CorrelationQuery> queriesByCategory;
+
+    private final List<CorrelationQuery> fieldJoins;
+
+    private final List<CorrelationQuery> queryJoins;
+
+    public CompiledCorrelationRule(CorrelationRule correlationRule) {
+        this.correlationRule = correlationRule;
+
+        Map<String, CorrelationQuery> queriesByCategory = new LinkedHashMap<>();
+        List<CorrelationQuery> fieldJoins = new ArrayList<>();
+        List<CorrelationQuery> queryJoins = new ArrayList<>();
+        for (CorrelationQuery query: correlationRule.getCorrelationQueries()) {
+            // the first query of a category is the one matched against the findings of the category
+            queriesByCategory.putIfAbsent(query.getCategory(), query);
+            if (query.getField() != null) {
+                fieldJoins.add(query);
+            } else {
+                queryJoins.add(query);
+            }
+        }
+        this.queriesByCategory = Collections.unmodifiableMap(queriesByCategory);
+        this.fieldJoins = Collections.unmodifiableList(fieldJoins);
+        this.queryJoins = Collections.unmodifiableList(queryJoins);
+    }
+
+    public CorrelationRule getCorrelationRule() {
+        return correlationRule;
+    }
+
+    public String getId() {
+        return correlationRule.getId();
+    }
+
+    public Long getCorrTimeWindow() {
+        return correlationRule.getCorrTimeWindow();
+    }
+
+    /**
+     * @return the log categories the rule correlates
+     */
+    public Set<String> getCategories() {
+        return queriesByCategory.keySet();
+    }
+
+    /**
+     * @return the query of the rule for the given log category or null
+     */
+    public CorrelationQuery getQuery(String category) {
+        return queriesByCategory.get(category);
+    }
+
+    /**
+     * @return the queries joining on a field value
+     */
+    public List<CorrelationQuery> getFieldJoins() {
+        return fieldJoins;
+    }
+
+    /**
+     * @return the queries joining on a query only
+     */
+    public List<CorrelationQuery> getQueryJoins() {
+        return queryJoins;
+    }
+}
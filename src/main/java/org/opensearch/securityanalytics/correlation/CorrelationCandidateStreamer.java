@@ -0,0 +1,267 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.FieldSortBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the hits of the searches of a correlation stage to the stage page by page, so that busy correlation time
+ * windows are neither truncated at a fixed search size nor shipped through the coordinating node in one response.
+ *
+ * The first page of every search is sent through the {@link CorrelationSearchBatcher}. Searches whose first page is full
+ * and whose consumer asks for more are then re-read, one after another, with a scroll sorted by {@code _doc}, and each
+ * page is handed to the consumer before the next one is fetched. Since the scroll starts over, the hits of the first page
+ * are skipped while scrolling, they are neither charged again nor handed to the consumer a second time. Every hit handed
+ * to a consumer is charged to the {@link Budget} of the finding being correlated; once the budget is used up, streaming
+ * stops and the remaining candidates are dropped.
+ */
+public class CorrelationCandidateStreamer {
+
+    private static final Logger log = LogManager.getLogger(CorrelationCandidateStreamer.class);
+
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    /**
+     * Consumer of the hits of the searches of a multi-search, called on the thread completing the search.
+     */
+    @FunctionalInterface
+    public interface PageConsumer {
+        /**
+         * @param item index of the search in the multi-search
+         * @param hits next hits of the search, possibly empty
+         * @return false if the consumer has seen enough hits of the search
+         */
+        boolean onPage(int item, SearchHit[] hits);
+    }
+
+    private final Client client;
+
+    private final CorrelationSearchBatcher correlationSearchBatcher;
+
+    private volatile int pageSize;
+
+    private volatile int maxCandidatesPerFinding;
+
+    public CorrelationCandidateStreamer(Client client, ClusterService clusterService, CorrelationSearchBatcher correlationSearchBatcher) {
+        this.client = client;
+        this.correlationSearchBatcher = correlationSearchBatcher;
+
+        this.pageSize = SecurityAnalyticsSettings.CORRELATION_CANDIDATE_PAGE_SIZE.get(clusterService.getSettings());
+        this.maxCandidatesPerFinding = SecurityAnalyticsSettings.CORRELATION_MAX_CANDIDATES_PER_FINDING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_CANDIDATE_PAGE_SIZE, it -> pageSize = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_MAX_CANDIDATES_PER_FINDING, it -> maxCandidatesPerFinding = it);
+    }
+
+    /**
+     * @return the size of the searches of the correlation stages
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return a new candidate budget for correlating the given finding
+     */
+    public Budget newBudget(String findingId) {
+        return newBudget(findingId, maxCandidatesPerFinding);
+    }
+
+    /**
+     * @return a new candidate budget of the given size for correlating the given finding
+     */
+    public Budget newBudget(String findingId, int maxCandidates) {
+        return new Budget(findingId, maxCandidates);
+    }
+
+    /**
+     * Streams the hits of all searches of the given stage to the consumer, the listener is completed once all searches
+     * are exhausted, stopped by the consumer or cut off by the budget. A failed search is logged and skipped, its
+     * consumer is never called.
+     */
+    public void multiSearch(CorrelationSearchBatcher.Stage stage, MultiSearchRequest request, Budget budget, PageConsumer consumer,
+                            ActionListener<Void> listener) {
+        correlationSearchBatcher.multiSearch(stage, request, ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            MultiSearchResponse.Item[] items = response.getResponses();
+            List<Integer> remainingItems = new ArrayList<>();
+            Map<Integer, Set<String>> consumedHits = new HashMap<>();
+
+            for (int item = 0; item < items.length; ++item) {
+                if (items[item].isFailure()) {
+                    log.info(items[item].getFailureMessage());
+                    continue;
+                }
+                SearchHit[] hits = items[item].getResponse().getHits().getHits();
+                boolean more = consume(item, hits, budget, consumer);
+                if (more && hits.length >= request.requests().get(item).source().size()) {
+                    remainingItems.add(item);
+                    consumedHits.put(item, hitKeys(hits));
+                }
+            }
+            scrollRemaining(request, remainingItems.iterator(), consumedHits, budget, consumer, delegatedListener);
+        }));
+    }
+
+    private void scrollRemaining(MultiSearchRequest request, Iterator<Integer> remainingItems, Map<Integer, Set<String>> consumedHits,
+                                 Budget budget, PageConsumer consumer, ActionListener<Void> listener) {
+        if (remainingItems.hasNext() == false || budget.isExhausted()) {
+            listener.onResponse(null);
+            return;
+        }
+        int item = remainingItems.next();
+        SearchRequest searchRequest = request.requests().get(item);
+        ActionListener<Void> nextListener = ActionListener.wrap(
+                r -> scrollRemaining(request, remainingItems, consumedHits, budget, consumer, listener),
+                e -> {
+                    log.warn(() -> new ParameterizedMessage("Failed to stream the candidates of correlation search [{}]", item), e);
+                    scrollRemaining(request, remainingItems, consumedHits, budget, consumer, listener);
+                }
+        );
+
+        int pageSize = this.pageSize;
+        Set<String> skippedHits = consumedHits.remove(item);
+        SearchSourceBuilder source = searchRequest.source().shallowCopy()
+                .size(pageSize)
+                .sort(FieldSortBuilder.DOC_FIELD_NAME);
+        SearchRequest scrollRequest = new SearchRequest(searchRequest.indices())
+                .source(source)
+                .indicesOptions(searchRequest.indicesOptions())
+                .preference(searchRequest.preference())
+                .scroll(SCROLL_KEEP_ALIVE);
+        try (ThreadContext.StoredContext ignored = client.threadPool().getThreadContext().stashContext()) {
+            client.search(scrollRequest, ActionListener.delegateFailure(nextListener, (delegatedListener, response) ->
+                    readScrollPage(item, pageSize, skippedHits, response, budget, consumer, delegatedListener)));
+        }
+    }
+
+    private void readScrollPage(int item, int pageSize, Set<String> skippedHits, SearchResponse response, Budget budget, PageConsumer consumer,
+                                ActionListener<Void> listener) {
+        SearchHit[] hits = response.getHits().getHits();
+        SearchHit[] newHits = skippedHits.isEmpty() ? hits : Arrays.stream(hits)
+                .filter(hit -> skippedHits.remove(hitKey(hit)) == false)
+                .toArray(SearchHit[]::new);
+        // a page holding only hits of the first page is not handed to the consumer
+        boolean more = newHits.length == 0 && hits.length > 0 || consume(item, newHits, budget, consumer);
+
+        String scrollId = response.getScrollId();
+        if (more == false || hits.length < pageSize || scrollId == null) {
+            clearScroll(scrollId);
+            listener.onResponse(null);
+            return;
+        }
+        try (ThreadContext.StoredContext ignored = client.threadPool().getThreadContext().stashContext()) {
+            client.searchScroll(new SearchScrollRequest(scrollId).scroll(SCROLL_KEEP_ALIVE), ActionListener.wrap(
+                    nextResponse -> readScrollPage(item, pageSize, skippedHits, nextResponse, budget, consumer, listener),
+                    e -> {
+                        clearScroll(scrollId);
+                        listener.onFailure(e);
+                    }
+            ));
+        }
+    }
+
+    private static boolean consume(int item, SearchHit[] hits, Budget budget, PageConsumer consumer) {
+        int granted = budget.take(hits.length);
+        if (granted < hits.length) {
+            hits = Arrays.copyOf(hits, granted);
+        }
+        boolean more = consumer.onPage(item, hits);
+        return more && budget.isExhausted() == false;
+    }
+
+    private static Set<String> hitKeys(SearchHit[] hits) {
+        Set<String> keys = new HashSet<>();
+        for (SearchHit hit : hits) {
+            keys.add(hitKey(hit));
+        }
+        return keys;
+    }
+
+    private static String hitKey(SearchHit hit) {
+        return hit.getIndex() + "/" + hit.getId();
+    }
+
+    private void clearScroll(String scrollId) {
+        if (scrollId == null) {
+            return;
+        }
+        ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+        clearScrollRequest.addScrollId(scrollId);
+        try (ThreadContext.StoredContext ignored = client.threadPool().getThreadContext().stashContext()) {
+            client.clearScroll(clearScrollRequest, ActionListener.wrap(
+                    r -> log.debug("Cleared scroll of correlation candidates"),
+                    e -> log.warn("Failed to clear scroll of correlation candidates", e)
+            ));
+        }
+    }
+
+    /**
+     * Number of candidate hits left for the correlation of one finding, shared by all its correlation stages.
+     */
+    public static class Budget {
+
+        private final String findingId;
+
+        private final AtomicInteger remaining;
+
+        private final AtomicBoolean exhausted = new AtomicBoolean();
+
+        Budget(String findingId, int maxCandidates) {
+            this.findingId = findingId;
+            this.remaining = new AtomicInteger(maxCandidates);
+        }
+
+        /**
+         * Takes up to {@code candidates} from the budget and returns the number taken.
+         */
+        int take(int candidates) {
+            while (true) {
+                int current = remaining.get();
+                int granted = Math.min(current, candidates);
+                if (remaining.compareAndSet(current, current - granted)) {
+                    if (granted < candidates && exhausted.compareAndSet(false, true)) {
+                        log.warn("Correlation of finding [{}] exceeded its candidate budget, remaining candidates are dropped", findingId);
+                    }
+                    return granted;
+                }
+            }
+        }
+
+        public int getRemaining() {
+            return remaining.get();
+        }
+
+        public boolean isExhausted() {
+            return remaining.get() == 0;
+        }
+    }
+}
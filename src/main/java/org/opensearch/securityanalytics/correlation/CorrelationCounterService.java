@@ -0,0 +1,193 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Node-level access to the root counter of the correlation vector space, stored as the {@code root: true} document of
+ * {@link CorrelationIndices#CORRELATION_METADATA_INDEX}.
+ *
+ * The counter is re-read at most every {@link SecurityAnalyticsSettings#CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL}.
+ * A concurrent update from another finding or node fails with a {@link VersionConflictEngineException} and the caller
+ * re-evaluates against the new counter.
+ *
+ * When an orphan finding collides with an existing correlation, the node leases the next {@link #COUNTER_LEASE_SIZE}
+ * counters with a single update of the root counter and hands them out to its following collisions, so that the root
+ * counter document is only rewritten once per lease.
+ */
+public class CorrelationCounterService extends CorrelationMetadataDocService<CorrelationCounterService.RootCounter> {
+
+    /**
+     * Distance between the counters of two orphan findings
+     */
+    public static final long COUNTER_STEP = 50L;
+
+    /**
+     * Number of counters leased at once by a node
+     */
+    static final int COUNTER_LEASE_SIZE = 16;
+
+    private final Object leaseMutex = new Object();
+
+    private CounterLease lease;
+
+    public CorrelationCounterService(Client client, ClusterService clusterService) {
+        super(client, clusterService, SecurityAnalyticsSettings.CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL, "Root counter");
+    }
+
+    /**
+     * Returns the root counter, re-reading it from the metadata index if the node-local copy is older than the refresh interval.
+     */
+    public void getRootCounter(ActionListener<RootCounter> listener) {
+        load(listener);
+    }
+
+    /**
+     * Sets the root counter to {@code counter} & {@code timestamp} if it was not changed since {@code expected} was read.
+     * Fails with a {@link VersionConflictEngineException} otherwise.
+     */
+    public void updateRootCounter(RootCounter expected, long counter, long timestamp, ActionListener<RootCounter> listener) {
+        try {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            builder.field("root", true);
+            builder.field("counter", counter);
+            builder.field("finding1", "");
+            builder.field("finding2", "");
+            builder.field("logType", "");
+            builder.field("timestamp", timestamp);
+            builder.field("scoreTimestamp", 0L);
+            builder.endObject();
+
+            compareAndSet(expected, builder, ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+                RootCounter updated = new RootCounter(expected.getId(), counter, timestamp, response.getSeqNo(), response.getPrimaryTerm());
+                onDoc(updated);
+                delegatedListener.onResponse(updated);
+            }));
+        } catch (IOException ex) {
+            listener.onFailure(ex);
+        }
+    }
+
+    /**
+     * @return the counter for the next orphan finding of this node: the current counter of its lease while the lease is
+     * valid for the finding, the root counter otherwise
+     */
+    public long getCounter(RootCounter rootCounter, long findingTimestamp, long timeWindow) {
+        synchronized (leaseMutex) {
+            if (lease != null && lease.isValid(rootCounter, findingTimestamp, timeWindow)) {
+                return lease.counter;
+            }
+        }
+        return rootCounter.getCounter();
+    }
+
+    /**
+     * Moves this node past {@code counter}, which collides with an existing correlation, and returns the counter for the
+     * orphan finding. The next counter of the lease of this node is taken without writing the root counter. Without a
+     * valid lease, or once it is used up, the next {@link #COUNTER_LEASE_SIZE} counters past both the root counter and
+     * {@code counter} are leased by moving the root counter past them, which fails with a
+     * {@link VersionConflictEngineException} if the root counter was changed since {@code rootCounter} was read.
+     */
+    public void nextCounter(RootCounter rootCounter, long counter, long findingTimestamp, long timeWindow, ActionListener<Long> listener) {
+        Long leasedCounter = null;
+        synchronized (leaseMutex) {
+            if (lease != null && lease.isValid(rootCounter, findingTimestamp, timeWindow)) {
+                if (lease.counter > counter) {
+                    // another finding of this node already moved past the counter
+                    leasedCounter = lease.counter;
+                } else if (lease.counter + COUNTER_STEP < lease.end) {
+                    lease = new CounterLease(lease.counter + COUNTER_STEP, lease.end, lease.timestamp);
+                    leasedCounter = lease.counter;
+                }
+            }
+        }
+        if (leasedCounter != null) {
+            listener.onResponse(leasedCounter);
+            return;
+        }
+
+        long from = Math.max(rootCounter.getCounter(), counter);
+        long end = from + COUNTER_STEP * COUNTER_LEASE_SIZE;
+        updateRootCounter(rootCounter, end, findingTimestamp, ActionListener.delegateFailure(listener, (delegatedListener, updated) -> {
+            synchronized (leaseMutex) {
+                lease = new CounterLease(from + COUNTER_STEP, end, findingTimestamp);
+            }
+            delegatedListener.onResponse(from + COUNTER_STEP);
+        }));
+    }
+
+    @Override
+    protected QueryBuilder idQuery() {
+        return QueryBuilders.matchQuery("root", true);
+    }
+
+    @Override
+    protected RootCounter parse(String id, Map<String, Object> source, long seqNo, long primaryTerm) {
+        return new RootCounter(
+                id,
+                Long.parseLong(source.get("counter").toString()),
+                Long.parseLong(source.get("timestamp").toString()),
+                seqNo,
+                primaryTerm
+        );
+    }
+
+    /**
+     * Point-in-time copy of the root counter document.
+     */
+    public static class RootCounter extends MetadataDoc {
+        private final long counter;
+        private final long timestamp;
+
+        public RootCounter(String id, long counter, long timestamp, long seqNo, long primaryTerm) {
+            super(id, seqNo, primaryTerm);
+            this.counter = counter;
+            this.timestamp = timestamp;
+        }
+
+        public long getCounter() {
+            return counter;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    /**
+     * Counters leased by this node, from its current counter up to but excluding end, where the root counter was moved to.
+     */
+    private static class CounterLease {
+        private final long counter;
+        private final long end;
+        private final long timestamp;
+
+        CounterLease(long counter, long end, long timestamp) {
+            this.counter = counter;
+            this.end = end;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * A lease is dropped once the root counter was reset below it or the correlation time window it was taken in has passed.
+         */
+        boolean isValid(RootCounter rootCounter, long findingTimestamp, long timeWindow) {
+            return rootCounter.getCounter() >= end && findingTimestamp - timestamp <= timeWindow;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.routing.Preference;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Node-level access to a single document of {@link CorrelationIndices#CORRELATION_METADATA_INDEX}.
+ *
+ * The document is served from a node-local copy which is re-read at most every refresh interval with a realtime get by
+ * id, so readers neither search the metadata index nor need the document to be refreshed. The id is looked up once by
+ * {@link #idQuery()} and again if the metadata index was re-created. Updates are compare-and-set on the seq_no &
+ * primary_term of the document; a concurrent update from another finding or node fails with a
+ * {@link VersionConflictEngineException} and drops the node-local copy, so the caller re-reads the document.
+ */
+public abstract class CorrelationMetadataDocService<T extends CorrelationMetadataDocService.MetadataDoc> {
+
+    private static final Logger log = LogManager.getLogger(CorrelationMetadataDocService.class);
+
+    protected final Client client;
+
+    private final String name;
+
+    private volatile TimeValue indexTimeout;
+
+    private volatile TimeValue refreshInterval;
+
+    private volatile String docId;
+
+    private volatile T doc;
+
+    private volatile long docLoadedAtNanos;
+
+    protected CorrelationMetadataDocService(Client client, ClusterService clusterService, Setting<TimeValue> refreshIntervalSetting, String name) {
+        this.client = client;
+        this.name = name;
+
+        this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(clusterService.getSettings());
+        this.refreshInterval = refreshIntervalSetting.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.INDEX_TIMEOUT, it -> indexTimeout = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(refreshIntervalSetting, it -> refreshInterval = it);
+    }
+
+    /**
+     * @return query matching the metadata document, used to look up its id
+     */
+    protected abstract QueryBuilder idQuery();
+
+    /**
+     * @return point-in-time copy of the metadata document read from its source
+     */
+    protected abstract T parse(String id, Map<String, Object> source, long seqNo, long primaryTerm);
+
+    /**
+     * Returns the metadata document, re-reading it from the metadata index if the node-local copy is older than the refresh interval.
+     */
+    protected void load(ActionListener<T> listener) {
+        T current = doc;
+        if (current != null && System.nanoTime() - docLoadedAtNanos < refreshInterval.nanos()) {
+            listener.onResponse(current);
+            return;
+        }
+
+        String id = docId;
+        if (id != null) {
+            get(id, listener);
+        } else {
+            searchId(ActionListener.delegateFailure(listener, (delegatedListener, newId) -> get(newId, delegatedListener)));
+        }
+    }
+
+    /**
+     * Replaces the metadata document with {@code source} if it was not changed since {@code expected} was read. Fails with a
+     * {@link VersionConflictEngineException} otherwise, after dropping the node-local copy.
+     */
+    protected void compareAndSet(T expected, XContentBuilder source, ActionListener<IndexResponse> listener) {
+        IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
+                .id(expected.getId())
+                .source(source)
+                .timeout(indexTimeout)
+                .setIfSeqNo(expected.getSeqNo())
+                .setIfPrimaryTerm(expected.getPrimaryTerm());
+
+        client.index(indexRequest, ActionListener.wrap(listener::onResponse, e -> {
+            if (isUpdateConflict(e)) {
+                log.debug("{} of correlations was updated concurrently, reloading it", name);
+                invalidate();
+            }
+            listener.onFailure(e);
+        }));
+    }
+
+    public static boolean isUpdateConflict(Exception e) {
+        return ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException;
+    }
+
+    /**
+     * Drops the node-local copy of the metadata document, the next read gets the document again.
+     */
+    public void invalidate() {
+        doc = null;
+    }
+
+    /**
+     * Keeps {@code loaded} as the node-local copy unless a newer version of the document is already held.
+     */
+    protected synchronized void onDoc(T loaded) {
+        docId = loaded.getId();
+        T current = doc;
+        if (current == null || !current.getId().equals(loaded.getId()) || current.getPrimaryTerm() < loaded.getPrimaryTerm() ||
+                (current.getPrimaryTerm() == loaded.getPrimaryTerm() && current.getSeqNo() <= loaded.getSeqNo())) {
+            doc = loaded;
+            docLoadedAtNanos = System.nanoTime();
+        }
+    }
+
+    private void get(String id, ActionListener<T> listener) {
+        client.get(new GetRequest(CorrelationIndices.CORRELATION_METADATA_INDEX, id), ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            if (!response.isExists()) {
+                // metadata index was re-created, look up the new document
+                invalidate();
+                docId = null;
+                searchId(ActionListener.delegateFailure(delegatedListener, (l, newId) -> {
+                    if (newId.equals(id)) {
+                        l.onFailure(notFound());
+                    } else {
+                        get(newId, l);
+                    }
+                }));
+                return;
+            }
+
+            T loaded = parse(id, response.getSourceAsMap(), response.getSeqNo(), response.getPrimaryTerm());
+            onDoc(loaded);
+            delegatedListener.onResponse(loaded);
+        }));
+    }
+
+    private void searchId(ActionListener<String> listener) {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(idQuery());
+        searchSourceBuilder.fetchSource(false);
+        searchSourceBuilder.size(1);
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.preference(Preference.PRIMARY_FIRST.type());
+
+        client.search(searchRequest, ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length == 0) {
+                delegatedListener.onFailure(notFound());
+            } else {
+                delegatedListener.onResponse(hits[0].getId());
+            }
+        }));
+    }
+
+    private OpenSearchStatusException notFound() {
+        return new OpenSearchStatusException(String.format(Locale.ROOT, "%s of correlations not found", name), RestStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Point-in-time copy of a metadata document.
+     */
+    public static class MetadataDoc {
+        private final String id;
+        private final long seqNo;
+        private final long primaryTerm;
+
+        protected MetadataDoc(String id, long seqNo, long primaryTerm) {
+            this.id = id;
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getSeqNo() {
+            return seqNo;
+        }
+
+        public long getPrimaryTerm() {
+            return primaryTerm;
+        }
+    }
+}
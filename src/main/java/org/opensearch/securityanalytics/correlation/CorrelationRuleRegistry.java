@@ -0,0 +1,272 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.routing.Preference;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.LoggingDeprecationHandler;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.index.engine.Engine;
+import org.opensearch.index.shard.IndexingOperationListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.FieldSortBuilder;
+import org.opensearch.securityanalytics.model.CorrelationRule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local registry of all correlation rules, compiled and grouped by the log categories they correlate, so that
+ * correlating a finding does not need to search & re-parse the correlation rules.
+ *
+ * The registry is loaded from the correlation rules config index on first use, reading all the rules page by page,
+ * and sharing one load between all concurrent callers. It is dropped when a correlation rule is indexed or deleted
+ * through this node, when a rule doc is written on a local shard of the correlation rules config index and when the
+ * index is created, deleted or re-created. It is additionally re-read after
+ * {@link SecurityAnalyticsSettings#CORRELATION_RULE_REGISTRY_EXPIRE_AFTER_WRITE} so that updates coordinated by other
+ * nodes become visible.
+ */
+public class CorrelationRuleRegistry implements ClusterStateListener, IndexingOperationListener {
+
+    private static final Logger log = LogManager.getLogger(CorrelationRuleRegistry.class);
+
+    static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final TimeValue LOAD_SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private final Client client;
+
+    private final ClusterService clusterService;
+
+    private final NamedXContentRegistry xContentRegistry;
+
+    private final long expireAfterWriteNanos;
+
+    /**
+     * Loaded rules, null until first loaded or after an invalidation
+     */
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final List<ActionListener<Map<String, List<CompiledCorrelationRule>>>> pendingListeners = new ArrayList<>();
+
+    private volatile String ruleIndexUuid;
+
+    public CorrelationRuleRegistry(Client client, ClusterService clusterService, NamedXContentRegistry xContentRegistry) {
+        this.client = client;
+        this.clusterService = clusterService;
+        this.xContentRegistry = xContentRegistry;
+        this.expireAfterWriteNanos = SecurityAnalyticsSettings.CORRELATION_RULE_REGISTRY_EXPIRE_AFTER_WRITE.get(clusterService.getSettings()).nanos();
+        clusterService.addListener(this);
+    }
+
+    /**
+     * Returns the correlation rules correlating the given log category. The listener is completed on the calling thread
+     * when the registry is already loaded.
+     */
+    public void getRules(String category, ActionListener<List<CompiledCorrelationRule>> listener) {
+        getRulesByCategory(ActionListener.delegateFailure(listener, (delegatedListener, rulesByCategory) ->
+                delegatedListener.onResponse(rulesByCategory.getOrDefault(category.toLowerCase(Locale.ROOT), List.of()))));
+    }
+
+    private void getRulesByCategory(ActionListener<Map<String, List<CompiledCorrelationRule>>> listener) {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot != null && System.nanoTime() - snapshot.loadTimeNanos < expireAfterWriteNanos) {
+            listener.onResponse(snapshot.rulesByCategory);
+            return;
+        }
+
+        boolean startLoad;
+        synchronized (pendingListeners) {
+            startLoad = pendingListeners.isEmpty();
+            pendingListeners.add(listener);
+        }
+        if (startLoad) {
+            load();
+        }
+    }
+
+    /**
+     * Drops the loaded rules, the next call to {@link #getRules(String, ActionListener)} re-reads the correlation rules
+     * config index.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private void load() {
+        long generation = this.generation.get();
+        long loadTimeNanos = System.nanoTime();
+        ActionListener<Map<String, List<CompiledCorrelationRule>>> loadListener = ActionListener.wrap(rulesByCategory -> {
+            if (generation == this.generation.get()) {
+                snapshot = new Snapshot(rulesByCategory, loadTimeNanos);
+            }
+            completePendingListeners(rulesByCategory, null);
+        }, e -> {
+            log.error("Failed loading correlation rules", e);
+            completePendingListeners(null, e);
+        });
+
+        if (clusterService.state().metadata().hasIndex(CorrelationRule.CORRELATION_RULE_INDEX) == false) {
+            loadListener.onResponse(Map.of());
+            return;
+        }
+        // writes to the rules index invalidate the registry before they are visible to search
+        client.admin().indices().refresh(new RefreshRequest(CorrelationRule.CORRELATION_RULE_INDEX), ActionListener.wrap(
+                refreshResponse -> searchRules(loadListener),
+                e -> searchRules(loadListener)
+        ));
+    }
+
+    private void searchRules(ActionListener<Map<String, List<CompiledCorrelationRule>>> listener) {
+        SearchRequest searchRequest = new SearchRequest(CorrelationRule.CORRELATION_RULE_INDEX)
+                .source(new SearchSourceBuilder()
+                        .size(LOAD_PAGE_SIZE)
+                        .sort(FieldSortBuilder.DOC_FIELD_NAME)
+                        .version(true)
+                        .fetchSource(true))
+                .scroll(LOAD_SCROLL_KEEP_ALIVE)
+                .preference(Preference.PRIMARY_FIRST.type());
+        client.search(searchRequest, ActionListener.delegateFailure(listener, (delegatedListener, response) ->
+                readRulesPage(response, new ArrayList<>(), delegatedListener)));
+    }
+
+    private void readRulesPage(SearchResponse response, List<CorrelationRule> rules,
+                               ActionListener<Map<String, List<CompiledCorrelationRule>>> listener) {
+        SearchHit[] hits = response.getHits().getHits();
+        for (SearchHit hit: hits) {
+            try {
+                XContentParser xcp = XContentType.JSON.xContent().createParser(
+                        xContentRegistry,
+                        LoggingDeprecationHandler.INSTANCE, hit.getSourceAsString()
+                );
+                rules.add(CorrelationRule.parse(xcp, hit.getId(), hit.getVersion()));
+            } catch (IOException e) {
+                log.error(() -> new ParameterizedMessage("Failed to parse correlation rule {}", hit.getId()), e);
+            }
+        }
+
+        String scrollId = response.getScrollId();
+        if (hits.length < LOAD_PAGE_SIZE || scrollId == null) {
+            clearScroll(scrollId);
+            listener.onResponse(groupByCategory(rules));
+            return;
+        }
+        client.searchScroll(new SearchScrollRequest(scrollId).scroll(LOAD_SCROLL_KEEP_ALIVE), ActionListener.wrap(
+                nextResponse -> readRulesPage(nextResponse, rules, listener),
+                e -> {
+                    clearScroll(scrollId);
+                    listener.onFailure(e);
+                }
+        ));
+    }
+
+    private void clearScroll(String scrollId) {
+        if (scrollId == null) {
+            return;
+        }
+        ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+        clearScrollRequest.addScrollId(scrollId);
+        client.clearScroll(clearScrollRequest, ActionListener.wrap(
+                r -> log.debug("Cleared scroll of correlation rules load"),
+                e -> log.warn("Failed to clear scroll of correlation rules load", e)
+        ));
+    }
+
+    /**
+     * Compiles the rules and lists each of them under every log category it correlates.
+     */
+    static Map<String, List<CompiledCorrelationRule>> groupByCategory(List<CorrelationRule> rules) {
+        Map<String, List<CompiledCorrelationRule>> rulesByCategory = new HashMap<>();
+        for (CorrelationRule rule: rules) {
+            CompiledCorrelationRule compiledRule = new CompiledCorrelationRule(rule);
+            for (String category: compiledRule.getCategories()) {
+                rulesByCategory.computeIfAbsent(category.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(compiledRule);
+            }
+        }
+        rulesByCategory.replaceAll((category, categoryRules) -> Collections.unmodifiableList(categoryRules));
+        return Collections.unmodifiableMap(rulesByCategory);
+    }
+
+    private void completePendingListeners(Map<String, List<CompiledCorrelationRule>> rulesByCategory, Exception e) {
+        List<ActionListener<Map<String, List<CompiledCorrelationRule>>>> listeners;
+        synchronized (pendingListeners) {
+            listeners = new ArrayList<>(pendingListeners);
+            pendingListeners.clear();
+        }
+        for (ActionListener<Map<String, List<CompiledCorrelationRule>>> listener: listeners) {
+            if (e != null) {
+                listener.onFailure(e);
+            } else {
+                listener.onResponse(rulesByCategory);
+            }
+        }
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        IndexMetadata indexMetadata = event.state().metadata().index(CorrelationRule.CORRELATION_RULE_INDEX);
+        String indexUuid = indexMetadata != null ? indexMetadata.getIndexUUID() : null;
+
+        if (Objects.equals(ruleIndexUuid, indexUuid) == false) {
+            log.debug("Correlation rules config index was created, deleted or re-created, invalidating correlation rule registry");
+            invalidate();
+        }
+        ruleIndexUuid = indexUuid;
+    }
+
+    @Override
+    public void postIndex(ShardId shardId, Engine.Index index, Engine.IndexResult result) {
+        if (CorrelationRule.CORRELATION_RULE_INDEX.equals(shardId.getIndexName())) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void postDelete(ShardId shardId, Engine.Delete delete, Engine.DeleteResult result) {
+        if (CorrelationRule.CORRELATION_RULE_INDEX.equals(shardId.getIndexName())) {
+            invalidate();
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<String, List<CompiledCorrelationRule>> rulesByCategory;
+
+        private final long loadTimeNanos;
+
+        private Snapshot(Map<String, List<CompiledCorrelationRule>> rulesByCategory, long loadTimeNanos) {
+            this.rulesByCategory = rulesByCategory;
+            this.loadTimeNanos = loadTimeNanos;
+        }
+    }
+}
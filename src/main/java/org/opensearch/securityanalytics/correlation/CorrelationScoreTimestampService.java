@@ -0,0 +1,105 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Node-level cache of the scoreTimestamp epoch of the correlation vector space, stored as the document of
+ * {@link CorrelationIndices#CORRELATION_METADATA_INDEX} with a non-zero scoreTimestamp. The timestamp feature of a
+ * correlation vector is the number of seconds between the finding and this epoch.
+ *
+ * The epoch only moves every {@link CorrelationIndices#FIXED_HISTORICAL_INTERVAL}, so it is served from memory and
+ * re-read at most every {@link SecurityAnalyticsSettings#CORRELATION_SCORE_TIMESTAMP_REFRESH_INTERVAL}.
+ */
+public class CorrelationScoreTimestampService extends CorrelationMetadataDocService<CorrelationScoreTimestampService.ScoreTimestamp> {
+
+    private static final Logger log = LogManager.getLogger(CorrelationScoreTimestampService.class);
+
+    public CorrelationScoreTimestampService(Client client, ClusterService clusterService) {
+        super(client, clusterService, SecurityAnalyticsSettings.CORRELATION_SCORE_TIMESTAMP_REFRESH_INTERVAL, "scoreTimestamp");
+    }
+
+    /**
+     * Returns the current scoreTimestamp epoch.
+     */
+    public void getScoreTimestamp(ActionListener<Long> listener) {
+        load(ActionListener.delegateFailure(listener, (l, scoreTimestamp) -> l.onResponse(scoreTimestamp.getTimestamp())));
+    }
+
+    /**
+     * Returns the scoreTimestamp epoch to compute the timestamp feature of a finding, first moving the epoch forward if the
+     * finding is more than {@link CorrelationIndices#FIXED_HISTORICAL_INTERVAL} ahead of it.
+     */
+    public void getScoreTimestamp(long findingTimestamp, ActionListener<Long> listener) {
+        load(ActionListener.delegateFailure(listener, (l, scoreTimestamp) -> {
+            if (findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL > scoreTimestamp.getTimestamp()) {
+                advanceScoreTimestamp(scoreTimestamp, findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL, l);
+            } else {
+                l.onResponse(scoreTimestamp.getTimestamp());
+            }
+        }));
+    }
+
+    private void advanceScoreTimestamp(ScoreTimestamp expected, long timestamp, ActionListener<Long> listener) {
+        try {
+            XContentBuilder scoreBuilder = XContentFactory.jsonBuilder().startObject();
+            scoreBuilder.field("scoreTimestamp", timestamp);
+            scoreBuilder.field("root", false);
+            scoreBuilder.endObject();
+
+            compareAndSet(expected, scoreBuilder, ActionListener.wrap(response -> {
+                onDoc(new ScoreTimestamp(expected.getId(), timestamp, response.getSeqNo(), response.getPrimaryTerm()));
+                listener.onResponse(timestamp);
+            }, e -> {
+                if (isUpdateConflict(e)) {
+                    // advanced concurrently by another finding or node
+                    log.debug("Reading scoreTimestamp advanced by another finding");
+                    getScoreTimestamp(listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+        } catch (IOException ex) {
+            listener.onFailure(ex);
+        }
+    }
+
+    @Override
+    protected QueryBuilder idQuery() {
+        return QueryBuilders.boolQuery().mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
+    }
+
+    @Override
+    protected ScoreTimestamp parse(String id, Map<String, Object> source, long seqNo, long primaryTerm) {
+        return new ScoreTimestamp(id, Long.parseLong(source.get("scoreTimestamp").toString()), seqNo, primaryTerm);
+    }
+
+    static class ScoreTimestamp extends MetadataDoc {
+        private final long timestamp;
+
+        ScoreTimestamp(String id, long timestamp, long seqNo, long primaryTerm) {
+            super(id, seqNo, primaryTerm);
+            this.timestamp = timestamp;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
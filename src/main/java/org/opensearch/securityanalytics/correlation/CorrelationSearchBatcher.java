@@ -0,0 +1,343 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-level micro-batching of the searches issued by the finding correlation pipeline.
+ *
+ * Findings published in a burst walk through the same stages (detector lookup, auto correlations, valid documents,
+ * findings by timestamp, docs with filter keys) at roughly the same time. Searches submitted for a
+ * stage are held for at most {@link SecurityAnalyticsSettings#CORRELATION_BATCH_MAX_LATENCY} or until
+ * {@link SecurityAnalyticsSettings#CORRELATION_BATCH_MAX_SIZE} searches are pending, and are then sent as one
+ * multi-search. Responses are split back to the submitting findings in submission order, and each finding continues on
+ * the generic thread pool so that the findings of a batch do not run one after another on the response thread.
+ * Throughput of every stage is counted and reported by the security analytics stats API.
+ */
+public class CorrelationSearchBatcher {
+
+    private static final Logger log = LogManager.getLogger(CorrelationSearchBatcher.class);
+
+    public enum Stage {
+        DETECTOR,
+        AUTO_CORRELATIONS,
+        VALID_DOCUMENTS,
+        FINDINGS_BY_TIMESTAMP,
+        DOCS_WITH_FILTER_KEYS
+    }
+
+    private final Client client;
+
+    private final ThreadPool threadPool;
+
+    private final Map<Stage, StageQueue> queues;
+
+    private final Map<Stage, StageCounters> counters;
+
+    private volatile int maxBatchSize;
+
+    private volatile TimeValue maxBatchLatency;
+
+    public CorrelationSearchBatcher(Client client, ClusterService clusterService, ThreadPool threadPool) {
+        this.client = client;
+        this.threadPool = threadPool;
+
+        Map<Stage, StageQueue> queues = new EnumMap<>(Stage.class);
+        Map<Stage, StageCounters> counters = new EnumMap<>(Stage.class);
+        for (Stage stage: Stage.values()) {
+            queues.put(stage, new StageQueue(stage));
+            counters.put(stage, new StageCounters());
+        }
+        this.queues = Collections.unmodifiableMap(queues);
+        this.counters = Collections.unmodifiableMap(counters);
+
+        this.maxBatchSize = SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_SIZE.get(clusterService.getSettings());
+        this.maxBatchLatency = SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_LATENCY.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_SIZE, it -> maxBatchSize = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_LATENCY, it -> maxBatchLatency = it);
+    }
+
+    /**
+     * Submits a single search of the given stage. A failed search is reported through {@link ActionListener#onFailure(Exception)}.
+     */
+    public void search(Stage stage, SearchRequest request, ActionListener<SearchResponse> listener) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        mSearchRequest.add(request);
+
+        multiSearch(stage, mSearchRequest, ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            MultiSearchResponse.Item item = response.getResponses()[0];
+            if (item.isFailure()) {
+                delegatedListener.onFailure(item.getFailure());
+            } else {
+                delegatedListener.onResponse(item.getResponse());
+            }
+        }));
+    }
+
+    /**
+     * Submits a multi-search of the given stage. The listener receives exactly one item per search of {@code request}.
+     */
+    public void multiSearch(Stage stage, MultiSearchRequest request, ActionListener<MultiSearchResponse> listener) {
+        if (request.requests().isEmpty()) {
+            listener.onResponse(new MultiSearchResponse(new MultiSearchResponse.Item[0], 0L));
+            return;
+        }
+        counters.get(stage).submitted.incrementAndGet();
+
+        TimeValue maxBatchLatency = this.maxBatchLatency;
+        if (maxBatchLatency.millis() == 0L) {
+            execute(stage, List.of(new PendingSearch(request, listener)));
+            return;
+        }
+
+        StageQueue queue = queues.get(stage);
+        List<PendingSearch> batch = null;
+        boolean scheduleFlush = false;
+        synchronized (queue) {
+            queue.pending.add(new PendingSearch(request, listener));
+            queue.pendingSearches += request.requests().size();
+
+            if (queue.pendingSearches >= maxBatchSize) {
+                batch = queue.drain();
+            } else if (!queue.flushScheduled) {
+                queue.flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        if (batch != null) {
+            execute(stage, batch);
+        } else if (scheduleFlush) {
+            threadPool.schedule(() -> flush(queue), maxBatchLatency, ThreadPool.Names.GENERIC);
+        }
+    }
+
+    private void flush(StageQueue queue) {
+        List<PendingSearch> batch;
+        synchronized (queue) {
+            batch = queue.drain();
+        }
+        if (!batch.isEmpty()) {
+            execute(queue.stage, batch);
+        }
+    }
+
+    private void execute(Stage stage, List<PendingSearch> batch) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (PendingSearch pendingSearch: batch) {
+            for (SearchRequest searchRequest: pendingSearch.request.requests()) {
+                mSearchRequest.add(searchRequest);
+            }
+        }
+
+        StageCounters stageCounters = counters.get(stage);
+        stageCounters.batches.incrementAndGet();
+        stageCounters.searches.addAndGet(mSearchRequest.requests().size());
+        long startTime = System.nanoTime();
+
+        try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+            client.multiSearch(mSearchRequest, new ActionListener<>() {
+                @Override
+                public void onResponse(MultiSearchResponse response) {
+                    stageCounters.onCompletion(batch.size(), startTime);
+                    MultiSearchResponse.Item[] items = response.getResponses();
+
+                    int offset = 0;
+                    for (PendingSearch pendingSearch: batch) {
+                        int size = pendingSearch.request.requests().size();
+                        MultiSearchResponse.Item[] pendingItems = Arrays.copyOfRange(items, offset, offset + size);
+                        offset += size;
+
+                        fork(stage, () -> pendingSearch.listener.onResponse(new MultiSearchResponse(pendingItems, response.getTook().millis())));
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    stageCounters.failures.incrementAndGet();
+                    stageCounters.onCompletion(batch.size(), startTime);
+                    for (PendingSearch pendingSearch: batch) {
+                        fork(stage, () -> pendingSearch.listener.onFailure(e));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return throughput metrics of the given correlation stage
+     */
+    public StageStats getStats(Stage stage) {
+        return counters.get(stage).toStats();
+    }
+
+    /**
+     * @return throughput metrics of all correlation stages
+     */
+    public Map<Stage, StageStats> getStats() {
+        Map<Stage, StageStats> stats = new EnumMap<>(Stage.class);
+        for (Stage stage: Stage.values()) {
+            stats.put(stage, getStats(stage));
+        }
+        return stats;
+    }
+
+    private void fork(Stage stage, Runnable runnable) {
+        threadPool.executor(ThreadPool.Names.GENERIC).execute(() -> {
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                log.error("Failed to handle batched correlation search response of stage " + stage, e);
+            }
+        });
+    }
+
+    private static class PendingSearch {
+        private final MultiSearchRequest request;
+        private final ActionListener<MultiSearchResponse> listener;
+
+        PendingSearch(MultiSearchRequest request, ActionListener<MultiSearchResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+    }
+
+    private static class StageQueue {
+        private final Stage stage;
+        private List<PendingSearch> pending = new ArrayList<>();
+        private int pendingSearches = 0;
+        private boolean flushScheduled = false;
+
+        StageQueue(Stage stage) {
+            this.stage = stage;
+        }
+
+        List<PendingSearch> drain() {
+            List<PendingSearch> batch = pending;
+            pending = new ArrayList<>();
+            pendingSearches = 0;
+            flushScheduled = false;
+            return batch;
+        }
+    }
+
+    private static class StageCounters {
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong searches = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalTimeInNanos = new AtomicLong();
+
+        private void onCompletion(int batchSize, long startTime) {
+            completed.addAndGet(batchSize);
+            totalTimeInNanos.addAndGet(System.nanoTime() - startTime);
+        }
+
+        private StageStats toStats() {
+            return new StageStats(submitted.get(), completed.get(), searches.get(), batches.get(), failures.get(),
+                    TimeValue.nsecToMSec(totalTimeInNanos.get()));
+        }
+    }
+
+    /**
+     * Point-in-time counters of one correlation stage. submitted counts the (multi-)searches submitted by findings,
+     * completed the ones which got a response, searches & batches the searches & multi-searches actually sent to the cluster.
+     */
+    public static class StageStats implements Writeable, ToXContentObject {
+        private final long submitted;
+        private final long completed;
+        private final long searches;
+        private final long batches;
+        private final long failures;
+        private final long totalTimeInMillis;
+
+        public StageStats(long submitted, long completed, long searches, long batches, long failures, long totalTimeInMillis) {
+            this.submitted = submitted;
+            this.completed = completed;
+            this.searches = searches;
+            this.batches = batches;
+            this.failures = failures;
+            this.totalTimeInMillis = totalTimeInMillis;
+        }
+
+        public StageStats(StreamInput sin) throws IOException {
+            this(sin.readVLong(), sin.readVLong(), sin.readVLong(), sin.readVLong(), sin.readVLong(), sin.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(submitted);
+            out.writeVLong(completed);
+            out.writeVLong(searches);
+            out.writeVLong(batches);
+            out.writeVLong(failures);
+            out.writeVLong(totalTimeInMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            return builder.startObject()
+                    .field("submitted", submitted)
+                    .field("completed", completed)
+                    .field("searches", searches)
+                    .field("batches", batches)
+                    .field("failures", failures)
+                    .field("total_time_in_millis", totalTimeInMillis)
+                    .endObject();
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getSearches() {
+            return searches;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getTotalTimeInMillis() {
+            return totalTimeInMillis;
+        }
+    }
+}
@@ -4,38 +4,31 @@
  */
 package org.opensearch.securityanalytics.correlation;
 
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.lucene.search.join.ScoreMode;
-import org.opensearch.OpenSearchStatusException;
 import org.opensearch.cluster.routing.Preference;
+import org.opensearch.common.document.DocumentField;
 import org.opensearch.commons.alerting.model.DocLevelQuery;
 import org.opensearch.core.action.ActionListener;
+import org.opensearch.action.admin.indices.mapping.get.GetFieldMappingsRequest;
+import org.opensearch.action.admin.indices.mapping.get.GetFieldMappingsResponse;
 import org.opensearch.action.search.MultiSearchRequest;
-import org.opensearch.action.search.MultiSearchResponse;
 import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.IndicesOptions;
 import org.opensearch.client.Client;
-import org.opensearch.common.xcontent.LoggingDeprecationHandler;
-import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.commons.alerting.action.PublishFindingsRequest;
 import org.opensearch.commons.alerting.model.Finding;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
-import org.opensearch.core.xcontent.XContentParser;
 import org.opensearch.index.query.BoolQueryBuilder;
-import org.opensearch.index.query.MatchQueryBuilder;
-import org.opensearch.index.query.NestedQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.RangeQueryBuilder;
-import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.securityanalytics.config.monitors.DetectorMonitorConfig;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.logtype.LogTypeSnapshot;
 import org.opensearch.securityanalytics.model.CorrelationQuery;
-import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.transport.TransportCorrelateFindingAction;
 import org.opensearch.securityanalytics.util.AutoCorrelationsRepo;
@@ -44,12 +37,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 
@@ -69,17 +64,27 @@ public class JoinEngine {
 
     private final LogTypeService logTypeService;
 
+    private final CorrelationCandidateStreamer candidateStreamer;
+
+    private final CorrelationCandidateStreamer.Budget candidateBudget;
+
+    private final CorrelationRuleRegistry correlationRuleRegistry;
+
     private static final Logger log = LogManager.getLogger(JoinEngine.class);
 
     public JoinEngine(Client client, PublishFindingsRequest request, NamedXContentRegistry xContentRegistry,
                       long corrTimeWindow, TransportCorrelateFindingAction.AsyncCorrelateFindingAction correlateFindingAction,
-                      LogTypeService logTypeService, boolean enableAutoCorrelations) {
+                      LogTypeService logTypeService, CorrelationCandidateStreamer candidateStreamer,
+                      CorrelationRuleRegistry correlationRuleRegistry, boolean enableAutoCorrelations) {
         this.client = client;
         this.request = request;
         this.xContentRegistry = xContentRegistry;
         this.corrTimeWindow = corrTimeWindow;
         this.correlateFindingAction = correlateFindingAction;
         this.logTypeService = logTypeService;
+        this.candidateStreamer = candidateStreamer;
+        this.candidateBudget = candidateStreamer.newBudget(request.getFinding().getId());
+        this.correlationRuleRegistry = correlationRuleRegistry;
         this.enableAutoCorrelations = enableAutoCorrelations;
     }
 
@@ -97,7 +102,7 @@ public class JoinEngine {
 
     @SuppressWarnings("unchecked")
     private void generateAutoCorrelations(Detector detector, Finding finding) throws IOException {
-        Map<String, Set<String>> autoCorrelations = AutoCorrelationsRepo.autoCorrelationsAsMap();
+        AutoCorrelationsRepo.AutoCorrelations autoCorrelations = AutoCorrelationsRepo.getAutoCorrelations();
         long findingTimestamp = finding.getTimestamp().toEpochMilli();
 
         Set<String> tags = new HashSet<>();
@@ -106,23 +111,12 @@ public class JoinEngine {
         }
         Set<String> validIntrusionSets = AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, tags);
 
-        MatchQueryBuilder queryBuilder = QueryBuilders.matchQuery("source", "Sigma");
-
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.size(100);
-
-        SearchRequest request = new SearchRequest();
-        request.source(searchSourceBuilder);
-        logTypeService.searchLogTypes(request, new ActionListener<>() {
+        logTypeService.getLogTypeSnapshot(new ActionListener<>() {
             @Override
-            public void onResponse(SearchResponse response) {
+            public void onResponse(LogTypeSnapshot logTypeSnapshot) {
                 MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-                SearchHit[] logTypes = response.getHits().getHits();
-                List<String> logTypeNames = new ArrayList<>();
-                for (SearchHit logType: logTypes) {
-                    String logTypeName = logType.getSourceAsMap().get("name").toString();
-                    logTypeNames.add(logTypeName);
+                List<String> logTypeNames = logTypeSnapshot.getLogTypeNamesBySource("Sigma");
+                for (String logTypeName: logTypeNames) {
 
                     RangeQueryBuilder queryBuilder = QueryBuilders.rangeQuery("timestamp")
                             .gte(findingTimestamp - corrTimeWindow)
@@ -130,8 +124,8 @@ public class JoinEngine {
 
                     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
                     searchSourceBuilder.query(queryBuilder);
-                    searchSourceBuilder.size(10000);
-                    searchSourceBuilder.fetchField("queries");
+                    searchSourceBuilder.size(candidateStreamer.getPageSize());
+                    searchSourceBuilder.fetchSource(new String[]{"queries.tags"}, null);
                     SearchRequest searchRequest = new SearchRequest();
                     searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(logTypeName));
                     searchRequest.source(searchSourceBuilder);
@@ -140,61 +134,45 @@ public class JoinEngine {
                 }
 
                 if (!mSearchRequest.requests().isEmpty()) {
-                    client.multiSearch(mSearchRequest, new ActionListener<>() {
-                        @Override
-                        public void onResponse(MultiSearchResponse items) {
-                            MultiSearchResponse.Item[] responses = items.getResponses();
-
-                            Map<String, List<String>> autoCorrelationsMap = new HashMap<>();
-                            int idx = 0;
-                            for (MultiSearchResponse.Item response : responses) {
-                                if (response.isFailure()) {
-                                    log.info(response.getFailureMessage());
-                                    continue;
+                    Map<String, Set<String>> autoCorrelatedFindings = new HashMap<>();
+                    candidateStreamer.multiSearch(CorrelationSearchBatcher.Stage.AUTO_CORRELATIONS, mSearchRequest, candidateBudget, (idx, findings) -> {
+                        String logTypeName = logTypeNames.get(idx);
+
+                        for (SearchHit foundFinding : findings) {
+                            if (!foundFinding.getId().equals(finding.getId())) {
+                                Set<String> findingTags = new HashSet<>();
+                                List<Map<String, Object>> queries = (List<Map<String, Object>>) foundFinding.getSourceAsMap().get("queries");
+                                for (Map<String, Object> query : queries) {
+                                    List<String> queryTags = (List<String>) query.get("tags");
+                                    findingTags.addAll(queryTags.stream().filter(queryTag -> queryTag.startsWith("attack.")).collect(Collectors.toList()));
                                 }
-                                String logTypeName = logTypeNames.get(idx);
-
-                                SearchHit[] findings = response.getResponse().getHits().getHits();
-
-                                for (SearchHit foundFinding : findings) {
-                                    if (!foundFinding.getId().equals(finding.getId())) {
-                                        Set<String> findingTags = new HashSet<>();
-                                        List<Map<String, Object>> queries = (List<Map<String, Object>>) foundFinding.getSourceAsMap().get("queries");
-                                        for (Map<String, Object> query : queries) {
-                                            List<String> queryTags = (List<String>) query.get("tags");
-                                            findingTags.addAll(queryTags.stream().filter(queryTag -> queryTag.startsWith("attack.")).collect(Collectors.toList()));
-                                        }
-
-                                        boolean canCorrelate = false;
-                                        for (String tag: tags) {
-                                            if (findingTags.contains(tag)) {
-                                                canCorrelate = true;
-                                                break;
-                                            }
-                                        }
-
-                                        Set<String> foundIntrusionSets = AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, findingTags);
-                                        for (String validIntrusionSet: validIntrusionSets) {
-                                            if (foundIntrusionSets.contains(validIntrusionSet)) {
-                                                canCorrelate = true;
-                                                break;
-                                            }
-                                        }
-
-                                        if (canCorrelate) {
-                                            if (autoCorrelationsMap.containsKey(logTypeName)) {
-                                                autoCorrelationsMap.get(logTypeName).add(foundFinding.getId());
-                                            } else {
-                                                List<String> autoCorrelatedFindings = new ArrayList<>();
-                                                autoCorrelatedFindings.add(foundFinding.getId());
-                                                autoCorrelationsMap.put(logTypeName, autoCorrelatedFindings);
-                                            }
-                                        }
+
+                                boolean canCorrelate = false;
+                                for (String tag: tags) {
+                                    if (findingTags.contains(tag)) {
+                                        canCorrelate = true;
+                                        break;
+                                    }
+                                }
+
+                                Set<String> foundIntrusionSets = AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, findingTags);
+                                for (String validIntrusionSet: validIntrusionSets) {
+                                    if (foundIntrusionSets.contains(validIntrusionSet)) {
+                                        canCorrelate = true;
+                                        break;
                                     }
                                 }
-                                ++idx;
+
+                                if (canCorrelate) {
+                                    autoCorrelatedFindings.computeIfAbsent(logTypeName, k -> new LinkedHashSet<>()).add(foundFinding.getId());
+                                }
                             }
-                            onAutoCorrelations(detector, finding, autoCorrelationsMap);
+                        }
+                        return true;
+                    }, new ActionListener<>() {
+                        @Override
+                        public void onResponse(Void unused) {
+                            onAutoCorrelations(detector, finding, toLists(autoCorrelatedFindings));
                         }
 
                         @Override
@@ -217,45 +195,9 @@ public class JoinEngine {
         List<String> indices = detector.getInputs().get(0).getIndices();
         List<String> relatedDocIds = finding.getCorrelatedDocIds();
 
-        NestedQueryBuilder queryBuilder = QueryBuilders.nestedQuery(
-                "correlate",
-                QueryBuilders.matchQuery("correlate.category", detectorType),
-                ScoreMode.None
-        );
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.fetchSource(true);
-
-        SearchRequest searchRequest = new SearchRequest();
-        searchRequest.indices(CorrelationRule.CORRELATION_RULE_INDEX);
-        searchRequest.source(searchSourceBuilder);
-        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-        client.search(searchRequest, new ActionListener<>() {
+        correlationRuleRegistry.getRules(detectorType, new ActionListener<>() {
             @Override
-            public void onResponse(SearchResponse response) {
-                if (response.isTimedOut()) {
-                    correlateFindingAction.onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                }
-
-                Iterator<SearchHit> hits = response.getHits().iterator();
-                List<CorrelationRule> correlationRules = new ArrayList<>();
-                while (hits.hasNext()) {
-                    try {
-                        SearchHit hit = hits.next();
-
-                        XContentParser xcp = XContentType.JSON.xContent().createParser(
-                                xContentRegistry,
-                                LoggingDeprecationHandler.INSTANCE, hit.getSourceAsString()
-                        );
-
-                        CorrelationRule rule = CorrelationRule.parse(xcp, hit.getId(), hit.getVersion());
-                        correlationRules.add(rule);
-                    } catch (IOException e) {
-                        correlateFindingAction.onFailures(e);
-                    }
-                }
-
+            public void onResponse(List<CompiledCorrelationRule> correlationRules) {
                 getValidDocuments(detectorType, indices, correlationRules, relatedDocIds, autoCorrelations);
             }
 
@@ -269,14 +211,13 @@ public class JoinEngine {
     /**
      * this method checks if the finding to be correlated has valid related docs(or not) which match join criteria.
      */
-    private void getValidDocuments(String detectorType, List<String> indices, List<CorrelationRule> correlationRules, List<String> relatedDocIds, Map<String, List<String>> autoCorrelations) {
+    private void getValidDocuments(String detectorType, List<String> indices, List<CompiledCorrelationRule> correlationRules, List<String> relatedDocIds, Map<String, List<String>> autoCorrelations) {
         MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<CorrelationRule> validCorrelationRules = new ArrayList<>();
+        List<CompiledCorrelationRule> validCorrelationRules = new ArrayList<>();
         List<String> validFields = new ArrayList<>();
 
-        for (CorrelationRule rule: correlationRules) {
-            Optional<CorrelationQuery> query = rule.getCorrelationQueries().stream()
-                    .filter(correlationQuery -> correlationQuery.getCategory().equals(detectorType)).findFirst();
+        for (CompiledCorrelationRule rule: correlationRules) {
+            Optional<CorrelationQuery> query = Optional.ofNullable(rule.getQuery(detectorType));
 
             if (query.isPresent()) {
                 BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
@@ -292,8 +233,11 @@ public class JoinEngine {
                 searchSourceBuilder.fetchSource(false);
                 if (query.get().getField() != null) {
                     searchSourceBuilder.fetchField(query.get().getField());
+                    searchSourceBuilder.size(candidateStreamer.getPageSize());
+                } else {
+                    // a query join only needs to know whether one of the related docs matches
+                    searchSourceBuilder.size(1);
                 }
-                searchSourceBuilder.size(10000);
                 SearchRequest searchRequest = new SearchRequest();
                 searchRequest.indices(indices.toArray(new String[]{}));
                 searchRequest.source(searchSourceBuilder);
@@ -306,69 +250,46 @@ public class JoinEngine {
         }
 
         if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, new ActionListener<>() {
-                @Override
-                public void onResponse(MultiSearchResponse items) {
-                    MultiSearchResponse.Item[] responses = items.getResponses();
-                    List<FilteredCorrelationRule> filteredCorrelationRules = new ArrayList<>();
-
-                    int idx = 0;
-                    for (MultiSearchResponse.Item response : responses) {
-                        if (response.isFailure()) {
-                            log.info(response.getFailureMessage());
-                            continue;
-                        }
-
-                        if (response.getResponse().getHits().getTotalHits().value > 0L) {
-                            filteredCorrelationRules.add(new FilteredCorrelationRule(validCorrelationRules.get(idx),
-                                    response.getResponse().getHits().getHits(), validFields.get(idx)));
-                        }
-                        ++idx;
+            Map<Integer, FilteredCorrelationRule> filteredRules = new TreeMap<>();
+            candidateStreamer.multiSearch(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, mSearchRequest, candidateBudget, (idx, hits) -> {
+                if (hits.length == 0) {
+                    return false;
+                }
+                String field = validFields.get(idx);
+                FilteredCorrelationRule filteredRule = filteredRules.computeIfAbsent(idx,
+                        k -> new FilteredCorrelationRule(validCorrelationRules.get(idx), new LinkedHashSet<>(), field));
+                if (field == null) {
+                    return false;
+                }
+                for (SearchHit hit: hits) {
+                    DocumentField value = hit.field(field);
+                    if (value != null && value.getValue() != null) {
+                        filteredRule.joinValues.add(value.getValue());
                     }
+                }
+                return true;
+            }, new ActionListener<>() {
+                @Override
+                public void onResponse(Void unused) {
+                    List<FilteredCorrelationRule> filteredCorrelationRules = new ArrayList<>(filteredRules.values());
 
-                    Map<String, List<CorrelationQuery>> categoryToQueriesMap = new HashMap<>();
+                    Map<String, CategoryJoin> categoryToJoinMap = new HashMap<>();
                     Map<String, Long> categoryToTimeWindowMap = new HashMap<>();
                     for (FilteredCorrelationRule rule: filteredCorrelationRules) {
-                        List<CorrelationQuery> queries = rule.correlationRule.getCorrelationQueries();
                         Long timeWindow = rule.correlationRule.getCorrTimeWindow();
 
-                        for (CorrelationQuery query: queries) {
-                            List<CorrelationQuery> correlationQueries;
-                            if (categoryToQueriesMap.containsKey(query.getCategory())) {
-                                correlationQueries = categoryToQueriesMap.get(query.getCategory());
-                            } else {
-                                correlationQueries = new ArrayList<>();
-                            }
-                            if (categoryToTimeWindowMap.containsKey(query.getCategory())) {
-                                categoryToTimeWindowMap.put(query.getCategory(), Math.max(timeWindow, categoryToTimeWindowMap.get(query.getCategory())));
-                            } else {
-                                categoryToTimeWindowMap.put(query.getCategory(), timeWindow);
-                            }
-
-                            if (query.getField() == null) {
-                                correlationQueries.add(query);
-                            } else {
-                                SearchHit[] hits = rule.filteredDocs;
-                                StringBuilder qb = new StringBuilder(query.getField()).append(":(");
-                                for (int i = 0; i < hits.length; ++i) {
-                                    String value = hits[i].field(rule.field).getValue();
-                                    qb.append(value);
-                                    if (i < hits.length-1) {
-                                        qb.append(" OR ");
-                                    } else {
-                                        qb.append(")");
-                                    }
-                                }
-                                if (query.getQuery() != null) {
-                                    qb.append(" AND ").append(query.getQuery());
-                                }
-                                correlationQueries.add(new CorrelationQuery(query.getIndex(), qb.toString(), query.getCategory(), null));
-                            }
-                            categoryToQueriesMap.put(query.getCategory(), correlationQueries);
+                        for (CorrelationQuery query: rule.correlationRule.getQueryJoins()) {
+                            categoryJoin(categoryToJoinMap, categoryToTimeWindowMap, query, timeWindow).addQueryJoin(query);
+                        }
+                        if (rule.joinValues.isEmpty()) {
+                            continue;
+                        }
+                        for (CorrelationQuery query: rule.correlationRule.getFieldJoins()) {
+                            categoryJoin(categoryToJoinMap, categoryToTimeWindowMap, query, timeWindow).addFieldJoin(query, rule.joinValues);
                         }
                     }
-                    searchFindingsByTimestamp(detectorType, categoryToQueriesMap, categoryToTimeWindowMap,
-                            filteredCorrelationRules.stream().map(it -> it.correlationRule).map(CorrelationRule::getId).collect(Collectors.toList()),
+                    joinCategories(detectorType, categoryToJoinMap, categoryToTimeWindowMap,
+                            filteredCorrelationRules.stream().map(it -> it.correlationRule).map(CompiledCorrelationRule::getId).collect(Collectors.toList()),
                             autoCorrelations
                     );
                 }
@@ -387,257 +308,240 @@ public class JoinEngine {
         }
     }
 
+    private static CategoryJoin categoryJoin(Map<String, CategoryJoin> categoryToJoinMap, Map<String, Long> categoryToTimeWindowMap,
+                                             CorrelationQuery query, Long timeWindow) {
+        categoryToTimeWindowMap.merge(query.getCategory(), timeWindow, Math::max);
+        return categoryToJoinMap.computeIfAbsent(query.getCategory(), k -> new CategoryJoin());
+    }
+
     /**
-     * this method searches for parent findings given the log category & correlation time window & collects all related docs
-     * for them.
+     * this method joins the finding with the findings of every log category within the correlation time window. The
+     * findings of all categories are read with one multi-search, then the related docs of these findings are matched
+     * against the join queries with one search of the log indices per category.
      */
-    private void searchFindingsByTimestamp(String detectorType, Map<String, List<CorrelationQuery>> categoryToQueriesMap, Map<String, Long> categoryToTimeWindowMap, List<String> correlationRules, Map<String, List<String>> autoCorrelations) {
-        long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<Pair<String, List<CorrelationQuery>>> categoryToQueriesPairs = new ArrayList<>();
-
-        for (Map.Entry<String, List<CorrelationQuery>> categoryToQueries: categoryToQueriesMap.entrySet()) {
-            RangeQueryBuilder queryBuilder = QueryBuilders.rangeQuery("timestamp")
-                    .gte(findingTimestamp - categoryToTimeWindowMap.get(categoryToQueries.getKey()))
-                    .lte(findingTimestamp + categoryToTimeWindowMap.get(categoryToQueries.getKey()));
+    private void joinCategories(String detectorType, Map<String, CategoryJoin> categoryToJoinMap, Map<String, Long> categoryToTimeWindowMap, List<String> correlationRules, Map<String, List<String>> autoCorrelations) {
+        if (categoryToJoinMap.isEmpty()) {
+            if (!autoCorrelations.isEmpty()) {
+                correlateFindingAction.getTimestampFeature(detectorType, autoCorrelations, null, List.of());
+            } else {
+                correlateFindingAction.getTimestampFeature(detectorType, null, request.getFinding(), correlationRules);
+            }
+            return;
+        }
 
+        Finding finding = request.getFinding();
+        long findingTimestamp = finding.getTimestamp().toEpochMilli();
+        List<String> categories = new ArrayList<>(categoryToJoinMap.keySet());
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (String category: categories) {
+            long timeWindow = categoryToTimeWindowMap.get(category);
+            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.rangeQuery("timestamp")
+                            .gte(findingTimestamp - timeWindow)
+                            .lte(findingTimestamp + timeWindow));
+            if (category.equals(detectorType)) {
+                queryBuilder.mustNot(QueryBuilders.termQuery("_id", finding.getId()));
+            }
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
             searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
             searchSourceBuilder.fetchField("correlated_doc_ids");
+            searchSourceBuilder.size(candidateStreamer.getPageSize());
             SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(categoryToQueries.getKey()));
+            searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(category));
             searchRequest.source(searchSourceBuilder);
             searchRequest.preference(Preference.PRIMARY_FIRST.type());
             mSearchRequest.add(searchRequest);
-            categoryToQueriesPairs.add(Pair.of(categoryToQueries.getKey(), categoryToQueries.getValue()));
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, new ActionListener<>() {
-                @Override
-                public void onResponse(MultiSearchResponse items) {
-                    MultiSearchResponse.Item[] responses = items.getResponses();
-                    Map<String, DocSearchCriteria> relatedDocsMap = new HashMap<>();
-
-                    int idx = 0;
-                    for (MultiSearchResponse.Item response : responses) {
-                        if (response.isFailure()) {
-                            log.info(response.getFailureMessage());
-                            continue;
-                        }
-
-                        List<String> relatedDocIds = new ArrayList<>();
-                        SearchHit[] hits = response.getResponse().getHits().getHits();
-                        for (SearchHit hit : hits) {
-                            relatedDocIds.addAll(hit.getFields().get("correlated_doc_ids").getValues().stream()
-                                    .map(Object::toString).collect(Collectors.toList()));
-                        }
-
-                        List<CorrelationQuery> correlationQueries = categoryToQueriesPairs.get(idx).getValue();
-                        List<String> indices = correlationQueries.stream().map(CorrelationQuery::getIndex).collect(Collectors.toList());
-                        List<String> queries = correlationQueries.stream().map(CorrelationQuery::getQuery).collect(Collectors.toList());
-                        relatedDocsMap.put(categoryToQueriesPairs.get(idx).getKey(),
-                                new DocSearchCriteria(
-                                        indices,
-                                        queries,
-                                        relatedDocIds));
-                        ++idx;
-                    }
-                    searchDocsWithFilterKeys(detectorType, relatedDocsMap, categoryToTimeWindowMap, correlationRules, autoCorrelations);
+        Map<Integer, Map<String, List<String>>> relatedDocIdsByCategory = new HashMap<>();
+        candidateStreamer.multiSearch(CorrelationSearchBatcher.Stage.FINDINGS_BY_TIMESTAMP, mSearchRequest, candidateBudget, (idx, hits) -> {
+            Map<String, List<String>> relatedDocIdsByFinding = relatedDocIdsByCategory.computeIfAbsent(idx, k -> new LinkedHashMap<>());
+            for (SearchHit hit: hits) {
+                DocumentField correlatedDocIds = hit.field("correlated_doc_ids");
+                if (correlatedDocIds != null) {
+                    List<String> docIds = new ArrayList<>();
+                    correlatedDocIds.getValues().forEach(docId -> docIds.add(docId.toString()));
+                    relatedDocIdsByFinding.put(hit.getId(), docIds);
                 }
+            }
+            return true;
+        }, new ActionListener<>() {
+            @Override
+            public void onResponse(Void unused) {
+                resolveJoinFields(categoryToJoinMap, () ->
+                        matchRelatedDocs(detectorType, categories, categoryToJoinMap, relatedDocIdsByCategory, correlationRules, autoCorrelations));
+            }
 
-                @Override
-                public void onFailure(Exception e) {
-                    correlateFindingAction.onFailures(e);
-                }
-            });
-        } else {
-            if (!autoCorrelations.isEmpty()) {
-                correlateFindingAction.getTimestampFeature(detectorType, autoCorrelations, null, List.of());
-            } else {
-                correlateFindingAction.getTimestampFeature(detectorType, null, request.getFinding(), correlationRules);
+            @Override
+            public void onFailure(Exception e) {
+                correlateFindingAction.onFailures(e);
             }
-        }
+        });
     }
 
     /**
-     * Given the related docs from parent findings, this method filters only those related docs which match parent join criteria.
+     * this method reads the mapping types of the joined fields in the log indices, so that field joins on text fields are
+     * matched on their keyword sub-field or as phrases. Without the mappings, join values are matched as exact terms.
      */
-    private void searchDocsWithFilterKeys(String detectorType, Map<String, DocSearchCriteria> relatedDocsMap, Map<String, Long> categoryToTimeWindowMap, List<String> correlationRules, Map<String, List<String>> autoCorrelations) {
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<String> categories = new ArrayList<>();
-
-        for (Map.Entry<String, DocSearchCriteria> docSearchCriteria: relatedDocsMap.entrySet()) {
-            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                    .filter(QueryBuilders.termsQuery("_id", docSearchCriteria.getValue().relatedDocIds));
-
-            for (String query: docSearchCriteria.getValue().queries) {
-                queryBuilder = queryBuilder.should(QueryBuilders.queryStringQuery(query));
+    private void resolveJoinFields(Map<String, CategoryJoin> categoryToJoinMap, Runnable onResolved) {
+        Set<String> indices = new LinkedHashSet<>();
+        Set<String> fields = new LinkedHashSet<>();
+        for (CategoryJoin categoryJoin: categoryToJoinMap.values()) {
+            for (String field: categoryJoin.getJoinFields()) {
+                indices.addAll(categoryJoin.getIndices());
+                fields.add(field);
+                fields.add(field + ".*");
             }
-            queryBuilder.minimumShouldMatch(1).boost(1.0f);
-
-            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-            searchSourceBuilder.query(queryBuilder);
-            searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
-            SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(docSearchCriteria.getValue().indices.toArray(new String[]{}));
-            searchRequest.source(searchSourceBuilder);
-            searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-            categories.add(docSearchCriteria.getKey());
-            mSearchRequest.add(searchRequest);
+        }
+        if (fields.isEmpty()) {
+            onResolved.run();
+            return;
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, new ActionListener<>() {
-                @Override
-                public void onResponse(MultiSearchResponse items) {
-                    MultiSearchResponse.Item[] responses = items.getResponses();
-                    Map<String, List<String>> filteredRelatedDocIds = new HashMap<>();
-
-                    int idx = 0;
-                    for (MultiSearchResponse.Item response : responses) {
-                        if (response.isFailure()) {
-                            log.info(response.getFailureMessage());
-                            continue;
-                        }
+        GetFieldMappingsRequest getFieldMappingsRequest = new GetFieldMappingsRequest()
+                .indices(indices.toArray(new String[]{}))
+                .fields(fields.toArray(new String[]{}))
+                .indicesOptions(IndicesOptions.lenientExpandOpen());
+        client.admin().indices().getFieldMappings(getFieldMappingsRequest, new ActionListener<>() {
+            @Override
+            public void onResponse(GetFieldMappingsResponse response) {
+                Map<String, String> fieldTypes = fieldTypes(response);
+                for (CategoryJoin categoryJoin: categoryToJoinMap.values()) {
+                    categoryJoin.setFieldTypes(fieldTypes);
+                }
+                onResolved.run();
+            }
 
-                        SearchHit[] hits = response.getResponse().getHits().getHits();
-                        List<String> docIds = new ArrayList<>();
+            @Override
+            public void onFailure(Exception e) {
+                log.warn("Failed to read the mappings of the correlation join fields, join values are matched as exact terms", e);
+                onResolved.run();
+            }
+        });
+    }
 
-                        for (SearchHit hit : hits) {
-                            docIds.add(hit.getId());
-                        }
-                        filteredRelatedDocIds.put(categories.get(idx), docIds);
-                        ++idx;
-                    }
-                    getCorrelatedFindings(detectorType, filteredRelatedDocIds, categoryToTimeWindowMap, correlationRules, autoCorrelations);
+    /**
+     * @return the mapping type of every field of the response, a field mapped as text in one of the indices is text
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> fieldTypes(GetFieldMappingsResponse response) {
+        Map<String, String> fieldTypes = new HashMap<>();
+        for (Map<String, GetFieldMappingsResponse.FieldMappingMetadata> indexMappings: response.mappings().values()) {
+            for (Map.Entry<String, GetFieldMappingsResponse.FieldMappingMetadata> fieldMapping: indexMappings.entrySet()) {
+                if (fieldMapping.getValue().isNull()) {
+                    continue;
                 }
-
-                @Override
-                public void onFailure(Exception e) {
-                    correlateFindingAction.onFailures(e);
+                String fullName = fieldMapping.getKey();
+                Object mapping = fieldMapping.getValue().sourceAsMap().get(fullName.substring(fullName.lastIndexOf('.') + 1));
+                if (mapping instanceof Map && ((Map<String, Object>) mapping).get("type") != null) {
+                    fieldTypes.merge(fullName, ((Map<String, Object>) mapping).get("type").toString(), (type, other) -> "text".equals(type) ? type : other);
                 }
-            });
-        } else {
-            if (!autoCorrelations.isEmpty()) {
-                correlateFindingAction.getTimestampFeature(detectorType, autoCorrelations, null, List.of());
-            } else {
-                correlateFindingAction.getTimestampFeature(detectorType, null, request.getFinding(), correlationRules);
             }
         }
+        return fieldTypes;
     }
 
     /**
-     * Given the filtered related docs of the parent findings, this method gets the actual filtered parent findings for
-     * the finding to be correlated.
+     * this method searches the log indices of every category for the related docs of its findings which match the join
+     * queries of the category, a finding is correlated if one of its related docs matches.
      */
-    private void getCorrelatedFindings(String detectorType, Map<String, List<String>> filteredRelatedDocIds, Map<String, Long> categoryToTimeWindowMap, List<String> correlationRules, Map<String, List<String>> autoCorrelations) {
-        long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
+    private void matchRelatedDocs(String detectorType, List<String> categories, Map<String, CategoryJoin> categoryToJoinMap,
+                                  Map<Integer, Map<String, List<String>>> relatedDocIdsByCategory, List<String> correlationRules,
+                                  Map<String, List<String>> autoCorrelations) {
         MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<String> categories = new ArrayList<>();
+        List<Map<String, List<String>>> searchedCategories = new ArrayList<>();
+        List<String> searchedCategoryNames = new ArrayList<>();
+        for (int idx = 0; idx < categories.size(); ++idx) {
+            Map<String, List<String>> relatedDocIdsByFinding = relatedDocIdsByCategory.getOrDefault(idx, Map.of());
+            CategoryJoin categoryJoin = categoryToJoinMap.get(categories.get(idx));
+            List<QueryBuilder> joinQueries = categoryJoin.toQueries();
+            if (relatedDocIdsByFinding.isEmpty() || joinQueries.isEmpty()) {
+                continue;
+            }
+            Set<Object> relatedDocIds = new LinkedHashSet<>();
+            relatedDocIdsByFinding.values().forEach(relatedDocIds::addAll);
 
-        for (Map.Entry<String, List<String>> relatedDocIds: filteredRelatedDocIds.entrySet()) {
             BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                    .filter(QueryBuilders.rangeQuery("timestamp")
-                            .gte(findingTimestamp - categoryToTimeWindowMap.get(relatedDocIds.getKey()))
-                            .lte(findingTimestamp + categoryToTimeWindowMap.get(relatedDocIds.getKey())))
-                    .must(QueryBuilders.termsQuery("correlated_doc_ids", relatedDocIds.getValue()));
-
-            if (relatedDocIds.getKey().equals(detectorType)) {
-                queryBuilder = queryBuilder.mustNot(QueryBuilders.matchQuery("_id", request.getFinding().getId()));
+                    .filter(CategoryJoin.fieldJoinQuery("_id", relatedDocIds, null));
+            for (QueryBuilder joinQuery: joinQueries) {
+                queryBuilder.should(joinQuery);
             }
+            queryBuilder.minimumShouldMatch(1);
 
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
             searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
+            searchSourceBuilder.size(candidateStreamer.getPageSize());
             SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(relatedDocIds.getKey()));
+            searchRequest.indices(categoryJoin.getIndices().toArray(new String[]{}));
             searchRequest.source(searchSourceBuilder);
             searchRequest.preference(Preference.PRIMARY_FIRST.type());
 
-            categories.add(relatedDocIds.getKey());
+            searchedCategories.add(relatedDocIdsByFinding);
+            searchedCategoryNames.add(categories.get(idx));
             mSearchRequest.add(searchRequest);
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, new ActionListener<>() {
-                @Override
-                public void onResponse(MultiSearchResponse items) {
-                    MultiSearchResponse.Item[] responses = items.getResponses();
-                    Map<String, List<String>> correlatedFindings = new HashMap<>();
-
-                    int idx = 0;
-                    for (MultiSearchResponse.Item response : responses) {
-                        if (response.isFailure()) {
-                            log.info(response.getFailureMessage());
-                            ++idx;
-                            continue;
-                        }
-
-                        SearchHit[] hits = response.getResponse().getHits().getHits();
-                        List<String> findings = new ArrayList<>();
-
-                        for (SearchHit hit : hits) {
-                            findings.add(hit.getId());
-                        }
-
-                        if (!findings.isEmpty()) {
-                            correlatedFindings.put(categories.get(idx), findings);
-                        }
-                        ++idx;
-                    }
+        if (mSearchRequest.requests().isEmpty()) {
+            onJoinedCategories(detectorType, Map.of(), correlationRules, autoCorrelations);
+            return;
+        }
 
-                    for (Map.Entry<String, List<String>> autoCorrelation: autoCorrelations.entrySet()) {
-                        if (correlatedFindings.containsKey(autoCorrelation.getKey())) {
-                            Set<String> alreadyCorrelatedFindings = new HashSet<>(correlatedFindings.get(autoCorrelation.getKey()));
-                            alreadyCorrelatedFindings.addAll(autoCorrelation.getValue());
-                            correlatedFindings.put(autoCorrelation.getKey(), new ArrayList<>(alreadyCorrelatedFindings));
-                        } else {
-                            correlatedFindings.put(autoCorrelation.getKey(), autoCorrelation.getValue());
+        Map<Integer, Set<String>> matchedDocIds = new HashMap<>();
+        candidateStreamer.multiSearch(CorrelationSearchBatcher.Stage.DOCS_WITH_FILTER_KEYS, mSearchRequest, candidateBudget, (idx, hits) -> {
+            Set<String> docIds = matchedDocIds.computeIfAbsent(idx, k -> new HashSet<>());
+            for (SearchHit hit: hits) {
+                docIds.add(hit.getId());
+            }
+            return true;
+        }, new ActionListener<>() {
+            @Override
+            public void onResponse(Void unused) {
+                Map<String, Set<String>> correlatedFindingIds = new HashMap<>();
+                for (int idx = 0; idx < searchedCategories.size(); ++idx) {
+                    Set<String> docIds = matchedDocIds.getOrDefault(idx, Set.of());
+                    for (Map.Entry<String, List<String>> relatedDocIds: searchedCategories.get(idx).entrySet()) {
+                        if (relatedDocIds.getValue().stream().anyMatch(docIds::contains)) {
+                            correlatedFindingIds.computeIfAbsent(searchedCategoryNames.get(idx), k -> new LinkedHashSet<>()).add(relatedDocIds.getKey());
                         }
                     }
-                    correlateFindingAction.initCorrelationIndex(detectorType, correlatedFindings, correlationRules);
                 }
+                onJoinedCategories(detectorType, correlatedFindingIds, correlationRules, autoCorrelations);
+            }
 
-                @Override
-                public void onFailure(Exception e) {
-                    correlateFindingAction.onFailures(e);
-                }
-            });
-        } else {
-            if (!autoCorrelations.isEmpty()) {
-                correlateFindingAction.getTimestampFeature(detectorType, autoCorrelations, null, List.of());
-            } else {
-                correlateFindingAction.getTimestampFeature(detectorType, null, request.getFinding(), correlationRules);
+            @Override
+            public void onFailure(Exception e) {
+                correlateFindingAction.onFailures(e);
             }
-        }
+        });
     }
 
-    static class DocSearchCriteria {
-        List<String> indices;
-        List<String> queries;
-        List<String> relatedDocIds;
+    private void onJoinedCategories(String detectorType, Map<String, Set<String>> correlatedFindingIds, List<String> correlationRules,
+                                    Map<String, List<String>> autoCorrelations) {
+        Map<String, Set<String>> correlations = new HashMap<>(correlatedFindingIds);
+        for (Map.Entry<String, List<String>> autoCorrelation: autoCorrelations.entrySet()) {
+            correlations.computeIfAbsent(autoCorrelation.getKey(), k -> new LinkedHashSet<>()).addAll(autoCorrelation.getValue());
+        }
+        correlateFindingAction.initCorrelationIndex(detectorType, toLists(correlations), correlationRules);
+    }
 
-        public DocSearchCriteria(List<String> indices, List<String> queries, List<String> relatedDocIds) {
-            this.indices = indices;
-            this.queries = queries;
-            this.relatedDocIds = relatedDocIds;
+    private static Map<String, List<String>> toLists(Map<String, Set<String>> ids) {
+        Map<String, List<String>> lists = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry: ids.entrySet()) {
+            lists.put(entry.getKey(), new ArrayList<>(entry.getValue()));
         }
+        return lists;
     }
 
     static class FilteredCorrelationRule {
-        CorrelationRule correlationRule;
-        SearchHit[] filteredDocs;
+        CompiledCorrelationRule correlationRule;
+        Set<Object> joinValues;
         String field;
 
-        public FilteredCorrelationRule(CorrelationRule correlationRule, SearchHit[] filteredDocs, String field) {
+        public FilteredCorrelationRule(CompiledCorrelationRule correlationRule, Set<Object> joinValues, String field) {
             this.correlationRule = correlationRule;
-            this.filteredDocs = filteredDocs;
+            this.joinValues = joinValues;
             this.field = field;
         }
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Node-local overlay of the correlation records written by this node which may not yet be visible to search, because
+ * correlation writes no longer force a refresh of the correlation history index.
+ *
+ * The finding correlation path consults the overlay whenever a search of the correlation history index does not return
+ * a record it depends on, so that findings published close to each other still see each other's records. Entries expire
+ * after {@link SecurityAnalyticsSettings#CORRELATION_OVERLAY_EXPIRE_AFTER_WRITE}, which should be well above the refresh
+ * interval of the correlation history indices.
+ */
+public class RecentCorrelationsOverlay {
+
+    /**
+     * finding id -> "finding" record of the finding
+     */
+    private final Cache<String, CorrelationRecord> findingRecords;
+
+    /**
+     * counter -> timestamps of the "finding-finding" records written with the counter
+     */
+    private final Cache<Long, CounterRecords> correlationRecords;
+
+    private final long expireAfterWriteNanos;
+
+    public RecentCorrelationsOverlay(ClusterService clusterService) {
+        long maxSize = SecurityAnalyticsSettings.CORRELATION_OVERLAY_MAX_SIZE.get(clusterService.getSettings());
+        TimeValue expireAfterWrite = SecurityAnalyticsSettings.CORRELATION_OVERLAY_EXPIRE_AFTER_WRITE.get(clusterService.getSettings());
+        this.expireAfterWriteNanos = expireAfterWrite.nanos();
+        this.findingRecords = CacheBuilder.<String, CorrelationRecord>builder()
+                .setMaximumWeight(maxSize)
+                .setExpireAfterWrite(expireAfterWrite)
+                .build();
+        this.correlationRecords = CacheBuilder.<Long, CounterRecords>builder()
+                .setMaximumWeight(maxSize)
+                .setExpireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public void onFindingRecord(String findingId, long counter, long timestamp) {
+        findingRecords.put(findingId, new CorrelationRecord(findingId, "", counter, timestamp));
+    }
+
+    public void onCorrelationRecord(String finding1, String finding2, long counter, long timestamp) {
+        synchronized (correlationRecords) {
+            CounterRecords records = correlationRecords.get(counter);
+            if (records == null) {
+                records = new CounterRecords();
+            }
+            records.add(timestamp, System.nanoTime(), expireAfterWriteNanos);
+            // re-put so that the records of the counter expire after their latest write
+            correlationRecords.put(counter, records);
+        }
+    }
+
+    /**
+     * @return the counter of the recently written "finding" record of the given finding or null
+     */
+    public Long getFindingCounter(String findingId) {
+        CorrelationRecord record = findingRecords.get(findingId);
+        return record != null ? record.counter : null;
+    }
+
+    /**
+     * @return true if a "finding-finding" record with the given counter was recently written within the given time range
+     */
+    public boolean hasCorrelationRecord(long counter, long fromTimestamp, long toTimestamp) {
+        CounterRecords records = correlationRecords.get(counter);
+        return records != null && records.has(fromTimestamp, toTimestamp, System.nanoTime(), expireAfterWriteNanos);
+    }
+
+    public int count() {
+        int count = findingRecords.count();
+        for (CounterRecords records: correlationRecords.values()) {
+            count += records.size();
+        }
+        return count;
+    }
+
+    /**
+     * Timestamps of the "finding-finding" records of one counter, each with the time of its latest write
+     */
+    static class CounterRecords {
+        private final NavigableMap<Long, Long> writeTimesByTimestamp = new TreeMap<>();
+
+        synchronized void add(long timestamp, long writeTimeNanos, long expireAfterWriteNanos) {
+            writeTimesByTimestamp.values().removeIf(writtenAt -> writeTimeNanos - writtenAt > expireAfterWriteNanos);
+            writeTimesByTimestamp.put(timestamp, writeTimeNanos);
+        }
+
+        synchronized boolean has(long fromTimestamp, long toTimestamp, long nowNanos, long expireAfterWriteNanos) {
+            for (long writtenAt: writeTimesByTimestamp.subMap(fromTimestamp, true, toTimestamp, true).values()) {
+                if (nowNanos - writtenAt <= expireAfterWriteNanos) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return writeTimesByTimestamp.size();
+        }
+    }
+
+    static class CorrelationRecord {
+        final String finding1;
+        final String finding2;
+        final long counter;
+        final long timestamp;
+
+        CorrelationRecord(String finding1, String finding2, long counter, long timestamp) {
+            this.finding1 = finding1;
+            this.finding2 = finding2;
+            this.counter = counter;
+            this.timestamp = timestamp;
+        }
+    }
+}
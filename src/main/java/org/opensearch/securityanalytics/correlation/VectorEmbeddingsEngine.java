@@ -4,10 +4,12 @@
  */
 package org.opensearch.securityanalytics.correlation;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.OpenSearchStatusException;
 import org.opensearch.cluster.routing.Preference;
+import org.opensearch.common.Randomness;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
@@ -24,7 +26,6 @@ import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.commons.alerting.model.Finding;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.index.query.BoolQueryBuilder;
-import org.opensearch.index.query.MatchQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
@@ -34,8 +35,10 @@ import org.opensearch.securityanalytics.model.CustomLogType;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.transport.TransportCorrelateFindingAction;
 import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -50,13 +53,29 @@ public class VectorEmbeddingsEngine {
 
     private volatile long corrTimeWindow;
 
+    private final WriteRequest.RefreshPolicy refreshPolicy;
+
+    private final RecentCorrelationsOverlay recentCorrelationsOverlay;
+
+    private final CorrelationCounterService correlationCounterService;
+
+    private static final long ROOT_COUNTER_RETRY_BACKOFF_MILLIS = 10L;
+
+    private static final long MAX_ROOT_COUNTER_RETRY_BACKOFF_MILLIS = 1000L;
+
+    private static final int MAX_ROOT_COUNTER_RETRIES = 10;
+
     private static final Logger log = LogManager.getLogger(VectorEmbeddingsEngine.class);
 
-    public VectorEmbeddingsEngine(Client client, TimeValue indexTimeout, long corrTimeWindow,
+    public VectorEmbeddingsEngine(Client client, TimeValue indexTimeout, long corrTimeWindow, WriteRequest.RefreshPolicy refreshPolicy,
+                                  RecentCorrelationsOverlay recentCorrelationsOverlay, CorrelationCounterService correlationCounterService,
                                   TransportCorrelateFindingAction.AsyncCorrelateFindingAction correlateFindingAction) {
         this.client = client;
         this.indexTimeout = indexTimeout;
         this.corrTimeWindow = corrTimeWindow;
+        this.refreshPolicy = refreshPolicy;
+        this.recentCorrelationsOverlay = recentCorrelationsOverlay;
+        this.correlationCounterService = correlationCounterService;
         this.correlateFindingAction = correlateFindingAction;
     }
 
@@ -65,27 +84,10 @@ public class VectorEmbeddingsEngine {
         String correlationId = tags.get("correlation_id").toString();
 
         long findingTimestamp = finding.getTimestamp().toEpochMilli();
-        MatchQueryBuilder queryBuilder = QueryBuilders.matchQuery(
-                "root", true
-        );
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.fetchSource(true);
-        searchSourceBuilder.size(1);
-        SearchRequest searchRequest = new SearchRequest();
-        searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-        searchRequest.source(searchSourceBuilder);
-        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-        client.search(searchRequest, new ActionListener<>() {
+        correlationCounterService.getRootCounter(new ActionListener<>() {
             @Override
-            public void onResponse(SearchResponse response) {
-                if (response.isTimedOut()) {
-                    correlateFindingAction.onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                }
-
-                Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                long counter = Long.parseLong(hitSource.get("counter").toString());
+            public void onResponse(CorrelationCounterService.RootCounter rootCounter) {
+                long counter = rootCounter.getCounter();
 
                 MultiSearchRequest mSearchRequest = new MultiSearchRequest();
 
@@ -115,83 +117,93 @@ public class VectorEmbeddingsEngine {
                     public void onResponse(MultiSearchResponse items) {
                         MultiSearchResponse.Item[] responses = items.getResponses();
                         BulkRequest bulkRequest = new BulkRequest();
-                        bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+                        bulkRequest.setRefreshPolicy(refreshPolicy);
 
-                        long prevCounter = -1L;
-                        long totalNeighbors = 0L;
-                        for (MultiSearchResponse.Item response: responses) {
+                        List<Pair<String, Long>> neighbors = new ArrayList<>();
+                        for (int idx = 0; idx < responses.length; ++idx) {
+                            MultiSearchResponse.Item response = responses[idx];
                             if (response.isFailure()) {
                                 log.info(response.getFailureMessage());
+                            } else if (response.getResponse().getHits().getHits().length > 0) {
+                                for (SearchHit hit: response.getResponse().getHits().getHits()) {
+                                    Map<String, Object> hitSource = hit.getSourceAsMap();
+                                    neighbors.add(Pair.of(hitSource.get("finding1").toString(), Long.parseLong(hitSource.get("counter").toString())));
+                                }
                                 continue;
                             }
 
-                            long totalHits = response.getResponse().getHits().getTotalHits().value;
-                            totalNeighbors += totalHits;
-
-                            for (int idx = 0; idx < totalHits; ++idx) {
-                                SearchHit hit = response.getResponse().getHits().getHits()[idx];
-                                Map<String, Object> hitSource = hit.getSourceAsMap();
-                                long neighborCounter = Long.parseLong(hitSource.get("counter").toString());
-                                String correlatedFinding = hitSource.get("finding1").toString();
-
-                                try {
-                                    float[] corrVector = new float[3];
-                                    if (counter != prevCounter) {
-                                        for (int i = 0; i < 2; ++i) {
-                                            corrVector[i] = ((float) counter) - 50.0f;
-                                        }
-
-                                        corrVector[0] = (float) counter;
-                                        corrVector[2] = timestampFeature;
-
-                                        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                        builder.field("root", false);
-                                        builder.field("counter", counter);
-                                        builder.field("finding1", finding.getId());
-                                        builder.field("finding2", "");
-                                        builder.field("logType", correlationId);
-                                        builder.field("timestamp", findingTimestamp);
-                                        builder.field("corr_vector", corrVector);
-                                        builder.field("recordType", "finding");
-                                        builder.field("scoreTimestamp", 0L);
-                                        builder.endObject();
-
-                                        IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                                .source(builder)
-                                                .timeout(indexTimeout);
-                                        bulkRequest.add(indexRequest);
-                                    }
+                            // the record of the correlated finding may have been written by this node but not be searchable yet
+                            Long neighborCounter = recentCorrelationsOverlay.getFindingCounter(correlatedFindings.get(idx));
+                            if (neighborCounter != null) {
+                                neighbors.add(Pair.of(correlatedFindings.get(idx), neighborCounter));
+                            }
+                        }
 
-                                    corrVector = new float[3];
+                        List<Pair<String, Long>> writtenCorrelations = new ArrayList<>();
+                        long prevCounter = -1L;
+                        long totalNeighbors = neighbors.size();
+                        for (Pair<String, Long> neighbor: neighbors) {
+                            long neighborCounter = neighbor.getValue();
+                            String correlatedFinding = neighbor.getKey();
+
+                            try {
+                                float[] corrVector = new float[3];
+                                if (counter != prevCounter) {
                                     for (int i = 0; i < 2; ++i) {
                                         corrVector[i] = ((float) counter) - 50.0f;
                                     }
-                                    corrVector[0] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
-                                    corrVector[1] = (2.0f * ((float) neighborCounter) - 50.0f) / 2.0f;
+
+                                    corrVector[0] = (float) counter;
                                     corrVector[2] = timestampFeature;
 
-                                    XContentBuilder corrBuilder = XContentFactory.jsonBuilder().startObject();
-                                    corrBuilder.field("root", false);
-                                    corrBuilder.field("counter", (long) ((2.0f * ((float) counter) - 50.0f) / 2.0f));
-                                    corrBuilder.field("finding1", finding.getId());
-                                    corrBuilder.field("finding2", correlatedFinding);
-                                    corrBuilder.field("logType", String.format(Locale.ROOT, "%s-%s", detectorType, logType));
-                                    corrBuilder.field("timestamp", findingTimestamp);
-                                    corrBuilder.field("corr_vector", corrVector);
-                                    corrBuilder.field("recordType", "finding-finding");
-                                    corrBuilder.field("scoreTimestamp", 0L);
-                                    corrBuilder.field("corrRules", correlationRules);
-                                    corrBuilder.endObject();
+                                    XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+                                    builder.field("root", false);
+                                    builder.field("counter", counter);
+                                    builder.field("finding1", finding.getId());
+                                    builder.field("finding2", "");
+                                    builder.field("logType", correlationId);
+                                    builder.field("timestamp", findingTimestamp);
+                                    builder.field("corr_vector", corrVector);
+                                    builder.field("recordType", "finding");
+                                    builder.field("scoreTimestamp", 0L);
+                                    builder.endObject();
 
                                     IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                            .source(corrBuilder)
+                                            .source(builder)
                                             .timeout(indexTimeout);
                                     bulkRequest.add(indexRequest);
-                                } catch (IOException ex) {
-                                    correlateFindingAction.onFailures(ex);
                                 }
-                                prevCounter = counter;
+
+                                corrVector = new float[3];
+                                for (int i = 0; i < 2; ++i) {
+                                    corrVector[i] = ((float) counter) - 50.0f;
+                                }
+                                corrVector[0] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
+                                corrVector[1] = (2.0f * ((float) neighborCounter) - 50.0f) / 2.0f;
+                                corrVector[2] = timestampFeature;
+
+                                XContentBuilder corrBuilder = XContentFactory.jsonBuilder().startObject();
+                                corrBuilder.field("root", false);
+                                corrBuilder.field("counter", (long) ((2.0f * ((float) counter) - 50.0f) / 2.0f));
+                                corrBuilder.field("finding1", finding.getId());
+                                corrBuilder.field("finding2", correlatedFinding);
+                                corrBuilder.field("logType", String.format(Locale.ROOT, "%s-%s", detectorType, logType));
+                                corrBuilder.field("timestamp", findingTimestamp);
+                                corrBuilder.field("corr_vector", corrVector);
+                                corrBuilder.field("recordType", "finding-finding");
+                                corrBuilder.field("scoreTimestamp", 0L);
+                                corrBuilder.field("corrRules", correlationRules);
+                                corrBuilder.endObject();
+
+                                IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
+                                        .source(corrBuilder)
+                                        .timeout(indexTimeout);
+                                bulkRequest.add(indexRequest);
+                                writtenCorrelations.add(Pair.of(correlatedFinding, (long) ((2.0f * ((float) counter) - 50.0f) / 2.0f)));
+                            } catch (IOException ex) {
+                                correlateFindingAction.onFailures(ex);
                             }
+                            prevCounter = counter;
                         }
 
                         if (totalNeighbors > 0L) {
@@ -200,6 +212,12 @@ public class VectorEmbeddingsEngine {
                                 public void onResponse(BulkResponse response) {
                                     if (response.hasFailures()) {
                                         correlateFindingAction.onFailures(new OpenSearchStatusException("Correlation of finding failed", RestStatus.INTERNAL_SERVER_ERROR));
+                                    } else {
+                                        recentCorrelationsOverlay.onFindingRecord(finding.getId(), counter, findingTimestamp);
+                                        for (Pair<String, Long> writtenCorrelation: writtenCorrelations) {
+                                            recentCorrelationsOverlay.onCorrelationRecord(finding.getId(), writtenCorrelation.getKey(),
+                                                    writtenCorrelation.getValue(), findingTimestamp);
+                                        }
                                     }
                                     correlateFindingAction.onOperation();
                                 }
@@ -229,347 +247,84 @@ public class VectorEmbeddingsEngine {
     }
 
     public void insertOrphanFindings(String detectorType, Finding finding, float timestampFeature, Map<String, CustomLogType> logTypes) {
+        insertOrphanFindings(detectorType, finding, timestampFeature, logTypes, 0);
+    }
+
+    private void insertOrphanFindings(String detectorType, Finding finding, float timestampFeature, Map<String, CustomLogType> logTypes, int attempt) {
         Map<String, Object> tags = logTypes.get(detectorType).getTags();
         String correlationId = tags.get("correlation_id").toString();
 
         long findingTimestamp = finding.getTimestamp().toEpochMilli();
-        MatchQueryBuilder queryBuilder = QueryBuilders.matchQuery(
-                "root", true
-        );
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.fetchSource(true);
-        searchSourceBuilder.size(1);
-        SearchRequest searchRequest = new SearchRequest();
-        searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-        searchRequest.source(searchSourceBuilder);
-        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-        client.search(searchRequest, new ActionListener<>() {
+        correlationCounterService.getRootCounter(new ActionListener<>() {
             @Override
-            public void onResponse(SearchResponse response) {
-                if (response.isTimedOut()) {
-                    correlateFindingAction.onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                }
+            public void onResponse(CorrelationCounterService.RootCounter rootCounter) {
+                long timestamp = rootCounter.getTimestamp();
 
-                try {
-                    Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                    String id = response.getHits().getHits()[0].getId();
-                    long counter = Long.parseLong(hitSource.get("counter").toString());
-                    long timestamp = Long.parseLong(hitSource.get("timestamp").toString());
-                    if (counter == 0L) {
-                        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                        builder.field("root", true);
-                        builder.field("counter", 50L);
-                        builder.field("finding1", "");
-                        builder.field("finding2", "");
-                        builder.field("logType", "");
-                        builder.field("timestamp", findingTimestamp);
-                        builder.field("scoreTimestamp", 0L);
-                        builder.endObject();
-
-                        IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                                .id(id)
-                                .source(builder)
-                                .timeout(indexTimeout)
-                                .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                        client.index(indexRequest, new ActionListener<>() {
-                            @Override
-                            public void onResponse(IndexResponse response) {
-                                if (response.status().equals(RestStatus.OK)) {
-                                    try {
-                                        float[] corrVector = new float[3];
-                                        corrVector[0] = 50.0f;
-                                        corrVector[2] = timestampFeature;
-
-                                        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                        builder.field("root", false);
-                                        builder.field("counter", 50L);
-                                        builder.field("finding1", finding.getId());
-                                        builder.field("finding2", "");
-                                        builder.field("logType", correlationId);
-                                        builder.field("timestamp", findingTimestamp);
-                                        builder.field("corr_vector", corrVector);
-                                        builder.field("recordType", "finding");
-                                        builder.field("scoreTimestamp", 0L);
-                                        builder.endObject();
-
-                                        IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                                .source(builder)
-                                                .timeout(indexTimeout)
-                                                .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                        client.index(indexRequest, new ActionListener<>() {
-                                            @Override
-                                            public void onResponse(IndexResponse response) {
-                                                if (response.status().equals(RestStatus.CREATED)) {
-                                                    correlateFindingAction.onOperation();
-                                                } else {
-                                                    correlateFindingAction.onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
-                                                }
-                                            }
-
-                                            @Override
-                                            public void onFailure(Exception e) {
-                                                correlateFindingAction.onFailures(e);
-                                            }
-                                        });
-                                    } catch (IOException ex) {
-                                        correlateFindingAction.onFailures(ex);
-                                    }
-                                }
-                            }
-
-                            @Override
-                            public void onFailure(Exception e) {
-                                correlateFindingAction.onFailures(e);
-                            }
-                        });
-                    } else {
-                        if (findingTimestamp - timestamp > corrTimeWindow) {
-                            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                            builder.field("root", true);
-                            builder.field("counter", 50L);
-                            builder.field("finding1", "");
-                            builder.field("finding2", "");
-                            builder.field("logType", "");
-                            builder.field("timestamp", findingTimestamp);
-                            builder.field("scoreTimestamp", 0L);
-                            builder.endObject();
-
-                            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                                    .id(id)
-                                    .source(builder)
-                                    .timeout(indexTimeout)
-                                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                            client.index(indexRequest, new ActionListener<>() {
-                                @Override
-                                public void onResponse(IndexResponse response) {
-                                    if (response.status().equals(RestStatus.OK)) {
-                                        correlateFindingAction.onOperation();
-                                        try {
-                                            float[] corrVector = new float[3];
-                                            corrVector[0] = 50.0f;
-                                            corrVector[2] = timestampFeature;
-
-                                            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                            builder.field("root", false);
-                                            builder.field("counter", 50L);
-                                            builder.field("finding1", finding.getId());
-                                            builder.field("finding2", "");
-                                            builder.field("logType", Integer.valueOf(logTypes.get(detectorType).getTags().get("correlation_id").toString()).toString());
-                                            builder.field("timestamp", findingTimestamp);
-                                            builder.field("corr_vector", corrVector);
-                                            builder.field("recordType", "finding");
-                                            builder.field("scoreTimestamp", 0L);
-                                            builder.endObject();
-
-                                            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                                    .source(builder)
-                                                    .timeout(indexTimeout)
-                                                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                            client.index(indexRequest, new ActionListener<>() {
-                                                @Override
-                                                public void onResponse(IndexResponse response) {
-                                                    if (response.status().equals(RestStatus.CREATED)) {
-                                                        correlateFindingAction.onOperation();
-                                                    } else {
-                                                        correlateFindingAction.onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
-                                                    }
-                                                }
-
-                                                @Override
-                                                public void onFailure(Exception e) {
-                                                    correlateFindingAction.onFailures(e);
-                                                }
-                                            });
-                                        } catch (IOException ex) {
-                                            correlateFindingAction.onFailures(ex);
-                                        }
-                                    }
-                                }
+                if (rootCounter.getCounter() == 0L || findingTimestamp - timestamp > corrTimeWindow) {
+                    // first finding of the correlation time window, start over from the lowest counter
+                    resetRootCounterAndInsertOrphanFinding(detectorType, finding, timestampFeature, logTypes, correlationId, rootCounter, attempt);
+                    return;
+                }
+                long counter = correlationCounterService.getCounter(rootCounter, findingTimestamp, corrTimeWindow);
 
-                                @Override
-                                public void onFailure(Exception e) {
-                                    correlateFindingAction.onFailures(e);
-                                }
-                            });
-                        } else {
-                            float[] query = new float[3];
-                            for (int i = 0; i < 2; ++i) {
-                                query[i] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
-                            }
-                            query[2] = timestampFeature;
-
-                            CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder("corr_vector", query, 100, QueryBuilders.boolQuery()
-                                    .mustNot(QueryBuilders.matchQuery(
-                                            "finding1", ""
-                                    )).mustNot(QueryBuilders.matchQuery(
-                                            "finding2", ""
-                                    )).filter(QueryBuilders.rangeQuery("timestamp")
-                                            .gte(findingTimestamp - corrTimeWindow)
-                                            .lte(findingTimestamp + corrTimeWindow)));
-                            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                            searchSourceBuilder.query(correlationQueryBuilder);
-                            searchSourceBuilder.fetchSource(true);
-                            searchSourceBuilder.size(1);
-                            SearchRequest searchRequest = new SearchRequest();
-                            searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
-                            searchRequest.source(searchSourceBuilder);
-                            searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                            client.search(searchRequest, new ActionListener<>() {
-                                @Override
-                                public void onResponse(SearchResponse response) {
-                                    if (response.isTimedOut()) {
-                                        correlateFindingAction.onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                    }
+                float[] query = new float[3];
+                for (int i = 0; i < 2; ++i) {
+                    query[i] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
+                }
+                query[2] = timestampFeature;
+
+                CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder("corr_vector", query, 100, QueryBuilders.boolQuery()
+                        .mustNot(QueryBuilders.matchQuery(
+                                "finding1", ""
+                        )).mustNot(QueryBuilders.matchQuery(
+                                "finding2", ""
+                        )).filter(QueryBuilders.rangeQuery("timestamp")
+                                .gte(findingTimestamp - corrTimeWindow)
+                                .lte(findingTimestamp + corrTimeWindow)));
+                SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+                searchSourceBuilder.query(correlationQueryBuilder);
+                searchSourceBuilder.fetchSource(true);
+                searchSourceBuilder.size(1);
+                SearchRequest searchRequest = new SearchRequest();
+                searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+                searchRequest.source(searchSourceBuilder);
+                searchRequest.preference(Preference.PRIMARY_FIRST.type());
+
+                client.search(searchRequest, new ActionListener<>() {
+                    @Override
+                    public void onResponse(SearchResponse response) {
+                        if (response.isTimedOut()) {
+                            correlateFindingAction.onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
+                        }
 
-                                    long totalHits = response.getHits().getTotalHits().value;
-                                    SearchHit hit = totalHits > 0? response.getHits().getHits()[0]: null;
-                                    long existCounter = 0L;
+                        long totalHits = response.getHits().getTotalHits().value;
+                        SearchHit hit = totalHits > 0? response.getHits().getHits()[0]: null;
+                        long existCounter = 0L;
 
-                                    if (hit != null) {
-                                        Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                                        existCounter = Long.parseLong(hitSource.get("counter").toString());
-                                    }
+                        if (hit != null) {
+                            Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
+                            existCounter = Long.parseLong(hitSource.get("counter").toString());
+                        }
 
-                                    if (totalHits == 0L || existCounter != ((long) (2.0f * ((float) counter) - 50.0f) / 2.0f)) {
-                                        try {
-                                            float[] corrVector = new float[3];
-                                            for (int i = 0; i < 2; ++i) {
-                                                corrVector[i] = ((float) counter) - 50.0f;
-                                            }
-                                            corrVector[0] = (float) counter;
-                                            corrVector[2] = timestampFeature;
-
-                                            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                            builder.field("root", false);
-                                            builder.field("counter", counter);
-                                            builder.field("finding1", finding.getId());
-                                            builder.field("finding2", "");
-                                            builder.field("logType", Integer.valueOf(logTypes.get(detectorType).getTags().get("correlation_id").toString()).toString());
-                                            builder.field("timestamp", findingTimestamp);
-                                            builder.field("corr_vector", corrVector);
-                                            builder.field("recordType", "finding");
-                                            builder.field("scoreTimestamp", 0L);
-                                            builder.endObject();
-
-                                            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                                    .source(builder)
-                                                    .timeout(indexTimeout)
-                                                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                            client.index(indexRequest, new ActionListener<>() {
-                                                @Override
-                                                public void onResponse(IndexResponse response) {
-                                                    if (response.status().equals(RestStatus.CREATED)) {
-                                                        correlateFindingAction.onOperation();
-                                                    } else {
-                                                        correlateFindingAction.onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
-                                                    }
-                                                }
-
-                                                @Override
-                                                public void onFailure(Exception e) {
-                                                    correlateFindingAction.onFailures(e);
-                                                }
-                                            });
-                                        } catch (IOException ex) {
-                                            correlateFindingAction.onFailures(ex);
-                                        }
-                                    } else {
-                                        try {
-                                            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                            builder.field("root", true);
-                                            builder.field("counter", counter + 50L);
-                                            builder.field("finding1", "");
-                                            builder.field("finding2", "");
-                                            builder.field("logType", "");
-                                            builder.field("timestamp", findingTimestamp);
-                                            builder.field("scoreTimestamp", 0L);
-                                            builder.endObject();
-
-                                            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                                                    .id(id)
-                                                    .source(builder)
-                                                    .timeout(indexTimeout)
-                                                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                            client.index(indexRequest, new ActionListener<>() {
-                                                @Override
-                                                public void onResponse(IndexResponse response) {
-                                                    if (response.status().equals(RestStatus.OK)) {
-                                                        try {
-                                                            float[] corrVector = new float[3];
-                                                            for (int i = 0; i < 2; ++i) {
-                                                                corrVector[i] = (float) counter;
-                                                            }
-                                                            corrVector[0] = counter + 50.0f;
-                                                            corrVector[2] = timestampFeature;
-
-                                                            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-                                                            builder.field("root", false);
-                                                            builder.field("counter", counter + 50L);
-                                                            builder.field("finding1", finding.getId());
-                                                            builder.field("finding2", "");
-                                                            builder.field("logType", Integer.valueOf(logTypes.get(detectorType).getTags().get("correlation_id").toString()).toString());
-                                                            builder.field("timestamp", findingTimestamp);
-                                                            builder.field("corr_vector", corrVector);
-                                                            builder.field("recordType", "finding");
-                                                            builder.field("scoreTimestamp", 0L);
-                                                            builder.endObject();
-
-                                                            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
-                                                                    .source(builder)
-                                                                    .timeout(indexTimeout)
-                                                                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                                            client.index(indexRequest, new ActionListener<>() {
-                                                                @Override
-                                                                public void onResponse(IndexResponse response) {
-                                                                    if (response.status().equals(RestStatus.CREATED)) {
-                                                                        correlateFindingAction.onOperation();
-                                                                    } else {
-                                                                        correlateFindingAction.onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
-                                                                    }
-                                                                }
-
-                                                                @Override
-                                                                public void onFailure(Exception e) {
-                                                                    correlateFindingAction.onFailures(e);
-                                                                }
-                                                            });
-                                                        } catch (IOException ex) {
-                                                            correlateFindingAction.onFailures(ex);
-                                                        }
-                                                    }
-                                                }
-
-                                                @Override
-                                                public void onFailure(Exception e) {
-                                                    correlateFindingAction.onFailures(e);
-                                                }
-                                            });
-                                        } catch (IOException ex) {
-                                            correlateFindingAction.onFailures(ex);
-                                        }
-                                    }
-                                }
+                        // correlations written by this node may not be searchable yet
+                        boolean recentlyCorrelated = recentCorrelationsOverlay.hasCorrelationRecord(
+                                (long) ((2.0f * ((float) counter) - 50.0f) / 2.0f),
+                                findingTimestamp - corrTimeWindow,
+                                findingTimestamp + corrTimeWindow
+                        );
 
-                                @Override
-                                public void onFailure(Exception e) {
-                                    correlateFindingAction.onFailures(e);
-                                }
-                            });
+                        if ((totalHits == 0L || existCounter != ((long) (2.0f * ((float) counter) - 50.0f) / 2.0f)) && !recentlyCorrelated) {
+                            insertOrphanFinding(finding, timestampFeature, correlationId, counter);
+                        } else {
+                            nextCounterAndInsertOrphanFinding(detectorType, finding, timestampFeature, logTypes, correlationId, rootCounter, counter, attempt);
                         }
                     }
-                } catch (IOException ex) {
-                    correlateFindingAction.onFailures(ex);
-                }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        correlateFindingAction.onFailures(e);
+                    }
+                });
             }
 
             @Override
@@ -578,4 +333,95 @@ public class VectorEmbeddingsEngine {
             }
         });
     }
-}
\ No newline at end of file
+
+    private void resetRootCounterAndInsertOrphanFinding(String detectorType, Finding finding, float timestampFeature, Map<String, CustomLogType> logTypes,
+                                                        String correlationId, CorrelationCounterService.RootCounter rootCounter, int attempt) {
+        long findingTimestamp = finding.getTimestamp().toEpochMilli();
+        correlationCounterService.updateRootCounter(rootCounter, CorrelationCounterService.COUNTER_STEP, findingTimestamp, ActionListener.wrap(
+                updatedRootCounter -> insertOrphanFinding(finding, timestampFeature, correlationId, CorrelationCounterService.COUNTER_STEP),
+                e -> onRootCounterFailure(detectorType, finding, timestampFeature, logTypes, attempt, e)
+        ));
+    }
+
+    private void nextCounterAndInsertOrphanFinding(String detectorType, Finding finding, float timestampFeature, Map<String, CustomLogType> logTypes,
+                                                   String correlationId, CorrelationCounterService.RootCounter rootCounter, long counter, int attempt) {
+        long findingTimestamp = finding.getTimestamp().toEpochMilli();
+        correlationCounterService.nextCounter(rootCounter, counter, findingTimestamp, corrTimeWindow, ActionListener.wrap(
+                nextCounter -> insertOrphanFinding(finding, timestampFeature, correlationId, nextCounter),
+                e -> onRootCounterFailure(detectorType, finding, timestampFeature, logTypes, attempt, e)
+        ));
+    }
+
+    private void onRootCounterFailure(String detectorType, Finding finding, float timestampFeature, Map<String, CustomLogType> logTypes,
+                                      int attempt, Exception e) {
+        if (!CorrelationCounterService.isUpdateConflict(e)) {
+            correlateFindingAction.onFailures(e);
+        } else if (attempt + 1 >= MAX_ROOT_COUNTER_RETRIES) {
+            log.warn("Correlation of finding {} gave up after {} conflicting updates of the root counter", finding.getId(), attempt + 1);
+            correlateFindingAction.onFailures(e);
+        } else {
+            // another finding moved the root counter, re-evaluate against the new counter once the contention settles
+            ThreadPool threadPool = client.threadPool();
+            threadPool.schedule(
+                    threadPool.getThreadContext().preserveContext(() -> insertOrphanFindings(detectorType, finding, timestampFeature, logTypes, attempt + 1)),
+                    rootCounterRetryBackoff(attempt),
+                    ThreadPool.Names.GENERIC
+            );
+        }
+    }
+
+    /**
+     * Exponential backoff capped at {@link #MAX_ROOT_COUNTER_RETRY_BACKOFF_MILLIS}, with jitter so that findings
+     * conflicting on the root counter do not retry in lockstep.
+     */
+    private static TimeValue rootCounterRetryBackoff(int attempt) {
+        long backoffMillis = Math.min(ROOT_COUNTER_RETRY_BACKOFF_MILLIS << Math.min(attempt, 20), MAX_ROOT_COUNTER_RETRY_BACKOFF_MILLIS);
+        return TimeValue.timeValueMillis(backoffMillis / 2 + Randomness.get().nextInt((int) (backoffMillis / 2) + 1));
+    }
+
+    private void insertOrphanFinding(Finding finding, float timestampFeature, String correlationId, long counter) {
+        long findingTimestamp = finding.getTimestamp().toEpochMilli();
+        try {
+            float[] corrVector = new float[3];
+            corrVector[0] = (float) counter;
+            corrVector[1] = ((float) counter) - 50.0f;
+            corrVector[2] = timestampFeature;
+
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            builder.field("root", false);
+            builder.field("counter", counter);
+            builder.field("finding1", finding.getId());
+            builder.field("finding2", "");
+            builder.field("logType", correlationId);
+            builder.field("timestamp", findingTimestamp);
+            builder.field("corr_vector", corrVector);
+            builder.field("recordType", "finding");
+            builder.field("scoreTimestamp", 0L);
+            builder.endObject();
+
+            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
+                    .source(builder)
+                    .timeout(indexTimeout)
+                    .setRefreshPolicy(refreshPolicy);
+
+            client.index(indexRequest, new ActionListener<>() {
+                @Override
+                public void onResponse(IndexResponse response) {
+                    if (response.status().equals(RestStatus.CREATED)) {
+                        recentCorrelationsOverlay.onFindingRecord(finding.getId(), counter, findingTimestamp);
+                        correlateFindingAction.onOperation();
+                    } else {
+                        correlateFindingAction.onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    correlateFindingAction.onFailures(e);
+                }
+            });
+        } catch (IOException ex) {
+            correlateFindingAction.onFailures(ex);
+        }
+    }
+}
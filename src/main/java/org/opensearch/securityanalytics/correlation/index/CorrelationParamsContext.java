@@ -5,6 +5,7 @@
 package org.opensearch.securityanalytics.correlation.index;
 
 import org.apache.lucene.index.VectorSimilarityFunction;
+import org.opensearch.Version;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.core.common.io.stream.Writeable;
@@ -22,17 +23,35 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
 
     public static final String VECTOR_SIMILARITY_FUNCTION = "similarityFunction";
     public static final String PARAMETERS = "parameters";
+    public static final String FORMAT = "format";
+
+    /**
+     * First version sending the format of the vectors over the wire
+     */
+    static final Version FORMAT_VERSION = Version.V_3_0_0;
 
     private final VectorSimilarityFunction similarityFunction;
+    private final CorrelationVectorsFormatType format;
     private final Map<String, Object> parameters;
 
     public CorrelationParamsContext(VectorSimilarityFunction similarityFunction, Map<String, Object> parameters) {
+        this(similarityFunction, CorrelationVectorsFormatType.HNSW, parameters);
+    }
+
+    public CorrelationParamsContext(VectorSimilarityFunction similarityFunction, CorrelationVectorsFormatType format, Map<String, Object> parameters) {
         this.similarityFunction = similarityFunction;
+        this.format = format;
         this.parameters = parameters;
     }
 
     public CorrelationParamsContext(StreamInput sin) throws IOException {
         this.similarityFunction = VectorSimilarityFunction.valueOf(sin.readString());
+        if (sin.getVersion().onOrAfter(FORMAT_VERSION)) {
+            this.format = sin.readEnum(CorrelationVectorsFormatType.class);
+        } else {
+            // older nodes always index vectors in an HNSW graph
+            this.format = CorrelationVectorsFormatType.HNSW;
+        }
         if (sin.available() > 0) {
             this.parameters = sin.readMap();
         } else {
@@ -48,6 +67,8 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
         @SuppressWarnings("unchecked")
         Map<String, Object> contextMap = (Map<String, Object>) in;
         VectorSimilarityFunction similarityFunction = VectorSimilarityFunction.EUCLIDEAN;
+        // mappings created before the format option was introduced were always indexed in an HNSW graph
+        CorrelationVectorsFormatType format = CorrelationVectorsFormatType.HNSW;
         Map<String, Object> parameters = new HashMap<>();
 
         for (Map.Entry<String, Object> contextEntry: contextMap.entrySet()) {
@@ -64,6 +85,11 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
                 } catch (IllegalArgumentException ex) {
                     throw new MapperParsingException(String.format(Locale.getDefault(), "Invalid %s: %s", VECTOR_SIMILARITY_FUNCTION, value));
                 }
+            } else if (FORMAT.equals(key)) {
+                if (!(value instanceof String)) {
+                    throw new MapperParsingException(String.format(Locale.getDefault(), "%s must be a string", FORMAT));
+                }
+                format = CorrelationVectorsFormatType.fromName((String) value);
             } else if (PARAMETERS.equals(key)) {
                 if (value == null) {
                     parameters = null;
@@ -82,13 +108,14 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
                 throw new MapperParsingException(String.format(Locale.getDefault(), "Invalid parameter for : %s", key));
             }
         }
-        return new CorrelationParamsContext(similarityFunction, parameters);
+        return new CorrelationParamsContext(similarityFunction, format, parameters);
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
         builder.field(VECTOR_SIMILARITY_FUNCTION, similarityFunction.name());
+        builder.field(FORMAT, format.getName());
         if (params == null) {
             builder.field(PARAMETERS, (String) null);
         } else {
@@ -107,17 +134,20 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CorrelationParamsContext that = (CorrelationParamsContext) o;
-        return similarityFunction == that.similarityFunction && parameters.equals(that.parameters);
+        return similarityFunction == that.similarityFunction && format == that.format && parameters.equals(that.parameters);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(similarityFunction, parameters);
+        return Objects.hash(similarityFunction, format, parameters);
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeString(similarityFunction.name());
+        if (out.getVersion().onOrAfter(FORMAT_VERSION)) {
+            out.writeEnum(format);
+        }
         if (this.parameters != null) {
             out.writeMap(parameters);
         }
@@ -127,6 +157,10 @@ public class CorrelationParamsContext implements ToXContentFragment, Writeable {
         return similarityFunction;
     }
 
+    public CorrelationVectorsFormatType getFormat() {
+        return format;
+    }
+
     public Map<String, Object> getParameters() {
         return parameters;
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index;
+
+import org.opensearch.index.mapper.MapperParsingException;
+
+import java.util.Locale;
+
+/**
+ * How the vectors of a correlation vector field are indexed & searched.
+ */
+public enum CorrelationVectorsFormatType {
+    /**
+     * Vectors are indexed in an HNSW graph and searched approximately.
+     */
+    HNSW("hnsw"),
+    /**
+     * No graph is built, vectors are only written to binary doc values and every candidate is scored exactly.
+     */
+    FLAT("flat"),
+    /**
+     * Vectors are quantized to bytes before being indexed in an HNSW graph, trading recall for memory. Only available
+     * with codecs whose Lucene version has a scalar quantized vectors format.
+     */
+    SCALAR_QUANTIZED("scalar_quantized");
+
+    private final String name;
+
+    CorrelationVectorsFormatType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static CorrelationVectorsFormatType fromName(String name) {
+        for (CorrelationVectorsFormatType formatType: values()) {
+            if (formatType.name.equalsIgnoreCase(name)) {
+                return formatType;
+            }
+        }
+        throw new MapperParsingException(String.format(Locale.getDefault(), "Invalid %s: %s", CorrelationParamsContext.FORMAT, name));
+    }
+}
@@ -7,19 +7,16 @@ package org.opensearch.securityanalytics.correlation.index;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexableFieldType;
 import org.apache.lucene.util.BytesRef;
-import org.opensearch.securityanalytics.correlation.index.codec.util.CorrelationVectorAsArraySerializer;
-import org.opensearch.securityanalytics.correlation.index.codec.util.CorrelationVectorSerializer;
+import org.opensearch.securityanalytics.correlation.index.codec.util.CorrelationVectorAsBytesSerializer;
 
 public class VectorField extends Field {
 
+    private static final CorrelationVectorAsBytesSerializer VECTOR_SERIALIZER = new CorrelationVectorAsBytesSerializer();
+
+    /**
+     * The field keeps referencing its encoded value until the document is indexed, so every field gets its own buffer.
+     */
     public VectorField(String name, float[] value, IndexableFieldType type) {
-        super(name, new BytesRef(), type);
-        try {
-            final CorrelationVectorSerializer vectorSerializer = new CorrelationVectorAsArraySerializer();
-            final byte[] floatToByte = vectorSerializer.floatToByteArray(value);
-            this.setBytesValue(floatToByte);
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+        super(name, VECTOR_SERIALIZER.floatToBytesRef(value, new BytesRef(new byte[CorrelationVectorAsBytesSerializer.encodedLength(value.length)])), type);
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.perfield.PerFieldKnnVectorsFormat;
 import org.opensearch.index.mapper.MapperService;
 import org.opensearch.securityanalytics.correlation.CorrelationConstants;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
 import org.opensearch.securityanalytics.correlation.index.mapper.CorrelationVectorFieldMapper;
 
 import java.util.Locale;
@@ -22,18 +23,29 @@ public abstract class BasePerFieldCorrelationVectorsFormat extends PerFieldKnnVe
     private final int defaultMaxConnections;
     private final int defaultBeamWidth;
     private final Supplier<KnnVectorsFormat> defaultFormatSupplier;
-    private final BiFunction<Integer, Integer, KnnVectorsFormat> formatSupplier;
+    private final Map<CorrelationVectorsFormatType, BiFunction<Integer, Integer, KnnVectorsFormat>> formatSuppliers;
 
+    /**
+     * @param formatSuppliers vectors format of each {@link CorrelationVectorsFormatType} the codec supports, built from
+     *                        the max connections & beam width of the field
+     */
     public BasePerFieldCorrelationVectorsFormat(Optional<MapperService> mapperService,
                                                 int defaultMaxConnections,
                                                 int defaultBeamWidth,
                                                 Supplier<KnnVectorsFormat> defaultFormatSupplier,
-                                                BiFunction<Integer, Integer, KnnVectorsFormat> formatSupplier) {
+                                                Map<CorrelationVectorsFormatType, BiFunction<Integer, Integer, KnnVectorsFormat>> formatSuppliers) {
         this.mapperService = mapperService;
         this.defaultMaxConnections = defaultMaxConnections;
         this.defaultBeamWidth = defaultBeamWidth;
         this.defaultFormatSupplier = defaultFormatSupplier;
-        this.formatSupplier = formatSupplier;
+        this.formatSuppliers = formatSuppliers;
+    }
+
+    /**
+     * Whether fields of the given format can be indexed with this codec. Flat fields do not index vectors, so they are always supported.
+     */
+    public boolean supportsFormat(CorrelationVectorsFormatType format) {
+        return format == CorrelationVectorsFormatType.FLAT || formatSuppliers.containsKey(format);
     }
 
     @Override
@@ -51,6 +63,11 @@ public abstract class BasePerFieldCorrelationVectorsFormat extends PerFieldKnnVe
         int maxConnections = getMaxConnections(params);
         int beamWidth = getBeamWidth(params);
 
+        var formatSupplier = formatSuppliers.get(type.getVectorsFormat());
+        if (formatSupplier == null) {
+            throw new IllegalArgumentException(String.format(Locale.getDefault(),
+                    "Correlation vectors format [%s] of field [%s] is not supported", type.getVectorsFormat().getName(), field));
+        }
         return formatSupplier.apply(maxConnections, beamWidth);
     }
 
@@ -6,8 +6,10 @@ package org.opensearch.securityanalytics.correlation.index.codec.correlation950;
 
 import org.apache.lucene.codecs.lucene95.Lucene95HnswVectorsFormat;
 import org.opensearch.index.mapper.MapperService;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
 import org.opensearch.securityanalytics.correlation.index.codec.BasePerFieldCorrelationVectorsFormat;
 
+import java.util.Map;
 import java.util.Optional;
 
 public class PerFieldCorrelationVectorsFormat extends BasePerFieldCorrelationVectorsFormat {
@@ -18,7 +20,8 @@ public class PerFieldCorrelationVectorsFormat extends BasePerFieldCorrelationVec
                 Lucene95HnswVectorsFormat.DEFAULT_MAX_CONN,
                 Lucene95HnswVectorsFormat.DEFAULT_BEAM_WIDTH,
                 () -> new Lucene95HnswVectorsFormat(),
-                (maxConn, beamWidth) -> new Lucene95HnswVectorsFormat(maxConn, beamWidth)
+                // Lucene 9.5 has no scalar quantized vectors format
+                Map.of(CorrelationVectorsFormatType.HNSW, (maxConn, beamWidth) -> new Lucene95HnswVectorsFormat(maxConn, beamWidth))
         );
     }
 }
\ No newline at end of file
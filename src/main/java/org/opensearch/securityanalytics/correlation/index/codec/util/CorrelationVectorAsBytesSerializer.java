@@ -0,0 +1,108 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.util;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.OpenSearchParseException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes correlation vectors as a version byte followed by the little-endian packed floats of the vector.
+ *
+ * Values written by {@link CorrelationVectorAsArraySerializer} start with the java serialization stream magic
+ * {@code 0xACED}, which can never be a version byte, so segments indexed before this encoding was introduced are
+ * still decoded through the legacy serializer.
+ */
+public class CorrelationVectorAsBytesSerializer implements CorrelationVectorSerializer {
+
+    public static final byte VERSION_1 = 1;
+
+    public static final byte CURRENT_VERSION = VERSION_1;
+
+    private static final int HEADER_LENGTH = 1;
+
+    private static final byte[] JAVA_SERIALIZATION_MAGIC = { (byte) 0xAC, (byte) 0xED };
+
+    private final CorrelationVectorSerializer legacySerializer = new CorrelationVectorAsArraySerializer();
+
+    @Override
+    public byte[] floatToByteArray(float[] input) {
+        return floatToBytesRef(input, new BytesRef(new byte[encodedLength(input.length)])).bytes;
+    }
+
+    @Override
+    public float[] byteToFloatArray(ByteArrayInputStream byteStream) {
+        byte[] bytes = byteStream.readAllBytes();
+        return bytesRefToFloatArray(new BytesRef(bytes));
+    }
+
+    /**
+     * Encodes {@code input} into {@code reuse}, growing its buffer only if it is too small, and returns it.
+     */
+    public BytesRef floatToBytesRef(float[] input, BytesRef reuse) {
+        int length = encodedLength(input.length);
+        if (reuse.bytes.length < length) {
+            reuse.bytes = new byte[ArrayUtil.oversize(length, Byte.BYTES)];
+        }
+        reuse.offset = 0;
+        reuse.length = length;
+
+        ByteBuffer buffer = ByteBuffer.wrap(reuse.bytes, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(CURRENT_VERSION);
+        buffer.asFloatBuffer().put(input);
+        return reuse;
+    }
+
+    /**
+     * Decodes a vector written by this serializer or by {@link CorrelationVectorAsArraySerializer}.
+     */
+    public float[] bytesRefToFloatArray(BytesRef bytesRef) {
+        return bytesRefToFloatArray(bytesRef, null);
+    }
+
+    /**
+     * Decodes a vector written by this serializer or by {@link CorrelationVectorAsArraySerializer} into {@code reuse} if it
+     * has the dimension of the vector, so that scoring many docs does not allocate a vector per doc. Returns a new array
+     * otherwise.
+     */
+    public float[] bytesRefToFloatArray(BytesRef bytesRef, float[] reuse) {
+        if (isLegacyEncoding(bytesRef)) {
+            return legacySerializer.byteToFloatArray(new ByteArrayInputStream(bytesRef.bytes, bytesRef.offset, bytesRef.length));
+        }
+        if (bytesRef.length < HEADER_LENGTH || bytesRef.bytes[bytesRef.offset] != VERSION_1) {
+            throw new OpenSearchParseException("unknown correlation vector encoding");
+        }
+
+        int payloadLength = bytesRef.length - HEADER_LENGTH;
+        if (payloadLength % Float.BYTES != 0) {
+            throw new OpenSearchParseException("corrupted correlation vector of length [{}]", bytesRef.length);
+        }
+
+        int dimension = payloadLength / Float.BYTES;
+        float[] vector = reuse != null && reuse.length == dimension ? reuse : new float[dimension];
+        ByteBuffer.wrap(bytesRef.bytes, bytesRef.offset + HEADER_LENGTH, payloadLength)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    /**
+     * Number of bytes a vector of {@code dimension} floats is encoded into.
+     */
+    public static int encodedLength(int dimension) {
+        return HEADER_LENGTH + dimension * Float.BYTES;
+    }
+
+    static boolean isLegacyEncoding(BytesRef bytesRef) {
+        return bytesRef.length >= JAVA_SERIALIZATION_MAGIC.length &&
+                bytesRef.bytes[bytesRef.offset] == JAVA_SERIALIZATION_MAGIC[0] &&
+                bytesRef.bytes[bytesRef.offset + 1] == JAVA_SERIALIZATION_MAGIC[1];
+    }
+}
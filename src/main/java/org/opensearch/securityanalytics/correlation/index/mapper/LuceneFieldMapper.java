@@ -12,9 +12,12 @@ import org.apache.lucene.index.VectorSimilarityFunction;
 import org.opensearch.common.Explicit;
 import org.opensearch.index.mapper.ParseContext;
 import org.opensearch.securityanalytics.correlation.index.CorrelationParamsContext;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
 import org.opensearch.securityanalytics.correlation.index.VectorField;
+import org.opensearch.securityanalytics.correlation.index.codec.CorrelationCodecVersion;
 
 import java.io.IOException;
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.apache.lucene.codecs.KnnVectorsFormat.DEFAULT_MAX_DIMENSIONS;
@@ -25,6 +28,8 @@ public class LuceneFieldMapper extends CorrelationVectorFieldMapper {
 
     private final FieldType vectorFieldType;
 
+    private final CorrelationVectorsFormatType vectorsFormat;
+
     public LuceneFieldMapper(final CreateLuceneFieldMapperInput input) {
         super(
                 input.getName(),
@@ -52,8 +57,21 @@ public class LuceneFieldMapper extends CorrelationVectorFieldMapper {
         }
 
         this.fieldType = KnnVectorField.createFieldType(dimension, vectorSimilarityFunction);
+        this.vectorsFormat = input.getMappedFieldType().getVectorsFormat();
+        if (!CorrelationCodecVersion.current().getPerFieldCorrelationVectorsFormat().supportsFormat(vectorsFormat)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            Locale.getDefault(),
+                            "Correlation vectors format [%s] is not supported by codec [%s] for vector [%s]",
+                            vectorsFormat.getName(),
+                            CorrelationCodecVersion.current().getCodecName(),
+                            input.getName()
+                    )
+            );
+        }
 
-        if (this.hasDocValues) {
+        // flat vectors are only scored from doc values
+        if (this.hasDocValues || this.vectorsFormat == CorrelationVectorsFormatType.FLAT) {
             this.vectorFieldType = buildDocValuesFieldType();
         } else {
             this.vectorFieldType = null;
@@ -76,13 +94,15 @@ public class LuceneFieldMapper extends CorrelationVectorFieldMapper {
         }
         final float[] array = arrayOptional.get();
 
-        KnnVectorField point = new KnnVectorField(name(), array, fieldType);
+        if (vectorsFormat != CorrelationVectorsFormatType.FLAT) {
+            KnnVectorField point = new KnnVectorField(name(), array, fieldType);
 
-        context.doc().add(point);
-        if (fieldType.stored()) {
-            context.doc().add(new StoredField(name(), point.toString()));
+            context.doc().add(point);
+            if (fieldType.stored()) {
+                context.doc().add(new StoredField(name(), point.toString()));
+            }
         }
-        if (hasDocValues && vectorFieldType != null) {
+        if (vectorFieldType != null) {
             context.doc().add(new VectorField(name(), array, vectorFieldType));
         }
         context.path().remove();
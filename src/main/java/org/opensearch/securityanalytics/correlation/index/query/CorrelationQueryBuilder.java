@@ -6,7 +6,9 @@ package org.opensearch.securityanalytics.correlation.index.query;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.search.Query;
+import org.opensearch.Version;
 import org.opensearch.core.common.ParsingException;
 import org.opensearch.core.common.Strings;
 import org.opensearch.core.common.io.stream.StreamInput;
@@ -33,20 +35,34 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
     public static final ParseField VECTOR_FIELD = new ParseField("vector");
     public static final ParseField K_FIELD = new ParseField("k");
     public static final ParseField FILTER_FIELD = new ParseField("filter");
+    public static final ParseField EF_SEARCH_FIELD = new ParseField("ef_search");
     public static int K_MAX = 10000;
 
+    /**
+     * First version sending ef_search over the wire, older nodes collect {@code k} candidates
+     */
+    static final Version EF_SEARCH_VERSION = Version.V_3_0_0;
+
     public static final String NAME = "correlation";
 
     private final String fieldName;
     private final float[] vector;
     private int k = 0;
     private QueryBuilder filter;
+    private Integer efSearch;
 
     public CorrelationQueryBuilder(String fieldName, float[] vector, int k) {
         this(fieldName, vector, k, null);
     }
 
     public CorrelationQueryBuilder(String fieldName, float[] vector, int k, QueryBuilder filter) {
+        this(fieldName, vector, k, filter, null);
+    }
+
+    /**
+     * @param efSearch number of candidates to collect from the HNSW graph before keeping the top {@code k}, defaults to {@code k}
+     */
+    public CorrelationQueryBuilder(String fieldName, float[] vector, int k, QueryBuilder filter, Integer efSearch) {
         if (Strings.isNullOrEmpty(fieldName)) {
             throw new IllegalArgumentException(String.format(Locale.getDefault(), "[%s] requires fieldName", NAME));
         }
@@ -62,11 +78,15 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
         if (k > K_MAX) {
             throw new IllegalArgumentException(String.format(Locale.getDefault(), "[%s] requires k <= ", K_MAX));
         }
+        if (efSearch != null && (efSearch < k || efSearch > K_MAX)) {
+            throw new IllegalArgumentException(String.format(Locale.getDefault(), "[%s] requires k <= ef_search <= %d", NAME, K_MAX));
+        }
 
         this.fieldName = fieldName;
         this.vector = vector;
         this.k = k;
         this.filter = filter;
+        this.efSearch = efSearch;
     }
 
     public CorrelationQueryBuilder(StreamInput sin) throws IOException {
@@ -76,6 +96,7 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
             this.vector = sin.readFloatArray();
             this.k = sin.readInt();
             this.filter = sin.readOptionalNamedWriteable(QueryBuilder.class);
+            this.efSearch = sin.getVersion().onOrAfter(EF_SEARCH_VERSION) ? sin.readOptionalInt() : null;
         } catch (IOException ex) {
             throw new RuntimeException("Unable to create CorrelationQueryBuilder", ex);
         }
@@ -95,6 +116,7 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
         float boost = AbstractQueryBuilder.DEFAULT_BOOST;
 
         int k = 0;
+        Integer efSearch = null;
         QueryBuilder filter = null;
         String queryName = null;
         String currentFieldName = null;
@@ -115,6 +137,8 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
                             boost = parser.floatValue();
                         } else if (K_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
                             k = (Integer) NumberFieldMapper.NumberType.INTEGER.parse(parser.objectBytes(), false);
+                        } else if (EF_SEARCH_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            efSearch = (Integer) NumberFieldMapper.NumberType.INTEGER.parse(parser.objectBytes(), false);
                         } else if (AbstractQueryBuilder.NAME_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
                             queryName = parser.text();
                         } else {
@@ -145,7 +169,7 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
         }
 
         assert vector != null;
-        CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder(fieldName, objectsToFloats(vector), k, filter);
+        CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder(fieldName, objectsToFloats(vector), k, filter, efSearch);
         correlationQueryBuilder.queryName(queryName);
         correlationQueryBuilder.boost(boost);
         return correlationQueryBuilder;
@@ -167,12 +191,19 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
         return filter;
     }
 
+    public Integer getEfSearch() {
+        return efSearch;
+    }
+
     @Override
     protected void doWriteTo(StreamOutput out) throws IOException {
         out.writeString(fieldName);
         out.writeFloatArray(vector);
         out.writeInt(k);
         out.writeOptionalNamedWriteable(filter);
+        if (out.getVersion().onOrAfter(EF_SEARCH_VERSION)) {
+            out.writeOptionalInt(efSearch);
+        }
     }
 
     @Override
@@ -182,6 +213,9 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
 
         builder.field(VECTOR_FIELD.getPreferredName(), vector);
         builder.field(K_FIELD.getPreferredName(), k);
+        if (efSearch != null) {
+            builder.field(EF_SEARCH_FIELD.getPreferredName(), efSearch);
+        }
         if (filter != null) {
             builder.field(FILTER_FIELD.getPreferredName(), filter);
         }
@@ -213,20 +247,25 @@ public class CorrelationQueryBuilder extends AbstractQueryBuilder<CorrelationQue
                 this.fieldName,
                 this.vector,
                 this.k,
+                this.efSearch,
                 this.filter,
-                context
+                context,
+                correlationVectorFieldType.getVectorsFormat(),
+                correlationVectorFieldType.getCorrelationParams() != null ?
+                        correlationVectorFieldType.getCorrelationParams().getSimilarityFunction() : VectorSimilarityFunction.EUCLIDEAN
         );
         return CorrelationQueryFactory.create(createQueryRequest);
     }
 
     @Override
     protected boolean doEquals(CorrelationQueryBuilder other) {
-        return Objects.equals(fieldName, other.fieldName) && Arrays.equals(vector, other.vector) && Objects.equals(k, other.k);
+        return Objects.equals(fieldName, other.fieldName) && Arrays.equals(vector, other.vector) && Objects.equals(k, other.k) &&
+                Objects.equals(efSearch, other.efSearch);
     }
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(fieldName, vector, k);
+        return Objects.hash(fieldName, vector, k, efSearch);
     }
 
     @Override
@@ -4,10 +4,12 @@
  */
 package org.opensearch.securityanalytics.correlation.index.query;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.search.KnnVectorQuery;
 import org.apache.lucene.search.Query;
 import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryShardContext;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -18,21 +20,29 @@ public class CorrelationQueryFactory {
         final String indexName = createQueryRequest.getIndexName();
         final String fieldName = createQueryRequest.getFieldName();
         final int k = createQueryRequest.getK();
+        final int candidates = createQueryRequest.getEfSearch().orElse(k);
         final float[] vector = createQueryRequest.getVector();
 
+        Query filterQuery = null;
         if (createQueryRequest.getFilter().isPresent()) {
             final QueryShardContext context = createQueryRequest.getContext().orElseThrow(
                     () -> new RuntimeException("Shard context cannot be null")
             );
 
             try {
-                final Query filterQuery = createQueryRequest.getFilter().get().toQuery(context);
-                return new KnnVectorQuery(fieldName, vector, k, filterQuery);
+                filterQuery = createQueryRequest.getFilter().get().toQuery(context);
             } catch (IOException ex) {
                 throw new RuntimeException("Cannot create knn query with filter", ex);
             }
         }
-        return new KnnVectorQuery(fieldName, vector, k);
+
+        // hnsw queries already fall back to an exact search when the filter matches no more than k documents
+        if (createQueryRequest.getVectorsFormat() == CorrelationVectorsFormatType.FLAT) {
+            return new ExactCorrelationQuery(fieldName, vector, k, filterQuery, createQueryRequest.getSimilarityFunction());
+        }
+        Query knnQuery = filterQuery != null ? new KnnVectorQuery(fieldName, vector, candidates, filterQuery) :
+                new KnnVectorQuery(fieldName, vector, candidates);
+        return candidates > k ? new TopKCorrelationQuery(knnQuery, k) : knnQuery;
     }
 
     static class CreateQueryRequest {
@@ -44,22 +54,43 @@ public class CorrelationQueryFactory {
 
         private int k;
 
+        private Integer efSearch;
+
         private QueryBuilder filter;
 
         private QueryShardContext context;
 
+        private CorrelationVectorsFormatType vectorsFormat;
+
+        private VectorSimilarityFunction similarityFunction;
+
         public CreateQueryRequest(String indexName,
                                   String fieldName,
                                   float[] vector,
                                   int k,
                                   QueryBuilder filter,
                                   QueryShardContext context) {
+            this(indexName, fieldName, vector, k, null, filter, context, CorrelationVectorsFormatType.HNSW, VectorSimilarityFunction.EUCLIDEAN);
+        }
+
+        public CreateQueryRequest(String indexName,
+                                  String fieldName,
+                                  float[] vector,
+                                  int k,
+                                  Integer efSearch,
+                                  QueryBuilder filter,
+                                  QueryShardContext context,
+                                  CorrelationVectorsFormatType vectorsFormat,
+                                  VectorSimilarityFunction similarityFunction) {
             this.indexName = indexName;
             this.fieldName = fieldName;
             this.vector = vector;
             this.k = k;
+            this.efSearch = efSearch;
             this.filter = filter;
             this.context = context;
+            this.vectorsFormat = vectorsFormat;
+            this.similarityFunction = similarityFunction;
         }
 
         public String getIndexName() {
@@ -78,6 +109,10 @@ public class CorrelationQueryFactory {
             return k;
         }
 
+        public Optional<Integer> getEfSearch() {
+            return Optional.ofNullable(efSearch);
+        }
+
         public Optional<QueryBuilder> getFilter() {
             return Optional.ofNullable(filter);
         }
@@ -85,5 +120,13 @@ public class CorrelationQueryFactory {
         public Optional<QueryShardContext> getContext() {
             return Optional.ofNullable(context);
         }
+
+        public CorrelationVectorsFormatType getVectorsFormat() {
+            return vectorsFormat;
+        }
+
+        public VectorSimilarityFunction getSimilarityFunction() {
+            return similarityFunction;
+        }
     }
 }
\ No newline at end of file
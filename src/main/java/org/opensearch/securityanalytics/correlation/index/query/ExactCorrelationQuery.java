@@ -0,0 +1,203 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.query;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.ConjunctionUtils;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.opensearch.securityanalytics.correlation.index.codec.util.CorrelationVectorAsBytesSerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Returns the {@code k} documents nearest to {@code vector} by scanning the binary doc values of a correlation vector
+ * field and scoring every candidate exactly with the similarity function of the field. Used for fields indexed with the
+ * flat format, where no HNSW graph is built.
+ */
+public class ExactCorrelationQuery extends Query {
+
+    private static final CorrelationVectorAsBytesSerializer VECTOR_SERIALIZER = new CorrelationVectorAsBytesSerializer();
+
+    private final String field;
+    private final float[] vector;
+    private final int k;
+    private final Query filter;
+    private final VectorSimilarityFunction similarityFunction;
+
+    public ExactCorrelationQuery(String field, float[] vector, int k, Query filter, VectorSimilarityFunction similarityFunction) {
+        this.field = field;
+        this.vector = vector;
+        this.k = k;
+        this.filter = filter;
+        this.similarityFunction = similarityFunction;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        // candidates are scored lazily through the searcher of the request, so that its timeout and cancellation are
+        // checked while the candidates are scanned
+        TopDocs topDocs = searcher.search(new CandidateScanQuery(this), k);
+        return new TopDocsWeight(this, searcher, topDocs.scoreDocs, boost);
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public String toString(String field) {
+        return getClass().getSimpleName() + ":" + this.field + "[" + vector[0] + ",...][" + k + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!sameClassAs(o)) return false;
+        ExactCorrelationQuery that = (ExactCorrelationQuery) o;
+        return k == that.k && field.equals(that.field) && Arrays.equals(vector, that.vector) &&
+                Objects.equals(filter, that.filter) && similarityFunction == that.similarityFunction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), field, Arrays.hashCode(vector), k, filter, similarityFunction);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public Query getFilter() {
+        return filter;
+    }
+
+    /**
+     * Matches every live candidate of the filter with a vector, scored exactly against the query vector as it is
+     * visited, so that the collector of the searcher keeps the top {@code k}.
+     */
+    private static class CandidateScanQuery extends Query {
+        private final ExactCorrelationQuery query;
+
+        CandidateScanQuery(ExactCorrelationQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+            Weight filterWeight = query.filter != null ?
+                    searcher.createWeight(searcher.rewrite(query.filter), ScoreMode.COMPLETE_NO_SCORES, 1.0f) : null;
+
+            return new Weight(this) {
+                @Override
+                public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+                    Scorer scorer = scorer(context);
+                    if (scorer == null || scorer.iterator().advance(doc) != doc) {
+                        return Explanation.noMatch("no correlation vector");
+                    }
+                    return Explanation.match(scorer.score(), "exact correlation vector score");
+                }
+
+                @Override
+                public Scorer scorer(LeafReaderContext context) throws IOException {
+                    BinaryDocValues vectorValues = context.reader().getBinaryDocValues(query.field);
+                    if (vectorValues == null) {
+                        return null;
+                    }
+
+                    DocIdSetIterator candidates = vectorValues;
+                    if (filterWeight != null) {
+                        Scorer filterScorer = filterWeight.scorer(context);
+                        if (filterScorer == null) {
+                            return null;
+                        }
+                        candidates = ConjunctionUtils.intersectIterators(List.of(filterScorer.iterator(), vectorValues));
+                    }
+                    return new CandidateScorer(this, candidates, vectorValues, boost);
+                }
+
+                @Override
+                public boolean isCacheable(LeafReaderContext context) {
+                    return false;
+                }
+            };
+        }
+
+        private class CandidateScorer extends Scorer {
+            private final DocIdSetIterator candidates;
+            private final BinaryDocValues vectorValues;
+            private final float boost;
+            private final float[] docVector;
+
+            CandidateScorer(Weight weight, DocIdSetIterator candidates, BinaryDocValues vectorValues, float boost) {
+                super(weight);
+                this.candidates = candidates;
+                this.vectorValues = vectorValues;
+                this.boost = boost;
+                this.docVector = new float[query.vector.length];
+            }
+
+            @Override
+            public DocIdSetIterator iterator() {
+                return candidates;
+            }
+
+            @Override
+            public float getMaxScore(int upTo) {
+                return Float.POSITIVE_INFINITY;
+            }
+
+            @Override
+            public float score() throws IOException {
+                float[] vector = VECTOR_SERIALIZER.bytesRefToFloatArray(vectorValues.binaryValue(), docVector);
+                return query.similarityFunction.compare(query.vector, vector) * boost;
+            }
+
+            @Override
+            public int docID() {
+                return candidates.docID();
+            }
+        }
+
+        @Override
+        public void visit(QueryVisitor visitor) {
+            query.visit(visitor);
+        }
+
+        @Override
+        public String toString(String field) {
+            return getClass().getSimpleName() + "[" + query.toString(field) + "]";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return sameClassAs(o) && query.equals(((CandidateScanQuery) o).query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classHash(), query);
+        }
+    }
+}
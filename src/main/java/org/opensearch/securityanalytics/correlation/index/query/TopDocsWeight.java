@@ -0,0 +1,143 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.query;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Matches top documents already collected across all segments of a searcher, each with its collected score.
+ */
+class TopDocsWeight extends Weight {
+    private final Object readerContextId;
+    private final int[] docs;
+    private final float[] scores;
+
+    TopDocsWeight(Query query, IndexSearcher searcher, ScoreDoc[] scoreDocs, float boost) {
+        super(query);
+        this.readerContextId = searcher.getIndexReader().getContext().id();
+
+        ScoreDoc[] sortedScoreDocs = scoreDocs.clone();
+        Arrays.sort(sortedScoreDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        this.docs = new int[sortedScoreDocs.length];
+        this.scores = new float[sortedScoreDocs.length];
+        for (int i = 0; i < sortedScoreDocs.length; ++i) {
+            docs[i] = sortedScoreDocs[i].doc;
+            scores[i] = sortedScoreDocs[i].score * boost;
+        }
+    }
+
+    @Override
+    public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+        int index = Arrays.binarySearch(docs, context.docBase + doc);
+        if (index < 0) {
+            return Explanation.noMatch("not in the top k correlation vectors");
+        }
+        return Explanation.match(scores[index], "correlation vector score");
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+        if (ReaderUtil.getTopLevelContext(context).id() != readerContextId) {
+            throw new IllegalStateException("This correlation query was created by a different reader");
+        }
+
+        int lower = lowerBound(context.docBase);
+        int upper = lowerBound(context.docBase + context.reader().maxDoc());
+        if (lower == upper) {
+            return null;
+        }
+        return new TopDocsScorer(this, context.docBase, lower, upper);
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext context) {
+        return false;
+    }
+
+    private int lowerBound(int doc) {
+        int index = Arrays.binarySearch(docs, doc);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private class TopDocsScorer extends Scorer {
+        private final int docBase;
+        private final int lower;
+        private final int upper;
+        private int upTo;
+
+        TopDocsScorer(Weight weight, int docBase, int lower, int upper) {
+            super(weight);
+            this.docBase = docBase;
+            this.lower = lower;
+            this.upper = upper;
+            this.upTo = lower - 1;
+        }
+
+        @Override
+        public DocIdSetIterator iterator() {
+            return new DocIdSetIterator() {
+                @Override
+                public int docID() {
+                    return TopDocsScorer.this.docID();
+                }
+
+                @Override
+                public int nextDoc() {
+                    if (upTo < upper) {
+                        ++upTo;
+                    }
+                    return docID();
+                }
+
+                @Override
+                public int advance(int target) throws IOException {
+                    return slowAdvance(target);
+                }
+
+                @Override
+                public long cost() {
+                    return upper - lower;
+                }
+            };
+        }
+
+        @Override
+        public float getMaxScore(int maxDoc) {
+            float maxScore = Float.NEGATIVE_INFINITY;
+            for (int i = lower; i < upper; ++i) {
+                maxScore = Math.max(maxScore, scores[i]);
+            }
+            return maxScore;
+        }
+
+        @Override
+        public float score() {
+            return scores[upTo];
+        }
+
+        @Override
+        public int docID() {
+            if (upTo < lower) {
+                return -1;
+            }
+            if (upTo >= upper) {
+                return DocIdSetIterator.NO_MORE_DOCS;
+            }
+            return docs[upTo] - docBase;
+        }
+    }
+}
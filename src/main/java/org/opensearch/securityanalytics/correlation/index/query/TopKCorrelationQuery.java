@@ -0,0 +1,70 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.query;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Keeps the {@code k} best hits of a correlation vector query which was run with a larger candidate list, so the
+ * search width of an HNSW graph (ef_search) can be raised without returning more than {@code k} correlations.
+ */
+public class TopKCorrelationQuery extends Query {
+
+    private final Query query;
+    private final int k;
+
+    public TopKCorrelationQuery(Query query, int k) {
+        this.query = query;
+        this.k = k;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        // candidates are collected through the searcher of the request, so that its query cache, similarity,
+        // executor, timeout and cancellation apply
+        TopDocs topDocs = searcher.search(query, k);
+        return new TopDocsWeight(this, searcher, topDocs.scoreDocs, boost);
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        query.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+    }
+
+    @Override
+    public String toString(String field) {
+        return getClass().getSimpleName() + "[" + query.toString(field) + "][" + k + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!sameClassAs(o)) return false;
+        TopKCorrelationQuery that = (TopKCorrelationQuery) o;
+        return k == that.k && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), query, k);
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    public int getK() {
+        return k;
+    }
+}
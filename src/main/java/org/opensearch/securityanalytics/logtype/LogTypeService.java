@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,6 +32,7 @@ import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.search.SearchRequest;
@@ -47,10 +49,13 @@ import org.opensearch.common.util.io.Streams;
 import org.opensearch.common.util.set.Sets;
 import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.index.shard.ShardId;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.engine.Engine;
 import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.index.shard.IndexingOperationListener;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.aggregations.bucket.terms.Terms;
 import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
@@ -68,7 +73,7 @@ import static org.opensearch.securityanalytics.settings.SecurityAnalyticsSetting
 /**
  *
  * */
-public class LogTypeService {
+public class LogTypeService implements IndexingOperationListener {
 
     private static final Logger logger = LogManager.getLogger(LogTypeService.class);
 
@@ -94,6 +99,15 @@ public class LogTypeService {
 
     public int logTypeMappingVersion;
 
+    /**
+     * In-memory snapshot of all log types, null until first loaded or after an invalidation
+     */
+    private volatile LogTypeSnapshot logTypeSnapshot;
+
+    private final AtomicLong logTypeSnapshotGeneration = new AtomicLong();
+
+    private final List<ActionListener<LogTypeSnapshot>> pendingLogTypeSnapshotListeners = new ArrayList<>();
+
     @Inject
     public LogTypeService(Client client, ClusterService clusterService, NamedXContentRegistry xContentRegistry, BuiltinLogTypeLoader builtinLogTypeLoader) {
         this.client = client;
@@ -104,7 +118,10 @@ public class LogTypeService {
         this.defaultSchemaField = DEFAULT_MAPPING_SCHEMA.get(clusterService.getSettings());
         clusterService.getClusterSettings().addSettingsUpdateConsumer(
                 DEFAULT_MAPPING_SCHEMA,
-                newDefaultSchema -> this.defaultSchemaField = newDefaultSchema
+                newDefaultSchema -> {
+                    this.defaultSchemaField = newDefaultSchema;
+                    invalidateLogTypeSnapshot();
+                }
         );
         setLogTypeMappingVersion();
     }
@@ -222,6 +239,119 @@ public class LogTypeService {
         }, listener::onFailure));
     }
 
+    /**
+     * Returns the in-memory snapshot of all log types. The listener is completed on the calling thread when the
+     * snapshot is already loaded; otherwise the snapshot is (re)built from the log type config index, sharing one load
+     * between all concurrent callers.
+     * */
+    public void getLogTypeSnapshot(ActionListener<LogTypeSnapshot> listener) {
+        LogTypeSnapshot snapshot = logTypeSnapshot;
+        if (snapshot != null) {
+            listener.onResponse(snapshot);
+            return;
+        }
+
+        boolean startLoad;
+        synchronized (pendingLogTypeSnapshotListeners) {
+            startLoad = pendingLogTypeSnapshotListeners.isEmpty();
+            pendingLogTypeSnapshotListeners.add(listener);
+        }
+        if (startLoad) {
+            loadLogTypeSnapshot();
+        }
+    }
+
+    /**
+     * @return the currently loaded log type snapshot or null if it is not loaded
+     * */
+    public LogTypeSnapshot getCachedLogTypeSnapshot() {
+        return logTypeSnapshot;
+    }
+
+    /**
+     * Drops the log type snapshot, the next call to {@link #getLogTypeSnapshot(ActionListener)} re-reads the log type config index.
+     * */
+    public void invalidateLogTypeSnapshot() {
+        logTypeSnapshotGeneration.incrementAndGet();
+        logTypeSnapshot = null;
+    }
+
+    private void loadLogTypeSnapshot() {
+        long generation = logTypeSnapshotGeneration.get();
+        ActionListener<LogTypeSnapshot> loadListener = ActionListener.wrap(snapshot -> {
+            if (generation == logTypeSnapshotGeneration.get()) {
+                logTypeSnapshot = snapshot;
+            }
+            completePendingLogTypeSnapshotListeners(snapshot, null);
+        }, e -> {
+            logger.error("Failed loading log type snapshot", e);
+            completePendingLogTypeSnapshotListeners(null, e);
+        });
+
+        ensureConfigIndexIsInitialized(ActionListener.wrap(unused ->
+            // writes to the config index invalidate the snapshot before they are visible to search
+            client.admin().indices().refresh(new RefreshRequest(LOG_TYPE_INDEX), ActionListener.wrap(
+                    refreshResponse -> searchLogTypeSnapshot(generation, loadListener),
+                    e -> searchLogTypeSnapshot(generation, loadListener)
+            )), loadListener::onFailure));
+    }
+
+    private void searchLogTypeSnapshot(long generation, ActionListener<LogTypeSnapshot> listener) {
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                .must(QueryBuilders.existsQuery("source"));
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(queryBuilder);
+        searchSourceBuilder.fetchSource(true);
+        searchSourceBuilder.size(10000);
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.indices(LogTypeService.LOG_TYPE_INDEX);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.preference(Preference.PRIMARY_FIRST.type());
+
+        client.search(searchRequest, ActionListener.delegateFailure(listener, (delegatedListener, searchResponse) -> {
+            List<CustomLogType> logTypes = new ArrayList<>();
+            for (SearchHit hit: searchResponse.getHits().getHits()) {
+                CustomLogType logType = new CustomLogType(hit.getSourceAsMap());
+                logType.setId(hit.getId());
+                logType.setVersion(hit.getVersion());
+                logTypes.add(logType);
+            }
+
+            getAllFieldMappings(ActionListener.delegateFailure(delegatedListener, (l, fieldMappingDocs) ->
+                    l.onResponse(new LogTypeSnapshot(generation, logTypes, fieldMappingDocs, defaultSchemaField))
+            ));
+        }));
+    }
+
+    private void completePendingLogTypeSnapshotListeners(LogTypeSnapshot snapshot, Exception e) {
+        List<ActionListener<LogTypeSnapshot>> listeners;
+        synchronized (pendingLogTypeSnapshotListeners) {
+            listeners = new ArrayList<>(pendingLogTypeSnapshotListeners);
+            pendingLogTypeSnapshotListeners.clear();
+        }
+        for (ActionListener<LogTypeSnapshot> listener: listeners) {
+            if (e != null) {
+                listener.onFailure(e);
+            } else {
+                listener.onResponse(snapshot);
+            }
+        }
+    }
+
+    @Override
+    public void postIndex(ShardId shardId, Engine.Index index, Engine.IndexResult result) {
+        if (LOG_TYPE_INDEX.equals(shardId.getIndexName())) {
+            invalidateLogTypeSnapshot();
+        }
+    }
+
+    @Override
+    public void postDelete(ShardId shardId, Engine.Delete delete, Engine.DeleteResult result) {
+        if (LOG_TYPE_INDEX.equals(shardId.getIndexName())) {
+            invalidateLogTypeSnapshot();
+        }
+    }
+
     private void doIndexFieldMappings(List<FieldMappingDoc> fieldMappingDocs, ActionListener<Void> listener) {
         if (fieldMappingDocs.isEmpty()) {
             listener.onResponse(null);
@@ -0,0 +1,105 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.logtype;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.opensearch.securityanalytics.model.CustomLogType;
+import org.opensearch.securityanalytics.model.FieldMappingDoc;
+
+/**
+ * Immutable, point-in-time view of all log types (builtin and custom) stored in the log type config index,
+ * together with their correlation ids and rawField -> default schema field mappings.
+ * */
+public class LogTypeSnapshot {
+
+    public static final String CORRELATION_ID_TAG = "correlation_id";
+
+    private final long generation;
+
+    private final Map<String, CustomLogType> logTypes;
+
+    private final Map<String, Map<String, String>> fieldMappings;
+
+    public LogTypeSnapshot(long generation, List<CustomLogType> logTypes, List<FieldMappingDoc> fieldMappingDocs, String defaultSchemaField) {
+        this.generation = generation;
+
+        Map<String, CustomLogType> logTypesByName = new HashMap<>();
+        for (CustomLogType logType: logTypes) {
+            logTypesByName.put(logType.getName(), logType);
+        }
+        this.logTypes = Collections.unmodifiableMap(logTypesByName);
+
+        Map<String, Map<String, String>> mappings = new HashMap<>();
+        for (FieldMappingDoc fieldMappingDoc: fieldMappingDocs) {
+            Set<String> fieldMappingLogTypes = fieldMappingDoc.getLogTypes();
+            if (fieldMappingLogTypes == null) {
+                continue;
+            }
+            for (String logType: fieldMappingLogTypes) {
+                mappings.computeIfAbsent(logType, k -> new HashMap<>())
+                        .put(fieldMappingDoc.getRawField(), fieldMappingDoc.getSchemaFields().get(defaultSchemaField));
+            }
+        }
+        mappings.replaceAll((logType, logTypeMappings) -> Collections.unmodifiableMap(logTypeMappings));
+        this.fieldMappings = Collections.unmodifiableMap(mappings);
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return all log types keyed by name
+     */
+    public Map<String, CustomLogType> getLogTypes() {
+        return logTypes;
+    }
+
+    public CustomLogType getLogType(String name) {
+        return logTypes.get(name);
+    }
+
+    public boolean logTypeExists(String name) {
+        return logTypes.containsKey(name);
+    }
+
+    /**
+     * @return names of all log types with the given source (e.g. Sigma for builtin log types)
+     */
+    public List<String> getLogTypeNamesBySource(String source) {
+        return logTypes.values().stream()
+                .filter(logType -> logType.getSource() != null && logType.getSource().equalsIgnoreCase(source))
+                .map(CustomLogType::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the correlation id of the given log type, or null if log type or correlation id is missing
+     */
+    public String getCorrelationId(String name) {
+        CustomLogType logType = logTypes.get(name);
+        if (logType == null || logType.getTags() == null || logType.getTags().get(CORRELATION_ID_TAG) == null) {
+            return null;
+        }
+        return logType.getTags().get(CORRELATION_ID_TAG).toString();
+    }
+
+    /**
+     * @return rawField to default schema field mappings of the given log type
+     */
+    public Map<String, String> getFieldMappings(String name) {
+        return fieldMappings.getOrDefault(name, Map.of());
+    }
+
+    public Collection<String> getLogTypeNames() {
+        return logTypes.keySet();
+    }
+}
@@ -67,6 +67,9 @@ public class Detector implements Writeable, ToXContentObject {
     // Used as a key in rule-monitor map for the purpose of easy detection of the doc level monitor
     public static final String DOC_LEVEL_MONITOR = "-1";
 
+    // Used as a key in rule-monitor map for the doc level monitor matching the threat intel queries
+    public static final String THREAT_INTEL_MONITOR = "threat_intel_monitor";
+
     public static final NamedXContentRegistry.Entry XCONTENT_REGISTRY = new NamedXContentRegistry.Entry(
             Detector.class,
             new ParseField(DETECTOR_TYPE),
@@ -625,6 +628,10 @@ public class Detector implements Writeable, ToXContentObject {
         return ruleIdMonitorIdMap.get(DOC_LEVEL_MONITOR);
     }
 
+    public String getThreatIntelMonitorId() {
+        return ruleIdMonitorIdMap.get(THREAT_INTEL_MONITOR);
+    }
+
     public boolean isWorkflowSupported() {
         return workflowIds != null && !workflowIds.isEmpty();
     }
@@ -63,6 +63,10 @@ public class Rule implements Writeable, ToXContentObject {
     public static final String PRE_PACKAGED_RULES_INDEX = ".opensearch-sap-pre-packaged-rules-config";
     public static final String CUSTOM_RULES_INDEX = ".opensearch-sap-custom-rules-config";
     public static final String AGGREGATION_QUERIES = "aggregationQueries";
+    /**
+     * Hash of the YAML & the field mappings a prepackaged rule was converted with, passed as toXContent param
+     */
+    public static final String CONTENT_HASH = "content_hash";
 
     public static final NamedXContentRegistry.Entry XCONTENT_REGISTRY = new NamedXContentRegistry.Entry(
             Rule.class,
@@ -253,6 +257,9 @@ public class Rule implements Writeable, ToXContentObject {
         builder.field(AGGREGATION_QUERIES, aggregationsArray);
 
         builder.field(RULE, rule);
+        if (params.param(CONTENT_HASH) != null) {
+            builder.field(CONTENT_HASH, params.param(CONTENT_HASH));
+        }
         if (params.paramAsBoolean("with_type", false)) {
             builder.endObject();
         }
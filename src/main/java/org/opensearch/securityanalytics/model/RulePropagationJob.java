@@ -0,0 +1,224 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.model;
+
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of the propagation of an updated or deleted rule to the detectors using it.
+ *
+ * Detectors are either patched, when only the doc level query of the rule changes in their doc level monitor, or fully
+ * updated. A detector counts as failed once its update failed after all retries.
+ */
+public class RulePropagationJob implements Writeable, ToXContentObject {
+
+    public static final String JOB_ID_FIELD = "job_id";
+    public static final String RULE_ID_FIELD = "rule_id";
+    public static final String OPERATION_FIELD = "operation";
+    public static final String STATE_FIELD = "state";
+    public static final String START_TIME_FIELD = "start_time";
+    public static final String END_TIME_FIELD = "end_time";
+    public static final String TOTAL_FIELD = "total_detectors";
+    public static final String COMPLETED_FIELD = "completed_detectors";
+    public static final String PATCHED_FIELD = "patched_detectors";
+    public static final String FULL_UPDATES_FIELD = "fully_updated_detectors";
+    public static final String FAILED_FIELD = "failed_detectors";
+    public static final String RETRIES_FIELD = "retries";
+    public static final String FAILURES_FIELD = "failures";
+
+    public enum Operation {
+        UPDATE,
+        DELETE
+    }
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final String ruleId;
+    private final Operation operation;
+    private final Instant startTime;
+    private final int total;
+    private final AtomicInteger patched;
+    private final AtomicInteger fullUpdates;
+    private final AtomicInteger failed;
+    private final AtomicInteger retries;
+    private final Map<String, String> failures;
+    private volatile State state;
+    private volatile Instant endTime;
+
+    public RulePropagationJob(String jobId, String ruleId, Operation operation, int total) {
+        this(jobId, ruleId, operation, State.RUNNING, Instant.now(), null, total, 0, 0, 0, 0, Map.of());
+    }
+
+    private RulePropagationJob(String jobId, String ruleId, Operation operation, State state, Instant startTime, Instant endTime,
+                               int total, int patched, int fullUpdates, int failed, int retries, Map<String, String> failures) {
+        this.jobId = jobId;
+        this.ruleId = ruleId;
+        this.operation = operation;
+        this.state = state;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.total = total;
+        this.patched = new AtomicInteger(patched);
+        this.fullUpdates = new AtomicInteger(fullUpdates);
+        this.failed = new AtomicInteger(failed);
+        this.retries = new AtomicInteger(retries);
+        this.failures = new ConcurrentHashMap<>(failures);
+    }
+
+    public RulePropagationJob(StreamInput sin) throws IOException {
+        this(
+                sin.readString(),
+                sin.readString(),
+                sin.readEnum(Operation.class),
+                sin.readEnum(State.class),
+                sin.readInstant(),
+                sin.readOptionalInstant(),
+                sin.readInt(),
+                sin.readInt(),
+                sin.readInt(),
+                sin.readInt(),
+                sin.readInt(),
+                sin.readMap(StreamInput::readString, StreamInput::readString)
+        );
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(jobId);
+        out.writeString(ruleId);
+        out.writeEnum(operation);
+        out.writeEnum(state);
+        out.writeInstant(startTime);
+        out.writeOptionalInstant(endTime);
+        out.writeInt(total);
+        out.writeInt(patched.get());
+        out.writeInt(fullUpdates.get());
+        out.writeInt(failed.get());
+        out.writeInt(retries.get());
+        out.writeMap(failures, StreamOutput::writeString, StreamOutput::writeString);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        innerToXContent(builder);
+        return builder.endObject();
+    }
+
+    /**
+     * Writes the fields of the job into the current object.
+     */
+    public XContentBuilder innerToXContent(XContentBuilder builder) throws IOException {
+        builder.field(JOB_ID_FIELD, jobId)
+                .field(RULE_ID_FIELD, ruleId)
+                .field(OPERATION_FIELD, operation.name().toLowerCase(Locale.ROOT))
+                .field(STATE_FIELD, state.name().toLowerCase(Locale.ROOT))
+                .timeField(START_TIME_FIELD, startTime);
+        if (endTime != null) {
+            builder.timeField(END_TIME_FIELD, endTime);
+        }
+        return builder.field(TOTAL_FIELD, total)
+                .field(COMPLETED_FIELD, getCompleted())
+                .field(PATCHED_FIELD, patched.get())
+                .field(FULL_UPDATES_FIELD, fullUpdates.get())
+                .field(FAILED_FIELD, failed.get())
+                .field(RETRIES_FIELD, retries.get())
+                .field(FAILURES_FIELD, failures);
+    }
+
+    public void onPatched() {
+        patched.incrementAndGet();
+    }
+
+    public void onFullUpdate() {
+        fullUpdates.incrementAndGet();
+    }
+
+    public void onRetry() {
+        retries.incrementAndGet();
+    }
+
+    public void onFailure(String detectorId, Exception e) {
+        failures.put(detectorId, String.valueOf(e.getMessage()));
+        failed.incrementAndGet();
+    }
+
+    /**
+     * Marks the job as done, failed if the rule could not be propagated to one of the detectors.
+     */
+    public void finish() {
+        endTime = Instant.now();
+        state = failed.get() > 0 ? State.FAILED : State.COMPLETED;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCompleted() {
+        return patched.get() + fullUpdates.get() + failed.get();
+    }
+
+    public int getPatched() {
+        return patched.get();
+    }
+
+    public int getFullUpdates() {
+        return fullUpdates.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getRetries() {
+        return retries.get();
+    }
+
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+}
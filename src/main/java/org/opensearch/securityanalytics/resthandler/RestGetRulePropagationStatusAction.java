@@ -0,0 +1,42 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.resthandler;
+
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestToXContentListener;
+import org.opensearch.securityanalytics.SecurityAnalyticsPlugin;
+import org.opensearch.securityanalytics.action.GetRulePropagationStatusAction;
+import org.opensearch.securityanalytics.action.GetRulePropagationStatusRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.opensearch.rest.RestRequest.Method.GET;
+
+public class RestGetRulePropagationStatusAction extends BaseRestHandler {
+
+    @Override
+    public String getName() {
+        return "get_rule_propagation_status_action";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(GET, SecurityAnalyticsPlugin.RULE_BASE_URI + "/_propagation"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) throws IOException {
+        String ruleId = request.param("rule_id");
+
+        return channel -> client.execute(
+                GetRulePropagationStatusAction.INSTANCE,
+                new GetRulePropagationStatusRequest(ruleId),
+                new RestToXContentListener<>(channel)
+        );
+    }
+}
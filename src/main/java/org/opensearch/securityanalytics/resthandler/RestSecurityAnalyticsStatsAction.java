@@ -0,0 +1,43 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.resthandler;
+
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.core.common.Strings;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestToXContentListener;
+import org.opensearch.securityanalytics.SecurityAnalyticsPlugin;
+import org.opensearch.securityanalytics.action.SecurityAnalyticsStatsAction;
+import org.opensearch.securityanalytics.action.SecurityAnalyticsStatsRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.opensearch.rest.RestRequest.Method.GET;
+
+public class RestSecurityAnalyticsStatsAction extends BaseRestHandler {
+
+    @Override
+    public String getName() {
+        return "security_analytics_stats_action";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(GET, SecurityAnalyticsPlugin.STATS_URI));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) throws IOException {
+        String[] nodesIds = Strings.splitStringByCommaToArray(request.param("nodes"));
+
+        return channel -> client.execute(
+                SecurityAnalyticsStatsAction.INSTANCE,
+                new SecurityAnalyticsStatsRequest(nodesIds),
+                new RestToXContentListener<>(channel)
+        );
+    }
+}
@@ -4,6 +4,7 @@
  */
 package org.opensearch.securityanalytics.settings;
 
+import org.opensearch.action.support.WriteRequest;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.unit.TimeValue;
 
@@ -147,6 +148,174 @@ public class SecurityAnalyticsSettings {
             Setting.Property.NodeScope, Setting.Property.Dynamic
     );
 
+    /**
+     * Max number of monitor id to detector entries held by the node-local detector cache
+     */
+    public static final Setting<Long> DETECTOR_CACHE_MAX_SIZE = Setting.longSetting(
+            "plugins.security_analytics.detector_cache.max_size",
+            10000L,
+            0L,
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Time after which a cached detector is re-read from the detectors config index
+     */
+    public static final Setting<TimeValue> DETECTOR_CACHE_EXPIRE_AFTER_WRITE = Setting.positiveTimeSetting(
+            "plugins.security_analytics.detector_cache.expire_after_write",
+            TimeValue.timeValueMinutes(1),
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Time after which the node-local correlation rule registry is re-read from the correlation rules config index
+     */
+    public static final Setting<TimeValue> CORRELATION_RULE_REGISTRY_EXPIRE_AFTER_WRITE = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_rule_registry.expire_after_write",
+            TimeValue.timeValueMinutes(1),
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Max number of parsed & converted rules held by the node-local compiled rule cache
+     */
+    public static final Setting<Long> COMPILED_RULE_CACHE_MAX_SIZE = Setting.longSetting(
+            "plugins.security_analytics.compiled_rule_cache.max_size",
+            10000L,
+            0L,
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Max number of searches of one correlation stage which are merged into a single multi-search
+     */
+    public static final Setting<Integer> CORRELATION_BATCH_MAX_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation.batch.max_size",
+            100,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Max time a correlation stage search waits for other findings before its batch is sent, 0 disables batching
+     */
+    public static final Setting<TimeValue> CORRELATION_BATCH_MAX_LATENCY = Setting.timeSetting(
+            "plugins.security_analytics.correlation.batch.max_latency",
+            TimeValue.timeValueMillis(20),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of candidate hits fetched per search page by the correlation stages
+     */
+    public static final Setting<Integer> CORRELATION_CANDIDATE_PAGE_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation.candidate_page_size",
+            1000,
+            1,
+            10000,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Max number of candidate hits read over all correlation stages of one finding, further candidates are dropped
+     */
+    public static final Setting<Integer> CORRELATION_MAX_CANDIDATES_PER_FINDING = Setting.intSetting(
+            "plugins.security_analytics.correlation.max_candidates_per_finding",
+            100000,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Refresh policy of correlation history writes, one of "true", "false" or "wait_for"
+     */
+    public static final Setting<WriteRequest.RefreshPolicy> CORRELATION_WRITE_REFRESH_POLICY = new Setting<>(
+            "plugins.security_analytics.correlation.write_refresh_policy",
+            WriteRequest.RefreshPolicy.WAIT_UNTIL.getValue(),
+            WriteRequest.RefreshPolicy::parse,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Max number of recently written correlation records held in memory until they are visible to search
+     */
+    public static final Setting<Long> CORRELATION_OVERLAY_MAX_SIZE = Setting.longSetting(
+            "plugins.security_analytics.correlation.overlay.max_size",
+            10000L,
+            0L,
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Time after which a recently written correlation record is expected to be visible to search
+     */
+    public static final Setting<TimeValue> CORRELATION_OVERLAY_EXPIRE_AFTER_WRITE = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation.overlay.expire_after_write",
+            TimeValue.timeValueSeconds(30),
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Max age of the node-local copy of the correlation root counter before it is read again
+     */
+    public static final Setting<TimeValue> CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL = Setting.timeSetting(
+            "plugins.security_analytics.correlation.root_counter.refresh_interval",
+            TimeValue.timeValueSeconds(1),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Max age of the node-local copy of the correlation scoreTimestamp epoch before it is read again
+     */
+    public static final Setting<TimeValue> CORRELATION_SCORE_TIMESTAMP_REFRESH_INTERVAL = Setting.timeSetting(
+            "plugins.security_analytics.correlation.score_timestamp.refresh_interval",
+            TimeValue.timeValueMinutes(1),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of prepackaged rules indexed per bulk request when the rules are imported
+     */
+    public static final Setting<Integer> RULE_IMPORT_BULK_SIZE = Setting.intSetting(
+            "plugins.security_analytics.rules.import.bulk_size",
+            500,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Maximum number of bulk requests in flight while the prepackaged rules are imported
+     */
+    public static final Setting<Integer> RULE_IMPORT_MAX_CONCURRENT_BULKS = Setting.intSetting(
+            "plugins.security_analytics.rules.import.max_concurrent_bulks",
+            2,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Maximum number of detectors updated at a time when an updated or deleted rule is propagated to the detectors using it
+     */
+    public static final Setting<Integer> RULE_PROPAGATION_MAX_CONCURRENT_UPDATES = Setting.intSetting(
+            "plugins.security_analytics.rules.propagation.max_concurrent_updates",
+            10,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of times the update of a detector is retried while propagating a rule, e.g. on concurrent monitor updates
+     */
+    public static final Setting<Integer> RULE_PROPAGATION_MAX_RETRIES = Setting.intSetting(
+            "plugins.security_analytics.rules.propagation.max_retries",
+            3,
+            0,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
     public static final Setting<String> DEFAULT_MAPPING_SCHEMA = Setting.simpleString(
             "plugins.security_analytics.mappings.default_schema",
             "ecs",
@@ -172,6 +341,26 @@ public class SecurityAnalyticsSettings {
             Setting.Property.Dynamic
     );
 
+    /**
+     * Maximum number of bulk requests in flight while indexing a threat intel feed
+     */
+    public static final Setting<Integer> TIF_MAX_CONCURRENT_BULKS = Setting.intSetting(
+            "plugins.security_analytics.threatintel.tifjob.max_concurrent_bulks",
+            2,
+            1,
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+    );
+
+    /**
+     * Replaces the download url of a built-in threat intel feed, e.g. with a local stand-in feed for load tests
+     */
+    public static final Setting.AffixSetting<String> TIF_FEED_URL = Setting.affixKeySetting(
+            "plugins.security_analytics.threatintel.feed.",
+            "url",
+            key -> Setting.simpleString(key, Setting.Property.NodeScope)
+    );
+
     /**
      * Timeout value for threat intel processor
      */
@@ -188,7 +377,7 @@ public class SecurityAnalyticsSettings {
      * @return a list of all settings for threat intel feature
      */
     public static final List<Setting<?>> settings() {
-        return List.of(BATCH_SIZE, THREAT_INTEL_TIMEOUT, TIF_UPDATE_INTERVAL);
+        return List.of(BATCH_SIZE, THREAT_INTEL_TIMEOUT, TIF_UPDATE_INTERVAL, TIF_MAX_CONCURRENT_BULKS, TIF_FEED_URL);
     }
 
 }
\ No newline at end of file
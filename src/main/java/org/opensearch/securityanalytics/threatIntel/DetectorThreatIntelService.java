@@ -11,33 +11,45 @@ import org.apache.lucene.search.join.ScoreMode;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.support.WriteRequest;
 import org.opensearch.client.Client;
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.commons.alerting.AlertingPluginInterface;
+import org.opensearch.commons.alerting.action.IndexMonitorRequest;
+import org.opensearch.commons.alerting.action.IndexMonitorResponse;
+import org.opensearch.commons.alerting.model.DocLevelMonitorInput;
 import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Input;
+import org.opensearch.commons.alerting.model.Monitor;
+import org.opensearch.commons.alerting.model.ScheduledJob;
 import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.rest.RestRequest;
+import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
-import org.opensearch.securityanalytics.action.IndexDetectorAction;
-import org.opensearch.securityanalytics.action.IndexDetectorRequest;
 import org.opensearch.securityanalytics.action.SearchDetectorAction;
 import org.opensearch.securityanalytics.action.SearchDetectorRequest;
+import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.LogType;
 import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
+import org.opensearch.securityanalytics.threatIntel.common.StashedThreadContext;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.opensearch.securityanalytics.model.Detector.DETECTORS_INDEX;
 import static org.opensearch.securityanalytics.util.DetectorUtils.getDetectors;
+import static org.opensearch.securityanalytics.util.DetectorUtils.parseMonitor;
 
 /**
  * Service that populates detectors with queries generated from threat intelligence data.
@@ -46,14 +58,38 @@ public class DetectorThreatIntelService {
 
     private static final Logger log = LogManager.getLogger(DetectorThreatIntelService.class);
 
+    /**
+     * Largest number of IOCs matched by a single doc level query, below the default boolean clause limit.
+     */
+    public static final int MAX_IOCS_PER_QUERY = 1000;
+
+    /**
+     * Number of doc level monitors read & updated at a time when refreshing detectors after a feed update.
+     */
+    private static final int MONITOR_UPDATE_BATCH_SIZE = 50;
+
+    static final String THREAT_INTEL_TAG = "threat_intel";
+    private static final String IOC_TYPE_TAG_PREFIX = "ioc_type:";
+    private static final String IOC_VERSION_TAG_PREFIX = "ioc_version:";
+
     private final ThreatIntelFeedDataService threatIntelFeedDataService;
+    private final LogTypeService logTypeService;
     private final Client client;
     private final NamedXContentRegistry xContentRegistry;
+    private final NamedWriteableRegistry namedWriteableRegistry;
 
-    public DetectorThreatIntelService(ThreatIntelFeedDataService threatIntelFeedDataService, Client client, NamedXContentRegistry xContentRegistry) {
+    public DetectorThreatIntelService(
+            ThreatIntelFeedDataService threatIntelFeedDataService,
+            LogTypeService logTypeService,
+            Client client,
+            NamedXContentRegistry xContentRegistry,
+            NamedWriteableRegistry namedWriteableRegistry
+    ) {
         this.threatIntelFeedDataService = threatIntelFeedDataService;
+        this.logTypeService = logTypeService;
         this.client = client;
         this.xContentRegistry = xContentRegistry;
+        this.namedWriteableRegistry = namedWriteableRegistry;
     }
 
 
@@ -63,50 +99,63 @@ public class DetectorThreatIntelService {
     public List<DocLevelQuery> createDocLevelQueriesFromThreatIntelList(
             List<LogType.IocFields> iocFieldList, List<ThreatIntelFeedData> tifdList, Detector detector
     ) {
+        return createDocLevelQueriesFromIocSet(iocFieldList, IocSet.fromThreatIntelFeedData(tifdList), detector);
+    }
+
+    /**
+     * Creates doc level queries matching the IOCs of each type supported by the log type of the detector. The IOCs of a
+     * type are split over as many queries as needed to keep each query below {@link #MAX_IOCS_PER_QUERY} clauses, and
+     * every query is tagged with the id & content version of the feed it was built from and the content version of its
+     * IOC type.
+     */
+    public List<DocLevelQuery> createDocLevelQueriesFromIocSet(List<LogType.IocFields> iocFieldList, IocSet iocSet, Detector detector) {
         List<DocLevelQuery> queries = new ArrayList<>();
-        Set<String> iocs = tifdList.stream().map(ThreatIntelFeedData::getIocValue).collect(Collectors.toSet());
-        //ioc types supported by log type
-        List<String> logTypeIocs = iocFieldList.stream().map(LogType.IocFields::getIoc).collect(Collectors.toList());
-        // filter out ioc types not supported for given log types
-        Map<String, Set<String>> iocTypeToValues = tifdList.stream().filter(t -> logTypeIocs.contains(t.getIocType()))
-                .collect(Collectors.groupingBy(
-                        ThreatIntelFeedData::getIocType,
-                        Collectors.mapping(ThreatIntelFeedData::getIocValue, Collectors.toSet())
-                ));
-
-        for (Map.Entry<String, Set<String>> entry : iocTypeToValues.entrySet()) {
-            String query = buildQueryStringQueryWithIocList(iocs);
-            List<String> fields = iocFieldList.stream().filter(t -> entry.getKey().matches(t.getIoc())).findFirst().get().getFields();
-
-            // create doc
-            for (String field : fields) {
-                queries.add(new DocLevelQuery(
-                        constructId(detector, entry.getKey()), tifdList.get(0).getFeedId(),
-                        Collections.emptyList(),
-                        String.format(query, field),
-                        List.of(
-                                "threat_intel",
-                                String.format("ioc_type:%s", entry.getKey()),
-                                String.format("field:%s", field),
-                                String.format("feed_name:%s", tifdList.get(0).getFeedId())
-                        )
-                ));
+        for (String iocType: iocSet.getIocTypes()) {
+            // ioc types not supported for given log types are skipped
+            Optional<LogType.IocFields> iocFields = iocFieldList.stream().filter(t -> iocType.matches(t.getIoc())).findFirst();
+            if (iocFields.isEmpty()) {
+                continue;
+            }
+
+            List<String> iocs = iocSet.getIocs(iocType);
+            for (String field: iocFields.get().getFields()) {
+                for (int from = 0; from < iocs.size(); from += MAX_IOCS_PER_QUERY) {
+                    List<String> chunk = iocs.subList(from, Math.min(from + MAX_IOCS_PER_QUERY, iocs.size()));
+                    queries.add(new DocLevelQuery(
+                            constructId(detector, iocType, field, from / MAX_IOCS_PER_QUERY), iocSet.getFeedId(),
+                            Collections.emptyList(),
+                            buildQueryStringQueryWithIocList(field, chunk),
+                            List.of(
+                                    THREAT_INTEL_TAG,
+                                    IOC_TYPE_TAG_PREFIX + iocType,
+                                    IOC_VERSION_TAG_PREFIX + iocSet.getVersion(iocType),
+                                    String.format(Locale.ROOT, "field:%s", field),
+                                    String.format(Locale.ROOT, "feed_name:%s", iocSet.getFeedId()),
+                                    String.format(Locale.ROOT, "feed_version:%s", iocSet.getVersion())
+                            )
+                    ));
+                }
             }
         }
         return queries;
     }
 
-    private String buildQueryStringQueryWithIocList(Set<String> iocs) {
+    /**
+     * Builds {@code field:("ioc1" OR "ioc2" ...)}. IOCs are quoted so IPv6 addresses and CIDR blocks are matched as terms
+     * instead of being parsed as query syntax. Fields mapped as ip resolve a CIDR block to the addresses it covers, on
+     * keyword fields a CIDR block only matches the same literal value.
+     */
+    static String buildQueryStringQueryWithIocList(String field, List<String> iocs) {
         StringBuilder sb = new StringBuilder();
-        sb.append("%s");
-        sb.append(":");
-        sb.append("(");
-        for (String ioc : iocs) {
-            if (sb.length() > 4) {
+        sb.append(field);
+        sb.append(":(");
+        for (int i = 0; i < iocs.size(); ++i) {
+            if (i > 0) {
                 sb.append(" OR ");
             }
-            sb.append(ioc);
-
+            sb.append('"');
+            sb.append(iocs.get(i).replace("\\", "\\\\").replace("\"", "\\\""));
+            sb.append('"');
         }
         sb.append(")");
         return sb.toString();
@@ -116,79 +165,191 @@ public class DetectorThreatIntelService {
      * Fetches threat intel data and creates doc level queries from threat intel data
      */
     public void createDocLevelQueryFromThreatIntel(List<LogType.IocFields> iocFieldList, Detector detector, ActionListener<List<DocLevelQuery>> listener) {
-        try {
-            if (false == detector.getThreatIntelEnabled() || iocFieldList.isEmpty()) {
+        if (false == detector.getThreatIntelEnabled() || iocFieldList.isEmpty()) {
+            listener.onResponse(Collections.emptyList());
+            return;
+        }
+
+        threatIntelFeedDataService.getIocSet(ActionListener.wrap(iocSet -> {
+            if (iocSet.isEmpty()) {
                 listener.onResponse(Collections.emptyList());
-                return;
+            } else {
+                listener.onResponse(createDocLevelQueriesFromIocSet(iocFieldList, iocSet, detector));
             }
+        }, e -> {
+            log.error("Failed to get threat intel feeds for doc level query creation", e);
+            listener.onFailure(e);
+        }));
+    }
 
-            CountDownLatch latch = new CountDownLatch(1);
-            threatIntelFeedDataService.getThreatIntelFeedData(new ActionListener<>() {
-                @Override
-                public void onResponse(List<ThreatIntelFeedData> threatIntelFeedData) {
-                    if (threatIntelFeedData.isEmpty()) {
-                        listener.onResponse(Collections.emptyList());
-                    } else {
-                        listener.onResponse(
-                                createDocLevelQueriesFromThreatIntelList(iocFieldList, threatIntelFeedData, detector)
-                        );
-                    }
-                    latch.countDown();
-                }
+    /**
+     * Query ids are stable across feed updates, so that the query matching a given chunk of the IOCs of a type on a field
+     * keeps its id when its IOCs are replaced.
+     */
+    static String constructId(Detector detector, String iocType, String field, int chunk) {
+        String detectorId = detector == null || detector.getId() == null || detector.getId().isEmpty() ? "" : detector.getId() + "_";
+        return String.format(Locale.ROOT, "threat_intel_%s%s_%s_%d", detectorId, iocType, field, chunk);
+    }
 
-                @Override
-                public void onFailure(Exception e) {
-                    log.error("Failed to get threat intel feeds for doc level query creation", e);
-                    listener.onFailure(e);
-                    latch.countDown();
-                }
-            });
+    /**
+     * Computes the IOCs added & removed by a feed update, see {@link ThreatIntelFeedDataService#getIocSetDelta}.
+     */
+    public void getIocSetDelta(List<String> previousFeedIndices, ActionListener<IocSetDelta> listener) {
+        threatIntelFeedDataService.getIocSetDelta(previousFeedIndices, listener);
+    }
 
-            latch.await(30, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            log.error("Failed to create doc level queries from threat intel feeds", e);
-            listener.onFailure(e);
+    /**
+     * Refreshes the threat intel queries of the detectors having threat intel detection enabled after a feed update.
+     *
+     * Only detectors whose log type supports one of the IOC types changed by the update are considered. Their threat intel
+     * monitor is updated in place: the threat intel queries are replaced and any other query is kept as it is, so rules and
+     * field mappings are not read again. Monitors whose threat intel queries already carry the content hashes
+     * of the current feed are left untouched. Monitors are updated {@link #MONITOR_UPDATE_BATCH_SIZE} at a time,
+     * compare-and-set on the seq_no & primary_term they were read with.
+     */
+    public void updateDetectorsWithLatestThreatIntelRules(IocSetDelta delta) {
+        if (delta.hasChanges() == false) {
+            log.info("Threat intel feed {} is unchanged, detectors are up to date", delta.getVersion());
+            return;
         }
+        Set<String> changedIocTypes = delta.getChangedIocTypes();
+        log.info("Threat intel feed update added {} and removed {} IOCs of types {}", delta.getAddedCount(), delta.getRemovedCount(), changedIocTypes);
 
+        QueryBuilder queryBuilder =
+                QueryBuilders.nestedQuery("detector",
+                        QueryBuilders.boolQuery().must(
+                                QueryBuilders.matchQuery("detector.threat_intel_enabled", true)
+                        ), ScoreMode.Avg);
+        SearchRequest searchRequest = new SearchRequest(DETECTORS_INDEX);
+        SearchSourceBuilder ssb = searchRequest.source();
+        ssb.query(queryBuilder);
+        ssb.size(9999);
+        client.execute(SearchDetectorAction.INSTANCE, new SearchDetectorRequest(searchRequest),
+                ActionListener.wrap(searchResponse -> {
+                    List<Detector> detectors = getDetectors(searchResponse, xContentRegistry);
+                    List<Detector> detectorsToUpdate = new ArrayList<>();
+                    for (Detector detector: detectors) {
+                        assert detector.getThreatIntelEnabled();
+                        List<LogType.IocFields> iocFieldList = logTypeService.getIocFieldsList(detector.getDetectorType());
+                        boolean changed = changedIocTypes.stream()
+                                .anyMatch(iocType -> iocFieldList.stream().anyMatch(iocFields -> iocType.matches(iocFields.getIoc())));
+                        if (changed && threatIntelMonitorId(detector) != null) {
+                            detectorsToUpdate.add(detector);
+                        }
+                    }
+                    log.debug("{} of {} threat intel enabled detectors use the changed IOC types", detectorsToUpdate.size(), detectors.size());
+                    updateThreatIntelMonitors(detectorsToUpdate, 0, delta.getCurrent());
+                }, e -> {
+                    log.error("Failed to fetch detectors to update with threat intel queries.", e);
+                }));
     }
 
-    private static String constructId(Detector detector, String iocType) {
-        return "threat_intel_" + UUID.randomUUID();
+    private void updateThreatIntelMonitors(List<Detector> detectors, int from, IocSet iocSet) {
+        if (from >= detectors.size()) {
+            return;
+        }
+        Map<String, Detector> detectorsByMonitorId = new HashMap<>();
+        for (Detector detector: detectors.subList(from, Math.min(from + MONITOR_UPDATE_BATCH_SIZE, detectors.size()))) {
+            detectorsByMonitorId.put(threatIntelMonitorId(detector), detector);
+        }
+        Runnable nextBatch = () -> updateThreatIntelMonitors(detectors, from + MONITOR_UPDATE_BATCH_SIZE, iocSet);
+
+        SearchRequest searchRequest = new SearchRequest(ScheduledJob.SCHEDULED_JOBS_INDEX);
+        searchRequest.source(new SearchSourceBuilder()
+                .query(QueryBuilders.idsQuery().addIds(detectorsByMonitorId.keySet().toArray(new String[0])))
+                .size(detectorsByMonitorId.size())
+                .seqNoAndPrimaryTerm(true)
+                .version(true));
+        StashedThreadContext.run(client, () -> client.search(searchRequest, ActionListener.wrap(response -> {
+            List<IndexMonitorRequest> monitorRequests = new ArrayList<>();
+            for (SearchHit hit: response.getHits().getHits()) {
+                try {
+                    IndexMonitorRequest monitorRequest = refreshThreatIntelQueries(parseMonitor(hit, xContentRegistry), detectorsByMonitorId.get(hit.getId()),
+                            iocSet, hit.getSeqNo(), hit.getPrimaryTerm());
+                    if (monitorRequest != null) {
+                        monitorRequests.add(monitorRequest);
+                    }
+                } catch (Exception e) {
+                    log.error(() -> new ParameterizedMessage("Failed to read monitor {} to update its threat intel queries", hit.getId()), e);
+                }
+            }
+            if (monitorRequests.isEmpty()) {
+                nextBatch.run();
+                return;
+            }
+
+            AtomicInteger pending = new AtomicInteger(monitorRequests.size());
+            for (IndexMonitorRequest monitorRequest: monitorRequests) {
+                ActionListener<IndexMonitorResponse> monitorListener = ActionListener.runAfter(ActionListener.wrap(
+                        monitorResponse -> log.debug("updated monitor {} with latest threat intel info", monitorResponse.getId()),
+                        e -> log.error(() -> new ParameterizedMessage("Failed to update monitor {} with latest threat intel info", monitorRequest.getMonitorId()), e)
+                ), () -> {
+                    if (pending.decrementAndGet() == 0) {
+                        nextBatch.run();
+                    }
+                });
+                StashedThreadContext.run(client, () ->
+                        AlertingPluginInterface.INSTANCE.indexMonitor((NodeClient) client, monitorRequest, namedWriteableRegistry, monitorListener));
+            }
+        }, e -> {
+            log.error("Failed to fetch monitors to update with threat intel queries.", e);
+            nextBatch.run();
+        })));
     }
 
-    /** Updates all detectors having threat intel detection enabled with the latest threat intel feed data*/
-    public void updateDetectorsWithLatestThreatIntelRules() {
-            QueryBuilder queryBuilder =
-                    QueryBuilders.nestedQuery("detector",
-                            QueryBuilders.boolQuery().must(
-                                    QueryBuilders.matchQuery("detector.threat_intel_enabled", true)
-                            ), ScoreMode.Avg);
-            SearchRequest searchRequest = new SearchRequest(DETECTORS_INDEX);
-            SearchSourceBuilder ssb = searchRequest.source();
-            ssb.query(queryBuilder);
-            ssb.size(9999);
-            client.execute(SearchDetectorAction.INSTANCE, new SearchDetectorRequest(searchRequest),
-                    ActionListener.wrap(searchResponse -> {
-                        List<Detector> detectors = getDetectors(searchResponse, xContentRegistry);
-                        detectors.forEach(detector -> {
-                                    assert detector.getThreatIntelEnabled();
-                                    client.execute(IndexDetectorAction.INSTANCE, new IndexDetectorRequest(
-                                                    detector.getId(), WriteRequest.RefreshPolicy.IMMEDIATE,
-                                                    RestRequest.Method.PUT,
-                                                    detector),
-                                            ActionListener.wrap(
-                                                    indexDetectorResponse -> {
-                                                        log.debug("updated {} with latest threat intel info", indexDetectorResponse.getDetector().getId());
-                                                    },
-                                                    e -> {
-                                                        log.error(() -> new ParameterizedMessage("Failed to update detector {} with latest threat intel info", detector.getId()), e);
-                                                    }));
-                                }
-                        );
-                    }, e -> {
-                        log.error("Failed to fetch detectors to update with threat intel queries.", e);
-                    }));
+    /**
+     * Monitor holding the threat intel queries of the detector. Detectors with a trigger covering both the rules and the
+     * threat intel detection type, and detectors created before threat intel matching was split out of the doc level
+     * monitor until they are updated, keep their threat intel queries in the doc level monitor.
+     */
+    private static String threatIntelMonitorId(Detector detector) {
+        return detector.getThreatIntelMonitorId() != null ? detector.getThreatIntelMonitorId() : detector.getDocLevelMonitorId();
+    }
 
+    /**
+     * Builds the update of a doc level monitor replacing its threat intel queries with queries of the given IOC set, null if
+     * the monitor already matches the IOC set.
+     */
+    IndexMonitorRequest refreshThreatIntelQueries(Monitor monitor, Detector detector, IocSet iocSet, long seqNo, long primaryTerm) {
+        if (detector == null || monitor.getInputs().isEmpty() || monitor.getInputs().get(0) instanceof DocLevelMonitorInput == false) {
+            return null;
+        }
+        DocLevelMonitorInput input = (DocLevelMonitorInput) monitor.getInputs().get(0);
+        List<LogType.IocFields> iocFieldList = logTypeService.getIocFieldsList(detector.getDetectorType());
 
+        List<DocLevelQuery> queries = new ArrayList<>();
+        Map<String, String> currentVersions = new HashMap<>();
+        for (DocLevelQuery query: input.getQueries()) {
+            if (query.getTags().contains(THREAT_INTEL_TAG)) {
+                currentVersions.put(tagValue(query, IOC_TYPE_TAG_PREFIX), tagValue(query, IOC_VERSION_TAG_PREFIX));
+            } else {
+                queries.add(query);
+            }
+        }
+        List<DocLevelQuery> threatIntelQueries = createDocLevelQueriesFromIocSet(iocFieldList, iocSet, detector);
+        Map<String, String> latestVersions = new HashMap<>();
+        for (DocLevelQuery query: threatIntelQueries) {
+            latestVersions.put(tagValue(query, IOC_TYPE_TAG_PREFIX), tagValue(query, IOC_VERSION_TAG_PREFIX));
+        }
+        if (currentVersions.equals(latestVersions)) {
+            return null;
+        }
+        queries.addAll(threatIntelQueries);
+
+        List<Input> inputs = new ArrayList<>(monitor.getInputs());
+        inputs.set(0, new DocLevelMonitorInput(input.getDescription(), input.getIndices(), queries));
+        Monitor updatedMonitor = new Monitor(monitor.getId(), monitor.getVersion(), monitor.getName(), monitor.getEnabled(), monitor.getSchedule(),
+                Instant.now(), monitor.getEnabledTime(), monitor.getMonitorType(), monitor.getUser(), monitor.getSchemaVersion(), inputs,
+                monitor.getTriggers(), monitor.getUiMetadata(), monitor.getDataSources(), monitor.getOwner());
+        return new IndexMonitorRequest(monitor.getId(), seqNo, primaryTerm, WriteRequest.RefreshPolicy.NONE, RestRequest.Method.PUT, updatedMonitor, null);
+    }
+
+    private static String tagValue(DocLevelQuery query, String prefix) {
+        for (String tag: query.getTags()) {
+            if (tag.startsWith(prefix)) {
+                return tag.substring(prefix.length());
+            }
+        }
+        return null;
     }
 }
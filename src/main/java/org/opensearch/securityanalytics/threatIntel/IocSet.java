@@ -0,0 +1,143 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.threatIntel;
+
+import org.opensearch.common.hash.MessageDigests;
+import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable on-heap set of the IOCs of a threat intel feed, grouped by IOC type.
+ *
+ * The version is a content hash of the feed, so two sets with the same IOCs have the same version whatever order the
+ * feed was read in. Each IOC type also has its own content hash, so consumers of a single type can tell whether that
+ * type changed. IOCs are kept as read from the feed, CIDR blocks of the {@code ip} type included.
+ */
+public class IocSet {
+
+    public static final String IP_IOC_TYPE = "ip";
+
+    private final String feedId;
+    private final String version;
+    private final Map<String, String> versionsByType;
+    private final Map<String, Set<String>> valuesByType;
+
+    private IocSet(String feedId, String version, Map<String, String> versionsByType, Map<String, Set<String>> valuesByType) {
+        this.feedId = feedId;
+        this.version = version;
+        this.versionsByType = versionsByType;
+        this.valuesByType = valuesByType;
+    }
+
+    public static IocSet fromThreatIntelFeedData(List<ThreatIntelFeedData> tifdList) {
+        Builder builder = new Builder();
+        tifdList.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static String contentHash(String iocType, List<String> iocs) {
+        MessageDigest digest = MessageDigests.sha256();
+        for (String ioc: iocs) {
+            digest.update((iocType + '\u0000' + ioc + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return MessageDigests.toHexString(digest.digest());
+    }
+
+    private static String contentHash(Map<String, String> versionsByType) {
+        MessageDigest digest = MessageDigests.sha256();
+        for (String iocType: new TreeSet<>(versionsByType.keySet())) {
+            digest.update((iocType + '\u0000' + versionsByType.get(iocType) + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return MessageDigests.toHexString(digest.digest());
+    }
+
+    private static List<String> iocs(Map<String, Set<String>> valuesByType, String iocType) {
+        List<String> iocs = new ArrayList<>(valuesByType.getOrDefault(iocType, Set.of()));
+        Collections.sort(iocs);
+        return iocs;
+    }
+
+    public String getFeedId() {
+        return feedId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Content hash of the IOCs of the given type, null if the feed has no IOC of that type.
+     */
+    public String getVersion(String iocType) {
+        return versionsByType.get(iocType);
+    }
+
+    public Set<String> getIocTypes() {
+        return valuesByType.keySet();
+    }
+
+    /**
+     * Sorted IOCs of the given type.
+     */
+    public List<String> getIocs(String iocType) {
+        return iocs(valuesByType, iocType);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Set<String> values: valuesByType.values()) {
+            size += values.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return valuesByType.isEmpty();
+    }
+
+    /**
+     * Accumulates the IOCs of a feed as it is read, so the feed data itself never has to be held in memory.
+     */
+    public static class Builder {
+        private String feedId;
+        private final Map<String, Set<String>> valuesByType = new HashMap<>();
+
+        public Builder add(ThreatIntelFeedData tifd) {
+            if (feedId == null) {
+                feedId = tifd.getFeedId();
+            }
+            String iocType = tifd.getIocType();
+            String iocValue = tifd.getIocValue();
+            if (iocType == null || iocValue == null || iocValue.isBlank()) {
+                return this;
+            }
+            valuesByType.computeIfAbsent(iocType, it -> new HashSet<>()).add(iocValue.trim());
+            return this;
+        }
+
+        public IocSet build() {
+            Map<String, Set<String>> immutableValues = new HashMap<>();
+            valuesByType.forEach((type, values) -> immutableValues.put(type, Set.copyOf(values)));
+
+            Map<String, String> versionsByType = new HashMap<>();
+            for (String iocType: immutableValues.keySet()) {
+                versionsByType.put(iocType, contentHash(iocType, iocs(immutableValues, iocType)));
+            }
+
+            return new IocSet(feedId, contentHash(versionsByType), Collections.unmodifiableMap(versionsByType),
+                    Collections.unmodifiableMap(immutableValues));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.threatIntel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * IOCs added & removed by a threat intel feed update, per IOC type.
+ *
+ * Types whose content hash is the same in both snapshots are unchanged and are not compared value by value. Without a
+ * previous snapshot every IOC of the current feed counts as added.
+ */
+public class IocSetDelta {
+
+    private final String previousVersion;
+    private final IocSet current;
+    private final Map<String, List<String>> addedByType;
+    private final Map<String, List<String>> removedByType;
+
+    private IocSetDelta(String previousVersion, IocSet current, Map<String, List<String>> addedByType, Map<String, List<String>> removedByType) {
+        this.previousVersion = previousVersion;
+        this.current = current;
+        this.addedByType = addedByType;
+        this.removedByType = removedByType;
+    }
+
+    /**
+     * @param previous IOCs of the feed before the update, null if unknown
+     * @param current IOCs of the feed after the update
+     */
+    public static IocSetDelta between(IocSet previous, IocSet current) {
+        Set<String> iocTypes = new HashSet<>(current.getIocTypes());
+        if (previous != null) {
+            iocTypes.addAll(previous.getIocTypes());
+        }
+
+        Map<String, List<String>> addedByType = new HashMap<>();
+        Map<String, List<String>> removedByType = new HashMap<>();
+        for (String iocType: iocTypes) {
+            if (previous != null && Objects.equals(previous.getVersion(iocType), current.getVersion(iocType))) {
+                continue;
+            }
+            List<String> currentIocs = current.getIocs(iocType);
+            List<String> previousIocs = previous == null ? List.of() : previous.getIocs(iocType);
+
+            List<String> added = difference(currentIocs, previousIocs);
+            List<String> removed = difference(previousIocs, currentIocs);
+            if (added.isEmpty() == false) {
+                addedByType.put(iocType, added);
+            }
+            if (removed.isEmpty() == false) {
+                removedByType.put(iocType, removed);
+            }
+        }
+        return new IocSetDelta(previous == null ? null : previous.getVersion(), current, Collections.unmodifiableMap(addedByType),
+                Collections.unmodifiableMap(removedByType));
+    }
+
+    private static List<String> difference(List<String> iocs, List<String> other) {
+        if (other.isEmpty()) {
+            return iocs;
+        }
+        Set<String> otherSet = new HashSet<>(other);
+        List<String> difference = new ArrayList<>();
+        for (String ioc: iocs) {
+            if (otherSet.contains(ioc) == false) {
+                difference.add(ioc);
+            }
+        }
+        return difference;
+    }
+
+    /**
+     * Content hash of the feed before the update, null if it is unknown.
+     */
+    public String getPreviousVersion() {
+        return previousVersion;
+    }
+
+    public String getVersion() {
+        return current.getVersion();
+    }
+
+    public IocSet getCurrent() {
+        return current;
+    }
+
+    /**
+     * IOC types with at least one IOC added or removed.
+     */
+    public Set<String> getChangedIocTypes() {
+        Set<String> changed = new HashSet<>(addedByType.keySet());
+        changed.addAll(removedByType.keySet());
+        return changed;
+    }
+
+    public List<String> getAdded(String iocType) {
+        return addedByType.getOrDefault(iocType, List.of());
+    }
+
+    public List<String> getRemoved(String iocType) {
+        return removedByType.getOrDefault(iocType, List.of());
+    }
+
+    public int getAddedCount() {
+        return addedByType.values().stream().mapToInt(List::size).sum();
+    }
+
+    public int getRemovedCount() {
+        return removedByType.values().stream().mapToInt(List::size).sum();
+    }
+
+    public boolean hasChanges() {
+        return addedByType.isEmpty() == false || removedByType.isEmpty() == false;
+    }
+}
@@ -5,26 +5,33 @@
 package org.opensearch.securityanalytics.threatIntel;
 
 import org.apache.commons.csv.CSVRecord;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
 import org.opensearch.OpenSearchException;
 import org.opensearch.OpenSearchStatusException;
+import org.opensearch.Version;
+import org.opensearch.ResourceAlreadyExistsException;
 import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.admin.indices.mapping.put.PutMappingRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
 import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.DeletePitRequest;
 import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.action.support.IndicesOptions;
-import org.opensearch.action.support.WriteRequest;
 import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterState;
 import org.opensearch.cluster.metadata.IndexMetadata;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.metadata.MappingMetadata;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.network.InetAddresses;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.XContentFactory;
@@ -33,6 +40,11 @@ import org.opensearch.core.rest.RestStatus;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.core.xcontent.ToXContent;
 import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.PointInTimeBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.FieldSortBuilder;
+import org.opensearch.search.sort.SortBuilders;
 import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
 import org.opensearch.securityanalytics.threatIntel.action.PutTIFJobAction;
 import org.opensearch.securityanalytics.threatIntel.action.PutTIFJobRequest;
@@ -51,14 +63,16 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CountDownLatch;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static org.opensearch.securityanalytics.threatIntel.jobscheduler.TIFJobParameter.THREAT_INTEL_DATA_INDEX_NAME_PREFIX;
@@ -71,6 +85,9 @@ public class ThreatIntelFeedDataService {
     private static final Logger log = LogManager.getLogger(ThreatIntelFeedDataService.class);
 
     public static final String SETTING_INDEX_REFRESH_INTERVAL = "index.refresh_interval";
+    static final String FEED_COMPLETE_META_FIELD = "feed_complete";
+    private static final int FEED_READ_PAGE_SIZE = 1000;
+    private static final TimeValue FEED_READ_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
     private static final Map<String, Object> INDEX_SETTING_TO_CREATE = Map.of(
             IndexMetadata.SETTING_NUMBER_OF_SHARDS,
             1,
@@ -88,6 +105,12 @@ public class ThreatIntelFeedDataService {
     private final Client client;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
 
+    private volatile CachedIocSet cachedIocSet;
+    private volatile CachedIocSet previousIocSet;
+    private final AtomicLong iocSetGeneration = new AtomicLong();
+    private final Map<String, List<ActionListener<IocSet>>> pendingIocSetListeners = new HashMap<>();
+    private final List<ActionListener<IocSet>> pendingBootstrapListeners = new ArrayList<>();
+
     public ThreatIntelFeedDataService(
             ClusterService clusterService,
             Client client,
@@ -100,36 +123,198 @@ public class ThreatIntelFeedDataService {
         this.clusterSettings = clusterService.getClusterSettings();
     }
 
-    public void getThreatIntelFeedData(
-            ActionListener<List<ThreatIntelFeedData>> listener
-    ) {
-        try {
-
-            String tifdIndex = getLatestIndexByCreationDate();
-            if (tifdIndex == null) {
+    /**
+     * Returns the IOCs of the latest complete threat intel feed index, bootstrapping the feed if it was never downloaded.
+     * While the first feed is still being ingested there are no IOCs to serve yet and an empty set is returned.
+     *
+     * The IOC set is cached on the node for as long as the same feed index is the latest complete one, so detectors
+     * created or updated between two feed updates share one read of the feed. Concurrent callers share the read in
+     * progress. Empty reads are not cached.
+     */
+    public void getIocSet(ActionListener<IocSet> listener) {
+        String tifdIndex = getLatestIndexByCreationDate();
+        if (tifdIndex == null) {
+            if (getLatestIndexByCreationDate(false) == null) {
                 createThreatIntelFeedData(listener);
             } else {
-                SearchRequest searchRequest = new SearchRequest(tifdIndex);
-                searchRequest.source().size(9999); //TODO: convert to scroll
-                String finalTifdIndex = tifdIndex;
-                client.search(searchRequest, ActionListener.wrap(r -> listener.onResponse(ThreatIntelFeedDataUtils.getTifdList(r, xContentRegistry)), e -> {
-                    log.error(String.format(
-                            "Failed to fetch threat intel feed data from system index %s", finalTifdIndex), e);
-                    listener.onFailure(e);
-                }));
+                log.info("Threat intel feed is being ingested, no IOCs to serve yet");
+                listener.onResponse(new IocSet.Builder().build());
             }
-        } catch (InterruptedException e) {
-            log.error("Failed to get threat intel feed data", e);
-            listener.onFailure(e);
+            return;
+        }
+
+        CachedIocSet cached = cachedIocSet;
+        if (cached != null && cached.index.equals(tifdIndex)) {
+            listener.onResponse(cached.iocSet);
+            return;
+        }
+
+        boolean startRead;
+        synchronized (pendingIocSetListeners) {
+            List<ActionListener<IocSet>> listeners = pendingIocSetListeners.computeIfAbsent(tifdIndex, it -> new ArrayList<>());
+            startRead = listeners.isEmpty();
+            listeners.add(listener);
+        }
+        if (startRead) {
+            long generation = iocSetGeneration.get();
+            readIocSet(tifdIndex, ActionListener.wrap(iocSet -> {
+                if (generation == iocSetGeneration.get() && iocSet.isEmpty() == false) {
+                    cachedIocSet = new CachedIocSet(tifdIndex, iocSet);
+                }
+                completePendingIocSetListeners(tifdIndex, iocSet, null);
+            }, e -> {
+                log.error(String.format(Locale.ROOT, "Failed to fetch threat intel feed data from system index %s", tifdIndex), e);
+                completePendingIocSetListeners(tifdIndex, null, e);
+            }));
+        }
+    }
+
+    /**
+     * Drops the cached IOC set, called when a new feed index is published. The dropped set is kept as the previous
+     * snapshot of {@link #getIocSetDelta}.
+     */
+    public void invalidateIocSet() {
+        iocSetGeneration.incrementAndGet();
+        CachedIocSet cached = cachedIocSet;
+        if (cached != null) {
+            previousIocSet = cached;
+        }
+        cachedIocSet = null;
+    }
+
+    /**
+     * Computes the IOCs added & removed by a feed update. Must be called after the new feed indices are published and
+     * before the previous ones are deleted: the previous IOCs come from the node cache if it holds one of the previous
+     * indices, otherwise they are read from the newest previous index. The delta has no previous snapshot when none of
+     * the previous indices exists anymore.
+     */
+    public void getIocSetDelta(List<String> previousIndices, ActionListener<IocSetDelta> listener) {
+        ActionListener<IocSet> previousIocSetListener = ActionListener.delegateFailure(listener, (delegatedListener, previous) ->
+                getIocSet(ActionListener.delegateFailure(delegatedListener, (l, current) -> l.onResponse(IocSetDelta.between(previous, current)))));
+
+        CachedIocSet previous = previousIocSet;
+        if (previous != null && previousIndices.contains(previous.index)) {
+            previousIocSetListener.onResponse(previous.iocSet);
+            return;
+        }
+        String previousIndex = IndexUtils.getNewestIndexByCreationDate(previousIndices.toArray(new String[0]), clusterService.state());
+        if (previousIndex == null) {
+            previousIocSetListener.onResponse(null);
+        } else {
+            readIocSet(previousIndex, previousIocSetListener);
+        }
+    }
+
+    private void completePendingIocSetListeners(String tifdIndex, IocSet iocSet, Exception e) {
+        List<ActionListener<IocSet>> listeners;
+        synchronized (pendingIocSetListeners) {
+            listeners = pendingIocSetListeners.remove(tifdIndex);
         }
+        if (listeners == null) {
+            return;
+        }
+        for (ActionListener<IocSet> listener: listeners) {
+            if (e != null) {
+                listener.onFailure(e);
+            } else {
+                listener.onResponse(iocSet);
+            }
+        }
+    }
+
+    /**
+     * Reads a whole feed index page by page from a point in time, adding each page to the IOC set as it arrives.
+     */
+    void readIocSet(String tifdIndex, ActionListener<IocSet> listener) {
+        CreatePitRequest createPitRequest = new CreatePitRequest(FEED_READ_KEEP_ALIVE, false, tifdIndex);
+        client.createPit(createPitRequest, ActionListener.delegateFailure(listener, (delegatedListener, createPitResponse) -> {
+            String pitId = createPitResponse.getId();
+            readIocSetPage(pitId, null, new IocSet.Builder(), ActionListener.runAfter(delegatedListener, () -> deletePit(pitId)));
+        }));
+    }
+
+    private void readIocSetPage(String pitId, Object[] searchAfter, IocSet.Builder builder, ActionListener<IocSet> listener) {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .size(FEED_READ_PAGE_SIZE)
+                // feed indices have a single shard, so the doc id is a unique sort key
+                .sort(SortBuilders.fieldSort(FieldSortBuilder.DOC_FIELD_NAME))
+                .pointInTimeBuilder(new PointInTimeBuilder(pitId).setKeepAlive(FEED_READ_KEEP_ALIVE));
+        if (searchAfter != null) {
+            searchSourceBuilder.searchAfter(searchAfter);
+        }
+
+        client.search(new SearchRequest().source(searchSourceBuilder), ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            SearchHit[] hits = response.getHits().getHits();
+            ThreatIntelFeedDataUtils.getTifdList(response, xContentRegistry).forEach(builder::add);
+
+            if (hits.length < FEED_READ_PAGE_SIZE) {
+                delegatedListener.onResponse(builder.build());
+            } else {
+                String nextPitId = response.pointInTimeId() != null ? response.pointInTimeId() : pitId;
+                readIocSetPage(nextPitId, hits[hits.length - 1].getSortValues(), builder, delegatedListener);
+            }
+        }));
+    }
+
+    private void deletePit(String pitId) {
+        client.deletePits(new DeletePitRequest(pitId), ActionListener.wrap(
+                r -> log.debug("Deleted point in time of threat intel feed read"),
+                e -> log.warn("Failed to delete point in time of threat intel feed read", e)
+        ));
     }
 
     private String getLatestIndexByCreationDate() {
-        return IndexUtils.getNewIndexByCreationDate(
-                this.clusterService.state(),
-                this.indexNameExpressionResolver,
-                THREAT_INTEL_DATA_INDEX_NAME_PREFIX + "*"
-        );
+        return getLatestIndexByCreationDate(true);
+    }
+
+    /**
+     * @param completeOnly whether to skip feed indices which are still being ingested
+     */
+    private String getLatestIndexByCreationDate(boolean completeOnly) {
+        ClusterState state = clusterService.state();
+        String[] indices = indexNameExpressionResolver.concreteIndexNames(state, IndicesOptions.LENIENT_EXPAND_OPEN,
+                THREAT_INTEL_DATA_INDEX_NAME_PREFIX + "*");
+        if (completeOnly) {
+            indices = Arrays.stream(indices).filter(index -> isFeedComplete(state.metadata().index(index))).toArray(String[]::new);
+        }
+        return IndexUtils.getNewestIndexByCreationDate(indices, state);
+    }
+
+    /**
+     * Whether all IOCs of the feed were written to the feed index and are searchable. The feed index is marked in its
+     * mapping once ingestion completed, feed indices created before the marker was introduced are always complete.
+     */
+    static boolean isFeedComplete(IndexMetadata indexMetadata) {
+        if (indexMetadata == null) {
+            return false;
+        }
+        if (indexMetadata.getCreationVersion().before(Version.V_3_0_0)) {
+            return true;
+        }
+        MappingMetadata mapping = indexMetadata.mapping();
+        if (mapping == null) {
+            return false;
+        }
+        Object meta = mapping.sourceAsMap().get("_meta");
+        return meta instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) meta).get(FEED_COMPLETE_META_FIELD));
+    }
+
+    /**
+     * Marks the feed index as complete, see {@link #isFeedComplete}. The mapping update is acknowledged once all nodes
+     * applied it, so no node serves the feed before it is complete.
+     */
+    private void markFeedComplete(String indexName, ActionListener<AcknowledgedResponse> listener) {
+        Map<String, Object> meta = new HashMap<>();
+        IndexMetadata indexMetadata = clusterService.state().metadata().index(indexName);
+        if (indexMetadata != null && indexMetadata.mapping() != null && indexMetadata.mapping().sourceAsMap().get("_meta") instanceof Map) {
+            ((Map<?, ?>) indexMetadata.mapping().sourceAsMap().get("_meta")).forEach((key, value) -> meta.put(key.toString(), value));
+        }
+        meta.put(FEED_COMPLETE_META_FIELD, true);
+
+        PutMappingRequest putMappingRequest = new PutMappingRequest(indexName)
+                .source(Map.of("_meta", meta))
+                .timeout(clusterSettings.get(SecurityAnalyticsSettings.THREAT_INTEL_TIMEOUT));
+        StashedThreadContext.run(client, () -> client.admin().indices().putMapping(putMappingRequest, listener));
     }
 
     /**
@@ -170,6 +355,13 @@ public class ThreatIntelFeedDataService {
 
     /**
      * Puts threat intel feed from CSVRecord iterator into a given index in bulk
+     * <p>
+     * Records are parsed, validated and added to bulk requests of {@link SecurityAnalyticsSettings#BATCH_SIZE} documents
+     * while they are read, leading comments and blank lines are skipped. At most
+     * {@link SecurityAnalyticsSettings#TIF_MAX_CONCURRENT_BULKS} bulk requests are in flight, reading waits for one of them
+     * to complete, so memory stays flat however large the feed is. The index is refreshed once after the last bulk request.
+     * <p>
+     * Blocks the calling thread until the iterator is consumed, must not be called on a transport thread.
      *
      * @param indexName Index name to save the threat intel feed
      * @param iterator  TIF data to insert
@@ -187,85 +379,123 @@ public class ThreatIntelFeedDataService {
         }
 
         TimeValue timeout = clusterSettings.get(SecurityAnalyticsSettings.THREAT_INTEL_TIMEOUT);
-        Integer batchSize = clusterSettings.get(SecurityAnalyticsSettings.BATCH_SIZE);
-
-        List<BulkRequest> bulkRequestList = new ArrayList<>();
-        BulkRequest bulkRequest = new BulkRequest();
-        bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-        List<ThreatIntelFeedData> tifdList = new ArrayList<>();
-        while (iterator.hasNext()) {
-            CSVRecord record = iterator.next();
-            String iocType = tifMetadata.getIocType();
-            Integer colNum = tifMetadata.getIocCol();
-            String iocValue = record.values()[colNum].split(" ")[0];
-            if (iocType.equals("ip") && !isValidIp(iocValue)) {
-                log.info("Invalid IP address, skipping this ioc record.");
-                continue;
-            }
-            String feedId = tifMetadata.getFeedId();
-            Instant timestamp = Instant.now();
-            ThreatIntelFeedData threatIntelFeedData = new ThreatIntelFeedData(iocType, iocValue, feedId, timestamp);
-            tifdList.add(threatIntelFeedData);
-        }
-        for (ThreatIntelFeedData tifd : tifdList) {
-            XContentBuilder tifData = tifd.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS);
-            IndexRequest indexRequest = new IndexRequest(indexName);
-            indexRequest.source(tifData);
-            indexRequest.opType(DocWriteRequest.OpType.INDEX);
-            bulkRequest.add(indexRequest);
-
-            if (bulkRequest.requests().size() == batchSize) {
-                bulkRequestList.add(bulkRequest);
-                bulkRequest = new BulkRequest();
-                bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-            }
-        }
-        bulkRequestList.add(bulkRequest);
-
-        GroupedActionListener<BulkResponse> bulkResponseListener = new GroupedActionListener<>(new ActionListener<>() {
-            @Override
-            public void onResponse(Collection<BulkResponse> bulkResponses) {
-                int idx = 0;
-                for (BulkResponse response: bulkResponses) {
-                    BulkRequest request = bulkRequestList.get(idx);
-                    if (response.hasFailures()) {
-                        throw new OpenSearchException(
-                                "error occurred while ingesting threat intel feed data in {} with an error {}",
-                                StringUtils.join(request.getIndices()),
-                                response.buildFailureMessage()
-                        );
-                    }
+        int batchSize = clusterSettings.get(SecurityAnalyticsSettings.BATCH_SIZE);
+        int maxConcurrentBulks = clusterSettings.get(SecurityAnalyticsSettings.TIF_MAX_CONCURRENT_BULKS);
+
+        String iocType = tifMetadata.getIocType();
+        int colNum = tifMetadata.getIocCol();
+        String feedId = tifMetadata.getFeedId();
+        Instant timestamp = Instant.now();
+
+        Semaphore inFlightBulks = new Semaphore(maxConcurrentBulks);
+        AtomicReference<Exception> bulkFailure = new AtomicReference<>();
+        boolean skipHeader = tifMetadata.hasHeader();
+        long skipped = 0;
+
+        try {
+            BulkRequest bulkRequest = new BulkRequest();
+            while (bulkFailure.get() == null && iterator.hasNext()) {
+                CSVRecord record = iterator.next();
+                if (ThreatIntelFeedParser.isCommentOrEmpty(record)) {
+                    continue;
+                }
+                if (skipHeader) {
+                    skipHeader = false;
+                    continue;
+                }
+                if (record.size() <= colNum) {
+                    ++skipped;
+                    continue;
+                }
+                String iocValue = record.get(colNum).split(" ")[0];
+                if (iocType.equals("ip") && !isValidIp(iocValue)) {
+                    ++skipped;
+                    continue;
+                }
+                ThreatIntelFeedData tifd = new ThreatIntelFeedData(iocType, iocValue, feedId, timestamp);
+                IndexRequest indexRequest = new IndexRequest(indexName);
+                indexRequest.source(tifd.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS));
+                indexRequest.opType(DocWriteRequest.OpType.INDEX);
+                bulkRequest.add(indexRequest);
+
+                if (bulkRequest.numberOfActions() == batchSize) {
+                    sendBulk(indexName, bulkRequest, timeout, inFlightBulks, bulkFailure);
+                    renewLock.run();
+                    bulkRequest = new BulkRequest();
                 }
-                listener.onResponse(new ThreatIntelIndicesResponse(true, List.of(indexName)));
             }
-
-            @Override
-            public void onFailure(Exception e) {
-                listener.onFailure(e);
+            if (bulkFailure.get() == null && bulkRequest.numberOfActions() > 0) {
+                sendBulk(indexName, bulkRequest, timeout, inFlightBulks, bulkFailure);
             }
-        }, bulkRequestList.size());
-
-        for (int i = 0; i < bulkRequestList.size(); ++i) {
-            saveTifds(bulkRequestList.get(i), timeout, bulkResponseListener);
+            // wait for the bulk requests still in flight
+            inFlightBulks.acquire(maxConcurrentBulks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.onFailure(e);
+            return;
         }
         renewLock.run();
+
+        if (skipped > 0) {
+            log.info("Skipped {} invalid ioc records of threat intel feed {}", skipped, feedId);
+        }
+        if (bulkFailure.get() != null) {
+            listener.onFailure(bulkFailure.get());
+            return;
+        }
+
+        // bulk requests don't refresh, the index has no refresh interval, so the feed becomes visible at once
+        StashedThreadContext.run(client, () -> client.admin().indices().refresh(new RefreshRequest(indexName), ActionListener.wrap(
+                refreshResponse -> markFeedComplete(indexName, ActionListener.wrap(
+                        response -> listener.onResponse(new ThreatIntelIndicesResponse(true, List.of(indexName))),
+                        listener::onFailure
+                )),
+                listener::onFailure
+        )));
+    }
+
+    private void sendBulk(
+            String indexName,
+            BulkRequest bulkRequest,
+            TimeValue timeout,
+            Semaphore inFlightBulks,
+            AtomicReference<Exception> bulkFailure
+    ) throws InterruptedException {
+        inFlightBulks.acquire();
+        saveTifds(bulkRequest, timeout, ActionListener.runAfter(ActionListener.wrap(response -> {
+            if (response.hasFailures()) {
+                bulkFailure.compareAndSet(null, new OpenSearchException(
+                        "error occurred while ingesting threat intel feed data in {} with an error {}",
+                        indexName,
+                        response.buildFailureMessage()
+                ));
+            }
+        }, e -> bulkFailure.compareAndSet(null, e)), inFlightBulks::release));
     }
 
+    /**
+     * Whether the IOC is an IPv4 or IPv6 address or a CIDR block.
+     */
     public static boolean isValidIp(String ip) {
-        String ipPattern = "^\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}$";
-        Pattern pattern = Pattern.compile(ipPattern);
-        Matcher matcher = pattern.matcher(ip);
-        return matcher.matches();
+        if (ip.contains("/")) {
+            try {
+                InetAddresses.parseCidr(ip);
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return InetAddresses.isInetAddress(ip);
     }
 
     public void saveTifds(BulkRequest bulkRequest, TimeValue timeout, ActionListener<BulkResponse> listener) {
         try {
+            bulkRequest.timeout(timeout);
             StashedThreadContext.run(client, () -> client.bulk(bulkRequest, listener));
         } catch (OpenSearchException e) {
             log.error("failed to save threat intel feed data", e);
+            listener.onFailure(e);
         }
-
     }
 
     public void deleteThreatIntelDataIndex(final List<String> indices) {
@@ -307,36 +537,55 @@ public class ThreatIntelFeedDataService {
         );
     }
 
-    private void createThreatIntelFeedData(ActionListener<List<ThreatIntelFeedData>> listener) throws InterruptedException {
-        CountDownLatch countDownLatch = new CountDownLatch(1);
+    /**
+     * Creates the feed updater job, which downloads the feeds, then serves the IOC set of the new feed index. Concurrent
+     * callers share one job creation; a job created concurrently by another node is not an error.
+     */
+    private void createThreatIntelFeedData(ActionListener<IocSet> listener) {
+        boolean startBootstrap;
+        synchronized (pendingBootstrapListeners) {
+            startBootstrap = pendingBootstrapListeners.isEmpty();
+            pendingBootstrapListeners.add(listener);
+        }
+        if (startBootstrap == false) {
+            return;
+        }
+
         client.execute(
                 PutTIFJobAction.INSTANCE,
                 new PutTIFJobRequest("feed_updater", clusterSettings.get(SecurityAnalyticsSettings.TIF_UPDATE_INTERVAL)),
-                new ActionListener<>() {
-                    @Override
-                    public void onResponse(AcknowledgedResponse acknowledgedResponse) {
-                        log.debug("Acknowledged threat intel feed updater job created");
-                        countDownLatch.countDown();
-                        String tifdIndex = getLatestIndexByCreationDate();
-
-                        SearchRequest searchRequest = new SearchRequest(tifdIndex);
-                        searchRequest.source().size(9999); //TODO: convert to scroll
-                        String finalTifdIndex = tifdIndex;
-                        client.search(searchRequest, ActionListener.wrap(r -> listener.onResponse(ThreatIntelFeedDataUtils.getTifdList(r, xContentRegistry)), e -> {
-                            log.error(String.format(
-                                    "Failed to fetch threat intel feed data from system index %s", finalTifdIndex), e);
-                            listener.onFailure(e);
-                        }));
-                    }
-
-                    @Override
-                    public void onFailure(Exception e) {
-                        log.debug("Failed to create threat intel feed updater job", e);
-                        countDownLatch.countDown();
+                ActionListener.wrap(acknowledgedResponse -> {
+                    log.debug("Acknowledged threat intel feed updater job created");
+                    completePendingBootstrapListeners(null);
+                }, e -> {
+                    if (ExceptionsHelper.unwrapCause(e) instanceof ResourceAlreadyExistsException) {
+                        log.debug("Threat intel feed updater job was created concurrently");
+                        completePendingBootstrapListeners(null);
+                    } else {
+                        log.error("Failed to create threat intel feed updater job", e);
+                        completePendingBootstrapListeners(e);
                     }
-                }
+                })
         );
-        countDownLatch.await();
+    }
+
+    private void completePendingBootstrapListeners(Exception e) {
+        List<ActionListener<IocSet>> listeners;
+        synchronized (pendingBootstrapListeners) {
+            listeners = new ArrayList<>(pendingBootstrapListeners);
+            pendingBootstrapListeners.clear();
+        }
+        if (e != null) {
+            listeners.forEach(listener -> listener.onFailure(e));
+            return;
+        }
+        if (getLatestIndexByCreationDate(false) == null) {
+            OpenSearchStatusException notFound = new OpenSearchStatusException("Threat intel feed index not found", RestStatus.INTERNAL_SERVER_ERROR);
+            listeners.forEach(listener -> listener.onFailure(notFound));
+            return;
+        }
+        // the listeners share a single read of the new feed index
+        listeners.forEach(this::getIocSet);
     }
 
     private String getIndexMapping() {
@@ -351,4 +600,14 @@ public class ThreatIntelFeedDataService {
             throw new SecurityAnalyticsException("Runtime exception when getting the threat intel index mapping", RestStatus.INTERNAL_SERVER_ERROR, e);
         }
     }
+
+    private static class CachedIocSet {
+        private final String index;
+        private final IocSet iocSet;
+
+        CachedIocSet(String index, IocSet iocSet) {
+            this.index = index;
+            this.iocSet = iocSet;
+        }
+    }
 }
@@ -6,6 +6,7 @@ package org.opensearch.securityanalytics.threatIntel;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.OpenSearchException;
@@ -32,19 +33,44 @@ public class ThreatIntelFeedParser {
      * @param tifMetadata Threat intel feed metadata
      * @return parser for threat intel feed
      */
-    @SuppressForbidden(reason = "Need to connect to http endpoint to read threat intel feed database file")
     public static CSVParser getThreatIntelFeedReaderCSV(final TIFMetadata tifMetadata) {
+        return getThreatIntelFeedReaderCSV(tifMetadata, tifMetadata.getUrl());
+    }
+
+    /**
+     * Create CSVParser of a threat intel feed downloaded from the given url instead of the url of the feed metadata
+     *
+     * @param tifMetadata Threat intel feed metadata
+     * @param feedUrl url to download the feed from, any url supported by {@link URL#openConnection()}
+     * @return parser for threat intel feed
+     */
+    @SuppressForbidden(reason = "Need to connect to http endpoint to read threat intel feed database file")
+    public static CSVParser getThreatIntelFeedReaderCSV(final TIFMetadata tifMetadata, final String feedUrl) {
         SpecialPermission.check();
         return AccessController.doPrivileged((PrivilegedAction<CSVParser>) () -> {
             try {
-                URL url = new URL(tifMetadata.getUrl());
+                URL url = new URL(feedUrl);
                 URLConnection connection = url.openConnection();
                 connection.addRequestProperty(Constants.USER_AGENT_KEY, Constants.USER_AGENT_VALUE);
                 return new CSVParser(new BufferedReader(new InputStreamReader(connection.getInputStream())), CSVFormat.RFC4180);
             } catch (IOException e) {
-                log.error("Exception: failed to read threat intel feed data from {}",tifMetadata.getUrl(), e);
-                throw new OpenSearchException("failed to read threat intel feed data from {}", tifMetadata.getUrl(), e);
+                log.error("Exception: failed to read threat intel feed data of {} from {}", tifMetadata.getFeedId(), feedUrl, e);
+                throw new OpenSearchException("failed to read threat intel feed data from {}", feedUrl, e);
             }
         });
     }
+
+    /**
+     * Whether a record of a threat intel feed is a blank line or a comment, i.e. starts with '#' or ' '
+     */
+    public static boolean isCommentOrEmpty(final CSVRecord record) {
+        if (record.size() == 0) {
+            return true;
+        }
+        String firstValue = record.get(0);
+        if (firstValue.isEmpty()) {
+            return record.size() == 1;
+        }
+        return firstValue.charAt(0) == '#' || firstValue.charAt(0) == ' ';
+    }
 }
@@ -141,6 +141,7 @@ public class TransportPutTIFJobAction extends HandledTransportAction<PutTIFJobRe
 
                     @Override
                     public void onFailure(Exception e) {
+                        lockService.releaseLock(lockReference.get());
                         listener.onFailure(e);
                     }
                 });
@@ -182,6 +183,7 @@ public class TransportPutTIFJobAction extends HandledTransportAction<PutTIFJobRe
             tifJobParameterService.updateJobSchedulerParameter(tifJobParameter, listener);
         } catch (Exception e) {
             log.error("Failed to mark tifJobParameter state as CREATE_FAILED for {}", tifJobParameter.getName(), e);
+            listener.onFailure(e);
         }
     }
 }
@@ -157,10 +157,15 @@ public class TIFJobRunner implements ScheduledJobRunner {
             public void onResponse(ThreatIntelIndicesResponse response) {
                 if (response.isAcknowledged()) {
                     List<String> newFeedIndices = response.getIndices();
-                    jobSchedulerUpdateService.deleteAllTifdIndices(oldIndices, newFeedIndices);
-                    if (false == newFeedIndices.isEmpty()) {
-                        detectorThreatIntelService.updateDetectorsWithLatestThreatIntelRules();
+                    if (newFeedIndices.isEmpty()) {
+                        jobSchedulerUpdateService.deleteAllTifdIndices(oldIndices, newFeedIndices);
+                        return;
                     }
+                    // the previous feed indices are the baseline of the delta, delete them only once it is computed
+                    detectorThreatIntelService.getIocSetDelta(oldIndices, ActionListener.runAfter(ActionListener.wrap(
+                            detectorThreatIntelService::updateDetectorsWithLatestThreatIntelRules,
+                            e -> log.error("Failed to compute the changes of the threat intel feed, detectors keep their threat intel queries", e)
+                    ), () -> jobSchedulerUpdateService.deleteAllTifdIndices(oldIndices, newFeedIndices)));
                 } else {
                     log.error("Failed to update jobSchedulerParameter for {}", jobSchedulerParameter.getName());
                     jobSchedulerParameter.getUpdateStats().setLastFailedAt(Instant.now());
@@ -6,7 +6,6 @@
 package org.opensearch.securityanalytics.threatIntel.jobscheduler;
 
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +19,7 @@ import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.rest.RestStatus;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.threatIntel.ThreatIntelFeedDataService;
 import org.opensearch.securityanalytics.threatIntel.ThreatIntelFeedParser;
 import org.opensearch.securityanalytics.threatIntel.action.ThreatIntelIndicesResponse;
@@ -27,8 +27,8 @@ import org.opensearch.securityanalytics.threatIntel.common.TIFJobState;
 import org.opensearch.securityanalytics.threatIntel.common.TIFMetadata;
 import org.opensearch.securityanalytics.threatIntel.feedMetadata.BuiltInTIFMetadataLoader;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
+import org.opensearch.threadpool.ThreadPool;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.AbstractMap;
@@ -45,17 +45,20 @@ public class TIFJobUpdateService {
     private static final int MAX_WAIT_TIME_FOR_REPLICATION_TO_COMPLETE_IN_MILLIS = 10 * 60 * 60 * 1000; // 10 hours
     private final ClusterService clusterService;
     private final ClusterSettings clusterSettings;
+    private final ThreadPool threadPool;
     private final TIFJobParameterService jobSchedulerParameterService;
     private final ThreatIntelFeedDataService threatIntelFeedDataService;
     private final BuiltInTIFMetadataLoader builtInTIFMetadataLoader;
 
     public TIFJobUpdateService(
             final ClusterService clusterService,
+            final ThreadPool threadPool,
             final TIFJobParameterService jobSchedulerParameterService,
             final ThreatIntelFeedDataService threatIntelFeedDataService,
             BuiltInTIFMetadataLoader builtInTIFMetadataLoader) {
         this.clusterService = clusterService;
         this.clusterSettings = clusterService.getClusterSettings();
+        this.threadPool = threadPool;
         this.jobSchedulerParameterService = jobSchedulerParameterService;
         this.threatIntelFeedDataService = threatIntelFeedDataService;
         this.builtInTIFMetadataLoader = builtInTIFMetadataLoader;
@@ -166,32 +169,14 @@ public class TIFJobUpdateService {
                                 TIFMetadata tifMetadata = indexTIFMetadataMap.get(indexName);
                                 switch (tifMetadata.getFeedType()) {
                                     case "csv":
-                                        try (CSVParser reader = ThreatIntelFeedParser.getThreatIntelFeedReaderCSV(tifMetadata)) {
-                                            CSVParser noHeaderReader = ThreatIntelFeedParser.getThreatIntelFeedReaderCSV(tifMetadata);
-                                            boolean notFound = true;
-
-                                            while (notFound) {
-                                                CSVRecord hasHeaderRecord = reader.iterator().next();
-
-                                                //if we want to skip this line and keep iterating
-                                                if ((hasHeaderRecord.values().length ==1 && "".equals(hasHeaderRecord.values()[0])) || hasHeaderRecord.get(0).charAt(0) == '#' || hasHeaderRecord.get(0).charAt(0) == ' '){
-                                                    noHeaderReader.iterator().next();
-                                                } else { // we found the first line that contains information
-                                                    notFound = false;
-                                                }
-                                            }
-                                            if (tifMetadata.hasHeader()){
-                                                threatIntelFeedDataService.parseAndSaveThreatIntelFeedDataCSV(indexName, reader.iterator(), renewLock, tifMetadata, saveThreatIntelFeedResponseListener);
-                                            } else {
-                                                threatIntelFeedDataService.parseAndSaveThreatIntelFeedDataCSV(indexName, noHeaderReader.iterator(), renewLock, tifMetadata, saveThreatIntelFeedResponseListener);
-                                            }
-                                        }
+                                        // downloading and indexing the feed blocks, keep it off the thread of the create index response
+                                        threadPool.generic().execute(() -> saveCsvFeed(indexName, tifMetadata, renewLock, saveThreatIntelFeedResponseListener));
                                         break;
                                     default:
                                         // if the feed type doesn't match any of the supporting feed types, throw an exception
                                 }
                             }
-                        } catch (IOException ex) {
+                        } catch (Exception ex) {
                             onFailure(ex);
                         }
                     }
@@ -211,6 +196,22 @@ public class TIFJobUpdateService {
 
     // helper functions
 
+    /**
+     * Downloads a csv feed once and streams its records into the feed index.
+     */
+    private void saveCsvFeed(String indexName, TIFMetadata tifMetadata, Runnable renewLock, ActionListener<ThreatIntelIndicesResponse> listener) {
+        String feedUrl = SecurityAnalyticsSettings.TIF_FEED_URL.getConcreteSettingForNamespace(tifMetadata.getFeedId()).get(clusterService.getSettings());
+        if (feedUrl.isEmpty()) {
+            feedUrl = tifMetadata.getUrl();
+        }
+        try (CSVParser reader = ThreatIntelFeedParser.getThreatIntelFeedReaderCSV(tifMetadata, feedUrl)) {
+            threatIntelFeedDataService.parseAndSaveThreatIntelFeedDataCSV(indexName, reader.iterator(), renewLock, tifMetadata, listener);
+        } catch (Exception e) {
+            log.error(() -> new ParameterizedMessage("Failed to save threat intel feed {} into index {}", tifMetadata.getFeedId(), indexName), e);
+            listener.onFailure(e);
+        }
+    }
+
     /***
      * Update jobSchedulerParameter as succeeded
      *
@@ -228,6 +229,8 @@ public class TIFJobUpdateService {
         jobSchedulerParameter.getUpdateStats().setLastProcessingTimeInMillis(endTime.toEpochMilli() - startTime.toEpochMilli());
         jobSchedulerParameter.enable();
         jobSchedulerParameter.setState(TIFJobState.AVAILABLE);
+        // the new feed indices are complete, stop serving IOCs read from the previous ones
+        threatIntelFeedDataService.invalidateIocSet();
         jobSchedulerParameterService.updateJobSchedulerParameter(jobSchedulerParameter, listener);
         log.info(
                 "threat intel feed data creation succeeded for {} and took {} seconds",
@@ -14,8 +14,6 @@ import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRunnable;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
 import org.opensearch.action.bulk.BulkResponse;
-import org.opensearch.action.index.IndexRequest;
-import org.opensearch.action.index.IndexResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
@@ -28,7 +26,6 @@ import org.opensearch.common.inject.Inject;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.LoggingDeprecationHandler;
-import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.commons.alerting.model.Finding;
 import org.opensearch.commons.alerting.action.PublishFindingsRequest;
@@ -37,22 +34,28 @@ import org.opensearch.commons.alerting.action.AlertingActions;
 import org.opensearch.core.common.io.stream.InputStreamStreamInput;
 import org.opensearch.core.common.io.stream.OutputStreamStreamOutput;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
-import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
-import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.NestedQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.correlation.CorrelationCandidateStreamer;
+import org.opensearch.securityanalytics.correlation.CorrelationCounterService;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleRegistry;
+import org.opensearch.securityanalytics.correlation.CorrelationScoreTimestampService;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
 import org.opensearch.securityanalytics.correlation.JoinEngine;
+import org.opensearch.securityanalytics.correlation.RecentCorrelationsOverlay;
 import org.opensearch.securityanalytics.correlation.VectorEmbeddingsEngine;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.logtype.LogTypeSnapshot;
 import org.opensearch.securityanalytics.model.CustomLogType;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.securityanalytics.util.DetectorCache;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.IndexUtils;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
@@ -63,7 +66,6 @@ import org.opensearch.transport.TransportService;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -76,6 +78,20 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
     private final DetectorIndices detectorIndices;
 
+    private final DetectorCache detectorCache;
+
+    private final CorrelationSearchBatcher correlationSearchBatcher;
+
+    private final CorrelationCandidateStreamer correlationCandidateStreamer;
+
+    private final CorrelationRuleRegistry correlationRuleRegistry;
+
+    private final RecentCorrelationsOverlay recentCorrelationsOverlay;
+
+    private final CorrelationCounterService correlationCounterService;
+
+    private final CorrelationScoreTimestampService correlationScoreTimestampService;
+
     private final CorrelationIndices correlationIndices;
 
     private final LogTypeService logTypeService;
@@ -98,11 +114,20 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
     private volatile boolean enableAutoCorrelation;
 
+    private volatile WriteRequest.RefreshPolicy correlationRefreshPolicy;
+
     @Inject
     public TransportCorrelateFindingAction(TransportService transportService,
                                            Client client,
                                            NamedXContentRegistry xContentRegistry,
                                            DetectorIndices detectorIndices,
+                                           DetectorCache detectorCache,
+                                           CorrelationSearchBatcher correlationSearchBatcher,
+                                           CorrelationCandidateStreamer correlationCandidateStreamer,
+                                           CorrelationRuleRegistry correlationRuleRegistry,
+                                           RecentCorrelationsOverlay recentCorrelationsOverlay,
+                                           CorrelationCounterService correlationCounterService,
+                                           CorrelationScoreTimestampService correlationScoreTimestampService,
                                            CorrelationIndices correlationIndices,
                                            LogTypeService logTypeService,
                                            ClusterService clusterService,
@@ -112,6 +137,13 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
         this.client = client;
         this.xContentRegistry = xContentRegistry;
         this.detectorIndices = detectorIndices;
+        this.detectorCache = detectorCache;
+        this.correlationSearchBatcher = correlationSearchBatcher;
+        this.correlationCandidateStreamer = correlationCandidateStreamer;
+        this.correlationRuleRegistry = correlationRuleRegistry;
+        this.recentCorrelationsOverlay = recentCorrelationsOverlay;
+        this.correlationCounterService = correlationCounterService;
+        this.correlationScoreTimestampService = correlationScoreTimestampService;
         this.correlationIndices = correlationIndices;
         this.logTypeService = logTypeService;
         this.clusterService = clusterService;
@@ -121,9 +153,11 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
         this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(this.settings);
         this.corrTimeWindow = SecurityAnalyticsSettings.CORRELATION_TIME_WINDOW.get(this.settings).getMillis();
         this.enableAutoCorrelation = SecurityAnalyticsSettings.ENABLE_AUTO_CORRELATIONS.get(this.settings);
+        this.correlationRefreshPolicy = SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY.get(this.settings);
         this.clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.INDEX_TIMEOUT, it -> indexTimeout = it);
         this.clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_TIME_WINDOW, it -> corrTimeWindow = it.getMillis());
         this.clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.ENABLE_AUTO_CORRELATIONS, it -> enableAutoCorrelation = it);
+        this.clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY, it -> correlationRefreshPolicy = it);
         this.setupTimestamp = System.currentTimeMillis();
     }
 
@@ -224,8 +258,8 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
             this.response =new AtomicReference<>();
 
-            this.joinEngine = new JoinEngine(client, request, xContentRegistry, corrTimeWindow, this, logTypeService, enableAutoCorrelation);
-            this.vectorEmbeddingsEngine = new VectorEmbeddingsEngine(client, indexTimeout, corrTimeWindow, this);
+            this.joinEngine = new JoinEngine(client, request, xContentRegistry, corrTimeWindow, this, logTypeService, correlationCandidateStreamer, correlationRuleRegistry, enableAutoCorrelation);
+            this.vectorEmbeddingsEngine = new VectorEmbeddingsEngine(client, indexTimeout, corrTimeWindow, correlationRefreshPolicy, recentCorrelationsOverlay, correlationCounterService, this);
         }
 
         void start() {
@@ -233,7 +267,14 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
             String monitorId = request.getMonitorId();
             Finding finding = request.getFinding();
 
+            Detector cachedDetector = detectorCache.get(monitorId);
+            if (cachedDetector != null) {
+                joinEngine.onSearchDetectorResponse(cachedDetector, finding);
+                return;
+            }
+
             if (detectorIndices.detectorIndexExists()) {
+                long cacheGeneration = detectorCache.generation();
                 NestedQueryBuilder queryBuilder =
                         QueryBuilders.nestedQuery(
                                 "detector",
@@ -253,7 +294,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                 searchRequest.source(searchSourceBuilder);
                 searchRequest.preference(Preference.PRIMARY_FIRST.type());
 
-                client.search(searchRequest, new ActionListener<>() {
+                correlationSearchBatcher.search(CorrelationSearchBatcher.Stage.DETECTOR, searchRequest, new ActionListener<>() {
                     @Override
                     public void onResponse(SearchResponse response) {
                         if (response.isTimedOut()) {
@@ -270,6 +311,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                                         LoggingDeprecationHandler.INSTANCE, hit.getSourceAsString()
                                 );
                                 Detector detector = Detector.docParse(xcp, hit.getId(), hit.getVersion());
+                                detectorCache.put(cacheGeneration, detector);
                                 joinEngine.onSearchDetectorResponse(detector, finding);
                             } catch (IOException e) {
                                 onFailures(e);
@@ -336,149 +378,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                                         if (response.hasFailures()) {
                                             log.error(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
                                         }
-
-                                        long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
-                                        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                                .mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
-                                        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                                        searchSourceBuilder.query(queryBuilder);
-                                        searchSourceBuilder.fetchSource(true);
-                                        searchSourceBuilder.size(1);
-                                        SearchRequest searchRequest = new SearchRequest();
-                                        searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-                                        searchRequest.source(searchSourceBuilder);
-                                        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                                        client.search(searchRequest, new ActionListener<>() {
-                                            @Override
-                                            public void onResponse(SearchResponse response) {
-                                                String id = response.getHits().getHits()[0].getId();
-                                                Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                                                long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
-
-                                                if (findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL > scoreTimestamp) {
-                                                    try {
-                                                        XContentBuilder scoreBuilder = XContentFactory.jsonBuilder().startObject();
-                                                        scoreBuilder.field("scoreTimestamp", findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL);
-                                                        scoreBuilder.field("root", false);
-                                                        scoreBuilder.endObject();
-
-                                                        IndexRequest scoreIndexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                                                                .id(id)
-                                                                .source(scoreBuilder)
-                                                                .timeout(indexTimeout)
-                                                                .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                                        client.index(scoreIndexRequest, new ActionListener<>() {
-                                                            @Override
-                                                            public void onResponse(IndexResponse response) {
-                                                                BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                                                        .must(QueryBuilders.existsQuery("source"));
-                                                                SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                                                                searchSourceBuilder.query(queryBuilder);
-                                                                searchSourceBuilder.fetchSource(true);
-                                                                searchSourceBuilder.size(10000);
-                                                                SearchRequest searchRequest = new SearchRequest();
-                                                                searchRequest.indices(LogTypeService.LOG_TYPE_INDEX);
-                                                                searchRequest.source(searchSourceBuilder);
-
-                                                                client.search(searchRequest, new ActionListener<>() {
-                                                                    @Override
-                                                                    public void onResponse(SearchResponse response) {
-                                                                        if (response.isTimedOut()) {
-                                                                            onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                                                        }
-
-                                                                        SearchHit[] hits = response.getHits().getHits();
-                                                                        Map<String, CustomLogType> logTypes = new HashMap<>();
-                                                                        for (SearchHit hit : hits) {
-                                                                            Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                                                            logTypes.put(sourceMap.get("name").toString(),
-                                                                                    new CustomLogType(sourceMap));
-                                                                        }
-
-                                                                        if (correlatedFindings != null) {
-                                                                            if (correlatedFindings.isEmpty()) {
-                                                                                vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                                            }
-                                                                            for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                                                                vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                                                        Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), correlationRules, logTypes);
-                                                                            }
-                                                                        } else {
-                                                                            vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                                        }
-                                                                    }
-
-                                                                    @Override
-                                                                    public void onFailure(Exception e) {
-                                                                        onFailures(e);
-                                                                    }
-                                                                });
-                                                            }
-
-                                                            @Override
-                                                            public void onFailure(Exception e) {
-                                                                onFailures(e);
-                                                            }
-                                                        });
-                                                    } catch (Exception ex) {
-                                                        onFailures(ex);
-                                                    }
-                                                } else {
-                                                    float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
-
-                                                    BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                                            .must(QueryBuilders.existsQuery("source"));
-                                                    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                                                    searchSourceBuilder.query(queryBuilder);
-                                                    searchSourceBuilder.fetchSource(true);
-                                                    searchSourceBuilder.size(10000);
-                                                    SearchRequest searchRequest = new SearchRequest();
-                                                    searchRequest.indices(LogTypeService.LOG_TYPE_INDEX);
-                                                    searchRequest.source(searchSourceBuilder);
-
-                                                    client.search(searchRequest, new ActionListener<>() {
-                                                        @Override
-                                                        public void onResponse(SearchResponse response) {
-                                                            if (response.isTimedOut()) {
-                                                                onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                                            }
-
-                                                            SearchHit[] hits = response.getHits().getHits();
-                                                            Map<String, CustomLogType> logTypes = new HashMap<>();
-                                                            for (SearchHit hit : hits) {
-                                                                Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                                                logTypes.put(sourceMap.get("name").toString(),
-                                                                        new CustomLogType(sourceMap));
-                                                            }
-
-                                                            if (correlatedFindings != null) {
-                                                                if (correlatedFindings.isEmpty()) {
-                                                                    vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), timestampFeature, logTypes);
-                                                                }
-                                                                for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                                                    vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                                            timestampFeature, correlationRules, logTypes);
-                                                                }
-                                                            } else {
-                                                                vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, timestampFeature, logTypes);
-                                                            }
-                                                        }
-
-                                                        @Override
-                                                        public void onFailure(Exception e) {
-                                                            onFailures(e);
-                                                        }
-                                                    });
-                                                }
-                                            }
-
-                                            @Override
-                                            public void onFailure(Exception e) {
-                                                onFailures(e);
-                                            }
-                                        });
+                                        searchScoreTimestamp(detectorType, correlatedFindings, orphanFinding, correlationRules);
                                     }
 
                                     @Override
@@ -500,149 +400,53 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                     onFailures(ex);
                 }
             } else {
-                long findingTimestamp = this.request.getFinding().getTimestamp().toEpochMilli();
-                BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                        .mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
-                SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                searchSourceBuilder.query(queryBuilder);
-                searchSourceBuilder.fetchSource(true);
-                searchSourceBuilder.size(1);
-                SearchRequest searchRequest = new SearchRequest();
-                searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-                searchRequest.source(searchSourceBuilder);
-                searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                client.search(searchRequest, new ActionListener<>() {
-                    @Override
-                    public void onResponse(SearchResponse response) {
-                        String id = response.getHits().getHits()[0].getId();
-                        Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                        long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
-
-                        if (findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL > scoreTimestamp) {
-                            try {
-                                XContentBuilder scoreBuilder = XContentFactory.jsonBuilder().startObject();
-                                scoreBuilder.field("scoreTimestamp", findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL);
-                                scoreBuilder.field("root", false);
-                                scoreBuilder.endObject();
-
-                                IndexRequest scoreIndexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                                        .id(id)
-                                        .source(scoreBuilder)
-                                        .timeout(indexTimeout)
-                                        .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-
-                                client.index(scoreIndexRequest, new ActionListener<>() {
-                                    @Override
-                                    public void onResponse(IndexResponse response) {
-                                        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                                .must(QueryBuilders.existsQuery("source"));
-                                        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                                        searchSourceBuilder.query(queryBuilder);
-                                        searchSourceBuilder.fetchSource(true);
-                                        searchSourceBuilder.size(10000);
-                                        SearchRequest searchRequest = new SearchRequest();
-                                        searchRequest.indices(LogTypeService.LOG_TYPE_INDEX);
-                                        searchRequest.source(searchSourceBuilder);
-
-                                        client.search(searchRequest, new ActionListener<>() {
-                                            @Override
-                                            public void onResponse(SearchResponse response) {
-                                                if (response.isTimedOut()) {
-                                                    onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                                }
-
-                                                SearchHit[] hits = response.getHits().getHits();
-                                                Map<String, CustomLogType> logTypes = new HashMap<>();
-                                                for (SearchHit hit : hits) {
-                                                    Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                                    logTypes.put(sourceMap.get("name").toString(),
-                                                            new CustomLogType(sourceMap));
-                                                }
-
-                                                if (correlatedFindings != null) {
-                                                    if (correlatedFindings.isEmpty()) {
-                                                        vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                    }
-                                                    for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                                        vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                                Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), correlationRules, logTypes);
-                                                    }
-                                                } else {
-                                                    vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                }
-                                            }
-
-                                            @Override
-                                            public void onFailure(Exception e) {
-                                                onFailures(e);
-                                            }
-                                        });
-                                    }
-
-                                    @Override
-                                    public void onFailure(Exception e) {
-                                        onFailures(e);
-                                    }
-                                });
-                            } catch (Exception ex) {
-                                onFailures(ex);
-                            }
-                        } else {
-                            float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
-
-                            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                    .must(QueryBuilders.existsQuery("source"));
-                            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                            searchSourceBuilder.query(queryBuilder);
-                            searchSourceBuilder.fetchSource(true);
-                            searchSourceBuilder.size(10000);
-                            SearchRequest searchRequest = new SearchRequest();
-                            searchRequest.indices(LogTypeService.LOG_TYPE_INDEX);
-                            searchRequest.source(searchSourceBuilder);
-
-                            client.search(searchRequest, new ActionListener<>() {
-                                @Override
-                                public void onResponse(SearchResponse response) {
-                                    if (response.isTimedOut()) {
-                                        onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                    }
+                searchScoreTimestamp(detectorType, correlatedFindings, orphanFinding, correlationRules);
+            }
+        }
 
-                                    SearchHit[] hits = response.getHits().getHits();
-                                    Map<String, CustomLogType> logTypes = new HashMap<>();
-                                    for (SearchHit hit : hits) {
-                                        Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                        logTypes.put(sourceMap.get("name").toString(),
-                                                new CustomLogType(sourceMap));
-                                    }
+        private void searchScoreTimestamp(String detectorType, Map<String, List<String>> correlatedFindings, Finding orphanFinding, List<String> correlationRules) {
+            long findingTimestamp = this.request.getFinding().getTimestamp().toEpochMilli();
+            correlationScoreTimestampService.getScoreTimestamp(findingTimestamp, new ActionListener<>() {
+                @Override
+                public void onResponse(Long scoreTimestamp) {
+                    float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
+                    insertCorrelations(detectorType, correlatedFindings, orphanFinding, correlationRules, timestampFeature);
+                }
 
-                                    if (correlatedFindings != null) {
-                                        if (correlatedFindings.isEmpty()) {
-                                            vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), timestampFeature, logTypes);
-                                        }
-                                        for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                            vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                    timestampFeature, correlationRules, logTypes);
-                                        }
-                                    } else {
-                                        vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, timestampFeature, logTypes);
-                                    }
-                                }
+                @Override
+                public void onFailure(Exception e) {
+                    onFailures(e);
+                }
+            });
+        }
 
-                                @Override
-                                public void onFailure(Exception e) {
-                                    onFailures(e);
-                                }
-                            });
+        /**
+         * Resolves log types from the in-memory log type snapshot & writes the correlation records of the finding.
+         */
+        private void insertCorrelations(String detectorType, Map<String, List<String>> correlatedFindings, Finding orphanFinding, List<String> correlationRules, float timestampFeature) {
+            logTypeService.getLogTypeSnapshot(new ActionListener<>() {
+                @Override
+                public void onResponse(LogTypeSnapshot logTypeSnapshot) {
+                    Map<String, CustomLogType> logTypes = logTypeSnapshot.getLogTypes();
+
+                    if (correlatedFindings != null) {
+                        if (correlatedFindings.isEmpty()) {
+                            vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), timestampFeature, logTypes);
+                        }
+                        for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
+                            vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
+                                    timestampFeature, correlationRules, logTypes);
                         }
+                    } else {
+                        vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, timestampFeature, logTypes);
                     }
+                }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        onFailures(e);
-                    }
-                });
-            }
+                @Override
+                public void onFailure(Exception e) {
+                    onFailures(e);
+                }
+            });
         }
 
         public void onOperation() {
@@ -26,6 +26,7 @@ import org.opensearch.index.reindex.DeleteByQueryRequestBuilder;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.securityanalytics.action.DeleteCorrelationRuleAction;
 import org.opensearch.securityanalytics.action.DeleteCorrelationRuleRequest;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleRegistry;
 import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
@@ -37,14 +38,18 @@ public class TransportDeleteCorrelationRuleAction extends HandledTransportAction
 
     private final Client client;
 
+    private final CorrelationRuleRegistry correlationRuleRegistry;
+
     @Inject
     public TransportDeleteCorrelationRuleAction(
         TransportService transportService,
         Client client,
-        ActionFilters actionFilters
+        ActionFilters actionFilters,
+        CorrelationRuleRegistry correlationRuleRegistry
     ) {
         super(DeleteCorrelationRuleAction.NAME, transportService, actionFilters, DeleteCorrelationRuleRequest::new);
         this.client = client;
+        this.correlationRuleRegistry = correlationRuleRegistry;
     }
 
     @Override
@@ -60,6 +65,7 @@ public class TransportDeleteCorrelationRuleAction extends HandledTransportAction
                 .execute(new ActionListener<>() {
                     @Override
                     public void onResponse(BulkByScrollResponse response) {
+                        correlationRuleRegistry.invalidate();
                         if (response.isTimedOut()) {
                             listener.onFailure(
                                     new OpenSearchStatusException(
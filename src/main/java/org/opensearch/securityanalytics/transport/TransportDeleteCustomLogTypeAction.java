@@ -71,6 +71,8 @@ public class TransportDeleteCustomLogTypeAction extends HandledTransportAction<D
 
     private final CustomLogTypeIndices customLogTypeIndices;
 
+    private final LogTypeService logTypeService;
+
     private volatile Boolean filterByEnabled;
 
     private volatile TimeValue indexTimeout;
@@ -83,6 +85,7 @@ public class TransportDeleteCustomLogTypeAction extends HandledTransportAction<D
                                               DetectorIndices detectorIndices,
                                               RuleIndices ruleIndices,
                                               CustomLogTypeIndices customLogTypeIndices,
+                                              LogTypeService logTypeService,
                                               Settings settings,
                                               ThreadPool threadPool) {
         super(DeleteCustomLogTypeAction.NAME, transportService, actionFilters, DeleteCustomLogTypeRequest::new);
@@ -93,6 +96,7 @@ public class TransportDeleteCustomLogTypeAction extends HandledTransportAction<D
         this.detectorIndices = detectorIndices;
         this.ruleIndices = ruleIndices;
         this.customLogTypeIndices = customLogTypeIndices;
+        this.logTypeService = logTypeService;
         this.filterByEnabled = SecurityAnalyticsSettings.FILTER_BY_BACKEND_ROLES.get(this.settings);
         this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(this.settings);
 
@@ -248,6 +252,7 @@ public class TransportDeleteCustomLogTypeAction extends HandledTransportAction<D
                     if (response.status() != RestStatus.OK) {
                         onFailures(new OpenSearchStatusException(String.format(Locale.getDefault(), "Log Type with id %s cannot be deleted", logType.getId()), RestStatus.INTERNAL_SERVER_ERROR));
                     }
+                    logTypeService.invalidateLogTypeSnapshot();
                     onOperation(response);
                 }
 
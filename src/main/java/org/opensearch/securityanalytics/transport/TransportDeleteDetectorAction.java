@@ -41,6 +41,7 @@ import org.opensearch.securityanalytics.action.DeleteDetectorResponse;
 import org.opensearch.securityanalytics.mapper.IndexTemplateManager;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.DetectorCache;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.MonitorService;
 import org.opensearch.securityanalytics.util.RuleTopicIndices;
@@ -83,8 +84,10 @@ public class TransportDeleteDetectorAction extends HandledTransportAction<Delete
 
     private final DetectorIndices detectorIndices;
 
+    private final DetectorCache detectorCache;
+
     @Inject
-    public TransportDeleteDetectorAction(TransportService transportService, IndexTemplateManager indexTemplateManager, Client client, ActionFilters actionFilters, NamedXContentRegistry xContentRegistry, RuleTopicIndices ruleTopicIndices, DetectorIndices detectorIndices, ClusterService clusterService,
+    public TransportDeleteDetectorAction(TransportService transportService, IndexTemplateManager indexTemplateManager, Client client, ActionFilters actionFilters, NamedXContentRegistry xContentRegistry, RuleTopicIndices ruleTopicIndices, DetectorIndices detectorIndices, DetectorCache detectorCache, ClusterService clusterService,
                                          Settings settings) {
         super(DeleteDetectorAction.NAME, transportService, actionFilters, DeleteDetectorRequest::new);
         this.client = client;
@@ -93,6 +96,7 @@ public class TransportDeleteDetectorAction extends HandledTransportAction<Delete
         this.threadPool = client.threadPool();
         this.indexTemplateManager = indexTemplateManager;
         this.detectorIndices = detectorIndices;
+        this.detectorCache = detectorCache;
         this.monitorService = new MonitorService(client);
         this.workflowService = new WorkflowService(client, monitorService);
         this.clusterService = clusterService;
@@ -245,6 +249,7 @@ public class TransportDeleteDetectorAction extends HandledTransportAction<Delete
                     new ActionListener<>() {
                         @Override
                         public void onResponse(DeleteResponse response) {
+                            detectorCache.invalidateDetector(detectorId);
 
                             indexTemplateManager.deleteAllUnusedTemplates(new ActionListener<Void>() {
                                 @Override
@@ -29,20 +29,17 @@ import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryAction;
 import org.opensearch.index.reindex.DeleteByQueryRequestBuilder;
-import org.opensearch.rest.RestRequest;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.securityanalytics.action.DeleteRuleAction;
 import org.opensearch.securityanalytics.action.DeleteRuleRequest;
 import org.opensearch.securityanalytics.action.DeleteRuleResponse;
-import org.opensearch.securityanalytics.action.IndexDetectorAction;
-import org.opensearch.securityanalytics.action.IndexDetectorRequest;
-import org.opensearch.securityanalytics.action.IndexDetectorResponse;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.DetectorRule;
 import org.opensearch.securityanalytics.model.Rule;
 import org.opensearch.securityanalytics.util.DetectorIndices;
+import org.opensearch.securityanalytics.util.RulePropagationService;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ThreadPool;
@@ -53,7 +50,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.opensearch.securityanalytics.model.Detector.NO_VERSION;
@@ -70,13 +66,17 @@ public class TransportDeleteRuleAction extends HandledTransportAction<DeleteRule
 
     private final ThreadPool threadPool;
 
+    private final RulePropagationService rulePropagationService;
+
     @Inject
-    public TransportDeleteRuleAction(TransportService transportService, Client client, DetectorIndices detectorIndices, ActionFilters actionFilters, NamedXContentRegistry xContentRegistry) {
+    public TransportDeleteRuleAction(TransportService transportService, Client client, DetectorIndices detectorIndices, ActionFilters actionFilters,
+                                     NamedXContentRegistry xContentRegistry, RulePropagationService rulePropagationService) {
         super(DeleteRuleAction.NAME, transportService, actionFilters, DeleteRuleRequest::new);
         this.client = client;
         this.detectorIndices = detectorIndices;
         this.xContentRegistry = xContentRegistry;
         this.threadPool = client.threadPool();
+        this.rulePropagationService = rulePropagationService;
     }
 
     @Override
@@ -91,7 +91,6 @@ public class TransportDeleteRuleAction extends HandledTransportAction<DeleteRule
         private final ActionListener<DeleteRuleResponse> listener;
         private final AtomicReference<Object> response;
         private final AtomicBoolean counter = new AtomicBoolean();
-        private final AtomicInteger checker = new AtomicInteger();
         private final Task task;
 
         AsyncDeleteRuleAction(Task task, DeleteRuleRequest request, ActionListener<DeleteRuleResponse> listener) {
@@ -197,30 +196,10 @@ public class TransportDeleteRuleAction extends HandledTransportAction<DeleteRule
         }
 
         private void updateDetectors(List<Detector> detectors) {
-            for (Detector detector: detectors) {
-                IndexDetectorRequest indexRequest = new IndexDetectorRequest(detector.getId(), request.getRefreshPolicy(), RestRequest.Method.PUT, detector);
-                client.execute(IndexDetectorAction.INSTANCE, indexRequest,
-                    new ActionListener<>() {
-                        @Override
-                        public void onResponse(IndexDetectorResponse response) {
-                            if (response.getStatus() != RestStatus.OK) {
-                                onFailures(new OpenSearchStatusException(String.format(Locale.getDefault(), "Rule with id %s cannot be deleted", request.getRuleId()), RestStatus.INTERNAL_SERVER_ERROR));
-                            }
-                            onComplete(request.getRuleId(), detectors.size());
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            onFailures(e);
-                        }
-                    });
-            }
-        }
-
-        private void onComplete(String ruleId, int target) {
-            if (checker.incrementAndGet() == target) {
-                deleteRule(ruleId);
-            }
+            rulePropagationService.propagateRuleDeletion(request.getRuleId(), detectors, request.getRefreshPolicy(), ActionListener.wrap(
+                    job -> deleteRule(request.getRuleId()),
+                    this::onFailures
+            ));
         }
 
         private void deleteRule(String ruleId) {
@@ -0,0 +1,81 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.transport;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.securityanalytics.action.GetRulePropagationStatusAction;
+import org.opensearch.securityanalytics.action.GetRulePropagationStatusRequest;
+import org.opensearch.securityanalytics.action.GetRulePropagationStatusResponse;
+import org.opensearch.securityanalytics.util.RulePropagationService;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Collects the rule propagation jobs of all nodes, as each job is tracked by the node running it.
+ */
+public class TransportGetRulePropagationStatusAction extends TransportNodesAction<GetRulePropagationStatusRequest, GetRulePropagationStatusResponse,
+        TransportGetRulePropagationStatusAction.NodeRequest, GetRulePropagationStatusResponse.NodeResponse> {
+
+    private final RulePropagationService rulePropagationService;
+
+    @Inject
+    public TransportGetRulePropagationStatusAction(ThreadPool threadPool, ClusterService clusterService, TransportService transportService,
+                                                   ActionFilters actionFilters, RulePropagationService rulePropagationService) {
+        super(GetRulePropagationStatusAction.NAME, threadPool, clusterService, transportService, actionFilters, GetRulePropagationStatusRequest::new,
+                NodeRequest::new, ThreadPool.Names.MANAGEMENT, GetRulePropagationStatusResponse.NodeResponse.class);
+        this.rulePropagationService = rulePropagationService;
+    }
+
+    @Override
+    protected GetRulePropagationStatusResponse newResponse(GetRulePropagationStatusRequest request, List<GetRulePropagationStatusResponse.NodeResponse> responses,
+                                                           List<FailedNodeException> failures) {
+        return new GetRulePropagationStatusResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(GetRulePropagationStatusRequest request) {
+        return new NodeRequest(request.getRuleId());
+    }
+
+    @Override
+    protected GetRulePropagationStatusResponse.NodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new GetRulePropagationStatusResponse.NodeResponse(in);
+    }
+
+    @Override
+    protected GetRulePropagationStatusResponse.NodeResponse nodeOperation(NodeRequest request) {
+        return new GetRulePropagationStatusResponse.NodeResponse(clusterService.localNode(), rulePropagationService.getJobs(request.ruleId));
+    }
+
+    public static class NodeRequest extends TransportRequest {
+
+        private final String ruleId;
+
+        public NodeRequest(String ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        public NodeRequest(StreamInput sin) throws IOException {
+            super(sin);
+            this.ruleId = sin.readOptionalString();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeOptionalString(ruleId);
+        }
+    }
+}
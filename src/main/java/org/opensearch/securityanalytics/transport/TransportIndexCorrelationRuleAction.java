@@ -30,6 +30,7 @@ import org.opensearch.core.rest.RestStatus;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleAction;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleRequest;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleResponse;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleRegistry;
 import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
 import org.opensearch.securityanalytics.util.IndexUtils;
@@ -49,18 +50,22 @@ public class TransportIndexCorrelationRuleAction extends HandledTransportAction<
 
     private final ClusterService clusterService;
 
+    private final CorrelationRuleRegistry correlationRuleRegistry;
+
     @Inject
     public TransportIndexCorrelationRuleAction(
         TransportService transportService,
         Client client,
         ActionFilters actionFilters,
         ClusterService clusterService,
-        CorrelationRuleIndices correlationRuleIndices
+        CorrelationRuleIndices correlationRuleIndices,
+        CorrelationRuleRegistry correlationRuleRegistry
     ) {
         super(IndexCorrelationRuleAction.NAME, transportService, actionFilters, IndexCorrelationRuleRequest::new);
         this.client = client;
         this.clusterService = clusterService;
         this.correlationRuleIndices = correlationRuleIndices;
+        this.correlationRuleRegistry = correlationRuleRegistry;
     }
 
     @Override
@@ -155,6 +160,7 @@ public class TransportIndexCorrelationRuleAction extends HandledTransportAction<
                 @Override
                 public void onResponse(IndexResponse response) {
                     if (response.status().equals(RestStatus.CREATED) || response.status().equals(RestStatus.OK)) {
+                        correlationRuleRegistry.invalidate();
                         CorrelationRule ruleResponse = request.getCorrelationRule();
                         ruleResponse.setId(response.getId());
                         onOperation(ruleResponse);
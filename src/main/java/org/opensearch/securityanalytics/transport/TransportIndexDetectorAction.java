@@ -66,7 +66,6 @@ import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.RangeQueryBuilder;
-import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.seqno.SequenceNumbers;
 import org.opensearch.rest.RestRequest;
 import org.opensearch.rest.RestRequest.Method;
@@ -90,7 +89,6 @@ import org.opensearch.securityanalytics.model.DetectorRule;
 import org.opensearch.securityanalytics.model.DetectorTrigger;
 import org.opensearch.securityanalytics.model.LogType;
 import org.opensearch.securityanalytics.model.Rule;
-import org.opensearch.securityanalytics.model.Value;
 import org.opensearch.securityanalytics.rules.aggregation.AggregationItem;
 import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
 import org.opensearch.securityanalytics.rules.backend.OSQueryBackend.AggregationQueries;
@@ -98,6 +96,8 @@ import org.opensearch.securityanalytics.rules.backend.QueryBackend;
 import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.threatIntel.DetectorThreatIntelService;
+import org.opensearch.securityanalytics.util.CompiledRuleCache;
+import org.opensearch.securityanalytics.util.DetectorCache;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.DetectorUtils;
 import org.opensearch.securityanalytics.util.IndexUtils;
@@ -135,6 +135,10 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
 
     private final DetectorIndices detectorIndices;
 
+    private final DetectorCache detectorCache;
+
+    private final CompiledRuleCache compiledRuleCache;
+
     private final RuleTopicIndices ruleTopicIndices;
 
     private final RuleIndices ruleIndices;
@@ -168,6 +172,8 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                                         ActionFilters actionFilters,
                                         NamedXContentRegistry xContentRegistry,
                                         DetectorIndices detectorIndices,
+                                        DetectorCache detectorCache,
+                                        CompiledRuleCache compiledRuleCache,
                                         RuleTopicIndices ruleTopicIndices,
                                         RuleIndices ruleIndices,
                                         MapperService mapperService,
@@ -181,6 +187,8 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
         this.client = client;
         this.xContentRegistry = xContentRegistry;
         this.detectorIndices = detectorIndices;
+        this.detectorCache = detectorCache;
+        this.compiledRuleCache = compiledRuleCache;
         this.ruleTopicIndices = ruleTopicIndices;
         this.ruleIndices = ruleIndices;
         this.mapperService = mapperService;
@@ -260,9 +268,15 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
             public void onResponse(List<DocLevelQuery> dlqs) {
                 try {
                     List<IndexMonitorRequest> monitorRequests = new ArrayList<>();
+                    List<DocLevelQuery> threatIntelQueries = dlqs != null ? dlqs : List.of();
 
-                    if (!docLevelRules.isEmpty() || detector.getThreatIntelEnabled()) {
-                        monitorRequests.add(createDocLevelMonitorRequest(docLevelRules, dlqs != null ? dlqs : List.of(), detector, refreshPolicy, Monitor.NO_ID, Method.POST));
+                    if (hasThreatIntelMonitor(detector)) {
+                        if (!docLevelRules.isEmpty()) {
+                            monitorRequests.add(createDocLevelMonitorRequest(docLevelRules, List.of(), detector, refreshPolicy, Monitor.NO_ID, Method.POST));
+                        }
+                        monitorRequests.add(createThreatIntelMonitorRequest(threatIntelQueries, detector, refreshPolicy, Monitor.NO_ID, Method.POST));
+                    } else if (!docLevelRules.isEmpty() || detector.getThreatIntelEnabled()) {
+                        monitorRequests.add(createDocLevelMonitorRequest(docLevelRules, threatIntelQueries, detector, refreshPolicy, Monitor.NO_ID, Method.POST));
                     }
 
                     if (!bucketLevelRules.isEmpty()) {
@@ -327,7 +341,18 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                         AlertingPluginInterface.INSTANCE.indexMonitor((NodeClient) client, monitorRequests.get(0), namedWriteableRegistry, indexDocLevelMonitorStep);
                         indexDocLevelMonitorStep.whenComplete(addedFirstMonitorResponse -> {
                                     monitorResponses.add(addedFirstMonitorResponse);
-                                    saveWorkflow(rulesById, detector, monitorResponses, refreshPolicy, listener);
+
+                                    int numberOfUnprocessedResponses = monitorRequests.size() - 1;
+                                    if (numberOfUnprocessedResponses == 0) {
+                                        saveWorkflow(rulesById, detector, monitorResponses, refreshPolicy, listener);
+                                    } else {
+                                        // Saves the threat intel monitor and saves the workflow if supported
+                                        StepListener<List<IndexMonitorResponse>> indexMonitorsStep = new StepListener<>();
+                                        indexMonitorsStep.whenComplete(
+                                                indexMonitorResponses -> saveWorkflow(rulesById, detector, indexMonitorResponses, refreshPolicy, listener),
+                                                listener::onFailure);
+                                        saveMonitors(monitorRequests, monitorResponses, numberOfUnprocessedResponses, indexMonitorsStep);
+                                    }
                                 },
                                 e -> {
                                     listener.onFailure(e);
@@ -470,13 +495,7 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                                         Collectors.toList());
 
                                 // Process doc level monitors
-                                if (!docLevelRules.isEmpty() || detector.getThreatIntelEnabled()) {
-                                    if (detector.getDocLevelMonitorId() == null) {
-                                        monitorsToBeAdded.add(createDocLevelMonitorRequest(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, Monitor.NO_ID, Method.POST));
-                                    } else {
-                                        monitorsToBeUpdated.add(createDocLevelMonitorRequest(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, detector.getDocLevelMonitorId(), Method.PUT));
-                                    }
-                                }
+                                addDocLevelMonitorRequests(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, monitorsToBeAdded, monitorsToBeUpdated);
 
                                 List<String> monitorIdsToBeDeleted = detector.getRuleIdMonitorIdMap().values().stream().collect(Collectors.toList());
                                 monitorIdsToBeDeleted.removeAll(monitorsToBeUpdated.stream().map(IndexMonitorRequest::getMonitorId).collect(
@@ -498,13 +517,7 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                             Collectors.toList());
 
                     // Process doc level monitors
-                    if (!docLevelRules.isEmpty() || detector.getThreatIntelEnabled()) {
-                        if (detector.getDocLevelMonitorId() == null) {
-                            monitorsToBeAdded.add(createDocLevelMonitorRequest(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, Monitor.NO_ID, Method.POST));
-                        } else {
-                            monitorsToBeUpdated.add(createDocLevelMonitorRequest(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, detector.getDocLevelMonitorId(), Method.PUT));
-                        }
-                    }
+                    addDocLevelMonitorRequests(docLevelRules, docLevelQueries != null? docLevelQueries: List.of(), detector, refreshPolicy, monitorsToBeAdded, monitorsToBeUpdated);
 
                     List<String> monitorIdsToBeDeleted = detector.getRuleIdMonitorIdMap().values().stream().collect(Collectors.toList());
                     monitorIdsToBeDeleted.removeAll(monitorsToBeUpdated.stream().map(IndexMonitorRequest::getMonitorId).collect(
@@ -663,26 +676,59 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
         }
     }
 
+    /**
+     * Adds the requests creating or updating the doc level monitor of the rule queries and the doc level monitor of the
+     * threat intel queries of the detector, or the doc level monitor of both if the detector has no threat intel monitor.
+     * Monitors which are no longer needed are left out, so they are deleted.
+     */
+    private void addDocLevelMonitorRequests(
+            List<Pair<String, Rule>> docLevelRules,
+            List<DocLevelQuery> threatIntelQueries,
+            Detector detector,
+            RefreshPolicy refreshPolicy,
+            List<IndexMonitorRequest> monitorsToBeAdded,
+            List<IndexMonitorRequest> monitorsToBeUpdated
+    ) {
+        boolean threatIntelMonitor = hasThreatIntelMonitor(detector);
+        if (!docLevelRules.isEmpty() || (detector.getThreatIntelEnabled() && !threatIntelMonitor)) {
+            List<DocLevelQuery> docLevelThreatIntelQueries = threatIntelMonitor ? List.of() : threatIntelQueries;
+            if (detector.getDocLevelMonitorId() == null) {
+                monitorsToBeAdded.add(createDocLevelMonitorRequest(docLevelRules, docLevelThreatIntelQueries, detector, refreshPolicy, Monitor.NO_ID, Method.POST));
+            } else {
+                monitorsToBeUpdated.add(createDocLevelMonitorRequest(docLevelRules, docLevelThreatIntelQueries, detector, refreshPolicy, detector.getDocLevelMonitorId(), Method.PUT));
+            }
+        }
+        if (threatIntelMonitor) {
+            if (detector.getThreatIntelMonitorId() == null) {
+                monitorsToBeAdded.add(createThreatIntelMonitorRequest(threatIntelQueries, detector, refreshPolicy, Monitor.NO_ID, Method.POST));
+            } else {
+                monitorsToBeUpdated.add(createThreatIntelMonitorRequest(threatIntelQueries, detector, refreshPolicy, detector.getThreatIntelMonitorId(), Method.PUT));
+            }
+        }
+    }
+
+    /**
+     * Threat intel queries are matched by a doc level monitor of their own, unless a trigger of the detector covers both
+     * the rules and the threat intel detection type. Such a trigger has to evaluate the rule and the threat intel matches
+     * of a doc in a single monitor, otherwise a doc matching both would alert once per monitor.
+     */
+    private static boolean hasThreatIntelMonitor(Detector detector) {
+        return detector.getThreatIntelEnabled() && detector.getTriggers().stream().noneMatch(trigger ->
+                trigger.getDetectionTypes().contains(DetectorTrigger.RULES_DETECTION_TYPE) &&
+                        trigger.getDetectionTypes().contains(DetectorTrigger.THREAT_INTEL_DETECTION_TYPE));
+    }
+
+    /**
+     * Creates the doc level monitor matching the rule queries of the detector, and its threat intel queries if they are
+     * not matched by a monitor of their own. In that case only the triggers of the rules detection type are added.
+     */
     private IndexMonitorRequest createDocLevelMonitorRequest(List<Pair<String, Rule>> queries, List<DocLevelQuery> threatIntelQueries, Detector detector, WriteRequest.RefreshPolicy refreshPolicy, String monitorId, RestRequest.Method restMethod) {
         List<DocLevelMonitorInput> docLevelMonitorInputs = new ArrayList<>();
 
         List<DocLevelQuery> docLevelQueries = new ArrayList<>();
 
         for (Pair<String, Rule> query: queries) {
-            String id = query.getLeft();
-
-            Rule rule = query.getRight();
-            String name = query.getLeft();
-
-            String actualQuery = rule.getQueries().get(0).getValue();
-
-            List<String> tags = new ArrayList<>();
-            tags.add(rule.getLevel());
-            tags.add(rule.getCategory());
-            tags.addAll(rule.getTags().stream().map(Value::getValue).collect(Collectors.toList()));
-
-            DocLevelQuery docLevelQuery = new DocLevelQuery(id, name, Collections.emptyList(), actualQuery, tags);
-            docLevelQueries.add(docLevelQuery);
+            docLevelQueries.add(DetectorUtils.toDocLevelQuery(query.getLeft(), query.getRight()));
         }
         docLevelQueries.addAll(threatIntelQueries);
         DocLevelMonitorInput docLevelMonitorInput = new DocLevelMonitorInput(detector.getName(), detector.getInputs().get(0).getIndices(), docLevelQueries);
@@ -690,8 +736,12 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
 
         List<DocumentLevelTrigger> triggers = new ArrayList<>();
         List<DetectorTrigger> detectorTriggers = detector.getTriggers();
+        boolean threatIntelMonitor = hasThreatIntelMonitor(detector);
 
         for (DetectorTrigger detectorTrigger: detectorTriggers) {
+            if (threatIntelMonitor && !detectorTrigger.getDetectionTypes().contains(DetectorTrigger.RULES_DETECTION_TYPE)) {
+                continue;
+            }
             String id = detectorTrigger.getId();
             String name = detectorTrigger.getName();
             String severity = detectorTrigger.getSeverity();
@@ -715,6 +765,52 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
         return new IndexMonitorRequest(monitorId, SequenceNumbers.UNASSIGNED_SEQ_NO, SequenceNumbers.UNASSIGNED_PRIMARY_TERM, refreshPolicy, restMethod, monitor, null);
     }
 
+    /**
+     * Creates the doc level monitor matching the threat intel queries of the detector. It is a delegate of the detector
+     * workflow of its own, with its own query index, so the IOC queries are not percolated together with the rule queries.
+     * Only the triggers of the threat intel detection type are added, none of them covers the rules detection type.
+     */
+    private IndexMonitorRequest createThreatIntelMonitorRequest(
+            List<DocLevelQuery> threatIntelQueries,
+            Detector detector,
+            WriteRequest.RefreshPolicy refreshPolicy,
+            String monitorId,
+            RestRequest.Method restMethod
+    ) {
+        List<DocLevelMonitorInput> docLevelMonitorInputs = new ArrayList<>();
+        DocLevelMonitorInput docLevelMonitorInput = new DocLevelMonitorInput(detector.getName(), detector.getInputs().get(0).getIndices(), threatIntelQueries);
+        docLevelMonitorInputs.add(docLevelMonitorInput);
+
+        List<DocumentLevelTrigger> triggers = new ArrayList<>();
+        List<DetectorTrigger> detectorTriggers = detector.getTriggers();
+
+        for (DetectorTrigger detectorTrigger: detectorTriggers) {
+            if (!detectorTrigger.getDetectionTypes().contains(DetectorTrigger.THREAT_INTEL_DETECTION_TYPE)) {
+                continue;
+            }
+            String id = detectorTrigger.getId();
+            String name = detectorTrigger.getName();
+            String severity = detectorTrigger.getSeverity();
+            List<Action> actions = detectorTrigger.getActions();
+            Script condition = detectorTrigger.convertToCondition();
+
+            triggers.add(new DocumentLevelTrigger(id, name, severity, actions, condition));
+        }
+
+        Monitor monitor = new Monitor(monitorId, Monitor.NO_VERSION, detector.getName() + "_threat_intel", false, detector.getSchedule(), detector.getLastUpdateTime(), null,
+                Monitor.MonitorType.DOC_LEVEL_MONITOR, detector.getUser(), 1, docLevelMonitorInputs, triggers, Map.of(),
+                new DataSources(DetectorMonitorConfig.getThreatIntelRuleIndex(detector.getDetectorType()),
+                        detector.getFindingsIndex(),
+                        detector.getFindingsIndexPattern(),
+                        detector.getAlertsIndex(),
+                        detector.getAlertsHistoryIndex(),
+                        detector.getAlertsHistoryIndexPattern(),
+                        DetectorMonitorConfig.getRuleIndexMappingsByType(),
+                        true), PLUGIN_OWNER_FIELD);
+
+        return new IndexMonitorRequest(monitorId, SequenceNumbers.UNASSIGNED_SEQ_NO, SequenceNumbers.UNASSIGNED_PRIMARY_TERM, refreshPolicy, restMethod, monitor, null);
+    }
+
     private void addThreatIntelBasedDocLevelQueries(Detector detector, ActionListener<List<DocLevelQuery>> listener) {
         try {
 
@@ -847,7 +943,7 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
 
         List<String> indices = detector.getInputs().get(0).getIndices();
 
-        AggregationItem aggItem = rule.getAggregationItemsFromRule().get(0);
+        AggregationItem aggItem = compiledRuleCache.get(rule).getAggregationItems().get(0);
         AggregationQueries aggregationQueries = queryBackend.convertAggregation(aggItem);
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
@@ -1263,32 +1359,22 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                     @Override
                     public void onResponse(AcknowledgedResponse response) {
                         ruleIndices.onUpdateMappingsResponse(response, true);
-                        ruleIndices.deleteRules(new ActionListener<>() {
-                            @Override
-                            public void onResponse(BulkByScrollResponse response) {
-                                ruleIndices.importRules(WriteRequest.RefreshPolicy.IMMEDIATE, indexTimeout,
-                                    new ActionListener<>() {
-                                        @Override
-                                        public void onResponse(BulkResponse response) {
-                                            if (!response.hasFailures()) {
-                                                importRules(request, listener);
-                                            } else {
-                                                onFailures(new OpenSearchStatusException(response.buildFailureMessage(), RestStatus.INTERNAL_SERVER_ERROR));
-                                            }
-                                        }
-
-                                        @Override
-                                        public void onFailure(Exception e) {
-                                            onFailures(e);
-                                        }
-                                    });
-                            }
+                        ruleIndices.importRules(WriteRequest.RefreshPolicy.IMMEDIATE, indexTimeout,
+                            new ActionListener<>() {
+                                @Override
+                                public void onResponse(BulkResponse response) {
+                                    if (!response.hasFailures()) {
+                                        importRules(request, listener);
+                                    } else {
+                                        onFailures(new OpenSearchStatusException(response.buildFailureMessage(), RestStatus.INTERNAL_SERVER_ERROR));
+                                    }
+                                }
 
-                            @Override
-                            public void onFailure(Exception e) {
-                                onFailures(e);
-                            }
-                        });
+                                @Override
+                                public void onFailure(Exception e) {
+                                    onFailures(e);
+                                }
+                            });
                     }
 
                     @Override
@@ -1481,6 +1567,7 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                 public void onResponse(IndexResponse response) {
                     Detector responseDetector = request.getDetector();
                     responseDetector.setId(response.getId());
+                    detectorCache.invalidateDetector(response.getId());
                     onOperation(response, responseDetector);
                 }
 
@@ -1549,6 +1636,7 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
         /**
          * Creates a map of monitor ids. In the case of bucket level monitors pairs are: RuleId - MonitorId
          * In the case of doc level monitor pair is DOC_LEVEL_MONITOR(value) - MonitorId
+         * In the case of threat intel monitor pair is THREAT_INTEL_MONITOR(value) - MonitorId
          * @param monitorResponses index monitor responses
          * @return map of monitor ids
          */
@@ -1560,7 +1648,10 @@ public class TransportIndexDetectorAction extends HandledTransportAction<IndexDe
                         if (MonitorType.BUCKET_LEVEL_MONITOR == it.getMonitor().getMonitorType()) {
                             return it.getMonitor().getTriggers().get(0).getId();
                         } else {
-                            if (it.getMonitor().getName().contains("_chained_findings")) {
+                            if (DetectorMonitorConfig.getThreatIntelRuleIndex(request.getDetector().getDetectorType())
+                                    .equals(it.getMonitor().getDataSources().getQueryIndex())) {
+                                return Detector.THREAT_INTEL_MONITOR;
+                            } else if (it.getMonitor().getName().contains("_chained_findings")) {
                                 return "chained_findings_monitor";
                             } else {
                                 return Detector.DOC_LEVEL_MONITOR;
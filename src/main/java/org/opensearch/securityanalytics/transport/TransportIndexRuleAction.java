@@ -37,9 +37,6 @@ import org.opensearch.rest.RestRequest;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
-import org.opensearch.securityanalytics.action.IndexDetectorAction;
-import org.opensearch.securityanalytics.action.IndexDetectorRequest;
-import org.opensearch.securityanalytics.action.IndexDetectorResponse;
 import org.opensearch.securityanalytics.action.IndexRuleAction;
 import org.opensearch.securityanalytics.action.IndexRuleRequest;
 import org.opensearch.securityanalytics.action.IndexRuleResponse;
@@ -47,14 +44,14 @@ import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.FieldMappingDoc;
 import org.opensearch.securityanalytics.model.Rule;
-import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
-import org.opensearch.securityanalytics.rules.backend.QueryBackend;
 import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
 import org.opensearch.securityanalytics.rules.objects.SigmaRule;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CompiledRuleCache;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.IndexUtils;
 import org.opensearch.securityanalytics.util.RuleIndices;
+import org.opensearch.securityanalytics.util.RulePropagationService;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ThreadPool;
@@ -67,7 +64,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -92,6 +88,10 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
 
     private final LogTypeService logTypeService;
 
+    private final CompiledRuleCache compiledRuleCache;
+
+    private final RulePropagationService rulePropagationService;
+
     private final Settings settings;
 
     private volatile TimeValue indexTimeout;
@@ -100,7 +100,8 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
     public TransportIndexRuleAction(TransportService transportService, Client client, ActionFilters actionFilters,
                                     ClusterService clusterService, DetectorIndices detectorIndices,
                                     RuleIndices ruleIndices, NamedXContentRegistry xContentRegistry,
-                                    LogTypeService logTypeService, Settings settings) {
+                                    LogTypeService logTypeService, CompiledRuleCache compiledRuleCache,
+                                    RulePropagationService rulePropagationService, Settings settings) {
         super(IndexRuleAction.NAME, transportService, actionFilters, IndexRuleRequest::new);
         this.client = client;
         this.detectorIndices = detectorIndices;
@@ -109,6 +110,8 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
         this.clusterService = clusterService;
         this.xContentRegistry = xContentRegistry;
         this.logTypeService = logTypeService;
+        this.compiledRuleCache = compiledRuleCache;
+        this.rulePropagationService = rulePropagationService;
         this.settings = settings;
 
         this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(this.settings);
@@ -126,9 +129,10 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
         private final ActionListener<IndexRuleResponse> listener;
         private final AtomicReference<Object> response;
         private final AtomicBoolean counter = new AtomicBoolean();
-        private final AtomicInteger checker = new AtomicInteger();
         private final Task task;
 
+        private CompiledRuleCache.CompiledRule compiledRule;
+
         AsyncIndexRulesAction(Task task, IndexRuleRequest request, ActionListener<IndexRuleResponse> listener) {
             this.task = task;
             this.request = request;
@@ -202,19 +206,17 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
                     @Override
                     public void onResponse(Map<String, String> fieldMappings) {
                         try {
-                            SigmaRule parsedRule = SigmaRule.fromYaml(rule, true);
+                            compiledRule = CompiledRuleCache.compile(rule, fieldMappings);
+                            SigmaRule parsedRule = compiledRule.getSigmaRule();
                             if (parsedRule.getErrors() != null && parsedRule.getErrors().size() > 0) {
                                 onFailures(parsedRule.getErrors().toArray(new SigmaError[]{}));
                                 return;
                             }
-                            QueryBackend backend = new OSQueryBackend(fieldMappings, true, true);
 
-                            List<Object> queries = backend.convertRule(parsedRule);
-                            Set<String> queryFieldNames = backend.getQueryFields().keySet();
                             Rule ruleDoc = new Rule(
                                     NO_ID, NO_VERSION, parsedRule, category,
-                                    queries,
-                                    new ArrayList<>(queryFieldNames),
+                                    compiledRule.getQueries(),
+                                    compiledRule.getQueryFieldNames(),
                                     rule
                             );
                             indexRule(ruleDoc, fieldMappings);
@@ -291,6 +293,7 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
                     @Override
                     public void onResponse(IndexResponse response) {
                         rule.setId(response.getId());
+                        cacheCompiledRule(response);
                         updateFieldMappings(
                                 rule,
                                 ruleFieldMappings,
@@ -325,24 +328,10 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
         }
 
         private void updateDetectors(IndexResponse indexResponse, Rule rule, List<Detector> detectors) {
-            for (Detector detector: detectors) {
-                IndexDetectorRequest indexRequest = new IndexDetectorRequest(detector.getId(), request.getRefreshPolicy(), RestRequest.Method.PUT, detector);
-                client.execute(IndexDetectorAction.INSTANCE, indexRequest,
-                        new ActionListener<>() {
-                            @Override
-                            public void onResponse(IndexDetectorResponse response) {
-                                if (response.getStatus() != RestStatus.OK) {
-                                    onFailures(new OpenSearchStatusException(String.format(Locale.getDefault(), "Rule with id %s cannot be updated", request.getRuleId()), RestStatus.INTERNAL_SERVER_ERROR));
-                                }
-                                onComplete(indexResponse, rule, detectors.size());
-                            }
-
-                            @Override
-                            public void onFailure(Exception e) {
-                                onFailures(e);
-                            }
-                        });
-            }
+            rulePropagationService.propagateRuleUpdate(rule, detectors, request.getRefreshPolicy(), ActionListener.wrap(
+                    job -> onOperation(indexResponse, rule),
+                    this::onFailures
+            ));
         }
 
         private void updateRule(Rule rule, Map<String, String> ruleFieldMappings, List<Detector> detectors) throws IOException {
@@ -356,6 +345,8 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
                 @Override
                 public void onResponse(IndexResponse response) {
                     rule.setId(response.getId());
+                    // detectors using the rule are updated next and find it compiled
+                    cacheCompiledRule(response);
 
                     updateFieldMappings(rule, ruleFieldMappings, ActionListener.wrap(() -> {
                         if (detectors.size() > 0) {
@@ -373,6 +364,12 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
             });
         }
 
+        private void cacheCompiledRule(IndexResponse response) {
+            if (compiledRule != null) {
+                compiledRuleCache.put(response.getId(), response.getVersion(), compiledRule);
+            }
+        }
+
         private void updateFieldMappings(Rule rule, Map<String, String> ruleFieldMappings, ActionListener<Void> listener) {
             List<FieldMappingDoc> fieldMappingDocs = new ArrayList<>();
             rule.getQueryFieldNames().forEach(field -> {
@@ -388,12 +385,6 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
             );
         }
 
-        private void onComplete(IndexResponse response, Rule rule, int target) {
-            if (checker.incrementAndGet() == target) {
-                onOperation(response, rule);
-            }
-        }
-
         private void onOperation(IndexResponse response, Rule rule) {
             this.response.set(response);
             if (counter.compareAndSet(false, true)) {
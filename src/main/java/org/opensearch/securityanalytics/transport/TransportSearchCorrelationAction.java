@@ -31,6 +31,7 @@ import org.opensearch.securityanalytics.action.CorrelatedFindingAction;
 import org.opensearch.securityanalytics.action.CorrelatedFindingRequest;
 import org.opensearch.securityanalytics.action.CorrelatedFindingResponse;
 import org.opensearch.securityanalytics.config.monitors.DetectorMonitorConfig;
+import org.opensearch.securityanalytics.correlation.CorrelationScoreTimestampService;
 import org.opensearch.securityanalytics.correlation.index.query.CorrelationQueryBuilder;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.FindingWithScore;
@@ -63,12 +64,15 @@ public class TransportSearchCorrelationAction extends HandledTransportAction<Cor
 
     private final ThreadPool threadPool;
 
+    private final CorrelationScoreTimestampService correlationScoreTimestampService;
+
     @Inject
     public TransportSearchCorrelationAction(TransportService transportService,
                                             Client client,
                                             NamedXContentRegistry xContentRegistry,
                                             ClusterService clusterService,
                                             Settings settings,
+                                            CorrelationScoreTimestampService correlationScoreTimestampService,
                                             ActionFilters actionFilters) {
         super(CorrelatedFindingAction.NAME, transportService, actionFilters, CorrelatedFindingRequest::new);
         this.client = client;
@@ -76,6 +80,7 @@ public class TransportSearchCorrelationAction extends HandledTransportAction<Cor
         this.clusterService = clusterService;
         this.settings = settings;
         this.threadPool = this.client.threadPool();
+        this.correlationScoreTimestampService = correlationScoreTimestampService;
     }
 
     @Override
@@ -126,22 +131,9 @@ public class TransportSearchCorrelationAction extends HandledTransportAction<Cor
                     SearchHit hit = response.getHits().getAt(0);
                     long findingTimestamp = hit.getFields().get("timestamp").<Long>getValue();
 
-                    BoolQueryBuilder scoreQueryBuilder = QueryBuilders.boolQuery()
-                            .mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
-                    SearchSourceBuilder scoreSearchSourceBuilder = new SearchSourceBuilder();
-                    scoreSearchSourceBuilder.query(scoreQueryBuilder);
-                    scoreSearchSourceBuilder.fetchSource(true);
-                    scoreSearchSourceBuilder.size(1);
-                    SearchRequest scoreSearchRequest = new SearchRequest();
-                    scoreSearchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-                    scoreSearchRequest.source(scoreSearchSourceBuilder);
-                    scoreSearchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                    client.search(scoreSearchRequest, new ActionListener<>() {
+                    correlationScoreTimestampService.getScoreTimestamp(new ActionListener<>() {
                         @Override
-                        public void onResponse(SearchResponse response) {
-                            Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                            long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
+                        public void onResponse(Long scoreTimestamp) {
 
                             BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
                                     .must(QueryBuilders.matchQuery(
@@ -0,0 +1,74 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.transport;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.securityanalytics.action.SecurityAnalyticsStatsAction;
+import org.opensearch.securityanalytics.action.SecurityAnalyticsStatsRequest;
+import org.opensearch.securityanalytics.action.SecurityAnalyticsStatsResponse;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.util.DetectorCache;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Collects the node-level stats of the security analytics plugin, as each node only counts its own work.
+ */
+public class TransportSecurityAnalyticsStatsAction extends TransportNodesAction<SecurityAnalyticsStatsRequest, SecurityAnalyticsStatsResponse,
+        TransportSecurityAnalyticsStatsAction.NodeRequest, SecurityAnalyticsStatsResponse.NodeResponse> {
+
+    private final DetectorCache detectorCache;
+
+    private final CorrelationSearchBatcher correlationSearchBatcher;
+
+    @Inject
+    public TransportSecurityAnalyticsStatsAction(ThreadPool threadPool, ClusterService clusterService, TransportService transportService,
+                                                 ActionFilters actionFilters, DetectorCache detectorCache,
+                                                 CorrelationSearchBatcher correlationSearchBatcher) {
+        super(SecurityAnalyticsStatsAction.NAME, threadPool, clusterService, transportService, actionFilters, SecurityAnalyticsStatsRequest::new,
+                NodeRequest::new, ThreadPool.Names.MANAGEMENT, SecurityAnalyticsStatsResponse.NodeResponse.class);
+        this.detectorCache = detectorCache;
+        this.correlationSearchBatcher = correlationSearchBatcher;
+    }
+
+    @Override
+    protected SecurityAnalyticsStatsResponse newResponse(SecurityAnalyticsStatsRequest request, List<SecurityAnalyticsStatsResponse.NodeResponse> responses,
+                                                         List<FailedNodeException> failures) {
+        return new SecurityAnalyticsStatsResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(SecurityAnalyticsStatsRequest request) {
+        return new NodeRequest();
+    }
+
+    @Override
+    protected SecurityAnalyticsStatsResponse.NodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new SecurityAnalyticsStatsResponse.NodeResponse(in);
+    }
+
+    @Override
+    protected SecurityAnalyticsStatsResponse.NodeResponse nodeOperation(NodeRequest request) {
+        return new SecurityAnalyticsStatsResponse.NodeResponse(clusterService.localNode(), detectorCache.getStats(), correlationSearchBatcher.getStats());
+    }
+
+    public static class NodeRequest extends TransportRequest {
+
+        public NodeRequest() {}
+
+        public NodeRequest(StreamInput sin) throws IOException {
+            super(sin);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.opensearch.core.xcontent.MediaType;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -20,8 +21,16 @@ import java.util.Set;
 
 public class AutoCorrelationsRepo {
 
+    private static final String AUTO_CORRELATIONS_RESOURCE = "correlations/mitre_correlation.json";
+
+    /**
+     * node-level snapshot of the mitre auto-correlation table. the table is a classpath resource which cannot change while
+     * the node runs, so it is parsed once on first use.
+     */
+    private static volatile AutoCorrelations autoCorrelations;
+
     private static String autoCorrelations() throws IOException {
-        return new String(Objects.requireNonNull(AutoCorrelationsRepo.class.getClassLoader().getResourceAsStream("correlations/mitre_correlation.json")).readAllBytes(), Charset.defaultCharset());
+        return new String(Objects.requireNonNull(AutoCorrelationsRepo.class.getClassLoader().getResourceAsStream(AUTO_CORRELATIONS_RESOURCE)).readAllBytes(), Charset.defaultCharset());
     }
 
     @SuppressWarnings("unchecked")
@@ -48,6 +57,27 @@ public class AutoCorrelationsRepo {
         return autoCorrelations;
     }
 
+    /**
+     * Returns the cached, pre-indexed auto-correlation table, parsing the classpath resource on first use only.
+     */
+    public static AutoCorrelations getAutoCorrelations() throws IOException {
+        AutoCorrelations current = autoCorrelations;
+        if (current == null) {
+            synchronized (AutoCorrelationsRepo.class) {
+                current = autoCorrelations;
+                if (current == null) {
+                    current = new AutoCorrelations(autoCorrelationsAsMap());
+                    autoCorrelations = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static Set<String> validIntrusionSets(AutoCorrelations autoCorrelations, Set<String> tags) {
+        return autoCorrelations.intrusionSetsForTags(tags);
+    }
+
     public static Set<String> validIntrusionSets(Map<String, Set<String>> autoCorrelations, Set<String> tags) {
         Set<String> intrusionSets = new HashSet<>();
         for (Map.Entry<String, Set<String>> autoCorrelation: autoCorrelations.entrySet()) {
@@ -59,4 +89,44 @@ public class AutoCorrelationsRepo {
         }
         return intrusionSets;
     }
-}
\ No newline at end of file
+
+    /**
+     * Immutable view of the auto-correlation table indexed by mitre attack tag, so that resolving the intrusion sets
+     * of a finding costs one hash lookup per tag instead of a scan over every intrusion set.
+     */
+    public static class AutoCorrelations {
+
+        private final Map<String, Set<String>> tagToIntrusionSets;
+
+        private final int intrusionSetsCount;
+
+        public AutoCorrelations(Map<String, Set<String>> intrusionSetToTags) {
+            Map<String, Set<String>> tagToIntrusionSets = new HashMap<>();
+            for (Map.Entry<String, Set<String>> intrusionSet: intrusionSetToTags.entrySet()) {
+                for (String tag: intrusionSet.getValue()) {
+                    tagToIntrusionSets.computeIfAbsent(tag, k -> new HashSet<>()).add(intrusionSet.getKey());
+                }
+            }
+            tagToIntrusionSets.replaceAll((tag, intrusionSets) -> Collections.unmodifiableSet(intrusionSets));
+
+            this.tagToIntrusionSets = Collections.unmodifiableMap(tagToIntrusionSets);
+            this.intrusionSetsCount = intrusionSetToTags.size();
+        }
+
+        public Set<String> intrusionSetsForTag(String tag) {
+            return tagToIntrusionSets.getOrDefault(tag, Set.of());
+        }
+
+        public Set<String> intrusionSetsForTags(Set<String> tags) {
+            Set<String> intrusionSets = new HashSet<>();
+            for (String tag: tags) {
+                intrusionSets.addAll(intrusionSetsForTag(tag));
+            }
+            return intrusionSets;
+        }
+
+        public int getIntrusionSetsCount() {
+            return intrusionSetsCount;
+        }
+    }
+}
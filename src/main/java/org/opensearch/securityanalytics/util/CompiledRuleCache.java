@@ -0,0 +1,220 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.hash.MessageDigests;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.rules.aggregation.AggregationItem;
+import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
+import org.opensearch.securityanalytics.rules.backend.QueryBackend;
+import org.opensearch.securityanalytics.rules.condition.ConditionItem;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
+import org.opensearch.securityanalytics.rules.objects.SigmaCondition;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static org.opensearch.securityanalytics.model.Detector.NO_ID;
+
+/**
+ * Node-local cache of parsed Sigma rules and of their aggregation items, keyed by rule id and rule version.
+ *
+ * Aggregation items name the fields of the rule itself, which are mapped to index fields when the aggregation is
+ * converted, so the cache neither converts the rule to queries nor depends on the field mappings of its log type. A new
+ * version of a rule is a new key, so entries are never stale and are only evicted once the cache holds
+ * {@link SecurityAnalyticsSettings#COMPILED_RULE_CACHE_MAX_SIZE} rules. The YAML of an entry is compared on every hit to
+ * also guard against rules re-created with a previously used id & version.
+ */
+public class CompiledRuleCache {
+
+    private final Cache<Key, ParsedRule> parsedRules;
+
+    public CompiledRuleCache(ClusterService clusterService) {
+        this.parsedRules = CacheBuilder.<Key, ParsedRule>builder()
+                .setMaximumWeight(SecurityAnalyticsSettings.COMPILED_RULE_CACHE_MAX_SIZE.get(clusterService.getSettings()))
+                .build();
+    }
+
+    /**
+     * Version of the field mappings of a log type, a change of the field mappings changes the queries a rule converts to.
+     */
+    public static String fieldMappingsVersion(Map<String, String> fieldMappings) {
+        MessageDigest digest = MessageDigests.sha256();
+        if (fieldMappings != null) {
+            for (Map.Entry<String, String> fieldMapping: new TreeMap<>(fieldMappings).entrySet()) {
+                digest.update(fieldMapping.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(fieldMapping.getValue()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return MessageDigests.toHexString(digest.digest());
+    }
+
+    /**
+     * Returns the parsed rule, parsing the YAML of the rule only if it is not cached yet.
+     */
+    public ParsedRule get(Rule rule) throws SigmaError {
+        if (rule.getId() == null || NO_ID.equals(rule.getId())) {
+            return parse(rule.getRule());
+        }
+
+        Key key = new Key(rule.getId(), rule.getVersion());
+        ParsedRule cached = parsedRules.get(key);
+        if (cached != null && cached.getRule().equals(rule.getRule())) {
+            return cached;
+        }
+        ParsedRule parsed = parse(rule.getRule());
+        parsedRules.put(key, parsed);
+        return parsed;
+    }
+
+    /**
+     * Caches a rule parsed before it was indexed, under the id & version it was indexed with.
+     */
+    public void put(String ruleId, long version, ParsedRule parsed) {
+        parsedRules.put(new Key(ruleId, version), parsed);
+    }
+
+    /**
+     * Parses the YAML of a rule and its aggregation items, without converting it to queries or caching the result.
+     */
+    public static ParsedRule parse(String ruleStr) throws SigmaError {
+        SigmaRule sigmaRule = SigmaRule.fromYaml(ruleStr, true);
+        if (sigmaRule.getErrors() != null && !sigmaRule.getErrors().isEmpty()) {
+            return new ParsedRule(ruleStr, sigmaRule, List.of());
+        }
+        return new ParsedRule(ruleStr, sigmaRule, aggregationItems(sigmaRule));
+    }
+
+    /**
+     * Parses & converts the YAML of a rule, without caching the result.
+     */
+    public static CompiledRule compile(String ruleStr, Map<String, String> fieldMappings) throws SigmaError, IOException {
+        SigmaRule sigmaRule = SigmaRule.fromYaml(ruleStr, true);
+        if (sigmaRule.getErrors() != null && !sigmaRule.getErrors().isEmpty()) {
+            return new CompiledRule(ruleStr, sigmaRule, List.of(), List.of(), List.of());
+        }
+
+        QueryBackend backend = new OSQueryBackend(fieldMappings, true, true);
+        List<Object> queries = backend.convertRule(sigmaRule);
+        List<String> queryFieldNames = new ArrayList<>(backend.getQueryFields().keySet());
+        return new CompiledRule(ruleStr, sigmaRule, queries, queryFieldNames, aggregationItems(sigmaRule));
+    }
+
+    private static List<AggregationItem> aggregationItems(SigmaRule sigmaRule) throws SigmaError {
+        List<AggregationItem> aggregationItems = new ArrayList<>();
+        for (SigmaCondition condition: sigmaRule.getDetection().getParsedCondition()) {
+            Pair<ConditionItem, AggregationItem> parsedItems = condition.parsed();
+            AggregationItem aggItem = parsedItems.getRight();
+            if (aggItem != null) {
+                aggItem.setTimeframe(sigmaRule.getDetection().getTimeframe());
+            }
+            aggregationItems.add(aggItem);
+        }
+        return aggregationItems;
+    }
+
+    public long getHits() {
+        return parsedRules.stats().getHits();
+    }
+
+    public long getMisses() {
+        return parsedRules.stats().getMisses();
+    }
+
+    public int count() {
+        return parsedRules.count();
+    }
+
+    /**
+     * A parsed Sigma rule and its aggregation items, shared between requests and therefore not to be modified.
+     */
+    public static class ParsedRule {
+        private final String rule;
+        private final SigmaRule sigmaRule;
+        private final List<AggregationItem> aggregationItems;
+
+        ParsedRule(String rule, SigmaRule sigmaRule, List<AggregationItem> aggregationItems) {
+            this.rule = rule;
+            this.sigmaRule = sigmaRule;
+            this.aggregationItems = Collections.unmodifiableList(aggregationItems);
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public SigmaRule getSigmaRule() {
+            return sigmaRule;
+        }
+
+        public List<AggregationItem> getAggregationItems() {
+            return aggregationItems;
+        }
+    }
+
+    /**
+     * A parsed Sigma rule and its conversion to queries.
+     */
+    public static class CompiledRule extends ParsedRule {
+        private final List<Object> queries;
+        private final List<String> queryFieldNames;
+
+        CompiledRule(String rule, SigmaRule sigmaRule, List<Object> queries, List<String> queryFieldNames, List<AggregationItem> aggregationItems) {
+            super(rule, sigmaRule, aggregationItems);
+            this.queries = Collections.unmodifiableList(queries);
+            this.queryFieldNames = Collections.unmodifiableList(queryFieldNames);
+        }
+
+        public List<Object> getQueries() {
+            return queries;
+        }
+
+        public List<String> getQueryFieldNames() {
+            return queryFieldNames;
+        }
+    }
+
+    private static class Key {
+        private final String ruleId;
+        private final long version;
+
+        Key(String ruleId, long version) {
+            this.ruleId = ruleId;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return version == key.version && ruleId.equals(key.ruleId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ruleId, version);
+        }
+    }
+}
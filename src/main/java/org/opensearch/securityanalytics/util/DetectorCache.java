@@ -0,0 +1,245 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.cache.RemovalNotification;
+import org.opensearch.common.cache.RemovalReason;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.index.engine.Engine;
+import org.opensearch.index.shard.IndexingOperationListener;
+import org.opensearch.securityanalytics.model.Detector;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local, versioned cache of detectors keyed by the id of their doc level monitor. It is used on the
+ * finding correlation path to avoid searching & re-parsing the detector config for every published finding.
+ *
+ * Entries are dropped when the detector is indexed or deleted through this node, when a detector doc is written on a
+ * local shard of the detectors config index and when the detectors config index is deleted or re-created.
+ * Entries additionally expire after {@link SecurityAnalyticsSettings#DETECTOR_CACHE_EXPIRE_AFTER_WRITE} so that
+ * updates coordinated by other nodes become visible. Hits, misses & evictions are reported by the security analytics
+ * stats API.
+ */
+public class DetectorCache implements ClusterStateListener, IndexingOperationListener {
+
+    private static final Logger log = LogManager.getLogger(DetectorCache.class);
+
+    private final Cache<String, Detector> detectorsByMonitorId;
+
+    /**
+     * detector id -> monitor ids it is cached under, so that invalidating a detector neither scans the cache nor counts
+     * the visited entries as hits. Monitor ids are dropped as their entries expire or are evicted.
+     */
+    private final Map<String, Set<String>> monitorIdsByDetectorId = new ConcurrentHashMap<>();
+
+    /**
+     * bumped on every invalidation so that loads which started before an invalidation do not re-populate the cache
+     * with a stale detector.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile String detectorIndexUuid;
+
+    public DetectorCache(ClusterService clusterService) {
+        this.detectorsByMonitorId = CacheBuilder.<String, Detector>builder()
+                .setMaximumWeight(SecurityAnalyticsSettings.DETECTOR_CACHE_MAX_SIZE.get(clusterService.getSettings()))
+                .setExpireAfterWrite(SecurityAnalyticsSettings.DETECTOR_CACHE_EXPIRE_AFTER_WRITE.get(clusterService.getSettings()))
+                .removalListener(this::onRemoval)
+                .build();
+        clusterService.addListener(this);
+    }
+
+    /**
+     * @return the cached detector for the given monitor id or null
+     */
+    public Detector get(String monitorId) {
+        return detectorsByMonitorId.get(monitorId);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(long, Detector)} once the detector is loaded
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the detector under all its monitor ids, unless the cache was invalidated since {@code generation}.
+     */
+    public void put(long generation, Detector detector) {
+        if (detector.getMonitorIds() == null || generation != this.generation.get()) {
+            return;
+        }
+        monitorIdsByDetectorId.put(detector.getId(), Set.copyOf(detector.getMonitorIds()));
+        for (String monitorId: detector.getMonitorIds()) {
+            detectorsByMonitorId.put(monitorId, detector);
+        }
+        if (generation != this.generation.get()) {
+            invalidateDetector(detector.getId());
+        }
+    }
+
+    public void invalidateDetector(String detectorId) {
+        generation.incrementAndGet();
+        if (detectorId == null) {
+            return;
+        }
+
+        Set<String> monitorIds = monitorIdsByDetectorId.remove(detectorId);
+        if (monitorIds != null) {
+            monitorIds.forEach(detectorsByMonitorId::invalidate);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        detectorsByMonitorId.invalidateAll();
+        monitorIdsByDetectorId.clear();
+    }
+
+    private void onRemoval(RemovalNotification<String, Detector> notification) {
+        if (notification.getRemovalReason() == RemovalReason.REPLACED) {
+            return;
+        }
+        String monitorId = notification.getKey();
+        monitorIdsByDetectorId.computeIfPresent(notification.getValue().getId(), (detectorId, monitorIds) -> {
+            if (!monitorIds.contains(monitorId)) {
+                return monitorIds;
+            }
+            Set<String> remaining = new HashSet<>(monitorIds);
+            remaining.remove(monitorId);
+            return remaining.isEmpty() ? null : Set.copyOf(remaining);
+        });
+    }
+
+    /**
+     * @return the monitor ids the detector is cached under, or null
+     */
+    Set<String> getMonitorIds(String detectorId) {
+        return monitorIdsByDetectorId.get(detectorId);
+    }
+
+    public Stats getStats() {
+        return new Stats(count(), getHits(), getMisses(), getEvictions());
+    }
+
+    public long getHits() {
+        return detectorsByMonitorId.stats().getHits();
+    }
+
+    public long getMisses() {
+        return detectorsByMonitorId.stats().getMisses();
+    }
+
+    public long getEvictions() {
+        return detectorsByMonitorId.stats().getEvictions();
+    }
+
+    public int count() {
+        return detectorsByMonitorId.count();
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        IndexMetadata indexMetadata = event.state().metadata().index(Detector.DETECTORS_INDEX);
+        String indexUuid = indexMetadata != null ? indexMetadata.getIndexUUID() : null;
+        String previousIndexUuid = detectorIndexUuid;
+
+        if (previousIndexUuid != null && !previousIndexUuid.equals(indexUuid)) {
+            log.debug("Detectors config index was deleted or re-created, invalidating detector cache");
+            invalidateAll();
+        }
+        detectorIndexUuid = indexUuid;
+    }
+
+    @Override
+    public void postIndex(ShardId shardId, Engine.Index index, Engine.IndexResult result) {
+        if (Detector.DETECTORS_INDEX.equals(shardId.getIndexName())) {
+            invalidateDetector(index.id());
+        }
+    }
+
+    @Override
+    public void postDelete(ShardId shardId, Engine.Delete delete, Engine.DeleteResult result) {
+        if (Detector.DETECTORS_INDEX.equals(shardId.getIndexName())) {
+            invalidateDetector(delete.id());
+        }
+    }
+
+    /**
+     * Point-in-time counters of the detector cache.
+     */
+    public static class Stats implements Writeable, ToXContentObject {
+        private final long count;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(long count, long hits, long misses, long evictions) {
+            this.count = count;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public Stats(StreamInput sin) throws IOException {
+            this(sin.readVLong(), sin.readVLong(), sin.readVLong(), sin.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(hits);
+            out.writeVLong(misses);
+            out.writeVLong(evictions);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            return builder.startObject()
+                    .field("count", count)
+                    .field("hits", hits)
+                    .field("misses", misses)
+                    .field("evictions", evictions)
+                    .endObject();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.lucene.search.TotalHits;
 import org.opensearch.cluster.routing.Preference;
 import org.opensearch.commons.alerting.action.IndexMonitorResponse;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
 import org.opensearch.commons.alerting.model.Monitor;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.search.SearchRequest;
@@ -18,6 +19,7 @@ import org.opensearch.common.xcontent.LoggingDeprecationHandler;
 import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.core.xcontent.XContentParserUtils;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
@@ -29,8 +31,10 @@ import org.opensearch.search.suggest.Suggest;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.DetectorInput;
 import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.model.Value;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -65,6 +69,32 @@ public class DetectorUtils {
         return detectors;
     }
 
+    /**
+     * Parses a monitor read from the scheduled jobs index, where it is stored as {"monitor": {...}}.
+     */
+    public static Monitor parseMonitor(SearchHit hit, NamedXContentRegistry xContentRegistry) throws IOException {
+        XContentParser xcp = XContentType.JSON.xContent().createParser(
+                xContentRegistry,
+                LoggingDeprecationHandler.INSTANCE, hit.getSourceAsString()
+        );
+        XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, xcp.nextToken(), xcp);
+        XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, xcp.nextToken(), xcp);
+        XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, xcp.nextToken(), xcp);
+        return Monitor.parse(xcp, hit.getId(), hit.getVersion());
+    }
+
+    /**
+     * Doc level query of a doc level rule, as added to the doc level monitor of a detector.
+     */
+    public static DocLevelQuery toDocLevelQuery(String id, Rule rule) {
+        List<String> tags = new ArrayList<>();
+        tags.add(rule.getLevel());
+        tags.add(rule.getCategory());
+        tags.addAll(rule.getTags().stream().map(Value::getValue).collect(Collectors.toList()));
+
+        return new DocLevelQuery(id, id, Collections.emptyList(), rule.getQueries().get(0).getValue(), tags);
+    }
+
     public static void getAllDetectorInputs(Client client, NamedXContentRegistry xContentRegistry, ActionListener<Set<String>> actionListener) {
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
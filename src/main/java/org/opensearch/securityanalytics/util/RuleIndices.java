@@ -8,14 +8,18 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.join.ScoreMode;
 import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.DocWriteRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.GroupedActionListener;
 import org.opensearch.action.support.WriteRequest;
 import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.client.Client;
@@ -25,18 +29,20 @@ import org.opensearch.cluster.metadata.IndexMetadata;
 import org.opensearch.cluster.routing.IndexRoutingTable;
 import org.opensearch.cluster.routing.Preference;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.collect.Tuple;
+import org.opensearch.common.hash.MessageDigests;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
 import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesReference;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.core.xcontent.ToXContent;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
-import org.opensearch.index.reindex.BulkByScrollResponse;
-import org.opensearch.index.reindex.DeleteByQueryAction;
-import org.opensearch.index.reindex.DeleteByQueryRequestBuilder;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
@@ -45,14 +51,20 @@ import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
 import org.opensearch.securityanalytics.rules.backend.QueryBackend;
 import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
 import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,6 +74,8 @@ public class RuleIndices {
 
     private static final Logger log = LogManager.getLogger(RuleIndices.class);
 
+    private static final int MAX_PREPACKAGED_RULES = 10000;
+
     private final Client client;
 
     private final ClusterService clusterService;
@@ -70,11 +84,30 @@ public class RuleIndices {
 
     private final LogTypeService logTypeService;
 
+    private volatile PrecompiledRules precompiledRules;
+
+    private volatile boolean prepackagedRulesSynced = false;
+
+    private final List<ActionListener<PrecompiledRules>> pendingPrecompileListeners = new ArrayList<>();
+
+    private volatile int importBulkSize;
+
+    private volatile int importMaxConcurrentBulks;
+
+    private volatile TimeValue indexTimeout;
+
     public RuleIndices(LogTypeService logTypeService, Client client, ClusterService clusterService, ThreadPool threadPool) {
         this.client = client;
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.logTypeService = logTypeService;
+
+        this.importBulkSize = SecurityAnalyticsSettings.RULE_IMPORT_BULK_SIZE.get(clusterService.getSettings());
+        this.importMaxConcurrentBulks = SecurityAnalyticsSettings.RULE_IMPORT_MAX_CONCURRENT_BULKS.get(clusterService.getSettings());
+        this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.RULE_IMPORT_BULK_SIZE, it -> importBulkSize = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.RULE_IMPORT_MAX_CONCURRENT_BULKS, it -> importMaxConcurrentBulks = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.INDEX_TIMEOUT, it -> indexTimeout = it);
     }
 
     public static String ruleMappings() throws IOException {
@@ -179,6 +212,12 @@ public class RuleIndices {
                         updateListener,
                         false
                 );
+            } else if (!prepackagedRulesSynced) {
+                // rules shipped with this version of the plugin may differ from the indexed ones
+                importRules(WriteRequest.RefreshPolicy.IMMEDIATE, indexTimeout, ActionListener.wrap(
+                        response -> countRules(searchListener),
+                        searchListener::onFailure
+                ));
             } else {
                 countRules(searchListener);
             }
@@ -187,27 +226,82 @@ public class RuleIndices {
         }
     }
 
+    /**
+     * Syncs the prepackaged rules index with the prepackaged rules of all log types in the log type config index.
+     *
+     * Each rule document carries the {@link Rule#CONTENT_HASH} of its YAML & the field mappings of its log type, so only
+     * new or changed rules are indexed and only rules which are no longer shipped are deleted. The rules are compiled once
+     * per node (see {@link #precompileRules(ActionListener)}) and written in bulks of
+     * {@link SecurityAnalyticsSettings#RULE_IMPORT_BULK_SIZE} rules, with at most
+     * {@link SecurityAnalyticsSettings#RULE_IMPORT_MAX_CONCURRENT_BULKS} bulks in flight and a single refresh at the end.
+     */
     public void importRules(WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
-        try {
-            final String url = Objects.requireNonNull(getClass().getClassLoader().getResource("rules/")).toURI().toString();
+        precompileRules(ActionListener.delegateFailure(listener, (l, rules) -> checkLogTypes(rules, refreshPolicy, indexTimeout,
+                ActionListener.delegateFailure(l, (delegatedListener, response) -> {
+                    if (response.hasFailures() == false) {
+                        prepackagedRulesSynced = true;
+                    }
+                    delegatedListener.onResponse(response);
+                }))));
+    }
 
-            if (url.contains("!")) {
-                final String[] paths = url.split("!");
-                loadQueries(paths, refreshPolicy, indexTimeout, listener);
-            } else {
-                Path path = Path.of(url);
-                loadQueries(path, refreshPolicy, indexTimeout, listener);
-            }
-        } catch (URISyntaxException | IOException | SigmaError ex) {
-            log.info(ex.getMessage());
+    /**
+     * Parses the prepackaged Sigma rules and converts them to queries on a bounded number of generic threads.
+     *
+     * The rule files and the field mappings of the built-in log types are resources of the plugin, so the rules are
+     * compiled & hashed once per node, at plugin load, and re-importing the rules, e.g. after a mapping change of the
+     * rules index, reuses the result. Concurrent callers share the compilation in progress.
+     */
+    public void precompileRules(ActionListener<PrecompiledRules> listener) {
+        PrecompiledRules compiledRules = precompiledRules;
+        if (compiledRules != null) {
+            listener.onResponse(compiledRules);
+            return;
         }
+
+        boolean startCompile;
+        synchronized (pendingPrecompileListeners) {
+            startCompile = pendingPrecompileListeners.isEmpty();
+            pendingPrecompileListeners.add(listener);
+        }
+        if (startCompile == false) {
+            return;
+        }
+
+        threadPool.generic().execute(() -> {
+            try {
+                PrecompiledRules cached = precompiledRules;
+                if (cached != null) {
+                    // compiled by a caller which completed while this one was registering
+                    completePendingPrecompileListeners(cached, null);
+                    return;
+                }
+                Map<String, List<String>> ruleFilesByCategory = readRuleFiles();
+                String ruleSetHash = ruleSetHash(ruleFilesByCategory);
+                long startNanos = System.nanoTime();
+                compileRules(ruleSetHash, ruleFilesByCategory, ActionListener.wrap(compiled -> {
+                    log.info(String.format(Locale.ROOT, "Compiled %d prepackaged rules in %d ms", compiled.size(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+                    precompiledRules = compiled;
+                    completePendingPrecompileListeners(compiled, null);
+                }, e -> completePendingPrecompileListeners(null, e)));
+            } catch (Exception e) {
+                completePendingPrecompileListeners(null, e);
+            }
+        });
     }
 
-    public void deleteRules(ActionListener<BulkByScrollResponse> listener) {
-        new DeleteByQueryRequestBuilder(client, DeleteByQueryAction.INSTANCE)
-                .source(Rule.PRE_PACKAGED_RULES_INDEX)
-                .filter(QueryBuilders.matchAllQuery())
-                .execute(listener);
+    private void completePendingPrecompileListeners(PrecompiledRules rules, Exception e) {
+        List<ActionListener<PrecompiledRules>> listeners;
+        synchronized (pendingPrecompileListeners) {
+            listeners = new ArrayList<>(pendingPrecompileListeners);
+            pendingPrecompileListeners.clear();
+        }
+        if (e != null) {
+            listeners.forEach(listener -> listener.onFailure(e));
+        } else {
+            listeners.forEach(listener -> listener.onResponse(rules));
+        }
     }
 
     public void countRules(ActionListener<SearchResponse> listener) {
@@ -240,7 +334,9 @@ public class RuleIndices {
         listOfRules.forEach(path -> {
             try {
                 if (Files.isDirectory(path)) {
-                    rules.addAll(getRules(Files.list(path).collect(Collectors.toList())));
+                    try (Stream<Path> paths = Files.list(path)) {
+                        rules.addAll(getRules(paths.sorted().collect(Collectors.toList())));
+                    }
                 } else {
                     rules.add(Files.readString(path, Charset.defaultCharset()));
                 }
@@ -252,48 +348,124 @@ public class RuleIndices {
         return rules;
     }
 
-    private void loadQueries(Path path, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws IOException, SigmaError {
-        Stream<Path> folder = Files.list(path);
-        List<Path> folderPaths = folder.collect(Collectors.toList());
-        Map<String, List<String>> logIndexToRules = new HashMap<>();
+    private Map<String, List<String>> readRuleFiles() throws URISyntaxException, IOException {
+        final String url = Objects.requireNonNull(getClass().getClassLoader().getResource("rules/")).toURI().toString();
+
+        Path path;
+        if (url.contains("!")) {
+            final String[] paths = url.split("!");
+            path = FileUtils.getFs().getPath(paths[1]);
+        } else {
+            path = Path.of(url);
+        }
 
-        for (Path folderPath: folderPaths) {
-            List<String> rules = getRules(List.of(folderPath));
-            String ruleCategory = getRuleCategory(folderPath);
-            logIndexToRules.put(ruleCategory, rules);
+        Map<String, List<String>> ruleFilesByCategory = new TreeMap<>();
+        try (Stream<Path> folder = Files.list(path)) {
+            for (Path folderPath: folder.collect(Collectors.toList())) {
+                if (Files.isDirectory(folderPath) == false) {
+                    continue;
+                }
+                ruleFilesByCategory.put(getRuleCategory(folderPath), getRules(List.of(folderPath)));
+            }
         }
-        checkLogTypes(logIndexToRules, refreshPolicy, indexTimeout, listener);
+        return ruleFilesByCategory;
     }
 
     private String getRuleCategory(Path folderPath) {
         return folderPath.getFileName().toString();
     }
 
-    private void ingestQueries(Map<String, List<String>> logIndexToRules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws SigmaError, IOException {
-        List<Rule> queries = new ArrayList<>();
+    private String ruleSetHash(Map<String, List<String>> ruleFilesByCategory) {
+        MessageDigest digest = MessageDigests.sha256();
+        for (Map.Entry<String, List<String>> category: ruleFilesByCategory.entrySet()) {
+            digest.update(category.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fieldMappingsHash(category.getKey()).getBytes(StandardCharsets.UTF_8));
+            for (String rule: category.getValue()) {
+                digest.update(rule.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return MessageDigests.toHexString(digest.digest());
+    }
 
-        // Moving others_cloud to the top so those queries are indexed first and can be overwritten if other categories
-        // contain the same rules. Tracking issue: https://github.com/opensearch-project/security-analytics/issues/630
-        List<String> categories = new ArrayList<>(logIndexToRules.keySet());
-        if (categories.remove("others_cloud")) {
-            categories.add(0, "others_cloud");
+    private String fieldMappingsHash(String category) {
+        return CompiledRuleCache.fieldMappingsVersion(logTypeService.getRuleFieldMappingsForBuiltinLogType(category));
+    }
+
+    static String contentHash(String category, String fieldMappingsHash, String ruleStr) {
+        MessageDigest digest = MessageDigests.sha256();
+        digest.update(category.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(fieldMappingsHash.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(ruleStr.getBytes(StandardCharsets.UTF_8));
+        return MessageDigests.toHexString(digest.digest());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compileRules(String ruleSetHash, Map<String, List<String>> ruleFilesByCategory, ActionListener<PrecompiledRules> listener) {
+        List<Tuple<String, String>> ruleFiles = new ArrayList<>();
+        Map<String, String> fieldMappingsHashes = new HashMap<>();
+        for (Map.Entry<String, List<String>> category: ruleFilesByCategory.entrySet()) {
+            if (logTypeService.getRuleFieldMappingsForBuiltinLogType(category.getKey()) == null) {
+                log.warn(String.format(Locale.ROOT, "Skipping prepackaged rules of unknown log type %s", category.getKey()));
+                continue;
+            }
+            fieldMappingsHashes.put(category.getKey(), fieldMappingsHash(category.getKey()));
+            for (String rule: category.getValue()) {
+                ruleFiles.add(Tuple.tuple(category.getKey(), rule));
+            }
         }
-        for (String category: categories) {
-            Map<String, String> fieldMappings = logTypeService.getRuleFieldMappingsForBuiltinLogType(category);
-            final QueryBackend backend = new OSQueryBackend(fieldMappings, true, true);
-            queries.addAll(getQueries(backend, category, logIndexToRules.get(category)));
+        if (ruleFiles.isEmpty()) {
+            listener.onResponse(new PrecompiledRules(ruleSetHash, List.of()));
+            return;
+        }
+
+        // rule files are split in contiguous slices, one per task, so the compiled rules keep the order of the files
+        int tasks = Math.min(OpenSearchExecutors.allocatedProcessors(clusterService.getSettings()), ruleFiles.size());
+        int sliceSize = (ruleFiles.size() + tasks - 1) / tasks;
+        List<List<Tuple<String, String>>> slices = new ArrayList<>();
+        for (int from = 0; from < ruleFiles.size(); from += sliceSize) {
+            slices.add(ruleFiles.subList(from, Math.min(from + sliceSize, ruleFiles.size())));
         }
-        loadRules(queries, refreshPolicy, indexTimeout, listener, true);
-    }
 
-    private void loadQueries(String[] paths, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws IOException, SigmaError {
-        Path path = FileUtils.getFs().getPath(paths[1]);
-        loadQueries(path, refreshPolicy, indexTimeout, listener);
+        List<CompiledRule>[] compiledSlices = new List[slices.size()];
+        GroupedActionListener<Void> slicesListener = new GroupedActionListener<>(ActionListener.wrap(ignored -> {
+            List<CompiledRule> compiled = new ArrayList<>(ruleFiles.size());
+            for (List<CompiledRule> slice: compiledSlices) {
+                compiled.addAll(slice);
+            }
+            listener.onResponse(new PrecompiledRules(ruleSetHash, compiled));
+        }, listener::onFailure), slices.size());
+
+        for (int i = 0; i < slices.size(); ++i) {
+            final int slice = i;
+            threadPool.generic().execute(() -> {
+                try {
+                    compiledSlices[slice] = compileRules(slices.get(slice), fieldMappingsHashes);
+                    slicesListener.onResponse(null);
+                } catch (Exception e) {
+                    slicesListener.onFailure(e);
+                }
+            });
+        }
     }
 
-    private List<Rule> getQueries(QueryBackend backend, String category, List<String> rules) throws SigmaError {
-        List<Rule> queries = new ArrayList<>();
-        for (String ruleStr: rules) {
+    private List<CompiledRule> compileRules(List<Tuple<String, String>> ruleFiles, Map<String, String> fieldMappingsHashes) throws SigmaError, IOException {
+        // query backends collect the fields of the rule they convert, so each task uses its own backend per log type
+        Map<String, QueryBackend> backends = new HashMap<>();
+        List<CompiledRule> compiled = new ArrayList<>(ruleFiles.size());
+        for (Tuple<String, String> ruleFile: ruleFiles) {
+            String category = ruleFile.v1();
+            String ruleStr = ruleFile.v2();
+
+            QueryBackend backend = backends.get(category);
+            if (backend == null) {
+                backend = new OSQueryBackend(logTypeService.getRuleFieldMappingsForBuiltinLogType(category), true, true);
+                backends.put(category, backend);
+            }
+
             SigmaRule rule = SigmaRule.fromYaml(ruleStr, true);
             backend.resetQueryFields();
             List<Object> ruleQueries = backend.convertRule(rule);
@@ -305,12 +477,80 @@ public class RuleIndices {
                     new ArrayList<>(queryFieldNames),
                     ruleStr
             );
-            queries.add(ruleModel);
+            String contentHash = contentHash(category, fieldMappingsHashes.get(category), ruleStr);
+            BytesReference source = BytesReference.bytes(ruleModel.toXContent(XContentFactory.jsonBuilder(),
+                    new ToXContent.MapParams(Map.of("with_type", "true", Rule.CONTENT_HASH, contentHash))));
+            compiled.add(new CompiledRule(ruleModel, source, contentHash));
         }
-        return queries;
+        return compiled;
     }
 
-    private void checkLogTypes(Map<String, List<String>> logIndexToRules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
+    private List<CompiledRule> rulesToImport(PrecompiledRules precompiled, Set<String> logTypes) {
+        // Moving others_cloud to the top so those queries are indexed first and can be overwritten if other categories
+        // contain the same rules. Tracking issue: https://github.com/opensearch-project/security-analytics/issues/630
+        // Rules are de-duplicated by id here, as bulks are indexed concurrently.
+        List<String> categories = new ArrayList<>(precompiled.getCategories());
+        categories.retainAll(logTypes);
+        if (categories.remove("others_cloud")) {
+            categories.add(0, "others_cloud");
+        }
+
+        Map<String, CompiledRule> rulesById = new LinkedHashMap<>();
+        for (String category: categories) {
+            for (CompiledRule rule: precompiled.getRules(category)) {
+                rulesById.put(rule.getRule().getId(), rule);
+            }
+        }
+        return new ArrayList<>(rulesById.values());
+    }
+
+    private void syncRules(List<CompiledRule> rules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
+        SearchRequest request = new SearchRequest(Rule.PRE_PACKAGED_RULES_INDEX)
+                .source(new SearchSourceBuilder()
+                        .query(QueryBuilders.matchAllQuery())
+                        .fetchSource(new String[]{ Rule.RULE + "." + Rule.CONTENT_HASH }, null)
+                        .size(MAX_PREPACKAGED_RULES))
+                .preference(Preference.PRIMARY_FIRST.type());
+
+        client.search(request, ActionListener.delegateFailure(listener, (delegatedListener, response) -> {
+            SearchHit[] hits = response.getHits().getHits();
+            if (response.getHits().getTotalHits() != null && response.getHits().getTotalHits().value > hits.length) {
+                log.warn(String.format(Locale.ROOT, "More than %d prepackaged rules are indexed, stale rules may not be deleted", hits.length));
+            }
+            Map<String, String> indexedHashes = new HashMap<>();
+            for (SearchHit hit: hits) {
+                Object ruleSource = hit.getSourceAsMap() == null ? null : hit.getSourceAsMap().get(Rule.RULE);
+                Object contentHash = ruleSource instanceof Map ? ((Map<?, ?>) ruleSource).get(Rule.CONTENT_HASH) : null;
+                indexedHashes.put(hit.getId(), contentHash == null ? null : contentHash.toString());
+            }
+
+            List<DocWriteRequest<?>> requests = new ArrayList<>();
+            int upserts = 0;
+            for (CompiledRule rule: rules) {
+                String indexedHash = indexedHashes.remove(rule.getRule().getId());
+                if (!rule.getContentHash().equals(indexedHash)) {
+                    requests.add(new IndexRequest(Rule.PRE_PACKAGED_RULES_INDEX)
+                            .id(rule.getRule().getId())
+                            .source(rule.getSource(), XContentType.JSON)
+                            .timeout(indexTimeout));
+                    ++upserts;
+                }
+            }
+            for (String staleId: indexedHashes.keySet()) {
+                requests.add(new DeleteRequest(Rule.PRE_PACKAGED_RULES_INDEX, staleId).timeout(indexTimeout));
+            }
+            log.info(String.format(Locale.ROOT, "Syncing prepackaged rules: %d of %d rules new or changed, %d removed",
+                    upserts, rules.size(), indexedHashes.size()));
+
+            if (requests.isEmpty()) {
+                delegatedListener.onResponse(new BulkResponse(new BulkItemResponse[]{}, 1));
+                return;
+            }
+            new RuleImport(requests, refreshPolicy, indexTimeout, delegatedListener).start();
+        }));
+    }
+
+    private void checkLogTypes(PrecompiledRules precompiled, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
         logTypeService.ensureConfigIndexIsInitialized(new ActionListener<>() {
             @Override
             public void onResponse(Void unused) {
@@ -329,21 +569,14 @@ public class RuleIndices {
                     public void onResponse(SearchResponse response) {
                         if (response.isTimedOut()) {
                             listener.onFailure(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
+                            return;
                         }
-                        try {
-                            SearchHit[] hits = response.getHits().getHits();
-                            Map<String, List<String>> filteredLogIndexToRules = new HashMap<>();
-                            for (SearchHit hit : hits) {
-                                String name = hit.getSourceAsMap().get("name").toString();
-
-                                if (logIndexToRules.containsKey(name)) {
-                                    filteredLogIndexToRules.put(name, logIndexToRules.get(name));
-                                }
-                            }
-                            ingestQueries(filteredLogIndexToRules, refreshPolicy, indexTimeout, listener);
-                        } catch (SigmaError | IOException e) {
-                            onFailure(e);
+                        SearchHit[] hits = response.getHits().getHits();
+                        Set<String> logTypes = new HashSet<>();
+                        for (SearchHit hit : hits) {
+                            logTypes.add(hit.getSourceAsMap().get("name").toString());
                         }
+                        syncRules(rulesToImport(precompiled, logTypes), refreshPolicy, indexTimeout, listener);
                     }
 
                     @Override
@@ -359,4 +592,144 @@ public class RuleIndices {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Chunked bulk writes of prepackaged rules. A new bulk is only sent once a previous one completed, so at most
+     * {@link SecurityAnalyticsSettings#RULE_IMPORT_MAX_CONCURRENT_BULKS} bulks are in flight.
+     */
+    private class RuleImport {
+        private final List<DocWriteRequest<?>> requests;
+        private final WriteRequest.RefreshPolicy refreshPolicy;
+        private final TimeValue indexTimeout;
+        private final ActionListener<BulkResponse> listener;
+
+        private final int bulkSize;
+        private final BulkItemResponse[][] bulkItems;
+        private final AtomicInteger nextBulk = new AtomicInteger();
+        private final AtomicInteger runningSenders = new AtomicInteger();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        private final long startNanos = System.nanoTime();
+
+        RuleImport(List<DocWriteRequest<?>> requests, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
+            this.requests = requests;
+            this.refreshPolicy = refreshPolicy;
+            this.indexTimeout = indexTimeout;
+            this.listener = listener;
+            this.bulkSize = importBulkSize;
+            this.bulkItems = new BulkItemResponse[(requests.size() + bulkSize - 1) / bulkSize][];
+        }
+
+        void start() {
+            int senders = Math.min(importMaxConcurrentBulks, bulkItems.length);
+            runningSenders.set(senders);
+            for (int i = 0; i < senders; ++i) {
+                sendNextBulk();
+            }
+        }
+
+        private void sendNextBulk() {
+            int bulk = nextBulk.getAndIncrement();
+            if (bulk >= bulkItems.length || failure.get() != null) {
+                if (runningSenders.decrementAndGet() == 0) {
+                    onAllBulksCompleted();
+                }
+                return;
+            }
+
+            BulkRequest bulkRequest = new BulkRequest().timeout(indexTimeout);
+            for (DocWriteRequest<?> request: requests.subList(bulk * bulkSize, Math.min((bulk + 1) * bulkSize, requests.size()))) {
+                bulkRequest.add(request);
+            }
+            client.bulk(bulkRequest, ActionListener.wrap(response -> {
+                bulkItems[bulk] = response.getItems();
+                sendNextBulk();
+            }, e -> {
+                failure.compareAndSet(null, e);
+                sendNextBulk();
+            }));
+        }
+
+        private void onAllBulksCompleted() {
+            if (failure.get() != null) {
+                listener.onFailure(failure.get());
+                return;
+            }
+
+            List<BulkItemResponse> items = new ArrayList<>(requests.size());
+            for (BulkItemResponse[] bulk: bulkItems) {
+                items.addAll(Arrays.asList(bulk));
+            }
+            BulkResponse response = new BulkResponse(items.toArray(new BulkItemResponse[0]),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+            if (refreshPolicy == WriteRequest.RefreshPolicy.NONE) {
+                listener.onResponse(response);
+            } else {
+                client.admin().indices().refresh(new RefreshRequest(Rule.PRE_PACKAGED_RULES_INDEX),
+                        ActionListener.wrap(refreshResponse -> listener.onResponse(response), listener::onFailure));
+            }
+        }
+    }
+
+    static class CompiledRule {
+        private final Rule rule;
+        private final BytesReference source;
+        private final String contentHash;
+
+        CompiledRule(Rule rule, BytesReference source, String contentHash) {
+            this.rule = rule;
+            this.source = source;
+            this.contentHash = contentHash;
+        }
+
+        Rule getRule() {
+            return rule;
+        }
+
+        BytesReference getSource() {
+            return source;
+        }
+
+        String getContentHash() {
+            return contentHash;
+        }
+    }
+
+    /**
+     * Prepackaged rules parsed & converted to queries, per log type.
+     */
+    public static class PrecompiledRules {
+        private final String ruleSetHash;
+        private final Map<String, List<CompiledRule>> rulesByCategory;
+        private final int size;
+
+        PrecompiledRules(String ruleSetHash, List<CompiledRule> rules) {
+            this.ruleSetHash = ruleSetHash;
+            Map<String, List<CompiledRule>> rulesByCategory = new LinkedHashMap<>();
+            for (CompiledRule rule: rules) {
+                rulesByCategory.computeIfAbsent(rule.getRule().getCategory(), it -> new ArrayList<>()).add(rule);
+            }
+            this.rulesByCategory = Collections.unmodifiableMap(rulesByCategory);
+            this.size = rules.size();
+        }
+
+        /**
+         * Hash of the rule files and of the field mappings of their log types.
+         */
+        public String getRuleSetHash() {
+            return ruleSetHash;
+        }
+
+        public Set<String> getCategories() {
+            return rulesByCategory.keySet();
+        }
+
+        List<CompiledRule> getRules(String category) {
+            return rulesByCategory.getOrDefault(category, List.of());
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
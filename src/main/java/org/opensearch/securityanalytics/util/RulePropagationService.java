@@ -0,0 +1,434 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.client.Client;
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.UUIDs;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.LoggingDeprecationHandler;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.commons.alerting.AlertingPluginInterface;
+import org.opensearch.commons.alerting.action.IndexMonitorRequest;
+import org.opensearch.commons.alerting.model.DocLevelMonitorInput;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Input;
+import org.opensearch.commons.alerting.model.Monitor;
+import org.opensearch.commons.alerting.model.ScheduledJob;
+import org.opensearch.commons.authuser.User;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.action.IndexDetectorAction;
+import org.opensearch.securityanalytics.action.IndexDetectorRequest;
+import org.opensearch.securityanalytics.model.Detector;
+import org.opensearch.securityanalytics.model.DetectorInput;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.model.RulePropagationJob;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.threatIntel.common.StashedThreadContext;
+import org.opensearch.securityanalytics.transport.SecureTransportAction;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.opensearch.securityanalytics.util.DetectorUtils.parseMonitor;
+
+/**
+ * Propagates an updated or deleted custom rule to the detectors using it as one job per rule.
+ *
+ * When only the doc level query of the rule changes, the doc level monitor of a detector is patched in place: the query
+ * of the rule is replaced or removed and all other queries, triggers & workflows are kept as they are. Detectors using
+ * the rule as an aggregation rule, or whose monitors have to be created or deleted, are fully updated instead. At most
+ * {@link SecurityAnalyticsSettings#RULE_PROPAGATION_MAX_CONCURRENT_UPDATES} detectors are updated at a time, and the
+ * update of a detector is retried up to {@link SecurityAnalyticsSettings#RULE_PROPAGATION_MAX_RETRIES} times on conflicts,
+ * rejections and server errors. The progress of running & recently finished jobs is kept in memory for the status API.
+ *
+ * Patches are only applied to detectors the requesting user has access to, as a full update through the index detector
+ * action would, and detectors are written back compare-and-set so that concurrent updates of a detector are not lost.
+ */
+public class RulePropagationService implements SecureTransportAction {
+
+    private static final Logger log = LogManager.getLogger(RulePropagationService.class);
+
+    /**
+     * Number of finished jobs whose status is kept on the node
+     */
+    static final int MAX_FINISHED_JOBS = 100;
+
+    private static final long RETRY_BACKOFF_MILLIS = 50L;
+
+    private enum Outcome {
+        PATCHED,
+        FULL_UPDATE
+    }
+
+    private final Client client;
+    private final NamedXContentRegistry xContentRegistry;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final DetectorCache detectorCache;
+
+    private final Map<String, RulePropagationJob> jobs = new LinkedHashMap<>();
+
+    private volatile int maxConcurrentUpdates;
+    private volatile int maxRetries;
+    private volatile boolean filterByEnabled;
+
+    public RulePropagationService(Client client, ClusterService clusterService, NamedXContentRegistry xContentRegistry,
+                                  NamedWriteableRegistry namedWriteableRegistry, DetectorCache detectorCache) {
+        this.client = client;
+        this.xContentRegistry = xContentRegistry;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.detectorCache = detectorCache;
+
+        this.maxConcurrentUpdates = SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_CONCURRENT_UPDATES.get(clusterService.getSettings());
+        this.maxRetries = SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_RETRIES.get(clusterService.getSettings());
+        this.filterByEnabled = SecurityAnalyticsSettings.FILTER_BY_BACKEND_ROLES.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_CONCURRENT_UPDATES,
+                it -> this.maxConcurrentUpdates = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_RETRIES,
+                it -> this.maxRetries = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.FILTER_BY_BACKEND_ROLES,
+                it -> this.filterByEnabled = it);
+    }
+
+    /**
+     * Propagates an updated rule, already indexed with its new version, to the detectors using it.
+     *
+     * @param listener notified once every detector is updated, or with a failure if the rule could not be propagated to
+     *                 at least one of them
+     * @return the job tracking the propagation
+     */
+    public RulePropagationJob propagateRuleUpdate(Rule rule, List<Detector> detectors, WriteRequest.RefreshPolicy refreshPolicy,
+                                                  ActionListener<RulePropagationJob> listener) {
+        RulePropagationJob job = startJob(rule.getId(), RulePropagationJob.Operation.UPDATE, detectors.size());
+        User user = readUserFromThreadContext(client.threadPool());
+        DocLevelQuery ruleQuery = rule.isAggregationRule() ? null : DetectorUtils.toDocLevelQuery(rule.getId(), rule);
+        run(job, detectors, (detector, outcomeListener) -> {
+            if (ruleQuery == null || detector.getDocLevelMonitorId() == null) {
+                fullUpdate(detector, refreshPolicy, outcomeListener);
+                return;
+            }
+            if (canPatch(user, detector, outcomeListener) == false) {
+                return;
+            }
+            patchDocLevelMonitor(detector, monitor -> replaceRuleQuery(monitor, rule.getId(), ruleQuery), refreshPolicy, ActionListener.wrap(patched -> {
+                if (patched) {
+                    outcomeListener.onResponse(Outcome.PATCHED);
+                } else {
+                    // the rule was not a doc level rule of the detector before
+                    fullUpdate(detector, refreshPolicy, outcomeListener);
+                }
+            }, outcomeListener::onFailure));
+        }, listener);
+        return job;
+    }
+
+    /**
+     * Propagates the deletion of a rule to the detectors using it. The rule must already be removed from the rules of the
+     * given detectors.
+     *
+     * @param listener notified once every detector is updated, or with a failure if the rule could not be removed from at
+     *                 least one of them
+     * @return the job tracking the propagation
+     */
+    public RulePropagationJob propagateRuleDeletion(String ruleId, List<Detector> detectors, WriteRequest.RefreshPolicy refreshPolicy,
+                                                    ActionListener<RulePropagationJob> listener) {
+        RulePropagationJob job = startJob(ruleId, RulePropagationJob.Operation.DELETE, detectors.size());
+        User user = readUserFromThreadContext(client.threadPool());
+        run(job, detectors, (detector, outcomeListener) -> {
+            if (detector.getDocLevelMonitorId() == null) {
+                fullUpdate(detector, refreshPolicy, outcomeListener);
+                return;
+            }
+            if (canPatch(user, detector, outcomeListener) == false) {
+                return;
+            }
+            patchDocLevelMonitor(detector, monitor -> removeRuleQuery(monitor, ruleId), refreshPolicy, ActionListener.wrap(patched -> {
+                if (patched) {
+                    removeRuleFromDetector(detector.getId(), ruleId, refreshPolicy, outcomeListener);
+                } else {
+                    // aggregation rule, or last query of the monitor
+                    fullUpdate(detector, refreshPolicy, outcomeListener);
+                }
+            }, outcomeListener::onFailure));
+        }, listener);
+        return job;
+    }
+
+    /**
+     * Running & recently finished jobs of this node, of the given rule or of all rules if null.
+     */
+    public List<RulePropagationJob> getJobs(String ruleId) {
+        synchronized (jobs) {
+            return jobs.values().stream()
+                    .filter(job -> ruleId == null || ruleId.equals(job.getRuleId()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private RulePropagationJob startJob(String ruleId, RulePropagationJob.Operation operation, int total) {
+        RulePropagationJob job = new RulePropagationJob(UUIDs.base64UUID(), ruleId, operation, total);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+        }
+        log.info("Propagating {} of rule {} to {} detectors as job {}", operation.name().toLowerCase(Locale.ROOT), ruleId, total, job.getJobId());
+        return job;
+    }
+
+    private void run(RulePropagationJob job, List<Detector> detectors, BiConsumer<Detector, ActionListener<Outcome>> propagation,
+                     ActionListener<RulePropagationJob> listener) {
+        int workers = Math.min(maxConcurrentUpdates, detectors.size());
+        if (workers == 0) {
+            finishJob(job, listener);
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger runningWorkers = new AtomicInteger(workers);
+        for (int i = 0; i < workers; ++i) {
+            propagateNext(job, detectors, next, runningWorkers, propagation, listener);
+        }
+    }
+
+    private void propagateNext(RulePropagationJob job, List<Detector> detectors, AtomicInteger next, AtomicInteger runningWorkers,
+                               BiConsumer<Detector, ActionListener<Outcome>> propagation, ActionListener<RulePropagationJob> listener) {
+        int index = next.getAndIncrement();
+        if (index >= detectors.size()) {
+            if (runningWorkers.decrementAndGet() == 0) {
+                finishJob(job, listener);
+            }
+            return;
+        }
+        Detector detector = detectors.get(index);
+        propagate(job, detector, 0, propagation, ActionListener.runAfter(ActionListener.wrap(outcome -> {
+            if (outcome == Outcome.PATCHED) {
+                job.onPatched();
+            } else {
+                job.onFullUpdate();
+            }
+        }, e -> {
+            log.error(() -> new ParameterizedMessage("Failed to propagate rule {} to detector {}", job.getRuleId(), detector.getId()), e);
+            job.onFailure(detector.getId(), e);
+        }), () -> propagateNext(job, detectors, next, runningWorkers, propagation, listener)));
+    }
+
+    private void propagate(RulePropagationJob job, Detector detector, int attempt, BiConsumer<Detector, ActionListener<Outcome>> propagation,
+                           ActionListener<Outcome> listener) {
+        propagation.accept(detector, ActionListener.wrap(listener::onResponse, e -> {
+            if (attempt >= maxRetries || isRetryable(e) == false) {
+                listener.onFailure(e);
+                return;
+            }
+            job.onRetry();
+            log.debug("Retrying propagation of rule {} to detector {} after: {}", job.getRuleId(), detector.getId(), e.getMessage());
+            ThreadPool threadPool = client.threadPool();
+            threadPool.schedule(
+                    threadPool.getThreadContext().preserveContext(() -> propagate(job, detector, attempt + 1, propagation, listener)),
+                    TimeValue.timeValueMillis(RETRY_BACKOFF_MILLIS << attempt),
+                    ThreadPool.Names.GENERIC
+            );
+        }));
+    }
+
+    /**
+     * Fails the propagation to the detector if filtering by backend roles is enabled and the user has no access to it.
+     */
+    private boolean canPatch(User user, Detector detector, ActionListener<Outcome> listener) {
+        if (checkUserPermissionsWithResource(user, detector.getUser(), "detector", detector.getId(), filterByEnabled) == false) {
+            listener.onFailure(SecurityAnalyticsException.wrap(new OpenSearchStatusException("Do not have permissions to resource", RestStatus.FORBIDDEN)));
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isRetryable(Exception e) {
+        RestStatus status = ExceptionsHelper.status(ExceptionsHelper.unwrapCause(e));
+        return status == RestStatus.CONFLICT || status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+    }
+
+    private void finishJob(RulePropagationJob job, ActionListener<RulePropagationJob> listener) {
+        job.finish();
+        synchronized (jobs) {
+            int excess = jobs.size() - MAX_FINISHED_JOBS;
+            Iterator<RulePropagationJob> it = jobs.values().iterator();
+            while (excess > 0 && it.hasNext()) {
+                if (it.next().getState() != RulePropagationJob.State.RUNNING) {
+                    it.remove();
+                    --excess;
+                }
+            }
+        }
+        log.info("Propagation job {} of rule {} {}: {} detectors patched, {} fully updated, {} failed, {} retries", job.getJobId(), job.getRuleId(),
+                job.getState().name().toLowerCase(Locale.ROOT), job.getPatched(), job.getFullUpdates(), job.getFailed(), job.getRetries());
+
+        if (job.getFailed() > 0) {
+            listener.onFailure(new OpenSearchStatusException(String.format(Locale.getDefault(),
+                    "Rule with id %s could not be propagated to %d of %d detectors, see propagation job %s", job.getRuleId(), job.getFailed(),
+                    job.getTotal(), job.getJobId()), RestStatus.INTERNAL_SERVER_ERROR));
+        } else {
+            listener.onResponse(job);
+        }
+    }
+
+    private void fullUpdate(Detector detector, WriteRequest.RefreshPolicy refreshPolicy, ActionListener<Outcome> listener) {
+        IndexDetectorRequest indexRequest = new IndexDetectorRequest(detector.getId(), refreshPolicy, RestRequest.Method.PUT, detector);
+        client.execute(IndexDetectorAction.INSTANCE, indexRequest, ActionListener.wrap(response -> {
+            if (response.getStatus() != RestStatus.OK) {
+                listener.onFailure(new OpenSearchStatusException(String.format(Locale.getDefault(), "Detector with id %s cannot be updated", detector.getId()),
+                        response.getStatus()));
+                return;
+            }
+            listener.onResponse(Outcome.FULL_UPDATE);
+        }, listener::onFailure));
+    }
+
+    /**
+     * Reads the doc level monitor of the detector and writes back the queries returned by the patch, compare-and-set on
+     * the seq_no & primary_term it was read with. Notifies false if the patch does not apply to the monitor.
+     */
+    private void patchDocLevelMonitor(Detector detector, Function<Monitor, List<DocLevelQuery>> patch, WriteRequest.RefreshPolicy refreshPolicy,
+                                      ActionListener<Boolean> listener) {
+        SearchRequest searchRequest = new SearchRequest(ScheduledJob.SCHEDULED_JOBS_INDEX);
+        searchRequest.source(new SearchSourceBuilder()
+                .query(QueryBuilders.idsQuery().addIds(detector.getDocLevelMonitorId()))
+                .size(1)
+                .seqNoAndPrimaryTerm(true)
+                .version(true));
+        StashedThreadContext.run(client, () -> client.search(searchRequest, ActionListener.wrap(response -> {
+            if (response.getHits().getHits().length == 0) {
+                listener.onResponse(false);
+                return;
+            }
+            SearchHit hit = response.getHits().getHits()[0];
+            Monitor monitor = parseMonitor(hit, xContentRegistry);
+            List<DocLevelQuery> queries = patch.apply(monitor);
+            if (queries == null) {
+                listener.onResponse(false);
+                return;
+            }
+            if (queries.equals(((DocLevelMonitorInput) monitor.getInputs().get(0)).getQueries())) {
+                listener.onResponse(true);
+                return;
+            }
+            IndexMonitorRequest monitorRequest = patchMonitorRequest(monitor, queries, hit.getSeqNo(), hit.getPrimaryTerm(), refreshPolicy);
+            StashedThreadContext.run(client, () -> AlertingPluginInterface.INSTANCE.indexMonitor((NodeClient) client, monitorRequest,
+                    namedWriteableRegistry, ActionListener.wrap(monitorResponse -> listener.onResponse(true), listener::onFailure)));
+        }, listener::onFailure)));
+    }
+
+    /**
+     * Removes the rule from the custom rules of the detector as it is currently indexed, compare-and-set on the seq_no &
+     * primary_term it was read with. A concurrent update of the detector fails with a conflict and is retried.
+     */
+    private void removeRuleFromDetector(String detectorId, String ruleId, WriteRequest.RefreshPolicy refreshPolicy, ActionListener<Outcome> listener) {
+        client.get(new GetRequest(Detector.DETECTORS_INDEX, detectorId), ActionListener.wrap(response -> {
+            if (!response.isExists()) {
+                listener.onFailure(new OpenSearchStatusException(String.format(Locale.getDefault(), "Detector with %s is not found", detectorId), RestStatus.NOT_FOUND));
+                return;
+            }
+            try {
+                XContentParser xcp = XContentHelper.createParser(
+                        xContentRegistry, LoggingDeprecationHandler.INSTANCE,
+                        response.getSourceAsBytesRef(), XContentType.JSON
+                );
+                Detector detector = Detector.docParse(xcp, response.getId(), response.getVersion());
+                if (!detector.getInputs().isEmpty()) {
+                    DetectorInput input = detector.getInputs().get(0);
+                    input.setCustomRules(input.getCustomRules().stream().filter(rule -> !ruleId.equals(rule.getId())).collect(Collectors.toList()));
+                }
+                detector.setLastUpdateTime(Instant.now());
+
+                IndexRequest indexRequest = new IndexRequest(Detector.DETECTORS_INDEX)
+                        .setRefreshPolicy(refreshPolicy)
+                        .source(detector.toXContentWithUser(XContentFactory.jsonBuilder(), new ToXContent.MapParams(Map.of("with_type", "true"))))
+                        .id(detectorId)
+                        .setIfSeqNo(response.getSeqNo())
+                        .setIfPrimaryTerm(response.getPrimaryTerm());
+                client.index(indexRequest, ActionListener.wrap(indexResponse -> {
+                    detectorCache.invalidateDetector(detectorId);
+                    listener.onResponse(Outcome.PATCHED);
+                }, listener::onFailure));
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        }, listener::onFailure));
+    }
+
+    /**
+     * Queries of a doc level monitor with the query of the given rule replaced, null if the monitor has no query of the rule.
+     */
+    static List<DocLevelQuery> replaceRuleQuery(Monitor monitor, String ruleId, DocLevelQuery ruleQuery) {
+        List<DocLevelQuery> queries = docLevelQueries(monitor);
+        if (queries == null) {
+            return null;
+        }
+        for (int i = 0; i < queries.size(); ++i) {
+            if (ruleId.equals(queries.get(i).getId())) {
+                queries.set(i, ruleQuery);
+                return queries;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Queries of a doc level monitor without the query of the given rule, null if the monitor has no query of the rule or
+     * no other query, in which case the monitor has to be deleted.
+     */
+    static List<DocLevelQuery> removeRuleQuery(Monitor monitor, String ruleId) {
+        List<DocLevelQuery> queries = docLevelQueries(monitor);
+        if (queries == null || queries.removeIf(query -> ruleId.equals(query.getId())) == false || queries.isEmpty()) {
+            return null;
+        }
+        return queries;
+    }
+
+    private static List<DocLevelQuery> docLevelQueries(Monitor monitor) {
+        if (monitor.getInputs().isEmpty() || monitor.getInputs().get(0) instanceof DocLevelMonitorInput == false) {
+            return null;
+        }
+        return new ArrayList<>(((DocLevelMonitorInput) monitor.getInputs().get(0)).getQueries());
+    }
+
+    static IndexMonitorRequest patchMonitorRequest(Monitor monitor, List<DocLevelQuery> queries, long seqNo, long primaryTerm,
+                                                   WriteRequest.RefreshPolicy refreshPolicy) {
+        DocLevelMonitorInput input = (DocLevelMonitorInput) monitor.getInputs().get(0);
+        List<Input> inputs = new ArrayList<>(monitor.getInputs());
+        inputs.set(0, new DocLevelMonitorInput(input.getDescription(), input.getIndices(), queries));
+        Monitor updatedMonitor = new Monitor(monitor.getId(), monitor.getVersion(), monitor.getName(), monitor.getEnabled(), monitor.getSchedule(),
+                Instant.now(), monitor.getEnabledTime(), monitor.getMonitorType(), monitor.getUser(), monitor.getSchemaVersion(), inputs,
+                monitor.getTriggers(), monitor.getUiMetadata(), monitor.getDataSources(), monitor.getOwner());
+        return new IndexMonitorRequest(monitor.getId(), seqNo, primaryTerm, refreshPolicy, RestRequest.Method.PUT, updatedMonitor, null);
+    }
+}
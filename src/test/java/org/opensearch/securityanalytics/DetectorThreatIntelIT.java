@@ -16,13 +16,19 @@ import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.DetectorInput;
 import org.opensearch.securityanalytics.model.DetectorRule;
 import org.opensearch.securityanalytics.model.DetectorTrigger;
+import org.opensearch.securityanalytics.threatIntel.jobscheduler.TIFJobParameter;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.emptyList;
 import static org.opensearch.securityanalytics.TestHelpers.randomDetectorType;
@@ -78,6 +84,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getRuleIndex(randomDetectorType()), request, true);
 
 
+        // the trigger covers both detection types, so the threat intel query is matched by the doc level monitor of the rules
         assertEquals(2, response.getHits().getTotalHits().value);
 
         assertEquals("Create detector failed", RestStatus.CREATED, restStatus(createResponse));
@@ -118,7 +125,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(2, noOfSigmaRuleMatches);
         String threatIntelDocLevelQueryId = docLevelQueryResults.keySet().stream().filter(id -> id.startsWith("threat_intel")).findAny().get();
@@ -148,11 +155,55 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
     }
 
+    @SuppressWarnings("unchecked")
+    public void testConcurrentDetectorCreationBootstrapsThreatIntelFeedOnce() throws Exception {
+        String index = createTestIndex(randomIndex(), windowsIndexMapping());
+
+        Request createMappingRequest = new Request("POST", SecurityAnalyticsPlugin.MAPPER_BASE_URI);
+        createMappingRequest.setJsonEntity(
+                "{ \"index_name\":\"" + index + "\"," +
+                        "  \"rule_topic\":\"" + randomDetectorType() + "\", " +
+                        "  \"partial\":true" +
+                        "}"
+        );
+        Response createMappingResponse = client().performRequest(createMappingRequest);
+        assertEquals(HttpStatus.SC_OK, createMappingResponse.getStatusLine().getStatusCode());
+
+        String randomDocRuleId = createRule(randomRule());
+        DetectorInput input = new DetectorInput("windows detector for security analytics", List.of("windows"),
+                List.of(new DetectorRule(randomDocRuleId)), emptyList());
+
+        int detectors = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(detectors);
+        try {
+            List<Future<Response>> createResponses = new ArrayList<>();
+            for (int i = 0; i < detectors; ++i) {
+                createResponses.add(executor.submit(() -> makeRequest(client(), "POST", SecurityAnalyticsPlugin.DETECTOR_BASE_URI, Collections.emptyMap(),
+                        toHttpEntity(randomDetectorWithInputsAndThreatIntel(List.of(input), true)))));
+            }
+            for (Future<Response> createResponse: createResponses) {
+                assertEquals("Create detector failed", RestStatus.CREATED, restStatus(createResponse.get(2, TimeUnit.MINUTES)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // a single feed updater job, whose feed indices are the only ones downloaded
+        List<SearchHit> jobs = executeSearch(SecurityAnalyticsPlugin.JOB_INDEX_NAME, getMatchAllSearchRequestString(10));
+        assertEquals(1, jobs.size());
+        List<String> jobIndices = (List<String>) jobs.get(0).getSourceAsMap().get("indices");
+
+        Response feedIndicesResponse = makeRequest(client(), "GET", TIFJobParameter.THREAT_INTEL_DATA_INDEX_NAME_PREFIX + "*/_settings",
+                Map.of("expand_wildcards", "all"), null);
+        assertEquals(new HashSet<>(jobIndices), asMap(feedIndicesResponse).keySet());
+        assertFalse(getThreatIntelFeedIocs(1).isEmpty());
+    }
+
     public void testCreateDetectorForSigmaRuleWithNullCondition() throws IOException {
 
         updateClusterSetting(ENABLE_WORKFLOW_USAGE.getKey(), "true");
@@ -222,7 +273,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String queryId = docLevelQueryResults.keySet().stream().findAny().get();
@@ -312,7 +363,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
 
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
 
@@ -330,9 +381,9 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         executeResponse = executeAlertingWorkflow(workflowId, Collections.emptyMap());
 
         monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
-        assertEquals(1, monitorRunResults.size());
+        assertEquals(2, monitorRunResults.size());
 
-        docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(2, noOfSigmaRuleMatches);
     }
@@ -372,7 +423,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
                 "     }\n" +
                 "   }\n" +
                 "}";
-        SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getRuleIndex(randomDetectorType()), request, true);
+        SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getThreatIntelRuleIndex(randomDetectorType()), request, true);
 
 
         assertEquals(1, response.getHits().getTotalHits().value);
@@ -415,7 +466,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String threatIntelDocLevelQueryId = docLevelQueryResults.keySet().stream().filter(id -> id.startsWith("threat_intel")).findAny().get();
@@ -466,7 +517,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
                 "     }\n" +
                 "   }\n" +
                 "}";
-        SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getRuleIndex(randomDetectorType()), request, true);
+        SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getThreatIntelRuleIndex(randomDetectorType()), request, true);
 
 
         assertEquals(1, response.getHits().getTotalHits().value);
@@ -509,7 +560,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String threatIntelDocLevelQueryId = docLevelQueryResults.keySet().stream().filter(id -> id.startsWith("threat_intel")).findAny().get();
@@ -604,7 +655,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String threatIntelDocLevelQueryId = docLevelQueryResults.keySet().stream().filter(id -> id.startsWith("threat_intel")).findAny().get();
@@ -696,7 +747,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String ruleQueryId = docLevelQueryResults.keySet().stream().findAny().get();
@@ -788,7 +839,7 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         List<Map<String, Object>> monitorRunResults = (List<Map<String, Object>>) entityAsMap(executeResponse).get("monitor_run_results");
         assertEquals(1, monitorRunResults.size());
 
-        Map<String, Object> docLevelQueryResults = ((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResults.get(0).get("input_results")).get("results")).get(0);
+        Map<String, Object> docLevelQueryResults = docLevelQueryResults(monitorRunResults);
         int noOfSigmaRuleMatches = docLevelQueryResults.size();
         assertEquals(1, noOfSigmaRuleMatches);
         String ruleQueryId = docLevelQueryResults.keySet().stream().findAny().get();
@@ -802,4 +853,16 @@ public class DetectorThreatIntelIT extends SecurityAnalyticsRestTestCase {
         /** findings are present but alerts are NOT generated as  detection type mentioned in trigger is threat_intel only but finding is from rules*/
         Assert.assertEquals(3, getAlertsBody.get("total_alerts"));
     }
+
+    /**
+     * Merges the doc level query results of the monitors of a workflow run, the threat intel queries being matched by a
+     * monitor of their own.
+     */
+    private static Map<String, Object> docLevelQueryResults(List<Map<String, Object>> monitorRunResults) {
+        Map<String, Object> docLevelQueryResults = new HashMap<>();
+        for (Map<String, Object> monitorRunResult : monitorRunResults) {
+            docLevelQueryResults.putAll(((List<Map<String, Object>>) ((Map<String, Object>) monitorRunResult.get("input_results")).get("results")).get(0));
+        }
+        return docLevelQueryResults;
+    }
 }
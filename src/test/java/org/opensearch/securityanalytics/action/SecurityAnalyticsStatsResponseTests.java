@@ -0,0 +1,60 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.junit.Assert;
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.util.DetectorCache;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class SecurityAnalyticsStatsResponseTests extends OpenSearchTestCase {
+
+    public void testStatsResponse() throws IOException {
+        DiscoveryNode node = new DiscoveryNode("node-1", buildNewFakeTransportAddress(), Version.CURRENT);
+        SecurityAnalyticsStatsResponse.NodeResponse nodeResponse = new SecurityAnalyticsStatsResponse.NodeResponse(node,
+                new DetectorCache.Stats(4L, 10L, 2L, 1L), Map.of(
+                CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, new CorrelationSearchBatcher.StageStats(2L, 2L, 3L, 1L, 0L, 7L)
+        ));
+        SecurityAnalyticsStatsResponse response = new SecurityAnalyticsStatsResponse(new ClusterName("test"), List.of(nodeResponse), List.of());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        StreamInput sin = StreamInput.wrap(out.bytes().toBytesRef().bytes);
+        SecurityAnalyticsStatsResponse newResponse = new SecurityAnalyticsStatsResponse(sin);
+
+        Assert.assertEquals(1, newResponse.getNodes().size());
+        DetectorCache.Stats detectorCache = newResponse.getNodes().get(0).getDetectorCache();
+        Assert.assertEquals(4L, detectorCache.getCount());
+        Assert.assertEquals(10L, detectorCache.getHits());
+        Assert.assertEquals(2L, detectorCache.getMisses());
+        Assert.assertEquals(1L, detectorCache.getEvictions());
+        CorrelationSearchBatcher.StageStats stats = newResponse.getNodes().get(0).getCorrelationSearchStages().get(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS);
+        Assert.assertEquals(2L, stats.getSubmitted());
+        Assert.assertEquals(2L, stats.getCompleted());
+        Assert.assertEquals(3L, stats.getSearches());
+        Assert.assertEquals(1L, stats.getBatches());
+        Assert.assertEquals(0L, stats.getFailures());
+        Assert.assertEquals(7L, stats.getTotalTimeInMillis());
+
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        newResponse.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        String json = builder.toString();
+        Assert.assertTrue(json.contains("\"node-1\""));
+        Assert.assertTrue(json.contains("\"detector_cache\":{\"count\":4,\"hits\":10,\"misses\":2,\"evictions\":1}"));
+        Assert.assertTrue(json.contains("\"valid_documents\":{\"submitted\":2,\"completed\":2,\"searches\":3,\"batches\":1,\"failures\":0,\"total_time_in_millis\":7}"));
+    }
+}
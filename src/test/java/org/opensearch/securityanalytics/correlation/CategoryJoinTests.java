@@ -0,0 +1,90 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.junit.Assert;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.MatchPhraseQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryStringQueryBuilder;
+import org.opensearch.index.query.TermsQueryBuilder;
+import org.opensearch.securityanalytics.model.CorrelationQuery;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CategoryJoinTests extends OpenSearchTestCase {
+
+    public void testFieldJoinValuesAreDeduplicatedPerField() {
+        CategoryJoin categoryJoin = new CategoryJoin();
+        categoryJoin.addQueryJoin(new CorrelationQuery("windows", "EventID:4625", "windows", null));
+        categoryJoin.addFieldJoin(new CorrelationQuery("windows", null, "windows", "host.ip"), List.of("10.0.0.1", "10.0.0.2"));
+        categoryJoin.addFieldJoin(new CorrelationQuery("windows", null, "windows", "host.ip"), List.of("10.0.0.2", "10.0.0.3"));
+        categoryJoin.addFieldJoin(new CorrelationQuery("windows-2", "EventID:1", "windows", "user.name"), List.of("o'brien \"admin\""));
+
+        Assert.assertEquals(List.of("windows", "windows-2"), categoryJoin.getIndices());
+
+        List<QueryBuilder> queries = categoryJoin.toQueries();
+        Assert.assertEquals(3, queries.size());
+        Assert.assertEquals("EventID:4625", ((QueryStringQueryBuilder) queries.get(0)).queryString());
+
+        BoolQueryBuilder hostJoin = (BoolQueryBuilder) queries.get(1);
+        Assert.assertEquals(1, hostJoin.should().size());
+        Assert.assertTrue(hostJoin.filter().isEmpty());
+        TermsQueryBuilder hostTerms = (TermsQueryBuilder) hostJoin.should().get(0);
+        Assert.assertEquals("host.ip", hostTerms.fieldName());
+        Assert.assertEquals(List.of("10.0.0.1", "10.0.0.2", "10.0.0.3"), hostTerms.values());
+
+        // join values are matched as terms, special characters need no escaping
+        BoolQueryBuilder userJoin = (BoolQueryBuilder) queries.get(2);
+        Assert.assertEquals(List.of("o'brien \"admin\""), ((TermsQueryBuilder) userJoin.should().get(0)).values());
+        Assert.assertEquals("EventID:1", ((QueryStringQueryBuilder) userJoin.filter().get(0)).queryString());
+    }
+
+    public void testFieldJoinIsChunked() {
+        List<Object> values = new ArrayList<>();
+        for (long i = 0; i < CategoryJoin.JOIN_TERMS_CHUNK_SIZE * 2 + 1; ++i) {
+            values.add(i);
+        }
+
+        BoolQueryBuilder fieldJoin = (BoolQueryBuilder) CategoryJoin.fieldJoinQuery("process.pid", values, null);
+        Assert.assertEquals(3, fieldJoin.should().size());
+        Assert.assertEquals("1", fieldJoin.minimumShouldMatch());
+        Assert.assertEquals(CategoryJoin.JOIN_TERMS_CHUNK_SIZE, ((TermsQueryBuilder) fieldJoin.should().get(0)).values().size());
+        Assert.assertEquals(List.of((long) CategoryJoin.JOIN_TERMS_CHUNK_SIZE * 2), ((TermsQueryBuilder) fieldJoin.should().get(2)).values());
+    }
+
+    public void testTextFieldIsJoinedOnKeywordSubField() {
+        CategoryJoin categoryJoin = new CategoryJoin();
+        categoryJoin.addFieldJoin(new CorrelationQuery("vpc_flow", null, "network", "srcaddr"), List.of("10.0.0.1"));
+        categoryJoin.addFieldJoin(new CorrelationQuery("vpc_flow", null, "network", "dstaddr"), List.of("10.0.0.2"));
+        categoryJoin.setFieldTypes(Map.of("srcaddr", "text", "srcaddr.keyword", "keyword", "dstaddr", "ip"));
+
+        Assert.assertEquals(List.of("srcaddr", "dstaddr"), List.copyOf(categoryJoin.getJoinFields()));
+
+        List<QueryBuilder> queries = categoryJoin.toQueries();
+        TermsQueryBuilder srcTerms = (TermsQueryBuilder) ((BoolQueryBuilder) queries.get(0)).should().get(0);
+        Assert.assertEquals("srcaddr.keyword", srcTerms.fieldName());
+        Assert.assertEquals(List.of("10.0.0.1"), srcTerms.values());
+        TermsQueryBuilder dstTerms = (TermsQueryBuilder) ((BoolQueryBuilder) queries.get(1)).should().get(0);
+        Assert.assertEquals("dstaddr", dstTerms.fieldName());
+    }
+
+    public void testTextFieldWithoutKeywordIsJoinedOnPhrases() {
+        CategoryJoin categoryJoin = new CategoryJoin();
+        categoryJoin.addFieldJoin(new CorrelationQuery("windows", "EventID:4625", "windows", "SourceIp"), List.of("10.0.0.1", "10.0.0.2"));
+        categoryJoin.setFieldTypes(Map.of("SourceIp", "text"));
+
+        BoolQueryBuilder sourceIpJoin = (BoolQueryBuilder) categoryJoin.toQueries().get(0);
+        Assert.assertEquals("1", sourceIpJoin.minimumShouldMatch());
+        Assert.assertEquals("EventID:4625", ((QueryStringQueryBuilder) sourceIpJoin.filter().get(0)).queryString());
+        List<QueryBuilder> phrases = ((BoolQueryBuilder) sourceIpJoin.should().get(0)).should();
+        Assert.assertEquals(2, phrases.size());
+        Assert.assertEquals("SourceIp", ((MatchPhraseQueryBuilder) phrases.get(0)).fieldName());
+        Assert.assertEquals("10.0.0.2", ((MatchPhraseQueryBuilder) phrases.get(1)).value());
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.ClearScrollResponse;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationCandidateStreamerTests extends OpenSearchTestCase {
+
+    private static final int PAGE_SIZE = 10;
+
+    private Client client;
+
+    private CorrelationSearchBatcher correlationSearchBatcher;
+
+    /**
+     * Hits of each search, by index name
+     */
+    private final Map<String, List<SearchHit>> hitsByIndex = new HashMap<>();
+
+    private static List<SearchHit> hits(String index, int count) {
+        List<SearchHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            hits.add(new SearchHit(i, index + "-" + i, Map.of(), Map.of()));
+        }
+        return hits;
+    }
+
+    private static SearchResponse page(List<SearchHit> hits, int from, int size, String scrollId) {
+        List<SearchHit> pageHits = hits.subList(Math.min(from, hits.size()), Math.min(from + size, hits.size()));
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.getHits()).thenReturn(new SearchHits(pageHits.toArray(new SearchHit[0]),
+                new TotalHits(hits.size(), TotalHits.Relation.EQUAL_TO), 1.0f));
+        when(searchResponse.getScrollId()).thenReturn(scrollId);
+        return searchResponse;
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUpClient() {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        client = mock(Client.class);
+        when(client.threadPool()).thenReturn(threadPool);
+
+        correlationSearchBatcher = mock(CorrelationSearchBatcher.class);
+        doAnswer(invocation -> {
+            MultiSearchRequest request = invocation.getArgument(1);
+            MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[request.requests().size()];
+            for (int i = 0; i < items.length; ++i) {
+                SearchRequest searchRequest = request.requests().get(i);
+                List<SearchHit> hits = hitsByIndex.get(searchRequest.indices()[0]);
+                items[i] = hits == null ? new MultiSearchResponse.Item(null, new IllegalStateException("no such index")) :
+                        new MultiSearchResponse.Item(page(hits, 0, searchRequest.source().size(), null), null);
+            }
+            ((ActionListener<MultiSearchResponse>) invocation.getArgument(2)).onResponse(new MultiSearchResponse(items, 1L));
+            return null;
+        }).when(correlationSearchBatcher).multiSearch(any(CorrelationSearchBatcher.Stage.class), any(MultiSearchRequest.class), any(ActionListener.class));
+
+        // scroll ids are "<index>:<offset of the next page>"
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            String index = request.indices()[0];
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(
+                    page(hitsByIndex.get(index), 0, request.source().size(), index + ":" + request.source().size()));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            String[] scrollId = ((SearchScrollRequest) invocation.getArgument(0)).scrollId().split(":");
+            int from = Integer.parseInt(scrollId[1]);
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(
+                    page(hitsByIndex.get(scrollId[0]), from, PAGE_SIZE, scrollId[0] + ":" + (from + PAGE_SIZE)));
+            return null;
+        }).when(client).searchScroll(any(SearchScrollRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            ((ActionListener<ClearScrollResponse>) invocation.getArgument(1)).onResponse(null);
+            return null;
+        }).when(client).clearScroll(any(ClearScrollRequest.class), any(ActionListener.class));
+    }
+
+    private CorrelationCandidateStreamer candidateStreamer(int maxCandidates) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_CANDIDATE_PAGE_SIZE.getKey(), PAGE_SIZE)
+                .put(SecurityAnalyticsSettings.CORRELATION_MAX_CANDIDATES_PER_FINDING.getKey(), maxCandidates)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_CANDIDATE_PAGE_SIZE, SecurityAnalyticsSettings.CORRELATION_MAX_CANDIDATES_PER_FINDING)));
+        return new CorrelationCandidateStreamer(client, clusterService, correlationSearchBatcher);
+    }
+
+    private static MultiSearchRequest mSearchRequest(int size, String... indices) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (String index: indices) {
+            mSearchRequest.add(new SearchRequest(index).source(new SearchSourceBuilder().size(size)));
+        }
+        return mSearchRequest;
+    }
+
+    private static Map<Integer, Set<String>> stream(CorrelationCandidateStreamer streamer, MultiSearchRequest request,
+                                                    CorrelationCandidateStreamer.Budget budget, boolean more) throws Exception {
+        Map<Integer, Set<String>> ids = new HashMap<>();
+        PlainActionFuture<Void> future = new PlainActionFuture<>();
+        streamer.multiSearch(CorrelationSearchBatcher.Stage.FINDINGS_BY_TIMESTAMP, request, budget, (item, hits) -> {
+            Set<String> itemIds = ids.computeIfAbsent(item, k -> new HashSet<>());
+            for (SearchHit hit: hits) {
+                itemIds.add(hit.getId());
+            }
+            return more;
+        }, future);
+        future.get(10, TimeUnit.SECONDS);
+        return ids;
+    }
+
+    public void testFullFirstPageIsStreamedToTheEnd() throws Exception {
+        hitsByIndex.put("busy", hits("busy", PAGE_SIZE * 2 + 4));
+        hitsByIndex.put("quiet", hits("quiet", 3));
+        CorrelationCandidateStreamer streamer = candidateStreamer(1000);
+
+        Map<Integer, Set<String>> ids = stream(streamer, mSearchRequest(PAGE_SIZE, "busy", "missing", "quiet"),
+                streamer.newBudget("finding-1"), true);
+
+        Assert.assertEquals(PAGE_SIZE * 2 + 4, ids.get(0).size());
+        Assert.assertNull(ids.get(1));
+        Assert.assertEquals(3, ids.get(2).size());
+        verify(client, times(1)).search(any(SearchRequest.class), any(ActionListener.class));
+        verify(client, times(2)).searchScroll(any(SearchScrollRequest.class), any(ActionListener.class));
+        verify(client, times(1)).clearScroll(any(ClearScrollRequest.class), any(ActionListener.class));
+    }
+
+    public void testStreamingStopsWhenBudgetIsExhausted() throws Exception {
+        hitsByIndex.put("busy", hits("busy", PAGE_SIZE * 5));
+        hitsByIndex.put("quiet", hits("quiet", 3));
+        CorrelationCandidateStreamer streamer = candidateStreamer(PAGE_SIZE + 5);
+
+        CorrelationCandidateStreamer.Budget budget = streamer.newBudget("finding-1");
+        Map<Integer, Set<String>> ids = stream(streamer, mSearchRequest(PAGE_SIZE, "busy", "quiet"), budget, true);
+
+        // first pages take 13 candidates, the scroll of the busy search skips its first page and gets the 2 left
+        Assert.assertEquals(PAGE_SIZE + 2, ids.get(0).size());
+        Assert.assertEquals(3, ids.get(1).size());
+        Assert.assertTrue(budget.isExhausted());
+        Assert.assertEquals(0, budget.getRemaining());
+        verify(client, times(1)).searchScroll(any(SearchScrollRequest.class), any(ActionListener.class));
+        verify(client, times(1)).clearScroll(any(ClearScrollRequest.class), any(ActionListener.class));
+
+        // later stages of the same finding get no candidates
+        Assert.assertTrue(stream(streamer, mSearchRequest(PAGE_SIZE, "quiet"), budget, true).get(0).isEmpty());
+    }
+
+    public void testConsumerStopsStreaming() throws Exception {
+        hitsByIndex.put("busy", hits("busy", PAGE_SIZE * 5));
+        CorrelationCandidateStreamer streamer = candidateStreamer(1000);
+
+        CorrelationCandidateStreamer.Budget budget = streamer.newBudget("finding-1");
+        Map<Integer, Set<String>> ids = stream(streamer, mSearchRequest(1, "busy"), budget, false);
+
+        Assert.assertEquals(Set.of("busy-0"), ids.get(0));
+        Assert.assertEquals(999, budget.getRemaining());
+        verify(client, never()).search(any(SearchRequest.class), any(ActionListener.class));
+    }
+
+    public void testFirstPageIsNotStreamedTwice() throws Exception {
+        hitsByIndex.put("busy", hits("busy", PAGE_SIZE * 2 + 4));
+        CorrelationCandidateStreamer streamer = candidateStreamer(1000);
+
+        List<String> ids = new ArrayList<>();
+        CorrelationCandidateStreamer.Budget budget = streamer.newBudget("finding-1");
+        PlainActionFuture<Void> future = new PlainActionFuture<>();
+        streamer.multiSearch(CorrelationSearchBatcher.Stage.FINDINGS_BY_TIMESTAMP, mSearchRequest(PAGE_SIZE, "busy"), budget, (item, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(hit.getId());
+            }
+            return true;
+        }, future);
+        future.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(PAGE_SIZE * 2 + 4, ids.size());
+        Assert.assertEquals(PAGE_SIZE * 2 + 4, new HashSet<>(ids).size());
+        Assert.assertEquals(1000 - PAGE_SIZE * 2 - 4, budget.getRemaining());
+    }
+}
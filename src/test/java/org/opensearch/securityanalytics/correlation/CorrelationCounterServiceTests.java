@@ -0,0 +1,196 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationCounterServiceTests extends OpenSearchTestCase {
+
+    private Client client;
+
+    private final List<IndexRequest> indexRequests = new ArrayList<>();
+
+    private Exception indexFailure;
+
+    @SuppressWarnings("unchecked")
+    private CorrelationCounterService correlationCounterService() {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL.getKey(), "1h")
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.INDEX_TIMEOUT, SecurityAnalyticsSettings.CORRELATION_ROOT_COUNTER_REFRESH_INTERVAL)));
+
+        client = mock(Client.class);
+        doAnswer(invocation -> {
+            SearchResponse searchResponse = mock(SearchResponse.class);
+            when(searchResponse.getHits()).thenReturn(new SearchHits(
+                    new SearchHit[] { new SearchHit(1, "root-id", Map.of(), Map.of()) },
+                    new TotalHits(1L, TotalHits.Relation.EQUAL_TO),
+                    1.0f
+            ));
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            GetResponse getResponse = mock(GetResponse.class);
+            when(getResponse.isExists()).thenReturn(true);
+            when(getResponse.getSourceAsMap()).thenReturn(Map.of("root", true, "counter", 100, "timestamp", 1000L));
+            when(getResponse.getSeqNo()).thenReturn(7L);
+            when(getResponse.getPrimaryTerm()).thenReturn(1L);
+            ((ActionListener<GetResponse>) invocation.getArgument(1)).onResponse(getResponse);
+            return null;
+        }).when(client).get(any(GetRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            indexRequests.add(invocation.getArgument(0));
+            if (indexFailure != null) {
+                ((ActionListener<IndexResponse>) invocation.getArgument(1)).onFailure(indexFailure);
+            } else {
+                IndexResponse indexResponse = mock(IndexResponse.class);
+                when(indexResponse.getSeqNo()).thenReturn(8L);
+                when(indexResponse.getPrimaryTerm()).thenReturn(1L);
+                ((ActionListener<IndexResponse>) invocation.getArgument(1)).onResponse(indexResponse);
+            }
+            return null;
+        }).when(client).index(any(IndexRequest.class), any(ActionListener.class));
+
+        return new CorrelationCounterService(client, clusterService);
+    }
+
+    private CorrelationCounterService.RootCounter getRootCounter(CorrelationCounterService service) {
+        AtomicReference<CorrelationCounterService.RootCounter> rootCounter = new AtomicReference<>();
+        service.getRootCounter(ActionListener.wrap(rootCounter::set, e -> fail()));
+        return rootCounter.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRootCounterIsReadOnce() {
+        CorrelationCounterService service = correlationCounterService();
+
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+        Assert.assertEquals("root-id", rootCounter.getId());
+        Assert.assertEquals(100L, rootCounter.getCounter());
+        Assert.assertEquals(1000L, rootCounter.getTimestamp());
+
+        Assert.assertSame(rootCounter, getRootCounter(service));
+        verify(client, times(1)).search(any(SearchRequest.class), any(ActionListener.class));
+        verify(client, times(1)).get(any(GetRequest.class), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testUpdateIsCompareAndSet() {
+        CorrelationCounterService service = correlationCounterService();
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+
+        AtomicReference<CorrelationCounterService.RootCounter> updated = new AtomicReference<>();
+        service.updateRootCounter(rootCounter, 150L, 2000L, ActionListener.wrap(updated::set, e -> fail()));
+
+        Assert.assertEquals(1, indexRequests.size());
+        Assert.assertEquals("root-id", indexRequests.get(0).id());
+        Assert.assertEquals(7L, indexRequests.get(0).ifSeqNo());
+        Assert.assertEquals(1L, indexRequests.get(0).ifPrimaryTerm());
+        Assert.assertEquals(150L, updated.get().getCounter());
+        Assert.assertEquals(8L, updated.get().getSeqNo());
+
+        Assert.assertSame(updated.get(), getRootCounter(service));
+        verify(client, times(1)).get(any(GetRequest.class), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testConflictReloadsRootCounter() {
+        CorrelationCounterService service = correlationCounterService();
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+
+        indexFailure = new VersionConflictEngineException(new ShardId("index", "uuid", 0), "root-id", "conflict");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        service.updateRootCounter(rootCounter, 150L, 2000L, ActionListener.wrap(r -> fail(), failure::set));
+        Assert.assertTrue(CorrelationCounterService.isUpdateConflict(failure.get()));
+
+        Assert.assertEquals(100L, getRootCounter(service).getCounter());
+        verify(client, times(1)).search(any(SearchRequest.class), any(ActionListener.class));
+        verify(client, times(2)).get(any(GetRequest.class), any(ActionListener.class));
+    }
+
+    public void testCollisionsAreServedFromLease() {
+        CorrelationCounterService service = correlationCounterService();
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+
+        AtomicReference<Long> next = new AtomicReference<>();
+        service.nextCounter(rootCounter, 100L, 2000L, 10000L, ActionListener.wrap(next::set, e -> fail()));
+        Assert.assertEquals(150L, next.get().longValue());
+        Assert.assertEquals(1, indexRequests.size());
+
+        CorrelationCounterService.RootCounter leasedRootCounter = getRootCounter(service);
+        long end = 100L + CorrelationCounterService.COUNTER_STEP * CorrelationCounterService.COUNTER_LEASE_SIZE;
+        Assert.assertEquals(end, leasedRootCounter.getCounter());
+        Assert.assertEquals(150L, service.getCounter(leasedRootCounter, 2000L, 10000L));
+
+        for (long counter = 150L; counter + CorrelationCounterService.COUNTER_STEP < end; counter += CorrelationCounterService.COUNTER_STEP) {
+            service.nextCounter(leasedRootCounter, counter, 2000L, 10000L, ActionListener.wrap(next::set, e -> fail()));
+            Assert.assertEquals(counter + CorrelationCounterService.COUNTER_STEP, next.get().longValue());
+        }
+        Assert.assertEquals(1, indexRequests.size());
+
+        // the lease is used up, the next collision leases again
+        service.nextCounter(leasedRootCounter, next.get(), 2000L, 10000L, ActionListener.wrap(next::set, e -> fail()));
+        Assert.assertEquals(end + CorrelationCounterService.COUNTER_STEP, next.get().longValue());
+        Assert.assertEquals(2, indexRequests.size());
+    }
+
+    public void testLeaseIsDroppedAfterTimeWindow() {
+        CorrelationCounterService service = correlationCounterService();
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+
+        AtomicReference<Long> next = new AtomicReference<>();
+        service.nextCounter(rootCounter, 100L, 2000L, 10000L, ActionListener.wrap(next::set, e -> fail()));
+        CorrelationCounterService.RootCounter leasedRootCounter = getRootCounter(service);
+
+        Assert.assertEquals(leasedRootCounter.getCounter(), service.getCounter(leasedRootCounter, 20000L, 10000L));
+    }
+
+    public void testFailedLeaseIsNotKept() {
+        CorrelationCounterService service = correlationCounterService();
+        CorrelationCounterService.RootCounter rootCounter = getRootCounter(service);
+
+        indexFailure = new VersionConflictEngineException(new ShardId("index", "uuid", 0), "root-id", "conflict");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        service.nextCounter(rootCounter, 100L, 2000L, 10000L, ActionListener.wrap(r -> fail(), failure::set));
+        Assert.assertTrue(CorrelationCounterService.isUpdateConflict(failure.get()));
+
+        Assert.assertEquals(100L, service.getCounter(getRootCounter(service), 2000L, 10000L));
+    }
+}
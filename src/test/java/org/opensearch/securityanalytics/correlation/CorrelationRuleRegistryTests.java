@@ -0,0 +1,195 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.junit.Before;
+import org.opensearch.Version;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshResponse;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.ClearScrollResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.client.AdminClient;
+import org.opensearch.client.Client;
+import org.opensearch.client.IndicesAdminClient;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.model.CorrelationQuery;
+import org.opensearch.securityanalytics.model.CorrelationRule;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CorrelationRuleRegistryTests extends OpenSearchTestCase {
+
+    private static final int NUMBER_OF_RULES = CorrelationRuleRegistry.LOAD_PAGE_SIZE * 2 + 10;
+
+    private Client client;
+
+    private final List<SearchHit> ruleHits = new ArrayList<>();
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    private final AtomicInteger scrollSearches = new AtomicInteger();
+
+    private final AtomicInteger clearedScrolls = new AtomicInteger();
+
+    private static CorrelationRule rule(String id, String... categories) {
+        List<CorrelationQuery> queries = new ArrayList<>();
+        for (String category: categories) {
+            queries.add(new CorrelationQuery("logs-" + category, "EventID:1", category, null));
+        }
+        queries.add(new CorrelationQuery("logs-" + categories[0], null, categories[0], "host"));
+        return new CorrelationRule(id, 1L, id, queries, 300000L);
+    }
+
+    private static SearchHit ruleHit(CorrelationRule rule) throws Exception {
+        SearchHit hit = new SearchHit(0, rule.getId(), Map.of(), Map.of());
+        hit.sourceRef(BytesReference.bytes(rule.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS)));
+        hit.version(rule.getVersion());
+        return hit;
+    }
+
+    private static SearchResponse page(List<SearchHit> hits, String scrollId) {
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.getHits()).thenReturn(new SearchHits(hits.toArray(new SearchHit[0]),
+                new TotalHits(NUMBER_OF_RULES, TotalHits.Relation.EQUAL_TO), 1.0f));
+        when(searchResponse.getScrollId()).thenReturn(scrollId);
+        return searchResponse;
+    }
+
+    private List<SearchHit> hitsFrom(int from) {
+        return ruleHits.subList(from, Math.min(from + CorrelationRuleRegistry.LOAD_PAGE_SIZE, ruleHits.size()));
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUpClient() throws Exception {
+        for (int i = 0; i < NUMBER_OF_RULES; ++i) {
+            ruleHits.add(ruleHit(i % 2 == 0 ? rule("rule-" + i, "windows", "network") : rule("rule-" + i, "ad_ldap")));
+        }
+
+        AdminClient adminClient = mock(AdminClient.class);
+        IndicesAdminClient indicesAdminClient = mock(IndicesAdminClient.class);
+        client = mock(Client.class);
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.indices()).thenReturn(indicesAdminClient);
+        doAnswer(invocation -> {
+            ((ActionListener<RefreshResponse>) invocation.getArgument(1)).onResponse(null);
+            return null;
+        }).when(indicesAdminClient).refresh(any(RefreshRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            searches.incrementAndGet();
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(page(hitsFrom(0), "0"));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            SearchScrollRequest request = invocation.getArgument(0);
+            int page = Integer.parseInt(request.scrollId()) + 1;
+            scrollSearches.incrementAndGet();
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(
+                    page(hitsFrom(page * CorrelationRuleRegistry.LOAD_PAGE_SIZE), String.valueOf(page)));
+            return null;
+        }).when(client).searchScroll(any(SearchScrollRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            clearedScrolls.incrementAndGet();
+            ((ActionListener<ClearScrollResponse>) invocation.getArgument(1)).onResponse(null);
+            return null;
+        }).when(client).clearScroll(any(ClearScrollRequest.class), any(ActionListener.class));
+    }
+
+    private CorrelationRuleRegistry correlationRuleRegistry() {
+        IndexMetadata indexMetadata = IndexMetadata.builder(CorrelationRule.CORRELATION_RULE_INDEX)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        ClusterState clusterState = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder().put(indexMetadata, false))
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        when(clusterService.state()).thenReturn(clusterState);
+        return new CorrelationRuleRegistry(client, clusterService, NamedXContentRegistry.EMPTY);
+    }
+
+    private static List<CompiledCorrelationRule> getRules(CorrelationRuleRegistry registry, String category) throws Exception {
+        PlainActionFuture<List<CompiledCorrelationRule>> future = new PlainActionFuture<>();
+        registry.getRules(category, future);
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    public void testAllRulesAreLoadedAcrossPages() throws Exception {
+        CorrelationRuleRegistry registry = correlationRuleRegistry();
+
+        List<CompiledCorrelationRule> windowsRules = getRules(registry, "windows");
+        Assert.assertEquals(NUMBER_OF_RULES / 2, windowsRules.size());
+        Assert.assertEquals(NUMBER_OF_RULES / 2, getRules(registry, "network").size());
+        Assert.assertEquals(NUMBER_OF_RULES / 2, getRules(registry, "AD_LDAP").size());
+        Assert.assertTrue(getRules(registry, "s3").isEmpty());
+        Assert.assertEquals("rule-" + (NUMBER_OF_RULES - 2), windowsRules.get(windowsRules.size() - 1).getId());
+
+        Assert.assertEquals(1, searches.get());
+        Assert.assertEquals(2, scrollSearches.get());
+        Assert.assertEquals(1, clearedScrolls.get());
+    }
+
+    public void testRulesAreReloadedAfterInvalidation() throws Exception {
+        CorrelationRuleRegistry registry = correlationRuleRegistry();
+
+        getRules(registry, "windows");
+        getRules(registry, "network");
+        Assert.assertEquals(1, searches.get());
+
+        registry.invalidate();
+        ruleHits.subList(1, ruleHits.size()).clear();
+        Assert.assertEquals(1, getRules(registry, "windows").size());
+        Assert.assertTrue(getRules(registry, "ad_ldap").isEmpty());
+        Assert.assertEquals(2, searches.get());
+    }
+
+    public void testRuleQueriesAreSplitByJoinType() {
+        Map<String, List<CompiledCorrelationRule>> rulesByCategory = CorrelationRuleRegistry.groupByCategory(
+                Arrays.asList(rule("rule-1", "windows", "network"), rule("rule-2", "network")));
+
+        Assert.assertEquals(1, rulesByCategory.get("windows").size());
+        Assert.assertEquals(2, rulesByCategory.get("network").size());
+
+        CompiledCorrelationRule rule = rulesByCategory.get("windows").get(0);
+        Assert.assertEquals("rule-1", rule.getId());
+        Assert.assertEquals(2, rule.getQueryJoins().size());
+        Assert.assertEquals(1, rule.getFieldJoins().size());
+        Assert.assertEquals("host", rule.getFieldJoins().get(0).getField());
+        // the query of the category is the first one listed for it
+        Assert.assertEquals("EventID:1", rule.getQuery("windows").getQuery());
+        Assert.assertNull(rule.getQuery("ad_ldap"));
+    }
+}
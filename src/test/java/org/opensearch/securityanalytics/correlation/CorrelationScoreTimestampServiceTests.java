@@ -0,0 +1,119 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationScoreTimestampServiceTests extends OpenSearchTestCase {
+
+    private static final long SCORE_TIMESTAMP = 1000L;
+
+    private Client client;
+
+    private final List<IndexRequest> indexRequests = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private CorrelationScoreTimestampService correlationScoreTimestampService() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(Settings.EMPTY, Set.of(
+                SecurityAnalyticsSettings.INDEX_TIMEOUT, SecurityAnalyticsSettings.CORRELATION_SCORE_TIMESTAMP_REFRESH_INTERVAL)));
+
+        client = mock(Client.class);
+        doAnswer(invocation -> {
+            SearchResponse searchResponse = mock(SearchResponse.class);
+            when(searchResponse.getHits()).thenReturn(new SearchHits(
+                    new SearchHit[] { new SearchHit(1, "score-id", Map.of(), Map.of()) },
+                    new TotalHits(1L, TotalHits.Relation.EQUAL_TO),
+                    1.0f
+            ));
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            GetResponse getResponse = mock(GetResponse.class);
+            when(getResponse.isExists()).thenReturn(true);
+            when(getResponse.getSourceAsMap()).thenReturn(Map.of("root", false, "scoreTimestamp", SCORE_TIMESTAMP));
+            when(getResponse.getSeqNo()).thenReturn(3L);
+            when(getResponse.getPrimaryTerm()).thenReturn(1L);
+            ((ActionListener<GetResponse>) invocation.getArgument(1)).onResponse(getResponse);
+            return null;
+        }).when(client).get(any(GetRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            indexRequests.add(invocation.getArgument(0));
+            IndexResponse indexResponse = mock(IndexResponse.class);
+            when(indexResponse.getSeqNo()).thenReturn(4L);
+            when(indexResponse.getPrimaryTerm()).thenReturn(1L);
+            ((ActionListener<IndexResponse>) invocation.getArgument(1)).onResponse(indexResponse);
+            return null;
+        }).when(client).index(any(IndexRequest.class), any(ActionListener.class));
+
+        return new CorrelationScoreTimestampService(client, clusterService);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testScoreTimestampIsCached() {
+        CorrelationScoreTimestampService service = correlationScoreTimestampService();
+
+        for (int i = 0; i < 3; ++i) {
+            AtomicReference<Long> scoreTimestamp = new AtomicReference<>();
+            service.getScoreTimestamp(SCORE_TIMESTAMP + 5000L, ActionListener.wrap(scoreTimestamp::set, e -> fail()));
+            Assert.assertEquals(Long.valueOf(SCORE_TIMESTAMP), scoreTimestamp.get());
+        }
+
+        verify(client, times(1)).search(any(SearchRequest.class), any(ActionListener.class));
+        verify(client, times(1)).get(any(GetRequest.class), any(ActionListener.class));
+        Assert.assertTrue(indexRequests.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testScoreTimestampIsAdvanced() {
+        CorrelationScoreTimestampService service = correlationScoreTimestampService();
+        long findingTimestamp = SCORE_TIMESTAMP + CorrelationIndices.FIXED_HISTORICAL_INTERVAL + 5000L;
+
+        AtomicReference<Long> scoreTimestamp = new AtomicReference<>();
+        service.getScoreTimestamp(findingTimestamp, ActionListener.wrap(scoreTimestamp::set, e -> fail()));
+        Assert.assertEquals(Long.valueOf(findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL), scoreTimestamp.get());
+
+        Assert.assertEquals(1, indexRequests.size());
+        Assert.assertEquals("score-id", indexRequests.get(0).id());
+        Assert.assertEquals(3L, indexRequests.get(0).ifSeqNo());
+
+        AtomicReference<Long> cached = new AtomicReference<>();
+        service.getScoreTimestamp(ActionListener.wrap(cached::set, e -> fail()));
+        Assert.assertEquals(scoreTimestamp.get(), cached.get());
+        verify(client, times(1)).get(any(GetRequest.class), any(ActionListener.class));
+    }
+}
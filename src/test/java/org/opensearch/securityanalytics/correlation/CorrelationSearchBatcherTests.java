@@ -0,0 +1,158 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.junit.Assert;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationSearchBatcherTests extends OpenSearchTestCase {
+
+    private Client client;
+
+    private ThreadPool threadPool;
+
+    private final List<MultiSearchRequest> sentRequests = new ArrayList<>();
+
+    private final List<ActionListener<MultiSearchResponse>> sentListeners = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private CorrelationSearchBatcher correlationSearchBatcher(int maxSize, TimeValue maxLatency) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_SIZE.getKey(), maxSize)
+                .put(SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_LATENCY.getKey(), maxLatency)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_SIZE, SecurityAnalyticsSettings.CORRELATION_BATCH_MAX_LATENCY)));
+
+        threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        when(threadPool.executor(ThreadPool.Names.GENERIC)).thenReturn(OpenSearchExecutors.newDirectExecutorService());
+
+        client = mock(Client.class);
+        doAnswer(invocation -> {
+            sentRequests.add(invocation.getArgument(0));
+            sentListeners.add(invocation.getArgument(1));
+            return null;
+        }).when(client).multiSearch(any(MultiSearchRequest.class), any(ActionListener.class));
+
+        return new CorrelationSearchBatcher(client, clusterService, threadPool);
+    }
+
+    private MultiSearchRequest mSearchRequest(String... indices) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (String index: indices) {
+            mSearchRequest.add(new SearchRequest(index));
+        }
+        return mSearchRequest;
+    }
+
+    public void testBatchIsSentWhenFullAndSplitInOrder() {
+        CorrelationSearchBatcher batcher = correlationSearchBatcher(3, TimeValue.timeValueMinutes(1));
+
+        AtomicReference<MultiSearchResponse> first = new AtomicReference<>();
+        AtomicReference<SearchResponse> second = new AtomicReference<>();
+        batcher.multiSearch(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, mSearchRequest("a", "b"),
+                ActionListener.wrap(first::set, e -> fail()));
+        batcher.search(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, new SearchRequest("c"),
+                ActionListener.wrap(second::set, e -> fail()));
+
+        verify(threadPool, times(1)).schedule(any(Runnable.class), any(TimeValue.class), eq(ThreadPool.Names.GENERIC));
+        Assert.assertEquals(1, sentRequests.size());
+        Assert.assertEquals(3, sentRequests.get(0).requests().size());
+        Assert.assertEquals("c", sentRequests.get(0).requests().get(2).indices()[0]);
+
+        SearchResponse[] searchResponses = new SearchResponse[] { mock(SearchResponse.class), mock(SearchResponse.class), mock(SearchResponse.class) };
+        MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[3];
+        for (int i = 0; i < 3; ++i) {
+            items[i] = new MultiSearchResponse.Item(searchResponses[i], null);
+        }
+        sentListeners.get(0).onResponse(new MultiSearchResponse(items, 5L));
+
+        Assert.assertEquals(2, first.get().getResponses().length);
+        Assert.assertSame(searchResponses[0], first.get().getResponses()[0].getResponse());
+        Assert.assertSame(searchResponses[1], first.get().getResponses()[1].getResponse());
+        Assert.assertSame(searchResponses[2], second.get());
+
+        // every finding of the batch continues on its own generic thread
+        verify(threadPool, times(2)).executor(ThreadPool.Names.GENERIC);
+
+        CorrelationSearchBatcher.StageStats stats = batcher.getStats(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS);
+        Assert.assertEquals(2L, stats.getSubmitted());
+        Assert.assertEquals(2L, stats.getCompleted());
+        Assert.assertEquals(3L, stats.getSearches());
+        Assert.assertEquals(1L, stats.getBatches());
+        Assert.assertEquals(0L, batcher.getStats(CorrelationSearchBatcher.Stage.DETECTOR).getSubmitted());
+    }
+
+    public void testFailuresArePropagatedToAllFindings() {
+        CorrelationSearchBatcher batcher = correlationSearchBatcher(2, TimeValue.timeValueMinutes(1));
+
+        List<Exception> failures = new ArrayList<>();
+        batcher.search(CorrelationSearchBatcher.Stage.DETECTOR, new SearchRequest("a"), ActionListener.wrap(r -> fail(), failures::add));
+        batcher.search(CorrelationSearchBatcher.Stage.DETECTOR, new SearchRequest("b"), ActionListener.wrap(r -> fail(), failures::add));
+
+        sentListeners.get(0).onFailure(new IllegalStateException("boom"));
+        Assert.assertEquals(2, failures.size());
+        Assert.assertEquals(1L, batcher.getStats(CorrelationSearchBatcher.Stage.DETECTOR).getFailures());
+    }
+
+    public void testItemFailureFailsSingleSearch() {
+        CorrelationSearchBatcher batcher = correlationSearchBatcher(2, TimeValue.timeValueMinutes(1));
+
+        AtomicReference<SearchResponse> succeeded = new AtomicReference<>();
+        List<Exception> failures = new ArrayList<>();
+        batcher.search(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, new SearchRequest("a"), ActionListener.wrap(r -> fail(), failures::add));
+        batcher.search(CorrelationSearchBatcher.Stage.VALID_DOCUMENTS, new SearchRequest("b"), ActionListener.wrap(succeeded::set, failures::add));
+
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        sentListeners.get(0).onResponse(new MultiSearchResponse(new MultiSearchResponse.Item[] {
+                new MultiSearchResponse.Item(null, new IllegalStateException("boom")),
+                new MultiSearchResponse.Item(searchResponse, null)
+        }, 5L));
+
+        Assert.assertEquals(1, failures.size());
+        Assert.assertSame(searchResponse, succeeded.get());
+    }
+
+    public void testZeroLatencyDisablesBatching() {
+        CorrelationSearchBatcher batcher = correlationSearchBatcher(100, TimeValue.ZERO);
+
+        batcher.multiSearch(CorrelationSearchBatcher.Stage.FINDINGS_BY_TIMESTAMP, mSearchRequest("a"), ActionListener.wrap(r -> {}, e -> {}));
+        batcher.multiSearch(CorrelationSearchBatcher.Stage.FINDINGS_BY_TIMESTAMP, mSearchRequest("b"), ActionListener.wrap(r -> {}, e -> {}));
+
+        verify(threadPool, never()).schedule(any(Runnable.class), any(TimeValue.class), any(String.class));
+        Assert.assertEquals(2, sentRequests.size());
+    }
+}
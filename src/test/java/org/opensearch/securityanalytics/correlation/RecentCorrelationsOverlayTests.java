@@ -0,0 +1,56 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.junit.Assert;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecentCorrelationsOverlayTests extends OpenSearchTestCase {
+
+    private RecentCorrelationsOverlay recentCorrelationsOverlay() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        return new RecentCorrelationsOverlay(clusterService);
+    }
+
+    public void testFindingRecords() {
+        RecentCorrelationsOverlay overlay = recentCorrelationsOverlay();
+
+        Assert.assertNull(overlay.getFindingCounter("finding-1"));
+        overlay.onFindingRecord("finding-1", 50L, 1000L);
+        overlay.onFindingRecord("finding-2", 100L, 2000L);
+        Assert.assertEquals(Long.valueOf(50L), overlay.getFindingCounter("finding-1"));
+        Assert.assertEquals(Long.valueOf(100L), overlay.getFindingCounter("finding-2"));
+        Assert.assertEquals(2, overlay.count());
+    }
+
+    public void testCorrelationRecordsAreMatchedByCounterAndTimeRange() {
+        RecentCorrelationsOverlay overlay = recentCorrelationsOverlay();
+
+        overlay.onCorrelationRecord("finding-1", "finding-2", 75L, 1000L);
+        Assert.assertTrue(overlay.hasCorrelationRecord(75L, 500L, 1500L));
+        Assert.assertFalse(overlay.hasCorrelationRecord(25L, 500L, 1500L));
+        Assert.assertFalse(overlay.hasCorrelationRecord(75L, 1500L, 2500L));
+
+        overlay.onCorrelationRecord("finding-1", "finding-3", 75L, 2000L);
+        overlay.onCorrelationRecord("finding-4", "finding-5", 80L, 2000L);
+        Assert.assertTrue(overlay.hasCorrelationRecord(75L, 1500L, 2500L));
+        Assert.assertFalse(overlay.hasCorrelationRecord(80L, 500L, 1500L));
+        Assert.assertEquals(3, overlay.count());
+    }
+
+    public void testWriteRefreshPolicySetting() {
+        Assert.assertEquals(WriteRequest.RefreshPolicy.WAIT_UNTIL, SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY.get(Settings.EMPTY));
+        Assert.assertEquals(WriteRequest.RefreshPolicy.NONE, SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY.get(
+                Settings.builder().put(SecurityAnalyticsSettings.CORRELATION_WRITE_REFRESH_POLICY.getKey(), "false").build()));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.junit.Assert;
+import org.opensearch.OpenSearchParseException;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.ByteArrayInputStream;
+
+public class CorrelationVectorAsBytesSerializerTests extends OpenSearchTestCase {
+
+    private final CorrelationVectorAsBytesSerializer serializer = new CorrelationVectorAsBytesSerializer();
+
+    public void testRoundTrip() {
+        float[] vector = new float[] { 100.0f, 50.0f, 3600.5f };
+
+        byte[] bytes = serializer.floatToByteArray(vector);
+        Assert.assertEquals(CorrelationVectorAsBytesSerializer.encodedLength(vector.length), bytes.length);
+        Assert.assertEquals(CorrelationVectorAsBytesSerializer.CURRENT_VERSION, bytes[0]);
+        Assert.assertArrayEquals(vector, serializer.byteToFloatArray(new ByteArrayInputStream(bytes)), 0.0f);
+    }
+
+    public void testEncodingIsLittleEndian() {
+        byte[] bytes = serializer.floatToByteArray(new float[] { 1.0f });
+        // 1.0f is 0x3F800000
+        Assert.assertArrayEquals(new byte[] { CorrelationVectorAsBytesSerializer.VERSION_1, 0x00, 0x00, (byte) 0x80, 0x3F }, bytes);
+    }
+
+    public void testReusedBytesRef() {
+        BytesRef reuse = new BytesRef(new byte[64], 10, 0);
+
+        float[] first = new float[] { 1.0f, 2.0f, 3.0f, 4.0f };
+        BytesRef encoded = serializer.floatToBytesRef(first, reuse);
+        Assert.assertSame(reuse, encoded);
+        Assert.assertEquals(0, encoded.offset);
+        Assert.assertArrayEquals(first, serializer.bytesRefToFloatArray(encoded), 0.0f);
+
+        byte[] buffer = encoded.bytes;
+        float[] second = new float[] { 5.0f, 6.0f };
+        encoded = serializer.floatToBytesRef(second, reuse);
+        Assert.assertSame(buffer, encoded.bytes);
+        Assert.assertEquals(CorrelationVectorAsBytesSerializer.encodedLength(second.length), encoded.length);
+        Assert.assertArrayEquals(second, serializer.bytesRefToFloatArray(encoded), 0.0f);
+    }
+
+    public void testReusedVector() {
+        float[] reuse = new float[3];
+        float[] decoded = serializer.bytesRefToFloatArray(new BytesRef(serializer.floatToByteArray(new float[] { 1.0f, 2.0f, 3.0f })), reuse);
+        Assert.assertSame(reuse, decoded);
+        Assert.assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f }, decoded, 0.0f);
+
+        decoded = serializer.bytesRefToFloatArray(new BytesRef(serializer.floatToByteArray(new float[] { 4.0f, 5.0f })), reuse);
+        Assert.assertNotSame(reuse, decoded);
+        Assert.assertArrayEquals(new float[] { 4.0f, 5.0f }, decoded, 0.0f);
+    }
+
+    public void testDecodesLegacyEncoding() {
+        float[] vector = new float[] { 7.0f, -43.0f, 120.25f };
+        byte[] legacy = new CorrelationVectorAsArraySerializer().floatToByteArray(vector);
+
+        Assert.assertTrue(CorrelationVectorAsBytesSerializer.isLegacyEncoding(new BytesRef(legacy)));
+        Assert.assertTrue(legacy.length > CorrelationVectorAsBytesSerializer.encodedLength(vector.length));
+        Assert.assertArrayEquals(vector, serializer.byteToFloatArray(new ByteArrayInputStream(legacy)), 0.0f);
+    }
+
+    public void testUnknownVersionIsRejected() {
+        byte[] bytes = serializer.floatToByteArray(new float[] { 1.0f });
+        bytes[0] = 42;
+        expectThrows(OpenSearchParseException.class, () -> serializer.bytesRefToFloatArray(new BytesRef(bytes)));
+
+        expectThrows(OpenSearchParseException.class, () -> serializer.bytesRefToFloatArray(
+                new BytesRef(new byte[] { CorrelationVectorAsBytesSerializer.VERSION_1, 0x00, 0x00 })));
+    }
+}
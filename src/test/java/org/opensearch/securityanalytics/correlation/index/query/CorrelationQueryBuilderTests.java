@@ -0,0 +1,92 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.query;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.junit.Assert;
+import org.opensearch.Version;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.correlation.index.CorrelationParamsContext;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
+import org.opensearch.securityanalytics.correlation.index.codec.CorrelationCodecVersion;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.VersionUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class CorrelationQueryBuilderTests extends OpenSearchTestCase {
+
+    private static final float[] VECTOR = new float[] { 1.0f, 2.0f, 3.0f };
+
+    public void testEfSearchValidation() {
+        expectThrows(IllegalArgumentException.class, () -> new CorrelationQueryBuilder("corr_vector", VECTOR, 10, null, 5));
+        expectThrows(IllegalArgumentException.class, () -> new CorrelationQueryBuilder("corr_vector", VECTOR, 10, null, CorrelationQueryBuilder.K_MAX + 1));
+
+        Assert.assertNull(new CorrelationQueryBuilder("corr_vector", VECTOR, 10).getEfSearch());
+        Assert.assertEquals(Integer.valueOf(100), new CorrelationQueryBuilder("corr_vector", VECTOR, 10, null, 100).getEfSearch());
+    }
+
+    public void testEfSearchSerialization() throws IOException {
+        CorrelationQueryBuilder queryBuilder = new CorrelationQueryBuilder("corr_vector", VECTOR, 10, null, 100);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        queryBuilder.writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        CorrelationQueryBuilder deserialized = new CorrelationQueryBuilder(sin);
+
+        Assert.assertEquals(queryBuilder, deserialized);
+        Assert.assertEquals(Integer.valueOf(100), deserialized.getEfSearch());
+
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        queryBuilder.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        Assert.assertTrue(builder.toString().contains("\"ef_search\":100"));
+    }
+
+    public void testEfSearchIsNotSentToOlderNodes() throws IOException {
+        CorrelationQueryBuilder queryBuilder = new CorrelationQueryBuilder("corr_vector", VECTOR, 10, null, 100);
+        Version olderVersion = VersionUtils.getPreviousVersion(CorrelationQueryBuilder.EF_SEARCH_VERSION);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(olderVersion);
+        queryBuilder.writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        sin.setVersion(olderVersion);
+        CorrelationQueryBuilder deserialized = new CorrelationQueryBuilder(sin);
+
+        Assert.assertNull(deserialized.getEfSearch());
+        Assert.assertEquals(10, deserialized.getK());
+    }
+
+    public void testFormatIsNotSentToOlderNodes() throws IOException {
+        CorrelationParamsContext context = new CorrelationParamsContext(VectorSimilarityFunction.EUCLIDEAN, CorrelationVectorsFormatType.FLAT, Map.of());
+        Version olderVersion = VersionUtils.getPreviousVersion(Version.V_3_0_0);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(olderVersion);
+        context.writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        sin.setVersion(olderVersion);
+        CorrelationParamsContext deserialized = new CorrelationParamsContext(sin);
+
+        Assert.assertEquals(CorrelationVectorsFormatType.HNSW, deserialized.getFormat());
+        Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN, deserialized.getSimilarityFunction());
+
+        out = new BytesStreamOutput();
+        context.writeTo(out);
+        Assert.assertEquals(CorrelationVectorsFormatType.FLAT, new CorrelationParamsContext(out.bytes().streamInput()).getFormat());
+    }
+
+    public void testCodecFormats() {
+        var perFieldFormat = CorrelationCodecVersion.current().getPerFieldCorrelationVectorsFormat();
+        Assert.assertTrue(perFieldFormat.supportsFormat(CorrelationVectorsFormatType.HNSW));
+        Assert.assertTrue(perFieldFormat.supportsFormat(CorrelationVectorsFormatType.FLAT));
+        Assert.assertFalse(perFieldFormat.supportsFormat(CorrelationVectorsFormatType.SCALAR_QUANTIZED));
+    }
+}
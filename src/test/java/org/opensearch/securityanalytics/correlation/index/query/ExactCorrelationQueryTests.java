@@ -0,0 +1,124 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.query;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.junit.Assert;
+import org.opensearch.index.mapper.MapperParsingException;
+import org.opensearch.securityanalytics.correlation.index.CorrelationParamsContext;
+import org.opensearch.securityanalytics.correlation.index.CorrelationVectorsFormatType;
+import org.opensearch.securityanalytics.correlation.index.VectorField;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class ExactCorrelationQueryTests extends OpenSearchTestCase {
+
+    private static final String FIELD = "corr_vector";
+
+    private static final float[][] VECTORS = new float[][] {
+            { 1.0f, 1.0f, 1.0f }, { 2.0f, 2.0f, 2.0f }, { 3.0f, 3.0f, 3.0f }, { 4.0f, 4.0f, 4.0f }, { 5.0f, 5.0f, 5.0f }
+    };
+
+    private static FieldType docValuesFieldType() {
+        FieldType fieldType = new FieldType();
+        fieldType.setDocValuesType(DocValuesType.BINARY);
+        fieldType.freeze();
+        return fieldType;
+    }
+
+    private interface SearcherConsumer {
+        void accept(IndexSearcher searcher) throws IOException;
+    }
+
+    private void withSearcher(SearcherConsumer consumer) throws IOException {
+        try (Directory directory = newDirectory(); IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig())) {
+            FieldType fieldType = docValuesFieldType();
+            for (int i = 0; i < VECTORS.length; ++i) {
+                Document document = new Document();
+                document.add(new VectorField(FIELD, VECTORS[i], fieldType));
+                document.add(new StringField("parity", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                writer.addDocument(document);
+                if (i == 2) {
+                    writer.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                consumer.accept(new IndexSearcher(reader));
+            }
+        }
+    }
+
+    public void testTopKIsExact() throws IOException {
+        float[] query = new float[] { 3.9f, 3.9f, 3.9f };
+        withSearcher(searcher -> {
+            TopDocs topDocs = searcher.search(new ExactCorrelationQuery(FIELD, query, 2, null, VectorSimilarityFunction.EUCLIDEAN), 10);
+
+            Assert.assertEquals(2, topDocs.scoreDocs.length);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[3]), topDocs.scoreDocs[0].score, 0.0f);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[2]), topDocs.scoreDocs[1].score, 0.0f);
+        });
+    }
+
+    public void testFilterRestrictsCandidates() throws IOException {
+        float[] query = new float[] { 3.9f, 3.9f, 3.9f };
+        withSearcher(searcher -> {
+            ExactCorrelationQuery exactQuery = new ExactCorrelationQuery(FIELD, query, 2, new TermQuery(new Term("parity", "even")), VectorSimilarityFunction.EUCLIDEAN);
+            TopDocs topDocs = searcher.search(exactQuery, 10);
+
+            Assert.assertEquals(2, topDocs.scoreDocs.length);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[4]), topDocs.scoreDocs[0].score, 0.0f);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[2]), topDocs.scoreDocs[1].score, 0.0f);
+        });
+    }
+
+    public void testTopKOfLargerCandidateList() throws IOException {
+        float[] query = new float[] { 3.9f, 3.9f, 3.9f };
+        withSearcher(searcher -> {
+            TopKCorrelationQuery topKQuery = new TopKCorrelationQuery(
+                    new ExactCorrelationQuery(FIELD, query, VECTORS.length, null, VectorSimilarityFunction.EUCLIDEAN), 2);
+            TopDocs topDocs = searcher.search(topKQuery, 10);
+
+            Assert.assertEquals(2, topDocs.scoreDocs.length);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[3]), topDocs.scoreDocs[0].score, 0.0f);
+            Assert.assertEquals(VectorSimilarityFunction.EUCLIDEAN.compare(query, VECTORS[2]), topDocs.scoreDocs[1].score, 0.0f);
+        });
+    }
+
+    public void testScanStopsOnTimeout() throws IOException {
+        withSearcher(searcher -> {
+            searcher.setTimeout(() -> true);
+            TopDocs topDocs = searcher.search(
+                    new ExactCorrelationQuery(FIELD, new float[] { 1.0f, 1.0f, 1.0f }, 2, null, VectorSimilarityFunction.EUCLIDEAN), 10);
+
+            Assert.assertEquals(0, topDocs.scoreDocs.length);
+            Assert.assertTrue(searcher.timedOut());
+        });
+    }
+
+    public void testMissingFieldMatchesNothing() throws IOException {
+        withSearcher(searcher -> Assert.assertEquals(0, searcher.count(
+                new ExactCorrelationQuery("missing", new float[] { 1.0f, 1.0f, 1.0f }, 2, null, VectorSimilarityFunction.EUCLIDEAN))));
+    }
+
+    public void testFormatParsing() {
+        Assert.assertEquals(CorrelationVectorsFormatType.HNSW, CorrelationParamsContext.parse(Map.of()).getFormat());
+        Assert.assertEquals(CorrelationVectorsFormatType.FLAT, CorrelationParamsContext.parse(Map.of(CorrelationParamsContext.FORMAT, "flat")).getFormat());
+        expectThrows(MapperParsingException.class, () -> CorrelationParamsContext.parse(Map.of(CorrelationParamsContext.FORMAT, "auto")));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.logtype;
+
+import org.junit.Assert;
+import org.opensearch.securityanalytics.model.CustomLogType;
+import org.opensearch.securityanalytics.model.FieldMappingDoc;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LogTypeSnapshotTests extends OpenSearchTestCase {
+
+    private LogTypeSnapshot logTypeSnapshot() {
+        List<CustomLogType> logTypes = List.of(
+                new CustomLogType("1", 1L, "windows", "windows logs", "System Activity", "Sigma", Map.of("correlation_id", 1)),
+                new CustomLogType("2", 1L, "dns", "dns logs", "Network Activity", "Sigma", Map.of("correlation_id", 2)),
+                new CustomLogType("3", 1L, "custom", "custom logs", "Other", "Custom", null)
+        );
+        List<FieldMappingDoc> fieldMappingDocs = List.of(
+                new FieldMappingDoc("EventID", Map.of("ecs", "event_uid", "ocsf", "metadata.uid"), Set.of("windows")),
+                new FieldMappingDoc("query", Map.of("ecs", "dns.question.name"), Set.of("dns", "windows"))
+        );
+        return new LogTypeSnapshot(7L, logTypes, fieldMappingDocs, "ecs");
+    }
+
+    public void testLogTypeLookups() {
+        LogTypeSnapshot snapshot = logTypeSnapshot();
+
+        Assert.assertEquals(7L, snapshot.getGeneration());
+        Assert.assertEquals(Set.of("windows", "dns", "custom"), Set.copyOf(snapshot.getLogTypeNames()));
+        Assert.assertEquals(Set.of("windows", "dns"), Set.copyOf(snapshot.getLogTypeNamesBySource("sigma")));
+        Assert.assertTrue(snapshot.logTypeExists("custom"));
+        Assert.assertFalse(snapshot.logTypeExists("unknown"));
+        Assert.assertEquals("2", snapshot.getCorrelationId("dns"));
+        Assert.assertNull(snapshot.getCorrelationId("custom"));
+        Assert.assertNull(snapshot.getCorrelationId("unknown"));
+        expectThrows(UnsupportedOperationException.class, () -> snapshot.getLogTypes().remove("dns"));
+    }
+
+    public void testFieldMappingsUseDefaultSchema() {
+        LogTypeSnapshot snapshot = logTypeSnapshot();
+
+        Assert.assertEquals(Map.of("EventID", "event_uid", "query", "dns.question.name"), snapshot.getFieldMappings("windows"));
+        Assert.assertEquals(Map.of("query", "dns.question.name"), snapshot.getFieldMappings("dns"));
+        Assert.assertTrue(snapshot.getFieldMappings("custom").isEmpty());
+    }
+}
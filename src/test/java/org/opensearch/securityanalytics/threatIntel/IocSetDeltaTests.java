@@ -0,0 +1,117 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.threatIntel;
+
+import org.junit.Assert;
+import org.opensearch.commons.alerting.action.IndexMonitorRequest;
+import org.opensearch.commons.alerting.model.CronSchedule;
+import org.opensearch.commons.alerting.model.DataSources;
+import org.opensearch.commons.alerting.model.DocLevelMonitorInput;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Monitor;
+import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.model.Detector;
+import org.opensearch.securityanalytics.model.LogType;
+import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
+import org.opensearch.securityanalytics.transport.TransportIndexDetectorAction;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IocSetDeltaTests extends OpenSearchTestCase {
+
+    private static IocSet iocSet(String... ips) {
+        IocSet.Builder builder = new IocSet.Builder();
+        for (String ip: ips) {
+            builder.add(new ThreatIntelFeedData("ip", ip, "feodo", Instant.now()));
+        }
+        builder.add(new ThreatIntelFeedData("domain", "evil.com", "feodo", Instant.now()));
+        return builder.build();
+    }
+
+    public void testDeltaBetweenSnapshots() {
+        IocSet previous = iocSet("1.1.1.1", "2.2.2.2");
+        IocSet current = iocSet("2.2.2.2", "3.3.3.3");
+
+        IocSetDelta delta = IocSetDelta.between(previous, current);
+        Assert.assertTrue(delta.hasChanges());
+        Assert.assertEquals(Set.of("ip"), delta.getChangedIocTypes());
+        Assert.assertEquals(List.of("3.3.3.3"), delta.getAdded("ip"));
+        Assert.assertEquals(List.of("1.1.1.1"), delta.getRemoved("ip"));
+        Assert.assertEquals(previous.getVersion(), delta.getPreviousVersion());
+        Assert.assertEquals(current.getVersion(), delta.getVersion());
+        Assert.assertEquals(previous.getVersion("domain"), current.getVersion("domain"));
+    }
+
+    public void testUnchangedFeedHasNoDelta() {
+        IocSetDelta delta = IocSetDelta.between(iocSet("1.1.1.1", "2.2.2.2"), iocSet("2.2.2.2", "1.1.1.1"));
+        Assert.assertFalse(delta.hasChanges());
+        Assert.assertTrue(delta.getChangedIocTypes().isEmpty());
+    }
+
+    public void testWithoutPreviousSnapshotEverythingIsAdded() {
+        IocSetDelta delta = IocSetDelta.between(null, iocSet("1.1.1.1"));
+        Assert.assertNull(delta.getPreviousVersion());
+        Assert.assertEquals(Set.of("ip", "domain"), delta.getChangedIocTypes());
+        Assert.assertEquals(2, delta.getAddedCount());
+        Assert.assertEquals(0, delta.getRemovedCount());
+    }
+
+    public void testThreatIntelQueriesAreReplacedInPlace() {
+        LogTypeService logTypeService = mock(LogTypeService.class);
+        when(logTypeService.getIocFieldsList("network")).thenReturn(List.of(new LogType.IocFields("ip", List.of("src_ip"))));
+        Detector detector = mock(Detector.class);
+        when(detector.getDetectorType()).thenReturn("network");
+        DetectorThreatIntelService service = new DetectorThreatIntelService(null, logTypeService, null, null, null);
+
+        IocSet previous = iocSet("1.1.1.1");
+        DocLevelQuery ruleQuery = new DocLevelQuery("rule-id", "rule-id", List.of(), "src_ip:1.2.3.4", List.of("high", "network"));
+        List<DocLevelQuery> queries = new ArrayList<>();
+        queries.add(ruleQuery);
+        queries.addAll(service.createDocLevelQueriesFromIocSet(logTypeService.getIocFieldsList("network"), previous, detector));
+        Monitor monitor = monitor(queries);
+
+        Assert.assertNull(service.refreshThreatIntelQueries(monitor, detector, previous, 3L, 1L));
+
+        IndexMonitorRequest request = service.refreshThreatIntelQueries(monitor, detector, iocSet("1.1.1.1", "3.3.3.3"), 3L, 1L);
+        Assert.assertNotNull(request);
+        Assert.assertEquals("monitor-id", request.getMonitorId());
+        Assert.assertEquals(3L, request.getSeqNo());
+        Assert.assertEquals(1L, request.getPrimaryTerm());
+
+        List<DocLevelQuery> updatedQueries = ((DocLevelMonitorInput) request.getMonitor().getInputs().get(0)).getQueries();
+        Assert.assertEquals(2, updatedQueries.size());
+        Assert.assertEquals(ruleQuery, updatedQueries.get(0));
+        Assert.assertTrue(updatedQueries.get(1).getQuery().contains("3.3.3.3"));
+    }
+
+    private static Monitor monitor(List<DocLevelQuery> queries) {
+        return new Monitor(
+                "monitor-id",
+                1L,
+                "detector",
+                true,
+                new CronSchedule("31 * * * *", ZoneId.of("UTC"), Instant.ofEpochSecond(1538164858L)),
+                Instant.now(),
+                Instant.now(),
+                Monitor.MonitorType.DOC_LEVEL_MONITOR,
+                null,
+                1,
+                List.of(new DocLevelMonitorInput("detector", List.of("logs"), queries)),
+                List.of(),
+                Map.of(),
+                new DataSources(),
+                TransportIndexDetectorAction.PLUGIN_OWNER_FIELD
+        );
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.threatIntel;
+
+import org.junit.Assert;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.securityanalytics.model.LogType;
+import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class IocSetTests extends OpenSearchTestCase {
+
+    private static ThreatIntelFeedData ip(String value) {
+        return new ThreatIntelFeedData("ip", value, "feodo", Instant.now());
+    }
+
+    public void testIocsAreGroupedByType() {
+        IocSet iocSet = IocSet.fromThreatIntelFeedData(List.of(
+                ip("1.2.3.4"), ip(" 10.0.0.0/8 "), ip("10.1.2.3"), ip("1.2.3.4"), ip(""),
+                new ThreatIntelFeedData("domain", "evil.com", "feodo", Instant.now())
+        ));
+
+        Assert.assertEquals(Set.of("ip", "domain"), iocSet.getIocTypes());
+        // CIDR blocks are kept as read, addresses inside a block are not folded into it
+        Assert.assertEquals(List.of("1.2.3.4", "10.0.0.0/8", "10.1.2.3"), iocSet.getIocs("ip"));
+        Assert.assertEquals(List.of("evil.com"), iocSet.getIocs("domain"));
+        Assert.assertEquals(4, iocSet.size());
+        Assert.assertEquals("feodo", iocSet.getFeedId());
+    }
+
+    public void testVersionIsContentHash() {
+        IocSet iocSet = IocSet.fromThreatIntelFeedData(List.of(ip("1.2.3.4"), ip("5.6.7.8")));
+        Assert.assertEquals(iocSet.getVersion(), IocSet.fromThreatIntelFeedData(List.of(ip("5.6.7.8"), ip("1.2.3.4"))).getVersion());
+        Assert.assertNotEquals(iocSet.getVersion(), IocSet.fromThreatIntelFeedData(List.of(ip("1.2.3.4"))).getVersion());
+    }
+
+    public void testDocLevelQueriesAreChunkedPerIocType() {
+        List<ThreatIntelFeedData> tifdList = new ArrayList<>();
+        for (int i = 0; i < DetectorThreatIntelService.MAX_IOCS_PER_QUERY + 10; ++i) {
+            tifdList.add(ip("192.168." + (i / 256) + "." + (i % 256)));
+        }
+        tifdList.add(new ThreatIntelFeedData("domain", "evil.com", "feodo", Instant.now()));
+
+        DetectorThreatIntelService service = new DetectorThreatIntelService(null, null, null, null, null);
+        List<DocLevelQuery> queries = service.createDocLevelQueriesFromThreatIntelList(
+                List.of(new LogType.IocFields("ip", List.of("src_ip", "dst_ip"))), tifdList, null);
+
+        // two chunks for each of the two fields, domains are not supported by the log type
+        Assert.assertEquals(4, queries.size());
+        for (DocLevelQuery query: queries) {
+            Assert.assertFalse(query.getQuery().contains("evil.com"));
+            Assert.assertTrue(query.getTags().contains("ioc_type:ip"));
+            Assert.assertTrue(query.getTags().stream().anyMatch(tag -> tag.startsWith("feed_version:")));
+        }
+        Assert.assertTrue(queries.get(0).getQuery().startsWith("src_ip:(\"192.168.0.0\" OR "));
+
+        // query ids only depend on the ioc type, field & chunk, so they survive feed updates
+        Assert.assertEquals(List.of("threat_intel_ip_src_ip_0", "threat_intel_ip_src_ip_1", "threat_intel_ip_dst_ip_0", "threat_intel_ip_dst_ip_1"),
+                queries.stream().map(DocLevelQuery::getId).collect(Collectors.toList()));
+        Assert.assertEquals(queries.stream().map(DocLevelQuery::getId).collect(Collectors.toList()),
+                service.createDocLevelQueriesFromThreatIntelList(List.of(new LogType.IocFields("ip", List.of("src_ip", "dst_ip"))),
+                        tifdList.subList(1, tifdList.size()), null).stream().map(DocLevelQuery::getId).collect(Collectors.toList()));
+    }
+
+    public void testIocsAreQuoted() {
+        Assert.assertEquals("src_ip:(\"::1\" OR \"10.0.0.0/8\")",
+                DetectorThreatIntelService.buildQueryStringQueryWithIocList("src_ip", List.of("::1", "10.0.0.0/8")));
+    }
+}
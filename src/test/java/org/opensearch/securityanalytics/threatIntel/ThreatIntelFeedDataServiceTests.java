@@ -0,0 +1,343 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.threatIntel;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.lucene.search.TotalHits;
+import org.junit.Assert;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.Version;
+import org.opensearch.action.admin.indices.mapping.put.PutMappingRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshResponse;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.CreatePitResponse;
+import org.opensearch.action.search.DeletePitRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.action.support.master.AcknowledgedResponse;
+import org.opensearch.client.AdminClient;
+import org.opensearch.client.Client;
+import org.opensearch.client.IndicesAdminClient;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.search.DocValueFormat;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.threatIntel.action.PutTIFJobAction;
+import org.opensearch.securityanalytics.threatIntel.action.PutTIFJobRequest;
+import org.opensearch.securityanalytics.threatIntel.action.ThreatIntelIndicesResponse;
+import org.opensearch.securityanalytics.threatIntel.common.TIFMetadata;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.threadpool.ThreadPoolStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ThreatIntelFeedDataServiceTests extends OpenSearchTestCase {
+
+    private static final String FEED_INDEX = ".opensearch-sap-threat-intel-feodo-1";
+
+    private static final int NUMBER_OF_IOCS = 2500;
+
+    private Client client;
+
+    private final List<SearchRequest> searchRequests = new ArrayList<>();
+
+    private static final int BATCH_SIZE = 100;
+
+    private final List<BulkRequest> bulkRequests = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger bulksInFlight = new AtomicInteger();
+
+    private final AtomicInteger maxBulksInFlight = new AtomicInteger();
+
+    private final AtomicReference<ClusterState> clusterState = new AtomicReference<>(feedClusterState());
+
+    private static ClusterState feedClusterState() {
+        return feedClusterState(true);
+    }
+
+    private static ClusterState feedClusterState(boolean complete) {
+        IndexMetadata indexMetadata;
+        try {
+            indexMetadata = IndexMetadata.builder(FEED_INDEX)
+                    .settings(settings(Version.CURRENT))
+                    .numberOfShards(1)
+                    .numberOfReplicas(0)
+                    .creationDate(1L)
+                    .putMapping("{\"_meta\":{\"schema_version\":1,\"" + ThreatIntelFeedDataService.FEED_COMPLETE_META_FIELD + "\":" + complete + "}}")
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ClusterState.builder(new ClusterName("test")).metadata(Metadata.builder().put(indexMetadata, false)).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ThreatIntelFeedDataService threatIntelFeedDataService() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.state()).thenAnswer(invocation -> clusterState.get());
+        Settings settings = Settings.builder().put(SecurityAnalyticsSettings.BATCH_SIZE.getKey(), BATCH_SIZE).build();
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, new HashSet<>(SecurityAnalyticsSettings.settings())));
+
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        AdminClient adminClient = mock(AdminClient.class);
+        IndicesAdminClient indicesAdminClient = mock(IndicesAdminClient.class);
+        client = mock(Client.class);
+        when(client.threadPool()).thenReturn(threadPool);
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.indices()).thenReturn(indicesAdminClient);
+        doAnswer(invocation -> {
+            ((ActionListener<RefreshResponse>) invocation.getArgument(1)).onResponse(null);
+            return null;
+        }).when(indicesAdminClient).refresh(any(RefreshRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            ((ActionListener<AcknowledgedResponse>) invocation.getArgument(1)).onResponse(new AcknowledgedResponse(true));
+            return null;
+        }).when(indicesAdminClient).putMapping(any(PutMappingRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            bulkRequests.add(invocation.getArgument(0));
+            maxBulksInFlight.accumulateAndGet(bulksInFlight.incrementAndGet(), Math::max);
+            // complete the bulk request asynchronously, like a remote shard would
+            Thread bulkThread = new Thread(() -> {
+                bulksInFlight.decrementAndGet();
+                ((ActionListener<BulkResponse>) invocation.getArgument(1)).onResponse(new BulkResponse(new BulkItemResponse[0], 1L));
+            });
+            bulkThread.start();
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            CreatePitResponse createPitResponse = mock(CreatePitResponse.class);
+            when(createPitResponse.getId()).thenReturn("pit-id");
+            ((ActionListener<CreatePitResponse>) invocation.getArgument(1)).onResponse(createPitResponse);
+            return null;
+        }).when(client).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            SearchRequest searchRequest = invocation.getArgument(0);
+            searchRequests.add(searchRequest);
+            Object[] searchAfter = searchRequest.source().searchAfter();
+            int from = searchAfter == null ? 0 : ((Number) searchAfter[0]).intValue() + 1;
+            int to = Math.min(from + searchRequest.source().size(), NUMBER_OF_IOCS);
+
+            SearchHit[] hits = new SearchHit[to - from];
+            for (int i = from; i < to; ++i) {
+                hits[i - from] = feedHit(i);
+            }
+            SearchResponse searchResponse = mock(SearchResponse.class);
+            when(searchResponse.getHits()).thenReturn(new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), 1.0f));
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+
+        return new ThreatIntelFeedDataService(clusterService, client, new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY)), xContentRegistry());
+    }
+
+    private static SearchHit feedHit(int doc) throws IOException {
+        ThreatIntelFeedData tifd = new ThreatIntelFeedData("ip", "10.0." + (doc / 256) + "." + (doc % 256), "feodo", Instant.now());
+        SearchHit hit = new SearchHit(doc, String.valueOf(doc), Map.of(), Map.of());
+        hit.sourceRef(BytesReference.bytes(tifd.toXContent(XContentFactory.jsonBuilder(), ToXContent.EMPTY_PARAMS)));
+        hit.sortValues(new Object[] { doc }, new DocValueFormat[] { DocValueFormat.RAW });
+        return hit;
+    }
+
+    private IocSet getIocSet(ThreatIntelFeedDataService service) {
+        AtomicReference<IocSet> iocSet = new AtomicReference<>();
+        service.getIocSet(ActionListener.wrap(iocSet::set, e -> fail(e.getMessage())));
+        return iocSet.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFeedIsReadPageByPageFromPointInTime() {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+
+        IocSet iocSet = getIocSet(service);
+        Assert.assertEquals(NUMBER_OF_IOCS, iocSet.size());
+        Assert.assertTrue(iocSet.getIocs("ip").contains("10.0.9.195"));
+
+        Assert.assertEquals(3, searchRequests.size());
+        for (SearchRequest searchRequest: searchRequests) {
+            Assert.assertEquals("pit-id", searchRequest.source().pointInTimeBuilder().getId());
+            Assert.assertEquals(0, searchRequest.indices().length);
+        }
+        verify(client, times(1)).deletePits(any(DeletePitRequest.class), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testIocSetIsCachedUntilInvalidated() {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+
+        IocSet iocSet = getIocSet(service);
+        Assert.assertSame(iocSet, getIocSet(service));
+        verify(client, times(1)).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+
+        service.invalidateIocSet();
+        Assert.assertEquals(iocSet.getVersion(), getIocSet(service).getVersion());
+        verify(client, times(2)).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFeedIsIngestedInBoundedBulksWithOneRefresh() throws Exception {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+        TIFMetadata tifMetadata = new TIFMetadata("feodo", "https://localhost/feed.csv", "Feodo", "abuse.ch", "desc", "csv", "ip", 0, true);
+
+        StringBuilder feed = new StringBuilder("# local stand-in feed\n\n# another comment\nip,first_seen\n");
+        for (int i = 0; i < 1050; ++i) {
+            feed.append("10.1.").append(i / 256).append('.').append(i % 256).append(",2023-01-01\n");
+        }
+        feed.append("not-an-ip,2023-01-01\n");
+
+        PlainActionFuture<ThreatIntelIndicesResponse> future = new PlainActionFuture<>();
+        Runnable renewLock = mock(Runnable.class);
+        try (CSVParser parser = CSVParser.parse(feed.toString(), CSVFormat.RFC4180)) {
+            service.parseAndSaveThreatIntelFeedDataCSV(FEED_INDEX, parser.iterator(), renewLock, tifMetadata, future);
+        }
+        ThreatIntelIndicesResponse response = future.actionGet(TimeValue.timeValueSeconds(10));
+
+        Assert.assertTrue(response.isAcknowledged());
+        Assert.assertEquals(List.of(FEED_INDEX), response.getIndices());
+        Assert.assertEquals(11, bulkRequests.size());
+        Assert.assertEquals(1050, bulkRequests.stream().mapToInt(BulkRequest::numberOfActions).sum());
+        for (BulkRequest bulkRequest: bulkRequests) {
+            Assert.assertEquals(WriteRequest.RefreshPolicy.NONE, bulkRequest.getRefreshPolicy());
+        }
+        Assert.assertTrue(maxBulksInFlight.get() <= SecurityAnalyticsSettings.TIF_MAX_CONCURRENT_BULKS.get(Settings.EMPTY));
+        verify(client.admin().indices(), times(1)).refresh(any(RefreshRequest.class), any(ActionListener.class));
+        ArgumentCaptor<PutMappingRequest> putMappingRequest = ArgumentCaptor.forClass(PutMappingRequest.class);
+        verify(client.admin().indices(), times(1)).putMapping(putMappingRequest.capture(), any(ActionListener.class));
+        Assert.assertTrue(putMappingRequest.getValue().source().contains("\"" + ThreatIntelFeedDataService.FEED_COMPLETE_META_FIELD + "\":true"));
+        Assert.assertTrue(putMappingRequest.getValue().source().contains("\"schema_version\":1"));
+        verify(renewLock, times(11)).run();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFeedIsOnlyServedOnceComplete() {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+        clusterState.set(feedClusterState(false));
+
+        // the feed is being ingested, possibly by another node
+        IocSet iocSet = getIocSet(service);
+        Assert.assertTrue(iocSet.isEmpty());
+        verify(client, times(0)).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+        verify(client, times(0)).execute(eq(PutTIFJobAction.INSTANCE), any(PutTIFJobRequest.class), any(ActionListener.class));
+
+        clusterState.set(feedClusterState(true));
+        iocSet = getIocSet(service);
+        Assert.assertEquals(NUMBER_OF_IOCS, iocSet.size());
+        Assert.assertSame(iocSet, getIocSet(service));
+        verify(client, times(1)).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+    }
+
+    public void testCommentRecordsAreSkipped() throws IOException {
+        try (CSVParser parser = CSVParser.parse("# comment\n\n 1.1.1.1\n,\n1.1.1.1\n", CSVFormat.RFC4180)) {
+            List<CSVRecord> records = parser.getRecords();
+            Assert.assertTrue(ThreatIntelFeedParser.isCommentOrEmpty(records.get(0)));
+            Assert.assertTrue(ThreatIntelFeedParser.isCommentOrEmpty(records.get(1)));
+            Assert.assertTrue(ThreatIntelFeedParser.isCommentOrEmpty(records.get(2)));
+            Assert.assertFalse(ThreatIntelFeedParser.isCommentOrEmpty(records.get(3)));
+            Assert.assertFalse(ThreatIntelFeedParser.isCommentOrEmpty(records.get(4)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testConcurrentCallersShareOneFeedBootstrap() throws Exception {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+        clusterState.set(ClusterState.builder(new ClusterName("test")).build());
+        List<ActionListener<AcknowledgedResponse>> putJobListeners = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            putJobListeners.add(invocation.getArgument(2));
+            return null;
+        }).when(client).execute(eq(PutTIFJobAction.INSTANCE), any(PutTIFJobRequest.class), any(ActionListener.class));
+
+        int callers = 32;
+        TestThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            CountDownLatch returned = new CountDownLatch(callers);
+            List<IocSet> iocSets = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < callers; ++i) {
+                threadPool.generic().execute(() -> {
+                    service.getIocSet(ActionListener.wrap(iocSets::add, e -> fail(e.getMessage())));
+                    returned.countDown();
+                });
+            }
+
+            // no caller waits for the feed to be downloaded
+            Assert.assertTrue(returned.await(10, TimeUnit.SECONDS));
+            assertBusy(() -> {
+                for (ThreadPoolStats.Stats stats: threadPool.stats()) {
+                    if (ThreadPool.Names.GENERIC.equals(stats.getName())) {
+                        Assert.assertEquals(0, stats.getActive());
+                    }
+                }
+            });
+            Assert.assertEquals(1, putJobListeners.size());
+            Assert.assertTrue(iocSets.isEmpty());
+
+            clusterState.set(feedClusterState());
+            putJobListeners.get(0).onResponse(new AcknowledgedResponse(true));
+            Assert.assertEquals(callers, iocSets.size());
+            Assert.assertEquals(1, iocSets.stream().distinct().count());
+            verify(client, times(1)).createPit(any(CreatePitRequest.class), any(ActionListener.class));
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFailedFeedBootstrapNotifiesCallers() {
+        ThreatIntelFeedDataService service = threatIntelFeedDataService();
+        clusterState.set(ClusterState.builder(new ClusterName("test")).build());
+        doAnswer(invocation -> {
+            ((ActionListener<AcknowledgedResponse>) invocation.getArgument(2)).onFailure(new IllegalStateException("job index unavailable"));
+            return null;
+        }).when(client).execute(eq(PutTIFJobAction.INSTANCE), any(PutTIFJobRequest.class), any(ActionListener.class));
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        service.getIocSet(ActionListener.wrap(iocSet -> fail(), failure::set));
+        Assert.assertTrue(failure.get() instanceof IllegalStateException);
+    }
+}
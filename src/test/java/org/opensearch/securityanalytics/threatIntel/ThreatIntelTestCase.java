@@ -27,6 +27,7 @@ import org.opensearch.ingest.IngestService;
 import org.opensearch.jobscheduler.spi.LockModel;
 import org.opensearch.jobscheduler.spi.schedule.IntervalSchedule;
 import org.opensearch.jobscheduler.spi.utils.LockService;
+import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.threatIntel.common.TIFJobState;
 import org.opensearch.securityanalytics.threatIntel.common.TIFLockService;
@@ -66,6 +67,8 @@ public abstract class ThreatIntelTestCase extends RestActionTestCase {
     @Mock
     protected ThreatIntelFeedDataService threatIntelFeedDataService;
     @Mock
+    protected LogTypeService logTypeService;
+    @Mock
     protected ClusterState clusterState;
     @Mock
     protected Metadata metadata;
@@ -111,7 +114,7 @@ public abstract class ThreatIntelTestCase extends RestActionTestCase {
         when(clusterState.routingTable()).thenReturn(routingTable);
         when(ingestService.getClusterService()).thenReturn(clusterService);
         when(threadPool.generic()).thenReturn(OpenSearchExecutors.newDirectExecutorService());
-        detectorThreatIntelService = new DetectorThreatIntelService(threatIntelFeedDataService, client, xContentRegistry());
+        detectorThreatIntelService = new DetectorThreatIntelService(threatIntelFeedDataService, logTypeService, client, xContentRegistry(), writableRegistry());
     }
 
     @After
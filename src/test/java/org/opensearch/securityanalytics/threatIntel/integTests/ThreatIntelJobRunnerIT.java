@@ -89,7 +89,9 @@ public class ThreatIntelJobRunnerIT extends SecurityAnalyticsRestTestCase {
                 "}";
         SearchResponse response = executeSearchAndGetResponse(DetectorMonitorConfig.getRuleIndex(randomDetectorType()), request, true);
 
-        assertEquals(2, response.getHits().getTotalHits().value);
+        assertEquals(1, response.getHits().getTotalHits().value);
+        response = executeSearchAndGetResponse(DetectorMonitorConfig.getThreatIntelRuleIndex(randomDetectorType()), request, true);
+        assertEquals(1, response.getHits().getTotalHits().value);
 
         assertEquals("Create detector failed", RestStatus.CREATED, restStatus(createResponse));
         Map<String, Object> responseBody = asMap(createResponse);
@@ -108,13 +110,13 @@ public class ThreatIntelJobRunnerIT extends SecurityAnalyticsRestTestCase {
         String detectoraLstUpdateTime1 = detectorMap.get("last_update_time").toString();
 
         List<String> monitorIds = ((List<String>) (detectorMap).get("monitor_id"));
-        assertEquals(1, monitorIds.size());
+        assertEquals(2, monitorIds.size());
 
         assertNotNull("Workflow not created", detectorMap.get("workflow_ids"));
         assertEquals("Number of workflows not correct", 1, ((List<String>) detectorMap.get("workflow_ids")).size());
 
         // Verify workflow
-        verifyWorkflow(detectorMap, monitorIds, 1);
+        verifyWorkflow(detectorMap, monitorIds, 2);
         List<String> iocs = getThreatIntelFeedIocs(3);
         assertEquals(iocs.size(), 3);
 
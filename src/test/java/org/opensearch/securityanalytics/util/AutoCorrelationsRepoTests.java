@@ -0,0 +1,34 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.junit.Assert;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+public class AutoCorrelationsRepoTests extends OpenSearchTestCase {
+
+    public void testAutoCorrelationsAreCached() throws IOException {
+        AutoCorrelationsRepo.AutoCorrelations autoCorrelations = AutoCorrelationsRepo.getAutoCorrelations();
+        Assert.assertSame(autoCorrelations, AutoCorrelationsRepo.getAutoCorrelations());
+        Assert.assertEquals(AutoCorrelationsRepo.autoCorrelationsAsMap().size(), autoCorrelations.getIntrusionSetsCount());
+    }
+
+    public void testValidIntrusionSetsMatchFullScan() throws IOException {
+        Map<String, Set<String>> autoCorrelationsMap = AutoCorrelationsRepo.autoCorrelationsAsMap();
+        AutoCorrelationsRepo.AutoCorrelations autoCorrelations = AutoCorrelationsRepo.getAutoCorrelations();
+
+        Set<String> tags = Set.of("attack.t1021.005", "attack.t1560", "attack.t1071.001", "attack.unknown");
+        Assert.assertEquals(
+                AutoCorrelationsRepo.validIntrusionSets(autoCorrelationsMap, tags),
+                AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, tags)
+        );
+        Assert.assertTrue(autoCorrelations.intrusionSetsForTag("attack.unknown").isEmpty());
+        Assert.assertTrue(autoCorrelations.intrusionSetsForTag("attack.t1021.005").contains("intrusion-set--0ea72cd5-ca30-46ba-bc04-378f701c658f"));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.junit.Assert;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.rules.aggregation.AggregationItem;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.opensearch.securityanalytics.TestHelpers.randomAggregationRule;
+
+public class CompiledRuleCacheTests extends OpenSearchTestCase {
+
+    private static final Map<String, String> FIELD_MAPPINGS = Map.of("Opcode", "windows-event_data-opcode");
+
+    private CompiledRuleCache compiledRuleCache() {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        return new CompiledRuleCache(clusterService);
+    }
+
+    private Rule rule(String id, long version, String yaml) throws Exception {
+        CompiledRuleCache.CompiledRule compiled = CompiledRuleCache.compile(yaml, FIELD_MAPPINGS);
+        return new Rule(id, version, compiled.getSigmaRule(), "windows", compiled.getQueries(), compiled.getQueryFieldNames(), yaml);
+    }
+
+    public void testRuleIsParsedOncePerVersion() throws Exception {
+        CompiledRuleCache cache = compiledRuleCache();
+        Rule rule = rule("rule-1", 1L, randomAggregationRule("count", "> 1"));
+
+        CompiledRuleCache.ParsedRule parsed = cache.get(rule);
+        AggregationItem aggItem = parsed.getAggregationItems().get(0);
+        Assert.assertEquals("count", aggItem.getAggFunction());
+        Assert.assertEquals("5m", aggItem.getTimeframe());
+        Assert.assertFalse(parsed instanceof CompiledRuleCache.CompiledRule);
+        Assert.assertSame(parsed, cache.get(rule));
+        Assert.assertEquals(1L, cache.getHits());
+
+        // new rule version
+        Rule updated = rule("rule-1", 2L, randomAggregationRule("sum", "> 1"));
+        Assert.assertEquals("sum", cache.get(updated).getAggregationItems().get(0).getAggFunction());
+        Assert.assertEquals(2, cache.count());
+    }
+
+    public void testChangedYamlWithSameVersionIsReparsed() throws Exception {
+        CompiledRuleCache cache = compiledRuleCache();
+
+        cache.get(rule("rule-1", 1L, randomAggregationRule("count", "> 1")));
+        CompiledRuleCache.ParsedRule recreated = cache.get(rule("rule-1", 1L, randomAggregationRule("max", "> 1")));
+        Assert.assertEquals("max", recreated.getAggregationItems().get(0).getAggFunction());
+    }
+
+    public void testRuleCompiledBeforeIndexingIsReused() throws Exception {
+        CompiledRuleCache cache = compiledRuleCache();
+        String yaml = randomAggregationRule("count", "> 1");
+
+        CompiledRuleCache.CompiledRule compiled = CompiledRuleCache.compile(yaml, FIELD_MAPPINGS);
+        cache.put("rule-1", 3L, compiled);
+        Assert.assertSame(compiled, cache.get(rule("rule-1", 3L, yaml)));
+    }
+
+    public void testFieldMappingsVersion() {
+        String version = CompiledRuleCache.fieldMappingsVersion(FIELD_MAPPINGS);
+        Assert.assertEquals(version, CompiledRuleCache.fieldMappingsVersion(Map.of("Opcode", "windows-event_data-opcode")));
+        Assert.assertNotEquals(version, CompiledRuleCache.fieldMappingsVersion(Map.of("Opcode", "opcode")));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.junit.Assert;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.model.Detector;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.opensearch.securityanalytics.TestHelpers.randomDetector;
+
+public class DetectorCacheTests extends OpenSearchTestCase {
+
+    private DetectorCache detectorCache() {
+        return detectorCache(Settings.EMPTY);
+    }
+
+    private DetectorCache detectorCache(Settings settings) {
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        return new DetectorCache(clusterService);
+    }
+
+    private Detector detector(String id, List<String> monitorIds) {
+        Detector detector = randomDetector(List.of());
+        detector.setId(id);
+        detector.setMonitorIds(monitorIds);
+        return detector;
+    }
+
+    public void testGetAndInvalidate() {
+        DetectorCache detectorCache = detectorCache();
+        Detector detector = detector("detector-1", List.of("monitor-1", "monitor-2"));
+
+        Assert.assertNull(detectorCache.get("monitor-1"));
+        detectorCache.put(detectorCache.generation(), detector);
+        Assert.assertSame(detector, detectorCache.get("monitor-1"));
+        Assert.assertSame(detector, detectorCache.get("monitor-2"));
+        Assert.assertEquals(2L, detectorCache.getHits());
+        Assert.assertEquals(1L, detectorCache.getMisses());
+        Assert.assertEquals(2L, detectorCache.getStats().getCount());
+
+        detectorCache.invalidateDetector("detector-1");
+        Assert.assertEquals(0, detectorCache.count());
+        // invalidating does not count as cache hits
+        Assert.assertEquals(2L, detectorCache.getHits());
+        Assert.assertNull(detectorCache.get("monitor-1"));
+        Assert.assertNull(detectorCache.get("monitor-2"));
+    }
+
+    public void testStaleLoadIsNotCached() {
+        DetectorCache detectorCache = detectorCache();
+        Detector detector = detector("detector-1", List.of("monitor-1"));
+
+        long generation = detectorCache.generation();
+        detectorCache.invalidateDetector("detector-1");
+        detectorCache.put(generation, detector);
+        Assert.assertNull(detectorCache.get("monitor-1"));
+
+        detectorCache.put(detectorCache.generation(), detector);
+        Assert.assertSame(detector, detectorCache.get("monitor-1"));
+        detectorCache.invalidateAll();
+        Assert.assertNull(detectorCache.get("monitor-1"));
+    }
+
+    public void testEvictedEntriesAreDroppedFromDetectorMonitorIds() {
+        DetectorCache detectorCache = detectorCache(Settings.builder()
+                .put(SecurityAnalyticsSettings.DETECTOR_CACHE_MAX_SIZE.getKey(), 1L)
+                .build());
+        Detector detector = detector("detector-1", List.of("monitor-1", "monitor-2"));
+
+        detectorCache.put(detectorCache.generation(), detector);
+        Assert.assertEquals(1, detectorCache.count());
+        Assert.assertEquals(1L, detectorCache.getEvictions());
+        Assert.assertEquals(Set.of("monitor-2"), detectorCache.getMonitorIds("detector-1"));
+
+        detectorCache.put(detectorCache.generation(), detector("detector-2", List.of("monitor-3")));
+        Assert.assertNull(detectorCache.getMonitorIds("detector-1"));
+        Assert.assertEquals(Set.of("monitor-3"), detectorCache.getMonitorIds("detector-2"));
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.lucene.search.TotalHits;
+import org.junit.After;
+import org.junit.Assert;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshResponse;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.client.AdminClient;
+import org.opensearch.client.Client;
+import org.opensearch.client.IndicesAdminClient;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.logtype.BuiltinLogTypeLoader;
+import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.model.LogType;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RuleIndicesTests extends OpenSearchTestCase {
+
+    // in the order rules are imported, rules of later log types replace rules with the same id
+    private static final List<String> LOG_TYPES = List.of("others_cloud", "cloudtrail", "network", "s3");
+
+    private final TestThreadPool threadPool = new TestThreadPool(getClass().getName());
+
+    private Client client;
+
+    private IndicesAdminClient indicesAdminClient;
+
+    private final Map<String, String> indexedRules = new HashMap<>();
+
+    private final List<BulkRequest> bulkRequests = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger bulksInFlight = new AtomicInteger();
+
+    private final AtomicInteger maxBulksInFlight = new AtomicInteger();
+
+    @After
+    public void shutdownThreadPool() {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RuleIndices ruleIndices() {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.RULE_IMPORT_BULK_SIZE.getKey(), 50)
+                .put(SecurityAnalyticsSettings.RULE_IMPORT_MAX_CONCURRENT_BULKS.getKey(), 2)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.INDEX_TIMEOUT, SecurityAnalyticsSettings.RULE_IMPORT_BULK_SIZE,
+                SecurityAnalyticsSettings.RULE_IMPORT_MAX_CONCURRENT_BULKS)));
+
+        BuiltinLogTypeLoader builtinLogTypeLoader = new BuiltinLogTypeLoader();
+        LogTypeService logTypeService = mock(LogTypeService.class);
+        when(logTypeService.getRuleFieldMappingsForBuiltinLogType(anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            if (!builtinLogTypeLoader.logTypeExists(name)) {
+                return null;
+            }
+            List<LogType.Mapping> mappings = builtinLogTypeLoader.getLogTypeByName(name).getMappings();
+            return mappings == null ? Map.of() : mappings.stream().collect(Collectors.toMap(LogType.Mapping::getRawField, LogType.Mapping::getEcs));
+        });
+        doAnswer(invocation -> {
+            ((ActionListener<Void>) invocation.getArgument(0)).onResponse(null);
+            return null;
+        }).when(logTypeService).ensureConfigIndexIsInitialized(any(ActionListener.class));
+
+        client = mock(Client.class);
+        doAnswer(invocation -> {
+            SearchRequest searchRequest = invocation.getArgument(0);
+            SearchHit[] hits;
+            if (Rule.PRE_PACKAGED_RULES_INDEX.equals(searchRequest.indices()[0])) {
+                hits = indexedRules.entrySet().stream().map(indexedRule -> {
+                    SearchHit hit = new SearchHit(1, indexedRule.getKey(), Map.of(), Map.of());
+                    hit.sourceRef(new BytesArray("{\"rule\":{\"content_hash\":\"" + indexedRule.getValue() + "\"}}"));
+                    return hit;
+                }).toArray(SearchHit[]::new);
+            } else {
+                hits = LOG_TYPES.stream().map(name -> {
+                    SearchHit hit = new SearchHit(1, name, Map.of(), Map.of());
+                    hit.sourceRef(new BytesArray("{\"name\":\"" + name + "\",\"source\":\"Sigma\"}"));
+                    return hit;
+                }).toArray(SearchHit[]::new);
+            }
+            SearchResponse searchResponse = mock(SearchResponse.class);
+            when(searchResponse.getHits()).thenReturn(new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), 1.0f));
+            ((ActionListener<SearchResponse>) invocation.getArgument(1)).onResponse(searchResponse);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any(ActionListener.class));
+        doAnswer(invocation -> {
+            BulkRequest bulkRequest = invocation.getArgument(0);
+            bulkRequests.add(bulkRequest);
+            maxBulksInFlight.accumulateAndGet(bulksInFlight.incrementAndGet(), Math::max);
+            threadPool.generic().execute(() -> {
+                BulkItemResponse[] items = new BulkItemResponse[bulkRequest.numberOfActions()];
+                for (int i = 0; i < items.length; ++i) {
+                    String id = bulkRequest.requests().get(i).id();
+                    items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX,
+                            new IndexResponse(new ShardId("index", "uuid", 0), id, 1L, 1L, 1L, true));
+                }
+                bulksInFlight.decrementAndGet();
+                ((ActionListener<BulkResponse>) invocation.getArgument(1)).onResponse(new BulkResponse(items, 1L));
+            });
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any(ActionListener.class));
+
+        AdminClient adminClient = mock(AdminClient.class);
+        indicesAdminClient = mock(IndicesAdminClient.class);
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.indices()).thenReturn(indicesAdminClient);
+        doAnswer(invocation -> {
+            ((ActionListener<RefreshResponse>) invocation.getArgument(1)).onResponse(mock(RefreshResponse.class));
+            return null;
+        }).when(indicesAdminClient).refresh(any(RefreshRequest.class), any(ActionListener.class));
+
+        return new RuleIndices(logTypeService, client, clusterService, threadPool);
+    }
+
+    public void testRulesArePrecompiledOnce() {
+        RuleIndices ruleIndices = ruleIndices();
+
+        PlainActionFuture<RuleIndices.PrecompiledRules> first = new PlainActionFuture<>();
+        ruleIndices.precompileRules(first);
+        RuleIndices.PrecompiledRules rules = first.actionGet(TimeValue.timeValueMinutes(1));
+        Assert.assertTrue(rules.size() > 0);
+        Assert.assertTrue(rules.getCategories().containsAll(LOG_TYPES));
+        Assert.assertFalse(rules.getCategories().contains("rule_categories.json"));
+
+        PlainActionFuture<RuleIndices.PrecompiledRules> second = new PlainActionFuture<>();
+        ruleIndices.precompileRules(second);
+        Assert.assertSame(rules, second.actionGet(TimeValue.timeValueMinutes(1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRulesAreImportedInBoundedBulksWithOneRefresh() {
+        RuleIndices ruleIndices = ruleIndices();
+
+        PlainActionFuture<BulkResponse> future = new PlainActionFuture<>();
+        ruleIndices.importRules(WriteRequest.RefreshPolicy.IMMEDIATE, TimeValue.timeValueMinutes(1), future);
+        BulkResponse response = future.actionGet(TimeValue.timeValueMinutes(1));
+        Assert.assertFalse(response.hasFailures());
+
+        Set<String> ids = new HashSet<>();
+        int indexed = 0;
+        for (BulkRequest bulkRequest: bulkRequests) {
+            Assert.assertTrue(bulkRequest.numberOfActions() <= 50);
+            Assert.assertEquals(WriteRequest.RefreshPolicy.NONE, bulkRequest.getRefreshPolicy());
+            for (DocWriteRequest<?> request: bulkRequest.requests()) {
+                Assert.assertEquals(DocWriteRequest.OpType.INDEX, request.opType());
+                ids.add(request.id());
+                ++indexed;
+            }
+        }
+        // rules shared by several log types are indexed once, bulks run concurrently
+        Assert.assertEquals(ids.size(), indexed);
+        Assert.assertEquals(indexed, response.getItems().length);
+        Assert.assertTrue(bulkRequests.size() > 2);
+        Assert.assertTrue(maxBulksInFlight.get() <= 2);
+        verify(indicesAdminClient, times(1)).refresh(any(RefreshRequest.class), any(ActionListener.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testOnlyChangedRulesAreSynced() {
+        RuleIndices ruleIndices = ruleIndices();
+        PlainActionFuture<RuleIndices.PrecompiledRules> precompiled = new PlainActionFuture<>();
+        ruleIndices.precompileRules(precompiled);
+        List<RuleIndices.CompiledRule> rules = precompiled.actionGet(TimeValue.timeValueMinutes(1)).getRules("network");
+        Assert.assertTrue(rules.size() > 2);
+
+        for (RuleIndices.CompiledRule rule: rules) {
+            indexedRules.put(rule.getRule().getId(), rule.getContentHash());
+        }
+        String changedRule = rules.get(0).getRule().getId();
+        String newRule = rules.get(1).getRule().getId();
+        indexedRules.put(changedRule, "outdated-hash");
+        indexedRules.remove(newRule);
+        indexedRules.put("removed-rule", "hash");
+
+        PlainActionFuture<BulkResponse> future = new PlainActionFuture<>();
+        ruleIndices.importRules(WriteRequest.RefreshPolicy.IMMEDIATE, TimeValue.timeValueMinutes(1), future);
+        Assert.assertFalse(future.actionGet(TimeValue.timeValueMinutes(1)).hasFailures());
+
+        Map<String, DocWriteRequest.OpType> written = new HashMap<>();
+        for (BulkRequest bulkRequest: bulkRequests) {
+            for (DocWriteRequest<?> request: bulkRequest.requests()) {
+                written.put(request.id(), request.opType());
+            }
+        }
+        Assert.assertEquals(DocWriteRequest.OpType.INDEX, written.get(changedRule));
+        Assert.assertEquals(DocWriteRequest.OpType.INDEX, written.get(newRule));
+        Assert.assertEquals(DocWriteRequest.OpType.DELETE, written.get("removed-rule"));
+        // rules of the other log types are not indexed yet
+        Assert.assertTrue(written.values().stream().filter(opType -> opType == DocWriteRequest.OpType.INDEX).count() > 2);
+        verify(indicesAdminClient, times(1)).refresh(any(RefreshRequest.class), any(ActionListener.class));
+
+        // nothing changed since the last sync
+        bulkRequests.clear();
+        for (RuleIndices.CompiledRule rule: rulesOfLogTypes(ruleIndices)) {
+            indexedRules.put(rule.getRule().getId(), rule.getContentHash());
+        }
+        indexedRules.remove("removed-rule");
+        PlainActionFuture<BulkResponse> unchanged = new PlainActionFuture<>();
+        ruleIndices.importRules(WriteRequest.RefreshPolicy.IMMEDIATE, TimeValue.timeValueMinutes(1), unchanged);
+        Assert.assertEquals(0, unchanged.actionGet(TimeValue.timeValueMinutes(1)).getItems().length);
+        Assert.assertTrue(bulkRequests.isEmpty());
+        verify(indicesAdminClient, times(1)).refresh(any(RefreshRequest.class), any(ActionListener.class));
+    }
+
+    private List<RuleIndices.CompiledRule> rulesOfLogTypes(RuleIndices ruleIndices) {
+        PlainActionFuture<RuleIndices.PrecompiledRules> precompiled = new PlainActionFuture<>();
+        ruleIndices.precompileRules(precompiled);
+        RuleIndices.PrecompiledRules rules = precompiled.actionGet(TimeValue.timeValueMinutes(1));
+        List<RuleIndices.CompiledRule> rulesOfLogTypes = new ArrayList<>();
+        for (String logType: LOG_TYPES) {
+            rulesOfLogTypes.addAll(rules.getRules(logType));
+        }
+        return rulesOfLogTypes;
+    }
+}
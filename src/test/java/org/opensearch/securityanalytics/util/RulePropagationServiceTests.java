@@ -0,0 +1,238 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.commons.ConfigConstants;
+import org.opensearch.commons.alerting.action.IndexMonitorRequest;
+import org.opensearch.commons.alerting.model.CronSchedule;
+import org.opensearch.commons.alerting.model.DataSources;
+import org.opensearch.commons.alerting.model.DocLevelMonitorInput;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Monitor;
+import org.opensearch.commons.authuser.User;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.securityanalytics.action.IndexDetectorAction;
+import org.opensearch.securityanalytics.action.IndexDetectorRequest;
+import org.opensearch.securityanalytics.action.IndexDetectorResponse;
+import org.opensearch.securityanalytics.model.Detector;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.model.RulePropagationJob;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.transport.TransportIndexDetectorAction;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.opensearch.securityanalytics.TestHelpers.randomAggregationRule;
+
+public class RulePropagationServiceTests extends OpenSearchTestCase {
+
+    private static final int MAX_CONCURRENT_UPDATES = 2;
+
+    private TestThreadPool threadPool;
+    private Client client;
+
+    private final AtomicInteger updatesInFlight = new AtomicInteger();
+    private final AtomicInteger maxUpdatesInFlight = new AtomicInteger();
+    private final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+    private final Set<String> failAlways = ConcurrentHashMap.newKeySet();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUpClient() {
+        threadPool = new TestThreadPool(getTestName());
+        client = mock(Client.class);
+        when(client.threadPool()).thenReturn(threadPool);
+        doAnswer(invocation -> {
+            IndexDetectorRequest request = invocation.getArgument(1);
+            ActionListener<IndexDetectorResponse> listener = invocation.getArgument(2);
+            maxUpdatesInFlight.accumulateAndGet(updatesInFlight.incrementAndGet(), Math::max);
+            threadPool.generic().execute(() -> {
+                updatesInFlight.decrementAndGet();
+                if (failAlways.contains(request.getDetectorId())) {
+                    listener.onFailure(new OpenSearchStatusException("invalid detector", RestStatus.BAD_REQUEST));
+                } else if (failOnce.remove(request.getDetectorId())) {
+                    listener.onFailure(new OpenSearchStatusException("version conflict", RestStatus.CONFLICT));
+                } else {
+                    listener.onResponse(new IndexDetectorResponse(request.getDetectorId(), 2L, RestStatus.OK, request.getDetector()));
+                }
+            });
+            return null;
+        }).when(client).execute(eq(IndexDetectorAction.INSTANCE), any(IndexDetectorRequest.class), any(ActionListener.class));
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    private RulePropagationService rulePropagationService() {
+        return rulePropagationService(false);
+    }
+
+    private RulePropagationService rulePropagationService(boolean filterByBackendRoles) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_CONCURRENT_UPDATES.getKey(), MAX_CONCURRENT_UPDATES)
+                .put(SecurityAnalyticsSettings.FILTER_BY_BACKEND_ROLES.getKey(), filterByBackendRoles)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, new HashSet<>(List.of(
+                SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_CONCURRENT_UPDATES, SecurityAnalyticsSettings.RULE_PROPAGATION_MAX_RETRIES,
+                SecurityAnalyticsSettings.FILTER_BY_BACKEND_ROLES))));
+        return new RulePropagationService(client, clusterService, null, null, mock(DetectorCache.class));
+    }
+
+    private static Rule aggregationRule(String id) throws Exception {
+        String yaml = randomAggregationRule("count", "> 1");
+        CompiledRuleCache.CompiledRule compiled = CompiledRuleCache.compile(yaml, Map.of("Opcode", "windows-event_data-opcode"));
+        return new Rule(id, 2L, compiled.getSigmaRule(), "windows", compiled.getQueries(), compiled.getQueryFieldNames(), yaml);
+    }
+
+    private static List<Detector> detectors(int count) {
+        List<Detector> detectors = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            Detector detector = mock(Detector.class);
+            when(detector.getId()).thenReturn("detector-" + i);
+            detectors.add(detector);
+        }
+        return detectors;
+    }
+
+    public void testRuleIsPropagatedWithBoundedConcurrencyAndRetries() throws Exception {
+        RulePropagationService service = rulePropagationService();
+        failOnce.add("detector-3");
+
+        PlainActionFuture<RulePropagationJob> future = new PlainActionFuture<>();
+        RulePropagationJob job = service.propagateRuleUpdate(aggregationRule("rule-1"), detectors(7), WriteRequest.RefreshPolicy.NONE, future);
+        Assert.assertSame(job, future.get(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(RulePropagationJob.State.COMPLETED, job.getState());
+        Assert.assertEquals(7, job.getTotal());
+        Assert.assertEquals(7, job.getCompleted());
+        Assert.assertEquals(7, job.getFullUpdates());
+        Assert.assertEquals(0, job.getPatched());
+        Assert.assertEquals(1, job.getRetries());
+        Assert.assertNotNull(job.getEndTime());
+        Assert.assertTrue(maxUpdatesInFlight.get() <= MAX_CONCURRENT_UPDATES);
+        Assert.assertEquals(List.of(job), service.getJobs("rule-1"));
+        Assert.assertTrue(service.getJobs("rule-2").isEmpty());
+    }
+
+    public void testFailedDetectorFailsPropagation() throws Exception {
+        RulePropagationService service = rulePropagationService();
+        failAlways.add("detector-1");
+
+        PlainActionFuture<RulePropagationJob> future = new PlainActionFuture<>();
+        RulePropagationJob job = service.propagateRuleUpdate(aggregationRule("rule-1"), detectors(3), WriteRequest.RefreshPolicy.NONE, future);
+        ExecutionException e = expectThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause().getMessage().contains(job.getJobId()));
+
+        Assert.assertEquals(RulePropagationJob.State.FAILED, job.getState());
+        Assert.assertEquals(3, job.getCompleted());
+        Assert.assertEquals(1, job.getFailed());
+        Assert.assertEquals(0, job.getRetries());
+        Assert.assertEquals(Set.of("detector-1"), job.getFailures().keySet());
+    }
+
+    public void testPropagationWithoutDetectorsCompletes() throws Exception {
+        PlainActionFuture<RulePropagationJob> future = new PlainActionFuture<>();
+        rulePropagationService().propagateRuleDeletion("rule-1", List.of(), WriteRequest.RefreshPolicy.NONE, future);
+        Assert.assertEquals(RulePropagationJob.State.COMPLETED, future.get(10, TimeUnit.SECONDS).getState());
+    }
+
+    public void testDetectorIsOnlyPatchedWithAccessToIt() throws Exception {
+        RulePropagationService service = rulePropagationService(true);
+        Detector detector = mock(Detector.class);
+        when(detector.getId()).thenReturn("detector-0");
+        when(detector.getDocLevelMonitorId()).thenReturn("monitor-id");
+        when(detector.getUser()).thenReturn(new User("owner", List.of("team-a"), List.of(), List.of()));
+
+        PlainActionFuture<RulePropagationJob> future = new PlainActionFuture<>();
+        RulePropagationJob job;
+        try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+            threadPool.getThreadContext().putTransient(ConfigConstants.OPENSEARCH_SECURITY_USER_INFO_THREAD_CONTEXT, "requester|team-b|own_index");
+            job = service.propagateRuleDeletion("rule-1", List.of(detector), WriteRequest.RefreshPolicy.NONE, future);
+        }
+        expectThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(Set.of("detector-0"), job.getFailures().keySet());
+        Assert.assertEquals(0, job.getRetries());
+        verify(client, never()).search(any(), any());
+        verify(client, never()).get(any(), any());
+    }
+
+    public void testOnlyTheRuleQueryIsPatched() {
+        DocLevelQuery ruleQuery = new DocLevelQuery("rule-1", "rule-1", List.of(), "EventID:1", List.of("high", "windows"));
+        DocLevelQuery otherQuery = new DocLevelQuery("rule-2", "rule-2", List.of(), "EventID:2", List.of("low", "windows"));
+        Monitor monitor = monitor(List.of(ruleQuery, otherQuery));
+
+        DocLevelQuery updatedQuery = new DocLevelQuery("rule-1", "rule-1", List.of(), "EventID:3", List.of("high", "windows"));
+        Assert.assertEquals(List.of(updatedQuery, otherQuery), RulePropagationService.replaceRuleQuery(monitor, "rule-1", updatedQuery));
+        Assert.assertNull(RulePropagationService.replaceRuleQuery(monitor, "rule-3", updatedQuery));
+
+        Assert.assertEquals(List.of(otherQuery), RulePropagationService.removeRuleQuery(monitor, "rule-1"));
+        Assert.assertNull(RulePropagationService.removeRuleQuery(monitor, "rule-3"));
+        Assert.assertNull(RulePropagationService.removeRuleQuery(monitor(List.of(ruleQuery)), "rule-1"));
+
+        IndexMonitorRequest request = RulePropagationService.patchMonitorRequest(monitor, List.of(otherQuery), 5L, 1L, WriteRequest.RefreshPolicy.IMMEDIATE);
+        Assert.assertEquals("monitor-id", request.getMonitorId());
+        Assert.assertEquals(5L, request.getSeqNo());
+        Assert.assertEquals(1L, request.getPrimaryTerm());
+        Assert.assertEquals(monitor.getTriggers(), request.getMonitor().getTriggers());
+        Assert.assertEquals(List.of(otherQuery), ((DocLevelMonitorInput) request.getMonitor().getInputs().get(0)).getQueries());
+    }
+
+    private static Monitor monitor(List<DocLevelQuery> queries) {
+        return new Monitor(
+                "monitor-id",
+                1L,
+                "detector",
+                true,
+                new CronSchedule("31 * * * *", ZoneId.of("UTC"), Instant.ofEpochSecond(1538164858L)),
+                Instant.now(),
+                Instant.now(),
+                Monitor.MonitorType.DOC_LEVEL_MONITOR,
+                null,
+                1,
+                List.of(new DocLevelMonitorInput("detector", List.of("logs"), queries)),
+                List.of(),
+                Map.of(),
+                new DataSources(),
+                TransportIndexDetectorAction.PLUGIN_OWNER_FIELD
+        );
+    }
+}